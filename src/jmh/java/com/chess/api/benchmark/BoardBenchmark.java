@@ -0,0 +1,56 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.model.Game;
+import com.github.bhlangonijr.chesslib.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Доска из FEN и обратно: так строится {@code Game.getChessBoard} при каждой загрузке партии.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+  @Param({
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+      "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ - 0 9",
+      "8/5k2/8/3K4/8/8/6P1/8 w - - 0 60"})
+  private String fen;
+
+  private Board board;
+
+  @Setup
+  public void setUp() {
+    board = new Board();
+    board.loadFromFen(fen);
+  }
+
+  @Benchmark
+  public Board gameChessBoard() {
+    Game game = new Game();
+    game.setCurrentFen(fen);
+    return game.getChessBoard();
+  }
+
+  @Benchmark
+  public Board parseFen() {
+    Board parsed = new Board();
+    parsed.loadFromFen(fen);
+    return parsed;
+  }
+
+  @Benchmark
+  public String serializeFen() {
+    return board.getFen();
+  }
+}
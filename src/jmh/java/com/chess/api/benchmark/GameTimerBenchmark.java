@@ -0,0 +1,44 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.dto.TimeSyncFrame;
+import com.chess.api.service.impl.GameTimerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймер партии: проверка флажка раз в секунду, передача хода и кадр TIME_SYNC.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameTimerBenchmark {
+
+  private GameTimerImpl timer;
+
+  @Setup
+  public void setUp() {
+    timer = new GameTimerImpl(1L, Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2, 0, (gameId, side) -> { });
+  }
+
+  @Benchmark
+  public void tick() {
+    timer.run();
+  }
+
+  @Benchmark
+  public long switchTurn() {
+    return timer.switchTurn(100);
+  }
+
+  @Benchmark
+  public TimeSyncFrame snapshot() {
+    return timer.snapshot();
+  }
+}
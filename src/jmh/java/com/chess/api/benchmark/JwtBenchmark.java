@@ -0,0 +1,50 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.security.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор токена - на каждом HTTP-запросе и каждом STOMP CONNECT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+  private JwtUtils jwtUtils;
+  private String token;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    jwtUtils = new JwtUtils();
+    set("secret", "benchmark-secret-key-for-jwt-at-least-256-bits-long");
+    set("expiration", 86_400_000L);
+    token = jwtUtils.generateToken("benchmark_user");
+  }
+
+  @Benchmark
+  public Boolean validateToken() {
+    return jwtUtils.validateToken(token);
+  }
+
+  @Benchmark
+  public String extractUsername() {
+    return jwtUtils.extractUsername(token);
+  }
+
+  // Поля заполняет Spring через @Value
+  private void set(String name, Object value) throws ReflectiveOperationException {
+    Field field = JwtUtils.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(jwtUtils, value);
+  }
+}
@@ -0,0 +1,121 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.engine.tablebase.Tablebase;
+import com.chess.api.exception.IllegalMoveException;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.GameService;
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.impl.ChessGameServiceImpl;
+import com.chess.api.service.live.GameRehydrator;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.live.LiveGameRegistry;
+import com.chess.api.service.metrics.GameMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ход целиком без базы: проверка очереди и легальности, доска в памяти, часы,
+ * контрольная позиция, проверка окончания партии и событие.
+ * <p>
+ * GameService - заглушка Mockito без записи вызовов, так что время сохранения
+ * в базу сюда не входит.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MakeMoveBenchmark {
+
+  private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+  // Кони выходят и возвращаются: позиция повторяется только дважды, партия не кончается
+  private static final String[][] MOVES = {{"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}};
+
+  private ChessGameServiceImpl service;
+  private LiveGameRegistry liveGames;
+  private Game game;
+  private Player white;
+  private Player black;
+  private MoveRequest[] requests;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    liveGames = new LiveGameRegistry(new GameRehydrator(null, 16));
+    service = new ChessGameServiceImpl(
+        Mockito.mock(GameService.class, Mockito.withSettings().stubOnly()),
+        liveGames,
+        new LatencyTracker(0.2, 500),
+        new GameMetrics(new SimpleMeterRegistry(), false),
+        event -> { },
+        Tablebase.NONE,
+        new GameOwnership(null, event -> { }, false, "bench", 1),
+        false,
+        16,
+        3);
+
+    white = player(1L, "white");
+    black = player(2L, "black");
+    game = new Game();
+    game.setId(1L);
+    game.setWhitePlayer(white);
+    game.setBlackPlayer(black);
+    game.setStatus(GameStatus.ACTIVE);
+    // Часы не должны кончиться за время прогона
+    game.setWhiteTimeLeft(Integer.MAX_VALUE / 2);
+    game.setBlackTimeLeft(Integer.MAX_VALUE / 2);
+
+    requests = new MoveRequest[MOVES.length];
+    for (int i = 0; i < MOVES.length; i++) {
+      MoveRequest request = new MoveRequest();
+      request.setFrom(MOVES[i][0]);
+      request.setTo(MOVES[i][1]);
+      requests[i] = request;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    service.stopGameTimer(game.getId());
+  }
+
+  /**
+   * Четыре полухода с начальной позиции.
+   */
+  @Benchmark
+  public void fourPlies(Blackhole blackhole) throws IllegalMoveException {
+    game.setCurrentFen(START);
+    game.setSnapshots(null);
+    liveGames.evict(game.getId());
+    for (int i = 0; i < requests.length; i++) {
+      List<Move> moves = service.makeMoveWithPremove(game, i % 2 == 0 ? white : black, requests[i]);
+      blackhole.consume(moves);
+    }
+  }
+
+  @Benchmark
+  public List<String> legalMoves() {
+    return service.getLegalMoves(game, "g1");
+  }
+
+  private static Player player(Long id, String username) {
+    Player player = new Player();
+    player.setId(id);
+    player.setUsername(username);
+    return player;
+  }
+}
@@ -0,0 +1,147 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.dto.PositionSearchPage;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.chess.api.model.PositionPostingChunk;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.PositionPostingChunkRepository;
+import com.chess.api.service.impl.PositionSearchServiceImpl;
+import com.chess.api.service.positions.PositionIndexWriter;
+import com.chess.api.service.positions.PostingList;
+import com.github.bhlangonijr.chesslib.Board;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Поиск по позиции в архиве из 10 млн партий: страница из 20 партий с начала списка
+ * и из его середины.
+ * <p>
+ * Списки вхождений строятся в памяти тем же кодированием, что и в базе, репозитории -
+ * заглушки, поэтому замеряется выбор кусков и их раскодирование без сети. Позиции
+ * различаются частотой: после 1.e4 - каждая вторая партия, после 1.e4 c5 2.Nf3 d6 -
+ * каждая сотая, редкая - каждая стотысячная. Размер списков печатается при подготовке.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PositionSearchBenchmark {
+
+  private static final long GAMES = 10_000_000L;
+  private static final int PAGE_SIZE = 20;
+
+  private static final String HOT = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1";
+  private static final String MEDIUM = "rnbqkbnr/pp2pppp/3p4/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 0 3";
+  private static final String RARE = "rnbqkbnr/pppppppp/8/8/8/7N/PPPPPPPP/RNBQKB1R b KQkq - 1 1";
+
+  @Param({"hot", "medium", "rare"})
+  private String position;
+
+  @Param({"first", "middle"})
+  private String page;
+
+  private PositionSearchServiceImpl service;
+  private String fen;
+  private Long before;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Map<Long, List<PositionPostingChunk>> index = new HashMap<>();
+    index.put(key(HOT), build("1.e4", 2, 1));
+    index.put(key(MEDIUM), build("1.e4 c5 2.Nf3 d6", 100, 4));
+    index.put(key(RARE), build("1.Nh3", 100_000, 1));
+
+    PositionPostingChunkRepository chunks = Mockito.mock(PositionPostingChunkRepository.class,
+        Mockito.withSettings().stubOnly());
+    Mockito.when(chunks.streamNewestFirst(anyLong(), anyLong())).thenAnswer(invocation -> {
+      long upper = invocation.getArgument(1);
+      return index.getOrDefault((Long) invocation.getArgument(0), List.of()).stream()
+          .filter(chunk -> chunk.getFirstGameId() < upper);
+    });
+    GameRepository games = Mockito.mock(GameRepository.class, Mockito.withSettings().stubOnly());
+    Mockito.when(games.findWithPlayersByIdIn(anyCollection())).thenAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      List<Game> found = new ArrayList<>(ids.size());
+      for (Long id : ids) {
+        Game game = new Game();
+        game.setId(id);
+        found.add(game);
+      }
+      return found;
+    });
+    PositionIndexWriter writer = Mockito.mock(PositionIndexWriter.class, Mockito.withSettings().stubOnly());
+    Mockito.when(writer.buffered(anyLong())).thenReturn(new long[0]);
+
+    service = new PositionSearchServiceImpl(writer, chunks, games);
+    fen = switch (position) {
+      case "hot" -> HOT;
+      case "medium" -> MEDIUM;
+      default -> RARE;
+    };
+    before = "middle".equals(page) ? GAMES / 2 : null;
+  }
+
+  @Benchmark
+  public PositionSearchPage search() {
+    return service.search(fen, before, PAGE_SIZE);
+  }
+
+  private static long key(String fen) {
+    Board board = new Board();
+    board.loadFromFen(fen);
+    return MoveNotation.positionKey(board);
+  }
+
+  /**
+   * Куски позиции, которая встречается в каждой {@code every}-й партии на полуходе {@code ply},
+   * от новых к старым, как их отдает репозиторий.
+   */
+  private static List<PositionPostingChunk> build(String name, int every, int ply) {
+    // Партии не идут строго через every: id перемешаны с другими дебютами
+    Random random = new Random(every);
+    long[] postings = new long[(int) (GAMES / every)];
+    long gameId = 0;
+    for (int i = 0; i < postings.length; i++) {
+      gameId += 1 + random.nextInt(2 * every - 1);
+      postings[i] = PostingList.pack(gameId, ply);
+    }
+
+    List<PositionPostingChunk> chunks = new ArrayList<>();
+    long bytes = 0;
+    for (int start = 0; start < postings.length; start += PositionPostingChunk.MAX_POSTINGS) {
+      int end = Math.min(postings.length, start + PositionPostingChunk.MAX_POSTINGS);
+      PositionPostingChunk chunk = new PositionPostingChunk();
+      chunk.setFirstGameId(PostingList.gameId(postings[start]));
+      chunk.setLastGameId(PostingList.gameId(postings[end - 1]));
+      chunk.setLastPly(ply);
+      chunk.setPostingCount(end - start);
+      chunk.setData(PostingList.encode(postings, start, end));
+      chunks.add(chunk);
+      bytes += chunk.getData().length;
+    }
+    chunks.sort(Comparator.comparing(PositionPostingChunk::getLastGameId).reversed());
+    System.out.printf("%s: вхождений %d, кусков %d, %.2f байт на вхождение%n",
+        name, postings.length, chunks.size(), (double) bytes / Math.max(1, postings.length));
+    return chunks;
+  }
+}
@@ -0,0 +1,100 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.dto.GameDTO;
+import com.chess.api.dto.GameStateUpdate;
+import com.chess.api.dto.MoveDTO;
+import com.chess.api.dto.PlayerDTO;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.model.enums.GameType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON ответов REST ({@link GameDTO}) и сообщений WebSocket ({@link GameStateUpdate}).
+ * <p>
+ * MOVE_MADE собирается как в {@code GameBroadcaster}, но ход не привязан к партии:
+ * ссылка хода на партию замкнула бы сериализацию в цикл.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+  @Param({"0", "40", "120"})
+  private int moves;
+
+  // Настройки как у ObjectMapper Spring Boot
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .findAndRegisterModules()
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  private GameDTO gameDto;
+  private GameStateUpdate moveMade;
+
+  @Setup
+  public void setUp() {
+    LocalDateTime now = LocalDateTime.now();
+    List<MoveDTO> moveDtos = new ArrayList<>(moves);
+    for (int i = 1; i <= moves; i++) {
+      moveDtos.add(new MoveDTO((long) i, i, "g1", "f3", null, "Nf3", 180_000 - i * 700, 180_000 - i * 600, now));
+    }
+    gameDto = new GameDTO(1L, new PlayerDTO(1L, "white", 1500), new PlayerDTO(2L, "black", 1480),
+        GameType.BLITZ, GameStatus.ACTIVE, "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ - 0 9",
+        null, 180, 2, 150_000, 140_000, now, now, null, moveDtos, null);
+
+    Game game = new Game();
+    game.setId(1L);
+    game.setWhitePlayer(player(1L, "white"));
+    game.setBlackPlayer(player(2L, "black"));
+    game.setGameType(GameType.BLITZ);
+    game.setStatus(GameStatus.ACTIVE);
+    game.setCurrentFen(gameDto.getCurrentFen());
+    Move move = new Move();
+    move.setMoveNumber(moves + 1);
+    move.setFromSquare("g1");
+    move.setToSquare("f3");
+    move.setSan("Nf3");
+
+    moveMade = new GameStateUpdate();
+    moveMade.setType("MOVE_MADE");
+    moveMade.setGame(game);
+    moveMade.setMove(move);
+    moveMade.setTimestamp(now);
+    moveMade.setWhiteLatencyMs(40);
+    moveMade.setBlackLatencyMs(120);
+  }
+
+  @Benchmark
+  public byte[] gameDto() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(gameDto);
+  }
+
+  @Benchmark
+  public byte[] gameStateUpdate() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(moveMade);
+  }
+
+  private static Player player(Long id, String username) {
+    Player player = new Player();
+    player.setId(id);
+    player.setUsername(username);
+    return player;
+  }
+}
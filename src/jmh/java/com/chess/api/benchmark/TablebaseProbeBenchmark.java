@@ -0,0 +1,72 @@
+package com.chess.api.benchmark;
+
+import com.chess.api.engine.tablebase.SyzygyTablebase;
+import com.chess.api.engine.tablebase.Wdl;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.move.Move;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка пробы таблиц Syzygy: результат, расстояние до обнуления и выбор хода.
+ * <p>
+ * Каталог с таблицами - {@code CHESS_TABLEBASE_PATH}, как у приложения. Первая проба
+ * материала отображает файл в память и идет на прогреве; замеряются пробы по открытым файлам.
+ * Позиция с ходом черных читает таблицу зеркально.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TablebaseProbeBenchmark {
+
+  @Param({
+      "8/8/3k4/8/8/8/8/Q3K3 w - - 0 1",
+      "8/8/3k4/8/8/8/8/R3K3 w - - 0 1",
+      "8/8/8/3k4/8/8/8/R3K3 b - - 0 1"})
+  private String fen;
+
+  private SyzygyTablebase tablebase;
+  private Board board;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    String path = System.getenv("CHESS_TABLEBASE_PATH");
+    if (path == null || path.isBlank()) {
+      throw new IllegalStateException("Задайте CHESS_TABLEBASE_PATH - каталог с таблицами KQvK и KRvK");
+    }
+    tablebase = new SyzygyTablebase(Path.of(path), 64);
+    board = new Board();
+    board.loadFromFen(fen);
+    if (tablebase.probeDtz(board).isEmpty()) {
+      throw new IllegalStateException("В " + path + " нет таблиц для " + fen);
+    }
+  }
+
+  @Benchmark
+  public Optional<Wdl> probeWdl() {
+    return tablebase.probeWdl(board);
+  }
+
+  @Benchmark
+  public OptionalInt probeDtz() {
+    return tablebase.probeDtz(board);
+  }
+
+  @Benchmark
+  public Optional<Move> bestMove() {
+    return tablebase.bestMove(board);
+  }
+}
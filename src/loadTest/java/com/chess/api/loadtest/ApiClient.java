@@ -0,0 +1,60 @@
+package com.chess.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * REST-часть сценария: регистрация, создание партии и вход в нее.
+ */
+public class ApiClient {
+
+  private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String baseUrl;
+
+  public ApiClient(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  /**
+   * @return JWT нового игрока
+   */
+  public String register(String username) throws IOException, InterruptedException {
+    JsonNode data = post("/api/auth/register", null,
+        Map.of("username", username, "email", username + "@loadtest.local", "password", "loadtest"));
+    return data.path("token").asText();
+  }
+
+  public long createGame(String token, int timeControl, int increment) throws IOException, InterruptedException {
+    JsonNode data = post("/api/games", token,
+        Map.of("gameType", "BLITZ", "timeControl", timeControl, "timeIncrement", increment, "isPublic", false));
+    return data.path("id").asLong();
+  }
+
+  public void joinGame(String token, long gameId) throws IOException, InterruptedException {
+    post("/api/games/" + gameId + "/join", token, Map.of());
+  }
+
+  private JsonNode post(String path, String token, Object body) throws IOException, InterruptedException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    if (token != null) {
+      request.header("Authorization", "Bearer " + token);
+    }
+    HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() != 200) {
+      throw new IOException(path + ": HTTP " + response.statusCode() + " " + new String(response.body()));
+    }
+    return objectMapper.readTree(response.body()).path("data");
+  }
+}
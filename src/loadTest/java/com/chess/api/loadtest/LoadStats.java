@@ -0,0 +1,94 @@
+package com.chess.api.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержка хода от отправки до получения рассылки (микросекунды) и счетчики ошибок.
+ * <p>
+ * Запись идет из потоков STOMP-клиента через {@link Recorder} без блокировок;
+ * промежуточные отчеты забирают интервальную гистограмму и копят общую.
+ */
+public class LoadStats {
+
+  private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(1);
+
+  private final Recorder recorder = new Recorder(MAX_LATENCY_US, 3);
+  private final Histogram total = new Histogram(MAX_LATENCY_US, 3);
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+  private final LongAdder games = new LongAdder();
+  private final AtomicLong startedAt = new AtomicLong(System.nanoTime());
+  private Histogram interval;
+  private volatile boolean recording;
+
+  public void recordMove(long latencyNanos) {
+    if (recording) {
+      recorder.recordValue(Math.min(MAX_LATENCY_US, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+  }
+
+  public void recordError(String kind) {
+    if (recording) {
+      errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+  }
+
+  public void recordGame() {
+    if (recording) {
+      games.increment();
+    }
+  }
+
+  /**
+   * Конец прогрева: все, что было до этого, не считается.
+   */
+  public synchronized void start() {
+    recorder.reset();
+    total.reset();
+    errors.clear();
+    games.reset();
+    startedAt.set(System.nanoTime());
+    recording = true;
+  }
+
+  public void stop() {
+    recording = false;
+  }
+
+  public synchronized void printInterval(PrintStream out, long intervalSeconds) {
+    interval = recorder.getIntervalHistogram(interval);
+    total.add(interval);
+    out.printf("%6d ходов/с  p50 %s  p99 %s  max %s  ошибок %d%n",
+        interval.getTotalCount() / Math.max(1, intervalSeconds),
+        ms(interval.getValueAtPercentile(50)), ms(interval.getValueAtPercentile(99)),
+        ms(interval.getMaxValue()), errorCount());
+  }
+
+  public synchronized void printSummary(PrintStream out) {
+    interval = recorder.getIntervalHistogram(interval);
+    total.add(interval);
+    double seconds = (System.nanoTime() - startedAt.get()) / 1e9;
+    out.println();
+    out.printf("Ходов: %d за %.1f с, %.1f ходов/с; партий завершено: %d%n",
+        total.getTotalCount(), seconds, total.getTotalCount() / seconds, games.sum());
+    out.printf("Задержка хода: p50 %s  p99 %s  p99.9 %s  max %s%n",
+        ms(total.getValueAtPercentile(50)), ms(total.getValueAtPercentile(99)),
+        ms(total.getValueAtPercentile(99.9)), ms(total.getMaxValue()));
+    out.printf("Ошибок: %d%s%n", errorCount(), errors.isEmpty() ? "" : " " + errors);
+  }
+
+  public long errorCount() {
+    return errors.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  private static String ms(long micros) {
+    return String.format("%.2f мс", micros / 1000.0);
+  }
+}
@@ -0,0 +1,58 @@
+package com.chess.api.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона: {@code --players=1000 --duration=120 --think-ms=1000 ...}.
+ *
+ * @param url             адрес уже запущенного сервера; пусто - поднять приложение в этом же процессе
+ * @param players         синтетических игроков, четное число: играют парами
+ * @param durationSeconds длительность замера
+ * @param warmupSeconds   прогрев до замера: задержки не пишутся
+ * @param thinkMs         среднее время на ход
+ * @param thinkJitterMs   разброс времени на ход в обе стороны
+ * @param timeControl     контроль времени партии, секунды
+ * @param increment       добавка за ход, секунды
+ * @param maxPlies        после стольких полуходов игрок, чей ход, сдается
+ * @param timeoutMs       ход без рассылки дольше этого считается ошибкой
+ */
+public record LoadTestOptions(String url, int players, int durationSeconds, int warmupSeconds,
+                              int thinkMs, int thinkJitterMs, int timeControl, int increment,
+                              int maxPlies, int timeoutMs) {
+
+  public static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Ожидается --имя=значение: " + arg);
+      }
+      int eq = arg.indexOf('=');
+      values.put(arg.substring(2, eq), arg.substring(eq + 1));
+    }
+    LoadTestOptions options = new LoadTestOptions(
+        values.getOrDefault("url", ""),
+        intValue(values, "players", 200),
+        intValue(values, "duration", 60),
+        intValue(values, "warmup", 10),
+        intValue(values, "think-ms", 1000),
+        intValue(values, "think-jitter-ms", 500),
+        intValue(values, "time-control", 600),
+        intValue(values, "increment", 0),
+        intValue(values, "max-plies", 120),
+        intValue(values, "timeout-ms", 10_000));
+    values.remove("url");
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("Неизвестные параметры: " + values.keySet());
+    }
+    if (options.players() < 2 || options.players() % 2 != 0) {
+      throw new IllegalArgumentException("Число игроков должно быть четным и не меньше 2");
+    }
+    return options;
+  }
+
+  private static int intValue(Map<String, String> values, String name, int defaultValue) {
+    String value = values.remove(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+}
@@ -0,0 +1,133 @@
+package com.chess.api.loadtest;
+
+import com.chess.api.ChessApiApplication;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный прогон: {@code ./gradlew loadTest -PloadTestArgs="--players=2000 --duration=120"}.
+ * <p>
+ * Без {@code --url} приложение поднимается в этом же процессе с профилем {@code loadtest}
+ * (H2 в памяти), так что прогон не требует ни сети, ни внешней базы. Игроки
+ * регистрируются через {@code /api/auth}, каждый открывает свою STOMP-сессию
+ * к {@code /chess-websocket}, и пары играют случайные партии до конца замера.
+ */
+public class LoadTestRunner {
+
+  private static final int SETUP_THREADS = 16;
+  private static final long REPORT_INTERVAL_SECONDS = 10;
+  private static final int MAX_MESSAGE_BYTES = 1024 * 1024;
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    ConfigurableApplicationContext app = null;
+    String baseUrl = options.url();
+    if (baseUrl.isBlank()) {
+      app = new SpringApplicationBuilder(ChessApiApplication.class).profiles("loadtest").run();
+      baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+    }
+    try {
+      run(options, baseUrl);
+    } finally {
+      if (app != null) {
+        app.close();
+      }
+    }
+    System.exit(0);
+  }
+
+  private static void run(LoadTestOptions options, String baseUrl) throws Exception {
+    ApiClient api = new ApiClient(baseUrl);
+    WebSocketStompClient stompClient = stompClient();
+    String wsUrl = baseUrl.replaceFirst("^http", "ws") + "/chess-websocket/websocket";
+    LoadStats stats = new LoadStats();
+    String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    System.out.printf("Регистрация и подключение %d игроков к %s%n", options.players(), baseUrl);
+    List<SyntheticPlayer> players = new ArrayList<>(options.players());
+    ExecutorService setup = Executors.newFixedThreadPool(SETUP_THREADS);
+    try {
+      List<Future<SyntheticPlayer>> futures = new ArrayList<>(options.players());
+      for (int i = 0; i < options.players(); i++) {
+        String username = "lt_" + runId + "_" + i;
+        futures.add(setup.submit(() -> connect(api, stompClient, wsUrl, username)));
+      }
+      for (Future<SyntheticPlayer> future : futures) {
+        players.add(future.get());
+      }
+    } finally {
+      setup.shutdown();
+    }
+
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()));
+    List<PairDriver> drivers = new ArrayList<>(players.size() / 2);
+    for (int i = 0; i < players.size(); i += 2) {
+      PairDriver driver = new PairDriver(players.get(i), players.get(i + 1), api, scheduler, stats, options);
+      drivers.add(driver);
+      driver.start();
+    }
+
+    System.out.printf("Прогрев %d с%n", options.warmupSeconds());
+    TimeUnit.SECONDS.sleep(options.warmupSeconds());
+    stats.start();
+    System.out.printf("Замер %d с%n", options.durationSeconds());
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+    while (true) {
+      long left = deadline - System.nanoTime();
+      if (left <= 0) {
+        break;
+      }
+      long sleep = Math.min(TimeUnit.SECONDS.toNanos(REPORT_INTERVAL_SECONDS), left);
+      TimeUnit.NANOSECONDS.sleep(sleep);
+      stats.printInterval(System.out, TimeUnit.NANOSECONDS.toSeconds(sleep));
+    }
+    stats.stop();
+    drivers.forEach(PairDriver::stop);
+    stats.printSummary(System.out);
+
+    scheduler.shutdownNow();
+    players.forEach(SyntheticPlayer::disconnect);
+    stompClient.stop();
+  }
+
+  private static SyntheticPlayer connect(ApiClient api, WebSocketStompClient stompClient, String wsUrl,
+                                         String username) throws Exception {
+    SyntheticPlayer player = new SyntheticPlayer(username, api.register(username));
+    // Пользователь сессии берется из JWT на рукопожатии
+    WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+    headers.setBearerAuth(player.getToken());
+    StompSession session = stompClient.connectAsync(wsUrl, headers, new StompHeaders(),
+        new StompSessionHandlerAdapter() { }).get(30, TimeUnit.SECONDS);
+    player.setSession(session);
+    return player;
+  }
+
+  private static WebSocketStompClient stompClient() {
+    // Сообщения о партии с ходами не помещаются в буфер контейнера по умолчанию (8 КБ)
+    WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+    container.setDefaultMaxTextMessageBufferSize(MAX_MESSAGE_BYTES);
+    WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient(container));
+    client.setMessageConverter(new MappingJackson2MessageConverter());
+    client.setInboundMessageSizeLimit(MAX_MESSAGE_BYTES);
+    return client;
+  }
+}
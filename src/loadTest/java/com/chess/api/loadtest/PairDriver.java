@@ -0,0 +1,201 @@
+package com.chess.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.move.Move;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пара игроков, которая играет партию за партией случайными легальными ходами.
+ * <p>
+ * Ход отправляется через {@code /app/game/{id}/move}; задержка - до момента, когда
+ * рассылка MOVE_MADE с этим ходом дошла до сессии того, кто ходил. Ошибка или
+ * таймаут засчитываются, партия бросается и начинается новая.
+ */
+public class PairDriver {
+
+  private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+  private static final long RETRY_DELAY_MS = 1000;
+
+  private final SyntheticPlayer white;
+  private final SyntheticPlayer black;
+  private final ApiClient api;
+  private final ScheduledExecutorService scheduler;
+  private final LoadStats stats;
+  private final LoadTestOptions options;
+  private final List<StompSession.Subscription> subscriptions = new ArrayList<>();
+
+  private volatile boolean running;
+  private long gameId;
+  private int pendingPly;
+  private SyntheticPlayer pendingPlayer;
+  private long submittedAt;
+
+  public PairDriver(SyntheticPlayer white, SyntheticPlayer black, ApiClient api,
+                    ScheduledExecutorService scheduler, LoadStats stats, LoadTestOptions options) {
+    this.white = white;
+    this.black = black;
+    this.api = api;
+    this.scheduler = scheduler;
+    this.stats = stats;
+    this.options = options;
+  }
+
+  public void start() {
+    running = true;
+    white.subscribe("/user/queue/errors", payload -> onPlayerError(white, payload));
+    black.subscribe("/user/queue/errors", payload -> onPlayerError(black, payload));
+    scheduler.execute(this::newGame);
+  }
+
+  public void stop() {
+    running = false;
+  }
+
+  private void newGame() {
+    if (!running) {
+      return;
+    }
+    try {
+      long id = api.createGame(white.getToken(), options.timeControl(), options.increment());
+      synchronized (this) {
+        gameId = id;
+        pendingPly = 0;
+        pendingPlayer = null;
+        for (SyntheticPlayer player : List.of(white, black)) {
+          subscriptions.add(player.subscribe("/topic/game/" + id, payload -> onGameFrame(id, player, payload)));
+          subscriptions.add(player.subscribe("/topic/game/" + id + "/errors", payload -> onGameError(id, player, payload)));
+        }
+      }
+      api.joinGame(black.getToken(), id);
+      scheduleMove(id, white, START_FEN, 1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      stats.recordError("setup");
+      abandon();
+    }
+  }
+
+  private void scheduleMove(long id, SyntheticPlayer player, String fen, int ply) {
+    long think = Math.max(0, options.thinkMs()
+        + ThreadLocalRandom.current().nextLong(-options.thinkJitterMs(), options.thinkJitterMs() + 1L));
+    scheduler.schedule(() -> submit(id, player, fen, ply), think, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void submit(long id, SyntheticPlayer player, String fen, int ply) {
+    if (!running || id != gameId) {
+      return;
+    }
+    if (!player.isConnected()) {
+      stats.recordError("disconnected");
+      abandon();
+      return;
+    }
+    if (ply > options.maxPlies()) {
+      player.send("/app/game/" + id + "/resign", Map.of());
+      pendingPlayer = player;
+      pendingPly = ply;
+      return;
+    }
+    pendingPlayer = player;
+    pendingPly = ply;
+    submittedAt = System.nanoTime();
+    player.send("/app/game/" + id + "/move", randomMove(fen));
+    scheduler.schedule(() -> checkTimeout(id, ply), options.timeoutMs(), TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void checkTimeout(long id, int ply) {
+    if (running && id == gameId && pendingPly == ply && pendingPlayer != null) {
+      stats.recordError("timeout");
+      abandon();
+    }
+  }
+
+  private synchronized void onGameFrame(long id, SyntheticPlayer receiver, JsonNode payload) {
+    if (id != gameId) {
+      return;
+    }
+    String type = payload.path("type").asText();
+    // Рассылку получают оба игрока: конец партии берем из сессии белых, ход - из сессии ходившего
+    if ("PLAYER_RESIGNED".equals(type) || "GAME_ENDED".equals(type)) {
+      if (receiver == white) {
+        finished();
+      }
+      return;
+    }
+    if (!"MOVE_MADE".equals(type) || receiver != pendingPlayer
+        || payload.path("move").path("moveNumber").asInt() != pendingPly) {
+      return;
+    }
+    stats.recordMove(System.nanoTime() - submittedAt);
+    int ply = pendingPly;
+    pendingPlayer = null;
+    JsonNode game = payload.path("game");
+    if (!"ACTIVE".equals(game.path("status").asText())) {
+      finished();
+      return;
+    }
+    SyntheticPlayer next = receiver == white ? black : white;
+    scheduleMove(id, next, game.path("currentFen").asText(), ply + 1);
+  }
+
+  private synchronized void onGameError(long id, SyntheticPlayer receiver, JsonNode payload) {
+    if (id == gameId && receiver == pendingPlayer) {
+      stats.recordError(payload.path("type").asText("ERROR"));
+      abandon();
+    }
+  }
+
+  private synchronized void onPlayerError(SyntheticPlayer receiver, JsonNode payload) {
+    if (receiver == pendingPlayer) {
+      stats.recordError(payload.path("type").asText("ERROR"));
+      abandon();
+    }
+  }
+
+  private synchronized void finished() {
+    stats.recordGame();
+    abandon();
+  }
+
+  // Партия больше не ведется: отписаться и через паузу начать новую
+  private synchronized void abandon() {
+    gameId = 0;
+    pendingPlayer = null;
+    for (StompSession.Subscription subscription : subscriptions) {
+      try {
+        subscription.unsubscribe();
+      } catch (Exception ignored) {
+        // сессия уже закрыта
+      }
+    }
+    subscriptions.clear();
+    if (running) {
+      scheduler.schedule(this::newGame, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static Map<String, String> randomMove(String fen) {
+    Board board = new Board();
+    board.loadFromFen(fen);
+    List<Move> moves = board.legalMoves();
+    Move move = moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+    Map<String, String> request = new HashMap<>();
+    request.put("from", move.getFrom().value().toLowerCase());
+    request.put("to", move.getTo().value().toLowerCase());
+    if (move.getPromotion() != null && move.getPromotion() != Piece.NONE) {
+      request.put("promotion", move.getPromotion().getFenSymbol().toUpperCase());
+    }
+    return request;
+  }
+}
@@ -0,0 +1,64 @@
+package com.chess.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.lang.reflect.Type;
+import java.util.function.Consumer;
+
+/**
+ * Игрок со своим токеном и своей STOMP-сессией, как отдельный клиент.
+ */
+public class SyntheticPlayer {
+
+  private final String username;
+  private final String token;
+  private volatile StompSession session;
+
+  public SyntheticPlayer(String username, String token) {
+    this.username = username;
+    this.token = token;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public void setSession(StompSession session) {
+    this.session = session;
+  }
+
+  public boolean isConnected() {
+    return session != null && session.isConnected();
+  }
+
+  public StompSession.Subscription subscribe(String destination, Consumer<JsonNode> handler) {
+    return session.subscribe(destination, new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return JsonNode.class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        handler.accept((JsonNode) payload);
+      }
+    });
+  }
+
+  public void send(String destination, Object payload) {
+    session.send(destination, payload);
+  }
+
+  public void disconnect() {
+    if (isConnected()) {
+      session.disconnect();
+    }
+  }
+}
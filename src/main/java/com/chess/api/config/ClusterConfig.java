@@ -0,0 +1,19 @@
+package com.chess.api.config;
+
+import com.chess.api.service.cluster.ClusterBus;
+import com.chess.api.service.cluster.LoopbackClusterBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ClusterConfig {
+
+  // Сетевая шина регистрируется своим бином под другим значением chess.cluster.bus
+  @Bean
+  @ConditionalOnProperty(name = "chess.cluster.bus", havingValue = "loopback", matchIfMissing = true)
+  public ClusterBus loopbackClusterBus(@Value("${chess.cluster.loopback-group:chess}") String group) {
+    return LoopbackClusterBus.group(group);
+  }
+}
@@ -0,0 +1,17 @@
+package com.chess.api.config;
+
+import com.chess.api.service.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+  // Экземпляр из контекста, а не по имени класса: Hibernate создал бы свой без настроек
+  @Bean
+  public HibernatePropertiesCustomizer statementInspectorCustomizer(SqlStatementCounter counter) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+  }
+}
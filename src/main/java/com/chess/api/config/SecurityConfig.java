@@ -3,6 +3,7 @@ package com.chess.api.config;
 import com.chess.api.security.JwtAuthenticationFilter;
 import com.chess.api.security.JwtUtils;
 import com.chess.api.service.impl.PlayerServiceImpl;
+import com.chess.api.service.metrics.GameMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -23,11 +24,13 @@ public class SecurityConfig {
 
   private final JwtUtils jwtUtils;
   private final PlayerServiceImpl playerService;
+  private final GameMetrics metrics;
 
   // Убираем @Autowired с полей, используем конструктор
-  public SecurityConfig(JwtUtils jwtUtils, PlayerServiceImpl playerService) {
+  public SecurityConfig(JwtUtils jwtUtils, PlayerServiceImpl playerService, GameMetrics metrics) {
     this.jwtUtils = jwtUtils;
     this.playerService = playerService;
+    this.metrics = metrics;
   }
 
   @Bean
@@ -35,6 +38,7 @@ public class SecurityConfig {
     JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
     filter.setJwtUtils(jwtUtils);
     filter.setPlayerService(playerService);
+    filter.setMetrics(metrics);
     return filter;
   }
 
@@ -48,6 +52,9 @@ public class SecurityConfig {
             .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
             .requestMatchers("/h2-console/**").permitAll()
             .requestMatchers("/chess-websocket/**").permitAll()
+            .requestMatchers("/actuator/health").permitAll()
+            .requestMatchers("/actuator/prometheus").hasRole("ADMIN")  // скрейпер ходит с токеном администратора
+            .requestMatchers("/api/admin/**").hasRole("ADMIN")
             .anyRequest().authenticated()
         )
         .sessionManagement(session -> session
@@ -0,0 +1,34 @@
+package com.chess.api.config;
+
+import com.chess.api.engine.tablebase.SyzygyTablebase;
+import com.chess.api.engine.tablebase.Tablebase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@Slf4j
+public class TablebaseConfig {
+
+  @Bean
+  public Tablebase tablebase(@Value("${chess.tablebase.path:}") String path,
+                             @Value("${chess.tablebase.max-open-files:64}") int maxOpenFiles) {
+    if (path.isBlank()) {
+      log.info("Таблицы эндшпиля не настроены");
+      return Tablebase.NONE;
+    }
+    try {
+      SyzygyTablebase tablebase = new SyzygyTablebase(Path.of(path), maxOpenFiles);
+      log.info("Таблицы Syzygy из {}: {} файлов, до {} фигур", path, tablebase.getFileCount(),
+          tablebase.getMaxPieces());
+      return tablebase;
+    } catch (IOException e) {
+      log.error("Не удалось прочитать каталог таблиц {}: {}", path, e.getMessage());
+      return Tablebase.NONE;
+    }
+  }
+}
@@ -1,6 +1,14 @@
 package com.chess.api.config;
 
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.metrics.GameMetrics;
+import com.chess.api.service.metrics.SqlStatementCounter;
+import com.chess.api.websocket.ClusterRelayInterceptor;
+import com.chess.api.websocket.OutboundMetricsInterceptor;
+import com.chess.api.websocket.SqlCountingInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -8,13 +16,22 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+  private final GameMetrics metrics;
+  private final SqlStatementCounter sqlStatementCounter;
+  private final GameOwnership ownership;
+
   @Override
   public void configureMessageBroker(MessageBrokerRegistry config) {
     config.enableSimpleBroker("/topic", "/queue");
     config.setApplicationDestinationPrefixes("/app");
     config.setUserDestinationPrefix("/user");
+    // Брокер свой у каждого узла: рассылки копируются на остальные
+    if (ownership.isEnabled()) {
+      config.configureBrokerChannel().interceptors(new ClusterRelayInterceptor(ownership));
+    }
   }
 
   @Override
@@ -23,4 +40,16 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         .setAllowedOriginPatterns("*")
         .withSockJS();
   }
-}
\ No newline at end of file
+
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(new SqlCountingInterceptor(sqlStatementCounter));
+  }
+
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    if (metrics.isEnabled()) {
+      registration.interceptors(new OutboundMetricsInterceptor(metrics));
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.chess.api.controller;
+
+import com.chess.api.dto.ApiResponse;
+import com.chess.api.dto.FlightRecordingStatus;
+import com.chess.api.service.FlightRecorderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Диагностика для администраторов ({@code chess.admin.usernames}).
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+  private final FlightRecorderService flightRecorderService;
+
+  @PostMapping("/recording/start")
+  public ResponseEntity<ApiResponse<FlightRecordingStatus>> startRecording(
+      @RequestParam(required = false) Long durationSeconds) {
+    try {
+      return ResponseEntity.ok(ApiResponse.success("Запись начата", flightRecorderService.start(durationSeconds)));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+    }
+  }
+
+  @PostMapping("/recording/stop")
+  public ResponseEntity<ApiResponse<FlightRecordingStatus>> stopRecording() {
+    try {
+      return ResponseEntity.ok(ApiResponse.success("Запись сохранена", flightRecorderService.stop()));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+    }
+  }
+
+  @GetMapping("/recording")
+  public ResponseEntity<ApiResponse<FlightRecordingStatus>> getRecording() {
+    return ResponseEntity.ok(ApiResponse.success(flightRecorderService.getStatus()));
+  }
+}
@@ -0,0 +1,29 @@
+package com.chess.api.controller;
+
+import com.chess.api.dto.ApiResponse;
+import com.chess.api.dto.BookMoveDTO;
+import com.chess.api.service.OpeningBookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/book")
+@RequiredArgsConstructor
+public class BookController {
+
+  private final OpeningBookService bookService;
+
+  @GetMapping
+  public ResponseEntity<ApiResponse<List<BookMoveDTO>>> getBookMoves(@RequestParam String fen) {
+    if (!bookService.isLoaded()) {
+      return ResponseEntity.status(503).body(ApiResponse.error("Дебютная книга не загружена"));
+    }
+    return ResponseEntity.ok(ApiResponse.success(bookService.getMoves(fen)));
+  }
+}
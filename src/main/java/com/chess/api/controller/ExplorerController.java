@@ -0,0 +1,30 @@
+package com.chess.api.controller;
+
+import com.chess.api.dto.ApiResponse;
+import com.chess.api.dto.ExplorerMoveDTO;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.service.OpeningExplorerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/explorer")
+@RequiredArgsConstructor
+public class ExplorerController {
+
+  private final OpeningExplorerService explorerService;
+
+  @GetMapping
+  public ResponseEntity<ApiResponse<List<ExplorerMoveDTO>>> getMoves(
+      @RequestParam String fen,
+      @RequestParam(required = false) GameType gameType,
+      @RequestParam(required = false) Integer ratingBand) {
+    return ResponseEntity.ok(ApiResponse.success(explorerService.getMoves(fen, gameType, ratingBand)));
+  }
+}
@@ -1,28 +1,49 @@
 package com.chess.api.controller;
 
+import com.chess.api.dto.AnalysisQueueStats;
 import com.chess.api.dto.ApiResponse;
 import com.chess.api.dto.GameCreateRequest;
+import com.chess.api.dto.GameAnalysisDTO;
 import com.chess.api.dto.GameDTO;
+import com.chess.api.dto.GamePositionDTO;
+import com.chess.api.dto.GameRevision;
 import com.chess.api.dto.GameInviteDTO;
 import com.chess.api.dto.GameInviteRequest;
+import com.chess.api.dto.LatencyStats;
 import com.chess.api.dto.MoveDTO;
 import com.chess.api.dto.MoveRequest;
 import com.chess.api.dto.PlayerDTO;
+import com.chess.api.dto.PositionSearchPage;
 import com.chess.api.model.Game;
 import com.chess.api.model.GameInvite;
 import com.chess.api.model.Player;
 import com.chess.api.model.enums.GameStatus;
 import com.chess.api.service.ChessGameService;
+import com.chess.api.service.GameReplayService;
 import com.chess.api.service.GameService;
+import com.chess.api.service.GameViewCache;
 import com.chess.api.service.PlayerService;
+import com.chess.api.service.PositionSearchService;
+import com.chess.api.service.PostGameAnalysisService;
+import com.chess.api.service.cluster.ClusterMessage.ForwardedMove;
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.metrics.GameMetrics;
+import com.chess.api.websocket.GameBroadcaster;
 import com.chess.api.exception.IllegalMoveException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -30,8 +51,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/games")
@@ -39,9 +64,21 @@ import java.util.List;
 @Slf4j
 public class GameController {
 
+  // Законченная партия не меняется: клиенту незачем ее перепроверять
+  private static final CacheControl FINISHED_CACHE =
+      CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+
   private final GameService gameService;
   private final ChessGameService chessGameService;
   private final PlayerService playerService;
+  private final PostGameAnalysisService postGameAnalysisService;
+  private final PositionSearchService positionSearchService;
+  private final GameReplayService gameReplayService;
+  private final LatencyTracker latencyTracker;
+  private final GameMetrics metrics;
+  private final GameViewCache gameViewCache;
+  private final GameOwnership ownership;
+  private final GameBroadcaster broadcaster;
 
   @PostMapping
   public ResponseEntity<ApiResponse<GameDTO>> createGame(
@@ -54,37 +91,105 @@ public class GameController {
     Game game = gameService.createGame(request, creator);
     log.info("Игра создана: ID={}, тип={}, игрок={}",
         game.getId(), game.getGameType(), creator.getUsername());
+
+    if (game.getStatus() == GameStatus.ACTIVE) {
+      chessGameService.startGameTimer(game);
+    }
     return ResponseEntity.ok(ApiResponse.success("Игра создана", convertToDTO(game)));
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<ApiResponse<GameDTO>> getGame(@PathVariable Long id) {
+  public ResponseEntity<?> getGame(
+      @PathVariable Long id,
+      @RequestParam(required = false) String fields,
+      @RequestParam(required = false) String include,
+      WebRequest request) {
+
+    GameFields selection = GameFields.parse(fields, include);
+    String view = "game:" + selection.key();
+    ResponseEntity<?> finished = finishedView(id, view, request);
+    if (finished != null) {
+      return finished;
+    }
+    if (selection.isSparse()) {
+      // Статус и версия нужны кешу, время завершения и итоговые рейтинги - игрокам,
+      // даже если клиент их не выбрал
+      Map<String, Object> row = gameService.getGameFields(id,
+          selection.columns("status", "version", "finishedAt", "whiteRatingAfter", "blackRatingAfter"));
+      GameRevision revision = new GameRevision((GameStatus) row.get("status"), (Long) row.get("version"));
+      LocalDateTime finishedAt = (LocalDateTime) row.get("finishedAt");
+      if (row.containsKey("whitePlayer")) {
+        row.put("whitePlayer", ratedAtFinish((PlayerDTO) row.get("whitePlayer"),
+            (Integer) row.get("whiteRatingAfter"), finishedAt));
+      }
+      if (row.containsKey("blackPlayer")) {
+        row.put("blackPlayer", ratedAtFinish((PlayerDTO) row.get("blackPlayer"),
+            (Integer) row.get("blackRatingAfter"), finishedAt));
+      }
+      row.keySet().retainAll(selection.columns());
+      if (selection.includesMoves()) {
+        row.put("moves", gameService.getGameMoves(id));
+      }
+      return view(id, view, revision, ApiResponse.success(row));
+    }
     Game game = gameService.getGameById(id);
-    return ResponseEntity.ok(ApiResponse.success(convertToDTO(game)));
+    GameDTO dto = convertToDTO(game);
+    dto.setWhitePlayer(ratedAtFinish(dto.getWhitePlayer(), game.getWhiteRatingAfter(), game.getFinishedAt()));
+    dto.setBlackPlayer(ratedAtFinish(dto.getBlackPlayer(), game.getBlackRatingAfter(), game.getFinishedAt()));
+    if (selection.includesMoves()) {
+      dto.setMoves(gameService.getGameMoves(id));
+    }
+    return view(id, view, new GameRevision(game.getStatus(), game.getVersion()), ApiResponse.success(dto));
   }
 
   @GetMapping
-  public ResponseEntity<ApiResponse<List<GameDTO>>> getAllGames() {
-    List<Game> games = gameService.getAllGames();
-    List<GameDTO> dtos = games.stream().map(this::convertToDTO).toList();
-    return ResponseEntity.ok(ApiResponse.success(dtos));
+  public ResponseEntity<ApiResponse<List<?>>> getAllGames(
+      @RequestParam(required = false) String fields,
+      @RequestParam(required = false) String include) {
+
+    GameFields selection = GameFields.parse(fields, include);
+    if (selection.isSummary()) {
+      return ResponseEntity.ok(ApiResponse.success(gameService.getAllGameSummaries()));
+    }
+    if (selection.isSparse()) {
+      return ResponseEntity.ok(ApiResponse.success(
+          withMoves(gameService.getAllGameFields(selection.columns()), selection)));
+    }
+    return ResponseEntity.ok(ApiResponse.success(gameList(gameService.getAllGames(), selection)));
   }
 
   @GetMapping("/active")
-  public ResponseEntity<ApiResponse<List<GameDTO>>> getActiveGames(
-      @AuthenticationPrincipal UserDetails userDetails) {
+  public ResponseEntity<ApiResponse<List<?>>> getActiveGames(
+      @AuthenticationPrincipal UserDetails userDetails,
+      @RequestParam(required = false) String fields,
+      @RequestParam(required = false) String include) {
 
+    GameFields selection = GameFields.parse(fields, include);
     Player currentPlayer = playerService.getPlayerByUsername(userDetails.getUsername());
-    List<Game> games = gameService.getActiveGames(currentPlayer);
-    List<GameDTO> dtos = games.stream().map(this::convertToDTO).toList();
-    return ResponseEntity.ok(ApiResponse.success(dtos));
+    if (selection.isSummary()) {
+      return ResponseEntity.ok(ApiResponse.success(gameService.getActiveGameSummaries(currentPlayer)));
+    }
+    if (selection.isSparse()) {
+      return ResponseEntity.ok(ApiResponse.success(
+          withMoves(gameService.getActiveGameFields(currentPlayer, selection.columns()), selection)));
+    }
+    return ResponseEntity.ok(ApiResponse.success(gameList(gameService.getActiveGames(currentPlayer), selection)));
   }
 
   @GetMapping("/waiting")
-  public ResponseEntity<ApiResponse<List<GameDTO>>> getWaitingGames() {
-    List<Game> games = gameService.findWaitingGames();
-    List<GameDTO> dtos = games.stream().map(this::convertToDTO).toList();
-    return ResponseEntity.ok(ApiResponse.success(dtos));
+  public ResponseEntity<ApiResponse<List<?>>> getWaitingGames(
+      @RequestParam(required = false) String fields,
+      @RequestParam(required = false) String include) {
+
+    GameFields selection = GameFields.parse(fields, include);
+    if (selection.isSummary()) {
+      return ResponseEntity.ok(ApiResponse.success(gameService.findWaitingGameSummaries()));
+    }
+    if (selection.isSparse()) {
+      return ResponseEntity.ok(ApiResponse.success(
+          withMoves(gameService.findWaitingGameFields(selection.columns()), selection)));
+    }
+    return ResponseEntity.ok(ApiResponse.success(gameList(gameService.findWaitingGames(), selection)));
   }
 
   @PostMapping("/{id}/join")
@@ -104,26 +209,53 @@ public class GameController {
     return ResponseEntity.ok(ApiResponse.success("Вы присоединились к игре", convertToDTO(game)));
   }
 
+  /**
+   * Ход по HTTP. Как и по WebSocket, за ним сразу выполняется предход соперника:
+   * в ответе и в рассылке {@code /topic/game/{id}} - все выполненные ходы.
+   */
   @PostMapping("/{id}/move")
-  public ResponseEntity<ApiResponse<MoveDTO>> makeMove(
+  public ResponseEntity<ApiResponse<List<MoveDTO>>> makeMove(
       @PathVariable Long id,
       @Valid @RequestBody MoveRequest moveRequest,
       @AuthenticationPrincipal UserDetails userDetails) {
 
+    // Партией владеет другой узел: ход уходит ему, результат придет в /topic/game/{id}
+    if (ownership.forward(id, new ForwardedMove(id, userDetails.getUsername(), ForwardedMove.Kind.MOVE, moveRequest))) {
+      return ResponseEntity.accepted().body(ApiResponse.success("Ход передан узлу партии", null));
+    }
     try {
+      long loadStart = metrics.start();
       Player currentPlayer = playerService.getPlayerByUsername(userDetails.getUsername());
       Game game = gameService.getGameById(id);
-      var move = chessGameService.makeMove(game, currentPlayer, moveRequest);
-      return ResponseEntity.ok(ApiResponse.success("Ход принят", convertToDTO(move)));
+      metrics.moveStage(GameMetrics.MoveStage.LOAD, loadStart);
+      var moves = chessGameService.makeMoveWithPremove(game, currentPlayer, moveRequest);
+      broadcaster.moveMade(game, moves);
+      if (game.getStatus() != GameStatus.ACTIVE) {
+        chessGameService.stopGameTimer(id);
+      }
+      return ResponseEntity.ok(ApiResponse.success("Ход принят", moves.stream().map(this::convertToDTO).toList()));
     } catch (IllegalMoveException e) {
       return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
     }
   }
 
   @GetMapping("/{id}/moves")
-  public ResponseEntity<ApiResponse<List<MoveDTO>>> getGameMoves(@PathVariable Long id) {
+  public ResponseEntity<?> getGameMoves(@PathVariable Long id, WebRequest request) {
+    ResponseEntity<?> finished = finishedView(id, "moves", request);
+    if (finished != null) {
+      return finished;
+    }
+    // Статус читается до ходов: у законченной партии после него ходов уже не добавится
+    GameRevision revision = gameService.getGameRevision(id);
     List<MoveDTO> moves = gameService.getGameMoves(id);
-    return ResponseEntity.ok(ApiResponse.success(moves));
+    return view(id, "moves", revision, ApiResponse.success(moves));
+  }
+
+  @GetMapping("/{id}/position")
+  public ResponseEntity<ApiResponse<GamePositionDTO>> getPosition(
+      @PathVariable Long id,
+      @RequestParam int ply) {
+    return ResponseEntity.ok(ApiResponse.success(gameReplayService.getPosition(id, ply)));
   }
 
   @PostMapping("/{id}/resign")
@@ -168,6 +300,33 @@ public class GameController {
     return ResponseEntity.ok(ApiResponse.success(legalMoves));
   }
 
+  @GetMapping("/{id}/analysis")
+  public ResponseEntity<ApiResponse<GameAnalysisDTO>> getAnalysis(@PathVariable Long id) {
+    return postGameAnalysisService.getAnalysis(id)
+        .map(analysis -> ResponseEntity.ok(ApiResponse.success(analysis)))
+        .orElseGet(() -> ResponseEntity.status(404).body(ApiResponse.error("Анализ партии еще не готов")));
+  }
+
+  @PostMapping("/{id}/analysis")
+  public ResponseEntity<ApiResponse<Void>> requestAnalysis(
+      @PathVariable Long id,
+      @AuthenticationPrincipal UserDetails userDetails) {
+
+    Player currentPlayer = playerService.getPlayerByUsername(userDetails.getUsername());
+    boolean ready = postGameAnalysisService.requestAnalysis(id, currentPlayer);
+    return ResponseEntity.ok(ApiResponse.success(ready ? "Анализ готов" : "Партия поставлена в очередь анализа", null));
+  }
+
+  @GetMapping("/analysis/stats")
+  public ResponseEntity<ApiResponse<AnalysisQueueStats>> getAnalysisStats() {
+    return ResponseEntity.ok(ApiResponse.success(postGameAnalysisService.getStats()));
+  }
+
+  @GetMapping("/latency/stats")
+  public ResponseEntity<ApiResponse<LatencyStats>> getLatencyStats() {
+    return ResponseEntity.ok(ApiResponse.success(latencyTracker.getStats()));
+  }
+
   @GetMapping("/{id}/time-left")
   public ResponseEntity<ApiResponse<Integer[]>> getTimeLeft(@PathVariable Long id) {
     Integer[] timeLeft = chessGameService.getTimeLeft(id);
@@ -195,14 +354,31 @@ public class GameController {
   }
 
   @GetMapping("/history")
-  public ResponseEntity<ApiResponse<List<GameDTO>>> getGameHistory(
+  public ResponseEntity<ApiResponse<List<?>>> getGameHistory(
       @AuthenticationPrincipal UserDetails userDetails,
-      @RequestParam(defaultValue = "10") int limit) {
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestParam(required = false) String fields,
+      @RequestParam(required = false) String include) {
 
+    GameFields selection = GameFields.parse(fields, include);
     Player currentPlayer = playerService.getPlayerByUsername(userDetails.getUsername());
+    if (selection.isSummary()) {
+      return ResponseEntity.ok(ApiResponse.success(gameService.getGameHistorySummaries(currentPlayer, limit)));
+    }
+    if (selection.isSparse()) {
+      return ResponseEntity.ok(ApiResponse.success(
+          withMoves(gameService.getGameHistoryFields(currentPlayer, limit, selection.columns()), selection)));
+    }
     List<Game> games = gameService.getPlayerGameHistory(currentPlayer, limit);
-    List<GameDTO> dtos = games.stream().map(this::convertToDTO).toList();
-    return ResponseEntity.ok(ApiResponse.success(dtos));
+    return ResponseEntity.ok(ApiResponse.success(gameList(games, selection)));
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<ApiResponse<PositionSearchPage>> searchByPosition(
+      @RequestParam String fen,
+      @RequestParam(required = false) Long before,
+      @RequestParam(defaultValue = "20") int size) {
+    return ResponseEntity.ok(ApiResponse.success(positionSearchService.search(fen, before, size)));
   }
 
   @PostMapping("/invite")
@@ -266,6 +442,72 @@ public class GameController {
     return ResponseEntity.ok(ApiResponse.success("Приглашение отменено", null));
   }
 
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ApiResponse<Void>> handleIllegalArgument(IllegalArgumentException e) {
+    return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+  }
+
+  // Партию успели изменить между чтением и записью (ход против сдачи или флажка)
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ApiResponse<Void>> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(ApiResponse.error("Партия изменилась параллельно, повторите запрос"));
+  }
+
+  /**
+   * Ответ по законченной партии без ее загрузки: из кеша, а на повторный запрос
+   * клиента с ETag - 304 по статусу и версии. {@code null} - партию нужно собрать.
+   */
+  private ResponseEntity<?> finishedView(Long id, String view, WebRequest request) {
+    GameViewCache.CachedView cached = gameViewCache.get(id, view);
+    if (cached != null) {
+      return cachedResponse(cached);
+    }
+    if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+      return null;
+    }
+    String etag = gameViewCache.etag(id, gameService.getGameRevision(id));
+    if (etag != null && request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(FINISHED_CACHE).build();
+    }
+    return null;
+  }
+
+  // Идущая партия отдается как есть, законченная - сохраняется в кеш
+  private ResponseEntity<?> view(Long id, String view, GameRevision revision, ApiResponse<?> body) {
+    GameViewCache.CachedView cached = gameViewCache.put(id, view, revision, body);
+    return cached != null ? cachedResponse(cached) : ResponseEntity.ok(body);
+  }
+
+  // На совпавший If-None-Match Spring сам отвечает 304 по заголовку ETag
+  private static ResponseEntity<byte[]> cachedResponse(GameViewCache.CachedView cached) {
+    return ResponseEntity.ok()
+        .eTag(cached.etag())
+        .cacheControl(FINISHED_CACHE)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(cached.body());
+  }
+
+  // Полные DTO; ходы всех партий списка - одним запросом
+  private List<GameDTO> gameList(List<Game> games, GameFields selection) {
+    List<GameDTO> dtos = games.stream().map(this::convertToDTO).toList();
+    if (selection.includesMoves()) {
+      Map<Long, List<MoveDTO>> moves = gameService.getGameMoves(dtos.stream().map(GameDTO::getId).toList());
+      dtos.forEach(dto -> dto.setMoves(moves.get(dto.getId())));
+    }
+    return dtos;
+  }
+
+  // Строки выбранных полей; id в выборе всегда есть
+  private List<Map<String, Object>> withMoves(List<Map<String, Object>> rows, GameFields selection) {
+    if (selection.includesMoves()) {
+      List<Long> ids = rows.stream().map(row -> (Long) row.get("id")).toList();
+      Map<Long, List<MoveDTO>> moves = gameService.getGameMoves(ids);
+      rows.forEach(row -> row.put("moves", moves.get((Long) row.get("id"))));
+    }
+    return rows;
+  }
+
   private GameDTO convertToDTO(Game game) {
     GameDTO dto = new GameDTO();
     dto.setId(game.getId());
@@ -339,6 +581,18 @@ public class GameController {
     return dto;
   }
 
+  /**
+   * Рейтинг игрока по итогам законченной партии: ответ о ней кешируется навсегда, и текущий
+   * рейтинг устарел бы с первой следующей партией. Рейтинг хранится в строке партии,
+   * у нерейтинговой партии его нет.
+   */
+  private PlayerDTO ratedAtFinish(PlayerDTO player, Integer ratingAfter, LocalDateTime finishedAt) {
+    if (player == null || finishedAt == null) {
+      return player;
+    }
+    return new PlayerDTO(player.getId(), player.getUsername(), ratingAfter);
+  }
+
   private int getRatingForGameType(Player player, com.chess.api.model.enums.GameType gameType) {
     return switch (gameType) {
       case CLASSICAL -> player.getClassicalRating();
@@ -0,0 +1,90 @@
+package com.chess.api.controller;
+
+import com.chess.api.dto.GameDTO;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Выбор полей партии из {@code fields=} и {@code include=moves}.
+ * <p>
+ * Без параметров списки отдают краткую запись, а одна партия - полный {@link GameDTO}
+ * без ходов. {@code fields} оставляет в ответе только перечисленные поля (и {@code id}),
+ * {@code include=moves} добавляет ходы. Выбранные поля читаются из базы запросом
+ * только по своим столбцам (см. {@link com.chess.api.repository.GameFieldsRepository}).
+ */
+final class GameFields {
+
+  private static final Set<String> KNOWN = Set.of(
+      "id", "whitePlayer", "blackPlayer", "gameType", "status", "currentFen", "pgn", "timeControl",
+      "timeIncrement", "whiteTimeLeft", "blackTimeLeft", "createdAt", "startedAt", "finishedAt", "moves", "result");
+
+  private final Set<String> fields; // null - все поля
+  private final boolean moves;
+
+  private GameFields(Set<String> fields, boolean moves) {
+    this.fields = fields;
+    this.moves = moves;
+  }
+
+  static GameFields parse(String fields, String include) {
+    boolean moves = false;
+    if (include != null && !include.isBlank()) {
+      for (String name : include.split(",")) {
+        if (!"moves".equals(name.trim())) {
+          throw new IllegalArgumentException("Неизвестное значение include: " + name.trim());
+        }
+        moves = true;
+      }
+    }
+    if (fields == null || fields.isBlank()) {
+      return new GameFields(null, moves);
+    }
+    Set<String> selected = new LinkedHashSet<>();
+    selected.add("id");
+    for (String name : fields.split(",")) {
+      String field = name.trim();
+      if (!KNOWN.contains(field)) {
+        throw new IllegalArgumentException("Неизвестное поле: " + field);
+      }
+      selected.add(field);
+    }
+    if (moves) {
+      selected.add("moves");
+    }
+    return new GameFields(selected, selected.contains("moves"));
+  }
+
+  /**
+   * Списку хватает краткой записи: ничего сверх нее не запрошено.
+   */
+  boolean isSummary() {
+    return fields == null && !moves;
+  }
+
+  boolean includesMoves() {
+    return moves;
+  }
+
+  boolean isSparse() {
+    return fields != null;
+  }
+
+  /**
+   * Ключ выбора для кеша ответов.
+   */
+  String key() {
+    String selected = fields == null ? "" : String.join(",", fields);
+    return moves ? selected + "+moves" : selected;
+  }
+
+  /**
+   * Поля, которые читаются из строки партии: выбранные без ходов и {@code required}.
+   */
+  Set<String> columns(String... required) {
+    Set<String> columns = new LinkedHashSet<>(fields);
+    columns.remove("moves");
+    columns.addAll(Set.of(required));
+    return columns;
+  }
+}
@@ -1,15 +1,21 @@
 package com.chess.api.controller;
 
 import com.chess.api.dto.ApiResponse;
+import com.chess.api.dto.RatingPointDTO;
 import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameType;
 import com.chess.api.service.PlayerService;
+import com.chess.api.service.RatingHistoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,6 +24,7 @@ import java.util.List;
 public class PlayerController {
 
   private final PlayerService playerService;
+  private final RatingHistoryService ratingHistoryService;
 
   @GetMapping
   public ResponseEntity<ApiResponse<List<Player>>> getAllPlayers() {
@@ -34,6 +41,18 @@ public class PlayerController {
     return ResponseEntity.ok(ApiResponse.success(players));
   }
 
+  @GetMapping("/{id}/rating-history")
+  public ResponseEntity<ApiResponse<List<RatingPointDTO>>> getRatingHistory(
+      @PathVariable Long id,
+      @RequestParam(defaultValue = "CLASSICAL") GameType gameType,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(defaultValue = "RAW") RatingHistoryService.Interval interval) {
+
+    List<RatingPointDTO> history = ratingHistoryService.getHistory(id, gameType, from, to, interval);
+    return ResponseEntity.ok(ApiResponse.success(history));
+  }
+
   @GetMapping("/test")
   public ResponseEntity<ApiResponse<Player>> createTestPlayer() {
     Player player = new Player();
@@ -0,0 +1,17 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisLineDTO {
+  private String move; // ход в формате UCI, например e2e4
+  private Integer score; // оценка в сантипешках с точки зрения белых
+  private Integer mate; // мат в N ходов (отрицательное - матуют белых), иначе null
+  private List<String> pv;
+}
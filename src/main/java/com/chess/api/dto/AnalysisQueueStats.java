@@ -0,0 +1,19 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisQueueStats {
+  private Integer queued;
+  private Integer queuedRequested; // из них запрошены игроками
+  private Integer running;
+  private Long completed;
+  private Long failed;
+  private Long dropped; // не поместились в очередь
+  private Double gamesPerMinute; // за последнюю минуту
+  private Double pliesPerSecond; // скорость одного потока анализа
+}
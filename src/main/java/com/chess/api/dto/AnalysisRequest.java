@@ -0,0 +1,24 @@
+package com.chess.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisRequest {
+
+  private String fen; // позиция для анализа
+  private Long gameId; // либо партия: позиция после хода ply (если null - последняя)
+  private Integer ply;
+
+  @Min(value = 1, message = "Глубина анализа от 1")
+  private Integer depth; // если null - глубина по умолчанию
+
+  @Min(value = 1, message = "Число вариантов от 1 до 5")
+  @Max(value = 5, message = "Число вариантов от 1 до 5")
+  private Integer multiPv = 1;
+}
@@ -0,0 +1,22 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Промежуточный или итоговый результат анализа, отправляется в /user/queue/analysis
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisUpdate {
+  private String type; // ANALYSIS_INFO, ANALYSIS_DONE
+  private String fen;
+  private Integer depth;
+  private Long nodes;
+  private Long elapsedMs;
+  private Boolean cached;
+  private List<AnalysisLineDTO> lines;
+  private String tablebase; // WIN, CURSED_WIN, DRAW, BLESSED_LOSS, LOSS с точки зрения белых; null - позиции нет в таблицах
+}
@@ -0,0 +1,14 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookMoveDTO {
+  private String move; // UCI, рокировка как e1g1
+  private Integer weight;
+  private Double share; // доля веса среди ходов позиции, %
+}
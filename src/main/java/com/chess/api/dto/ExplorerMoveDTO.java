@@ -0,0 +1,17 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExplorerMoveDTO {
+  private String move; // UCI
+  private Long games;
+  private Long whiteWins;
+  private Long draws;
+  private Long blackWins;
+  private Integer averageRating; // средний рейтинг соперников в партиях с этим ходом
+}
@@ -0,0 +1,19 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingStatus {
+  private Long id;
+  private String state; // NEW, RUNNING, STOPPED, CLOSED
+  private Instant startedAt;
+  private Long maxDurationSeconds;
+  private Long maxSizeMb;
+  private String file; // куда записывается дамп
+}
@@ -0,0 +1,21 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameAnalysisDTO {
+  private Long gameId;
+  private Integer depth;
+  private List<Integer> evals; // оценка каждой позиции с точки зрения белых, от начальной
+  private List<String> judgements; // по ходу: GOOD, INACCURACY, MISTAKE, BLUNDER
+  private Double whiteAccuracy;
+  private Double blackAccuracy;
+  private LocalDateTime analyzedAt;
+}
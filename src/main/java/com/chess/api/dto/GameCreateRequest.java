@@ -1,6 +1,8 @@
 package com.chess.api.dto;
 
 import com.chess.api.model.enums.GameType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,4 +22,13 @@ public class GameCreateRequest {
   private Boolean isPublic = true;
   private Long opponentId; // если null - игра ожидает случайного соперника
 
+  @Min(value = 1, message = "Уровень бота от 1 до 8")
+  @Max(value = 8, message = "Уровень бота от 1 до 8")
+  private Integer botLevel; // если задан - игра сразу начинается против бота
+
+  public GameCreateRequest(GameType gameType, Integer timeControl, Integer timeIncrement,
+                           Boolean isPublic, Long opponentId) {
+    this(gameType, timeControl, timeIncrement, isPublic, opponentId, null);
+  }
+
 }
\ No newline at end of file
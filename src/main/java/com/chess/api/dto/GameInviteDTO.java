@@ -22,4 +22,16 @@ public class GameInviteDTO {
   private LocalDateTime sentAt;
   private LocalDateTime respondedAt;
   private Long gameId;
+
+  /**
+   * Для выборки в JPQL: игроки приходят колонками того же запроса.
+   */
+  public GameInviteDTO(Long id, Long senderId, String senderUsername, Integer senderRating,
+                       Long receiverId, String receiverUsername, Integer receiverRating,
+                       GameType gameType, InviteStatus status, Integer timeControl, Integer timeIncrement,
+                       LocalDateTime sentAt, LocalDateTime respondedAt, Long gameId) {
+    this(id, new PlayerDTO(senderId, senderUsername, senderRating),
+        new PlayerDTO(receiverId, receiverUsername, receiverRating),
+        gameType, status, timeControl, timeIncrement, sentAt, respondedAt, gameId);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamePositionDTO {
+  private Long gameId;
+  private Integer ply;
+  private String fen;
+  private String lastMove; // UCI хода, приведшего к позиции; null для начальной
+  private String lastMoveSan;
+}
@@ -0,0 +1,9 @@
+package com.chess.api.dto;
+
+import com.chess.api.model.enums.GameStatus;
+
+/**
+ * Статус и версия партии без загрузки самой партии: по ним проверяется ETag.
+ */
+public record GameRevision(GameStatus status, Long version) {
+}
@@ -0,0 +1,25 @@
+package com.chess.api.dto;
+
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// DTO для обновления состояния игры через WebSocket
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameStateUpdate {
+  private String type;
+  private Game game;
+  private Move move;
+  private Move premove; // предход соперника, выполненный сразу после move
+  private String player;
+  private String result;
+  private LocalDateTime timestamp;
+  private Integer whiteLatencyMs; // сглаженный RTT игроков; null - еще не измерен
+  private Integer blackLatencyMs;
+}
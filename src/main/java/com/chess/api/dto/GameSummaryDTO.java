@@ -0,0 +1,38 @@
+package com.chess.api.dto;
+
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.model.enums.GameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Партия в списке: без позиции, PGN, ходов и отметок времени.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSummaryDTO {
+  private Long id;
+  private GameType gameType;
+  private GameStatus status;
+  private PlayerDTO whitePlayer;
+  private PlayerDTO blackPlayer;
+  private Integer timeControl;
+  private Integer timeIncrement;
+  private GameResult result;
+
+  /**
+   * Для выборки в JPQL; отсутствующий игрок приходит пустыми колонками.
+   */
+  public GameSummaryDTO(Long id, GameType gameType, GameStatus status,
+                        Long whiteId, String whiteUsername, Integer whiteRating,
+                        Long blackId, String blackUsername, Integer blackRating,
+                        Integer timeControl, Integer timeIncrement, GameResult result) {
+    this(id, gameType, status,
+        whiteId != null ? new PlayerDTO(whiteId, whiteUsername, whiteRating) : null,
+        blackId != null ? new PlayerDTO(blackId, blackUsername, blackRating) : null,
+        timeControl, timeIncrement, result);
+  }
+}
@@ -0,0 +1,17 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyStats {
+  private Integer sessions;
+  private Integer measured; // сессии, ответившие хотя бы на один ping
+  private Double averageRttMs;
+  private Double maxRttMs;
+  private Long compensatedMoves;
+  private Long compensatedMs; // всего возвращено игрокам
+}
@@ -0,0 +1,22 @@
+package com.chess.api.dto;
+
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionHitDTO {
+  private Long gameId;
+  private Integer ply; // первый полуход партии, после которого возникла позиция
+  private String whitePlayer;
+  private String blackPlayer;
+  private GameType gameType;
+  private GameResult result;
+  private LocalDateTime createdAt;
+}
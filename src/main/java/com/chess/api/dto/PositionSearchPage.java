@@ -0,0 +1,16 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Страница поиска по позиции, партии от новых к старым
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionSearchPage {
+  private List<PositionHitDTO> games;
+  private Long nextBefore; // передать как before для следующей страницы; null - страниц больше нет
+}
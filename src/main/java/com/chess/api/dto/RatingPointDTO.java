@@ -0,0 +1,15 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingPointDTO {
+  private LocalDateTime timestamp;
+  private Integer rating;
+}
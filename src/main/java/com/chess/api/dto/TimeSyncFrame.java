@@ -0,0 +1,20 @@
+package com.chess.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Часы партии на момент {@code serverTime}: клиент досчитывает ходящую сторону сам.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSyncFrame {
+  private String type;
+  private Long gameId;
+  private Integer whiteTimeLeft;
+  private Integer blackTimeLeft;
+  private String turn; // WHITE или BLACK - чьи часы идут
+  private Long serverTime; // монотонные миллисекунды сервера, только для сравнения кадров между собой
+}
@@ -0,0 +1,40 @@
+package com.chess.api.engine;
+
+import lombok.Getter;
+
+/**
+ * Уровни силы бота: глубина, потолок времени на ход и случайный шум при выборе из
+ * нескольких лучших вариантов.
+ */
+@Getter
+public enum BotLevel {
+  LEVEL_1(1, 1, 200, 200),
+  LEVEL_2(2, 2, 300, 120),
+  LEVEL_3(3, 3, 500, 80),
+  LEVEL_4(4, 4, 1000, 40),
+  LEVEL_5(5, 6, 2000, 20),
+  LEVEL_6(6, 8, 4000, 10),
+  LEVEL_7(7, 12, 8000, 0),
+  LEVEL_8(8, SearchLimits.MAX_DEPTH, 15000, 0);
+
+  private final int level;
+  private final int maxDepth;
+  private final long maxTimeMs;
+  private final int noiseCp;
+
+  BotLevel(int level, int maxDepth, long maxTimeMs, int noiseCp) {
+    this.level = level;
+    this.maxDepth = maxDepth;
+    this.maxTimeMs = maxTimeMs;
+    this.noiseCp = noiseCp;
+  }
+
+  public static BotLevel of(int level) {
+    for (BotLevel botLevel : values()) {
+      if (botLevel.level == level) {
+        return botLevel;
+      }
+    }
+    throw new IllegalArgumentException("Неверный уровень бота: " + level);
+  }
+}
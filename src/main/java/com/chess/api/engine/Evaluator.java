@@ -0,0 +1,184 @@
+package com.chess.api.engine;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.Side;
+
+/**
+ * Статическая оценка позиции: материал и таблицы фигура-поле
+ * (Simplified Evaluation Function), король - с плавным переходом к эндшпилю.
+ */
+public final class Evaluator {
+
+  private static final int PHASE_TOTAL = 24;
+
+  // Таблицы с точки зрения белых, первая строка - восьмая горизонталь
+  private static final int[] PAWN = {
+      0, 0, 0, 0, 0, 0, 0, 0,
+      50, 50, 50, 50, 50, 50, 50, 50,
+      10, 10, 20, 30, 30, 20, 10, 10,
+      5, 5, 10, 25, 25, 10, 5, 5,
+      0, 0, 0, 20, 20, 0, 0, 0,
+      5, -5, -10, 0, 0, -10, -5, 5,
+      5, 10, 10, -20, -20, 10, 10, 5,
+      0, 0, 0, 0, 0, 0, 0, 0
+  };
+
+  private static final int[] KNIGHT = {
+      -50, -40, -30, -30, -30, -30, -40, -50,
+      -40, -20, 0, 0, 0, 0, -20, -40,
+      -30, 0, 10, 15, 15, 10, 0, -30,
+      -30, 5, 15, 20, 20, 15, 5, -30,
+      -30, 0, 15, 20, 20, 15, 0, -30,
+      -30, 5, 10, 15, 15, 10, 5, -30,
+      -40, -20, 0, 5, 5, 0, -20, -40,
+      -50, -40, -30, -30, -30, -30, -40, -50
+  };
+
+  private static final int[] BISHOP = {
+      -20, -10, -10, -10, -10, -10, -10, -20,
+      -10, 0, 0, 0, 0, 0, 0, -10,
+      -10, 0, 5, 10, 10, 5, 0, -10,
+      -10, 5, 5, 10, 10, 5, 5, -10,
+      -10, 0, 10, 10, 10, 10, 0, -10,
+      -10, 10, 10, 10, 10, 10, 10, -10,
+      -10, 5, 0, 0, 0, 0, 5, -10,
+      -20, -10, -10, -10, -10, -10, -10, -20
+  };
+
+  private static final int[] ROOK = {
+      0, 0, 0, 0, 0, 0, 0, 0,
+      5, 10, 10, 10, 10, 10, 10, 5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      -5, 0, 0, 0, 0, 0, 0, -5,
+      0, 0, 0, 5, 5, 0, 0, 0
+  };
+
+  private static final int[] QUEEN = {
+      -20, -10, -10, -5, -5, -10, -10, -20,
+      -10, 0, 0, 0, 0, 0, 0, -10,
+      -10, 0, 5, 5, 5, 5, 0, -10,
+      -5, 0, 5, 5, 5, 5, 0, -5,
+      0, 0, 5, 5, 5, 5, 0, -5,
+      -10, 5, 5, 5, 5, 5, 0, -10,
+      -10, 0, 5, 0, 0, 0, 0, -10,
+      -20, -10, -10, -5, -5, -10, -10, -20
+  };
+
+  private static final int[] KING_MIDDLEGAME = {
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -30, -40, -40, -50, -50, -40, -40, -30,
+      -20, -30, -30, -40, -40, -30, -30, -20,
+      -10, -20, -20, -20, -20, -20, -20, -10,
+      20, 20, 0, 0, 0, 0, 20, 20,
+      20, 30, 10, 0, 0, 10, 30, 20
+  };
+
+  private static final int[] KING_ENDGAME = {
+      -50, -40, -30, -20, -20, -30, -40, -50,
+      -30, -20, -10, 0, 0, -10, -20, -30,
+      -30, -10, 20, 30, 30, 20, -10, -30,
+      -30, -10, 30, 40, 40, 30, -10, -30,
+      -30, -10, 30, 40, 40, 30, -10, -30,
+      -30, -10, 20, 30, 30, 20, -10, -30,
+      -30, -30, 0, 0, 0, 0, -30, -30,
+      -50, -30, -30, -30, -30, -30, -30, -50
+  };
+
+  private Evaluator() {
+  }
+
+  public static int pieceValue(PieceType type) {
+    if (type == null) {
+      return 0;
+    }
+    return switch (type) {
+      case PAWN -> 100;
+      case KNIGHT -> 320;
+      case BISHOP -> 330;
+      case ROOK -> 500;
+      case QUEEN -> 900;
+      case KING -> 20000;
+      default -> 0;
+    };
+  }
+
+  /**
+   * Оценка в сантипешках с точки зрения стороны, которая делает ход.
+   */
+  public static int evaluate(Board board) {
+    int material = 0;
+    int middlegame = 0;
+    int endgame = 0;
+    int phase = 0;
+
+    for (Piece piece : Piece.values()) {
+      if (piece == Piece.NONE) {
+        continue;
+      }
+      long bitboard = board.getBitboard(piece);
+      if (bitboard == 0) {
+        continue;
+      }
+
+      PieceType type = piece.getPieceType();
+      boolean white = piece.getPieceSide() == Side.WHITE;
+      int sign = white ? 1 : -1;
+
+      while (bitboard != 0) {
+        int square = Long.numberOfTrailingZeros(bitboard);
+        bitboard &= bitboard - 1;
+        int index = white ? (7 - (square >>> 3)) * 8 + (square & 7) : square;
+
+        switch (type) {
+          case PAWN -> {
+            material += sign * 100;
+            middlegame += sign * PAWN[index];
+            endgame += sign * PAWN[index];
+          }
+          case KNIGHT -> {
+            material += sign * 320;
+            middlegame += sign * KNIGHT[index];
+            endgame += sign * KNIGHT[index];
+            phase += 1;
+          }
+          case BISHOP -> {
+            material += sign * 330;
+            middlegame += sign * BISHOP[index];
+            endgame += sign * BISHOP[index];
+            phase += 1;
+          }
+          case ROOK -> {
+            material += sign * 500;
+            middlegame += sign * ROOK[index];
+            endgame += sign * ROOK[index];
+            phase += 2;
+          }
+          case QUEEN -> {
+            material += sign * 900;
+            middlegame += sign * QUEEN[index];
+            endgame += sign * QUEEN[index];
+            phase += 4;
+          }
+          case KING -> {
+            middlegame += sign * KING_MIDDLEGAME[index];
+            endgame += sign * KING_ENDGAME[index];
+          }
+          default -> {
+          }
+        }
+      }
+    }
+
+    phase = Math.min(phase, PHASE_TOTAL);
+    int positional = (middlegame * phase + endgame * (PHASE_TOTAL - phase)) / PHASE_TOTAL;
+    int score = material + positional;
+    return board.getSideToMove() == Side.WHITE ? score : -score;
+  }
+}
@@ -0,0 +1,81 @@
+package com.chess.api.engine;
+
+import com.chess.api.engine.tablebase.Tablebase;
+import com.github.bhlangonijr.chesslib.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Параллельный поиск по схеме Lazy SMP.
+ * <p>
+ * Все потоки ищут одну и ту же позицию независимо и обмениваются результатами только
+ * через общую {@link TranspositionTable}. Вспомогательные потоки стартуют с разной
+ * глубины, поэтому расходятся по дереву и заполняют таблицу для главного потока.
+ * Результат и промежуточные итерации берутся только из главного потока.
+ */
+public class LazySmpSearch {
+
+  private final String fen;
+  private final TranspositionTable table;
+  private final SearchLimits limits;
+  private final AtomicBoolean stop;
+  private final SearchListener listener;
+  private Tablebase tablebase = Tablebase.NONE;
+
+  public LazySmpSearch(String fen, TranspositionTable table, SearchLimits limits,
+                       AtomicBoolean stop, SearchListener listener) {
+    this.fen = fen;
+    this.table = table;
+    this.limits = limits;
+    this.stop = stop;
+    this.listener = listener;
+  }
+
+  public LazySmpSearch withTablebase(Tablebase tablebase) {
+    this.tablebase = tablebase;
+    return this;
+  }
+
+  /**
+   * Запускает главный поиск в текущем потоке и {@code helpers} вспомогательных в {@code executor}.
+   */
+  public SearchInfo run(int helpers, Executor executor) {
+    // Вспомогательным потокам multi-PV не нужен, а лимит узлов считает главный поток
+    SearchLimits helperLimits = new SearchLimits(limits.maxDepth(), 0, limits.softTimeMs(),
+        limits.hardTimeMs(), limits.cpuTimeMs(), 1);
+
+    List<Future<?>> started = new ArrayList<>(helpers);
+    for (int i = 0; i < helpers; i++) {
+      Search helper = new Search(board(), table, helperLimits, stop, null)
+          .withTablebase(tablebase)
+          .startingAt(1 + (i + 1) % 3);
+      FutureTask<SearchInfo> task = new FutureTask<>(helper::run);
+      executor.execute(task);
+      started.add(task);
+    }
+
+    try {
+      return new Search(board(), table, limits, stop, listener).withTablebase(tablebase).run();
+    } finally {
+      stop.set(true);
+      for (Future<?> task : started) {
+        try {
+          task.get();
+        } catch (Exception ignored) {
+          // результат вспомогательного потока не используется
+        }
+      }
+    }
+  }
+
+  private Board board() {
+    Board board = new Board();
+    board.loadFromFen(fen);
+    return board;
+  }
+}
@@ -0,0 +1,87 @@
+package com.chess.api.engine;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.Square;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перевод ходов между chesslib и форматами API: UCI ({@code e7e8q}) и полями сущности Move.
+ */
+public final class MoveNotation {
+
+  private MoveNotation() {
+  }
+
+  public static String toUci(Move move) {
+    String uci = move.getFrom().value().toLowerCase() + move.getTo().value().toLowerCase();
+    if (move.getPromotion() != null && move.getPromotion() != Piece.NONE) {
+      uci += promotionLetter(move.getPromotion().getPieceType()).toLowerCase();
+    }
+    return uci;
+  }
+
+  public static List<String> toUci(List<Move> moves) {
+    List<String> result = new ArrayList<>(moves.size());
+    for (Move move : moves) {
+      result.add(toUci(move));
+    }
+    return result;
+  }
+
+  /**
+   * @param promotion Q, R, B, N или null
+   */
+  public static Move fromSquares(String from, String to, String promotion, Side side) {
+    Square fromSquare = Square.fromValue(from.toUpperCase());
+    Square toSquare = Square.fromValue(to.toUpperCase());
+    if (promotion == null || promotion.isEmpty()) {
+      return new Move(fromSquare, toSquare);
+    }
+    PieceType type = switch (promotion.toUpperCase()) {
+      case "R" -> PieceType.ROOK;
+      case "B" -> PieceType.BISHOP;
+      case "N" -> PieceType.KNIGHT;
+      default -> PieceType.QUEEN;
+    };
+    return new Move(fromSquare, toSquare, Piece.make(side, type));
+  }
+
+  /**
+   * Применяет сохраненный ход партии к доске.
+   */
+  public static Move play(Board board, String from, String to, String promotion) {
+    Move chessMove = fromSquares(from, to, promotion, board.getSideToMove());
+    board.doMove(chessMove);
+    return chessMove;
+  }
+
+  /**
+   * Ключ позиции для индексов без поля взятия на проходе. После 1.e4 клиент присылает FEN
+   * с полем e3, а доска после сыгранного хода может его не держать; без поля обе дают один ключ.
+   */
+  public static long positionKey(Board board) {
+    if (board.getEnPassantTarget() == Square.NONE) {
+      return board.getIncrementalHashKey();
+    }
+    String[] fields = board.getFen().split(" ");
+    fields[3] = "-";
+    Board plain = new Board();
+    plain.loadFromFen(String.join(" ", fields));
+    return plain.getIncrementalHashKey();
+  }
+
+  public static String promotionLetter(PieceType type) {
+    return switch (type) {
+      case ROOK -> "R";
+      case BISHOP -> "B";
+      case KNIGHT -> "N";
+      default -> "Q";
+    };
+  }
+}
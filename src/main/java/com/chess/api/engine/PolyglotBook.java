@@ -0,0 +1,127 @@
+package com.chess.api.engine;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Дебютная книга Polyglot, отображенная в память.
+ * <p>
+ * Файл - отсортированные по ключу записи по 16 байт (big-endian): ключ 8 байт, ход 2,
+ * вес 2, learn 4. Поиск - бинарный по отображению, без копирования в кучу, так что
+ * размер книги не влияет на кучу. Буфер только читается абсолютными методами
+ * и безопасен для параллельного использования.
+ */
+public class PolyglotBook {
+
+  private static final int ENTRY_SIZE = 16;
+  private static final String[] PROMOTIONS = {"", "n", "b", "r", "q"};
+
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private final long entries;
+
+  private PolyglotBook(Path path, MappedByteBuffer buffer) {
+    this.path = path;
+    this.buffer = buffer;
+    this.entries = buffer.capacity() / ENTRY_SIZE;
+  }
+
+  public static PolyglotBook open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Книга больше 2 ГБ не поддерживается: " + path);
+      }
+      // Отображение остается действительным после закрытия канала
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.order(ByteOrder.BIG_ENDIAN);
+      return new PolyglotBook(path, buffer);
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long size() {
+    return entries;
+  }
+
+  /**
+   * @return ходы позиции в порядке файла (обычно по убыванию веса)
+   */
+  public List<BookMove> lookup(long key) {
+    List<BookMove> moves = new ArrayList<>(4);
+    for (long i = lowerBound(key); i < entries && keyAt(i) == key; i++) {
+      int offset = (int) (i * ENTRY_SIZE);
+      moves.add(new BookMove(decodeMove(buffer.getShort(offset + 8)), buffer.getShort(offset + 10) & 0xFFFF));
+    }
+    return moves;
+  }
+
+  /**
+   * Случайный ход с вероятностью, пропорциональной весу; null, если позиции в книге нет.
+   */
+  public BookMove pick(long key, RandomGenerator random) {
+    List<BookMove> moves = lookup(key);
+    int total = 0;
+    for (BookMove move : moves) {
+      total += move.weight();
+    }
+    if (total == 0) {
+      return moves.isEmpty() ? null : moves.get(0);
+    }
+    int point = random.nextInt(total);
+    for (BookMove move : moves) {
+      point -= move.weight();
+      if (point < 0) {
+        return move;
+      }
+    }
+    return moves.get(moves.size() - 1);
+  }
+
+  private long lowerBound(long key) {
+    long low = 0;
+    long high = entries;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private long keyAt(long index) {
+    return buffer.getLong((int) (index * ENTRY_SIZE));
+  }
+
+  // Биты: 0-2 вертикаль и 3-5 горизонталь "куда", 6-8 и 9-11 "откуда", 12-14 превращение
+  private static String decodeMove(short raw) {
+    int move = raw & 0xFFFF;
+    String to = square(move & 0x7, (move >> 3) & 0x7);
+    String from = square((move >> 6) & 0x7, (move >> 9) & 0x7);
+    int promotion = (move >> 12) & 0x7;
+    return from + to + (promotion < PROMOTIONS.length ? PROMOTIONS[promotion] : "");
+  }
+
+  private static String square(int file, int rank) {
+    return "" + (char) ('a' + file) + (char) ('1' + rank);
+  }
+
+  /**
+   * Ход книги в UCI. Рокировка в Polyglot записана как ход короля на ладью (e1h1).
+   */
+  public record BookMove(String uci, int weight) {
+  }
+}
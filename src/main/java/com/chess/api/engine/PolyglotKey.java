@@ -0,0 +1,149 @@
+package com.chess.api.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Хеш позиции в формате Polyglot.
+ * <p>
+ * Ключи книг Polyglot не совпадают с Zobrist-ключами chesslib, поэтому считаются отдельно
+ * по FEN с таблицей из 781 случайного числа (Random64 из спецификации формата).
+ * Таблица загружается из текстового файла: берутся все числа вида {@code 0x0123456789ABCDEF}.
+ * Без настроенного пути ищется ресурс {@value #RESOURCE} в classpath.
+ */
+public final class PolyglotKey {
+
+  public static final int RANDOM_COUNT = 781;
+  public static final String RESOURCE = "polyglot-random64.txt";
+
+  // Ключ начальной позиции из спецификации: по нему проверяется, что таблица та самая
+  public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+  public static final long STARTING_KEY = 0x463b96181691fc9cL;
+
+  private static final int CASTLE_OFFSET = 768;
+  private static final int EN_PASSANT_OFFSET = 772;
+  private static final int TURN_OFFSET = 780;
+  private static final Pattern HEX = Pattern.compile("0x([0-9A-Fa-f]{16})");
+
+  private final long[] random;
+
+  public PolyglotKey(long[] random) {
+    if (random.length != RANDOM_COUNT) {
+      throw new IllegalArgumentException("Нужно " + RANDOM_COUNT + " чисел Random64, получено " + random.length);
+    }
+    this.random = random.clone();
+  }
+
+  public static PolyglotKey load(Path path) throws IOException {
+    return parse(Files.readString(path, StandardCharsets.US_ASCII), "файле " + path);
+  }
+
+  /**
+   * Таблица из ресурса {@value #RESOURCE}; пусто, если ресурса нет.
+   */
+  public static Optional<PolyglotKey> loadResource() throws IOException {
+    try (InputStream in = PolyglotKey.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+      if (in == null) {
+        return Optional.empty();
+      }
+      return Optional.of(parse(new String(in.readAllBytes(), StandardCharsets.US_ASCII), "ресурсе " + RESOURCE));
+    }
+  }
+
+  private static PolyglotKey parse(String text, String source) {
+    Matcher matcher = HEX.matcher(text);
+    long[] random = new long[RANDOM_COUNT];
+    int count = 0;
+    while (matcher.find()) {
+      if (count == RANDOM_COUNT) {
+        throw new IllegalArgumentException("В " + source + " больше " + RANDOM_COUNT + " чисел");
+      }
+      random[count++] = Long.parseUnsignedLong(matcher.group(1), 16);
+    }
+    if (count != RANDOM_COUNT) {
+      throw new IllegalArgumentException("В " + source + " " + count + " чисел вместо " + RANDOM_COUNT);
+    }
+    return new PolyglotKey(random);
+  }
+
+  /**
+   * Таблица совпадает со спецификацией, если начальная позиция дает известный ключ.
+   */
+  public boolean isStandard() {
+    return of(STARTING_FEN) == STARTING_KEY;
+  }
+
+  public long of(String fen) {
+    String[] parts = fen.trim().split("\\s+");
+    char[][] board = new char[8][8];
+    long key = 0;
+
+    int rank = 7;
+    int file = 0;
+    for (int i = 0; i < parts[0].length(); i++) {
+      char c = parts[0].charAt(i);
+      if (c == '/') {
+        rank--;
+        file = 0;
+      } else if (Character.isDigit(c)) {
+        file += c - '0';
+      } else {
+        board[rank][file] = c;
+        key ^= random[64 * pieceKind(c) + 8 * rank + file];
+        file++;
+      }
+    }
+
+    boolean whiteToMove = parts.length < 2 || parts[1].equals("w");
+    String castling = parts.length > 2 ? parts[2] : "-";
+    if (castling.indexOf('K') >= 0) {
+      key ^= random[CASTLE_OFFSET];
+    }
+    if (castling.indexOf('Q') >= 0) {
+      key ^= random[CASTLE_OFFSET + 1];
+    }
+    if (castling.indexOf('k') >= 0) {
+      key ^= random[CASTLE_OFFSET + 2];
+    }
+    if (castling.indexOf('q') >= 0) {
+      key ^= random[CASTLE_OFFSET + 3];
+    }
+
+    // Поле взятия на проходе учитывается, только если рядом есть пешка, которая может взять
+    String enPassant = parts.length > 3 ? parts[3] : "-";
+    if (!enPassant.equals("-")) {
+      int epFile = enPassant.charAt(0) - 'a';
+      int pawnRank = whiteToMove ? 4 : 3;
+      char pawn = whiteToMove ? 'P' : 'p';
+      if ((epFile > 0 && board[pawnRank][epFile - 1] == pawn)
+          || (epFile < 7 && board[pawnRank][epFile + 1] == pawn)) {
+        key ^= random[EN_PASSANT_OFFSET + epFile];
+      }
+    }
+
+    if (whiteToMove) {
+      key ^= random[TURN_OFFSET];
+    }
+    return key;
+  }
+
+  // Черная пешка 0, белая пешка 1, черный конь 2, ... белый король 11
+  private static int pieceKind(char piece) {
+    int kind = switch (Character.toLowerCase(piece)) {
+      case 'p' -> 0;
+      case 'n' -> 1;
+      case 'b' -> 2;
+      case 'r' -> 3;
+      case 'q' -> 4;
+      case 'k' -> 5;
+      default -> throw new IllegalArgumentException("Неизвестная фигура: " + piece);
+    };
+    return kind * 2 + (Character.isUpperCase(piece) ? 1 : 0);
+  }
+}
@@ -0,0 +1,560 @@
+package com.chess.api.engine;
+
+import com.chess.api.engine.tablebase.Tablebase;
+import com.chess.api.engine.tablebase.Wdl;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Однопоточный поиск: итеративное углубление, альфа-бета с нулевым окном (PVS),
+ * сокращение поздних ходов, форсированный вариант по взятиям.
+ * <p>
+ * Порядок ходов: ход из хеш-таблицы, взятия по MVV-LVA, killer-ходы, история.
+ * Объект не потокобезопасен; параллельные поиски используют отдельные экземпляры
+ * с общей {@link TranspositionTable} и общим флагом остановки.
+ */
+public class Search {
+
+  public static final int INFINITE = 32000;
+  public static final int MATE = 30000;
+  public static final int MATE_BOUND = MATE - 1000;
+  /** Выигрыш по таблицам эндшпиля: выше любой оценки, но ниже мата */
+  public static final int TB_WIN = 20000;
+
+  private static final int MAX_PLY = 128;
+  private static final int CHECK_INTERVAL = 2047;
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final Board board;
+  private final TranspositionTable table;
+  private final SearchLimits limits;
+  private final AtomicBoolean stop;
+  private final SearchListener listener;
+
+  // Ключи позиций партии до корня и по текущему пути, для повторений
+  private final long[] keys;
+  private final int rootIndex;
+
+  private final Move[][] killers = new Move[MAX_PLY][2];
+  private final int[][] history = new int[64][64];
+
+  private long nodes;
+  private long startNanos;
+  private long startCpuNanos;
+  private boolean cpuTimeSupported;
+  private int startDepth = 1;
+  private Tablebase tablebase = Tablebase.NONE;
+
+  public Search(Board board, TranspositionTable table, SearchLimits limits,
+                AtomicBoolean stop, SearchListener listener) {
+    this(board, table, limits, stop, listener, new long[0]);
+  }
+
+  /**
+   * @param gameKeys хеши позиций партии до текущей (без нее), чтобы видеть повторения
+   */
+  public Search(Board board, TranspositionTable table, SearchLimits limits,
+                AtomicBoolean stop, SearchListener listener, long[] gameKeys) {
+    this.board = board;
+    this.table = table;
+    this.limits = limits;
+    this.stop = stop;
+    this.listener = listener;
+    this.keys = new long[gameKeys.length + MAX_PLY + 2];
+    System.arraycopy(gameKeys, 0, keys, 0, gameKeys.length);
+    this.rootIndex = gameKeys.length;
+  }
+
+  /**
+   * Глубина первой итерации; вспомогательные потоки Lazy SMP начинают с разной глубины.
+   */
+  public Search startingAt(int depth) {
+    this.startDepth = Math.max(1, depth);
+    return this;
+  }
+
+  /**
+   * Таблицы эндшпиля: проверяются в узлах сразу после взятия или хода пешки.
+   */
+  public Search withTablebase(Tablebase tablebase) {
+    this.tablebase = tablebase;
+    return this;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public SearchInfo run() {
+    return run(List.of());
+  }
+
+  /**
+   * @param excludedRootMoves ходы корня, которые не рассматриваются
+   */
+  public SearchInfo run(Collection<Move> excludedRootMoves) {
+    startNanos = System.nanoTime();
+    cpuTimeSupported = limits.cpuTimeMs() > 0 && THREADS.isCurrentThreadCpuTimeSupported();
+    startCpuNanos = cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : 0;
+    nodes = 0;
+
+    List<Move> rootMoves = new ArrayList<>();
+    for (Move move : board.legalMoves()) {
+      if (!excludedRootMoves.contains(move)) {
+        rootMoves.add(move);
+      }
+    }
+    if (rootMoves.isEmpty()) {
+      int score = board.isKingAttacked() ? -MATE : 0;
+      return new SearchInfo(0, 0, 0, List.of(new SearchLine(null, score, List.of())));
+    }
+
+    int lines = Math.min(limits.multiPv(), rootMoves.size());
+    int[] rootScores = new int[rootMoves.size()];
+    SearchInfo completed = null;
+
+    for (int depth = startDepth; depth <= limits.maxDepth(); depth++) {
+      List<SearchLine> iteration = searchRoot(depth, rootMoves, rootScores, lines);
+      if (iteration.isEmpty()) {
+        break;
+      }
+      if (iteration.size() < lines && completed != null) {
+        // Итерация прервана на середине multi-PV: оставляем предыдущую полностью
+        break;
+      }
+
+      completed = new SearchInfo(depth, nodes, elapsedMs(), iteration);
+      if (listener != null) {
+        listener.onIteration(completed);
+      }
+
+      if (stop.get() || iteration.size() < lines) {
+        break;
+      }
+      SearchLine best = iteration.get(0);
+      if (best.isMate() && Search.MATE - Math.abs(best.score()) <= depth) {
+        break;
+      }
+      if (limits.softTimeMs() > 0 && elapsedMs() >= limits.softTimeMs()) {
+        break;
+      }
+    }
+
+    if (completed == null) {
+      // Не успели ни одной итерации - берем первый ход после сортировки
+      Move fallback = rootMoves.get(0);
+      completed = new SearchInfo(0, nodes, elapsedMs(),
+          List.of(new SearchLine(fallback, 0, List.of(fallback))));
+    }
+    return completed;
+  }
+
+  private List<SearchLine> searchRoot(int depth, List<Move> rootMoves, int[] rootScores, int lines) {
+    List<SearchLine> result = new ArrayList<>(lines);
+    Set<Move> chosen = new HashSet<>();
+    keys[rootIndex] = board.getIncrementalHashKey();
+
+    for (int line = 0; line < lines; line++) {
+      int alpha = -INFINITE;
+      int beta = INFINITE;
+      Move best = null;
+      int bestIndex = -1;
+      boolean first = true;
+
+      for (int i = 0; i < rootMoves.size(); i++) {
+        Move move = rootMoves.get(i);
+        if (chosen.contains(move)) {
+          continue;
+        }
+
+        board.doMove(move);
+        int score;
+        if (first) {
+          score = -alphaBeta(depth - 1, -beta, -alpha, 1);
+        } else {
+          score = -alphaBeta(depth - 1, -alpha - 1, -alpha, 1);
+          if (score > alpha && !stop.get()) {
+            score = -alphaBeta(depth - 1, -beta, -alpha, 1);
+          }
+        }
+        board.undoMove();
+
+        if (stop.get()) {
+          break;
+        }
+        first = false;
+        rootScores[i] = score;
+        if (score > alpha) {
+          alpha = score;
+          best = move;
+          bestIndex = i;
+        }
+      }
+
+      if (stop.get() || best == null) {
+        break;
+      }
+      chosen.add(best);
+      result.add(new SearchLine(best, alpha, principalVariation(best, depth)));
+      rootScores[bestIndex] = alpha + INFINITE;
+    }
+
+    sortRoot(rootMoves, rootScores);
+    return result;
+  }
+
+  private int alphaBeta(int depth, int alpha, int beta, int ply) {
+    if ((++nodes & CHECK_INTERVAL) == 0) {
+      checkLimits();
+    }
+    if (stop.get()) {
+      return 0;
+    }
+
+    long key = board.getIncrementalHashKey();
+    keys[rootIndex + ply] = key;
+    if (isDraw(ply)) {
+      return 0;
+    }
+    if (ply >= MAX_PLY - 1) {
+      return Evaluator.evaluate(board);
+    }
+
+    // Расстояние до мата: дальше текущего найденного искать бессмысленно
+    alpha = Math.max(alpha, -MATE + ply);
+    beta = Math.min(beta, MATE - ply - 1);
+    if (alpha >= beta) {
+      return alpha;
+    }
+
+    // Таблицы хранят позиции без истории, поэтому точны только при обнуленном счетчике 50 ходов
+    Integer halfMoves = board.getHalfMoveCounter();
+    if ((halfMoves == null || halfMoves == 0) && tablebase.canProbe(board)) {
+      Optional<Wdl> wdl = tablebase.probeWdl(board);
+      if (wdl.isPresent()) {
+        return switch (wdl.get()) {
+          case WIN -> TB_WIN - ply;
+          case LOSS -> -TB_WIN + ply;
+          default -> 0;
+        };
+      }
+    }
+
+    boolean inCheck = board.isKingAttacked();
+    if (inCheck) {
+      depth++;
+    }
+    if (depth <= 0) {
+      return quiesce(alpha, beta, ply);
+    }
+
+    long entry = table.probe(key);
+    Move hashMove = null;
+    if (entry != 0) {
+      hashMove = TranspositionTable.move(entry);
+      if (TranspositionTable.depth(entry) >= depth && beta - alpha == 1) {
+        int score = fromTable(TranspositionTable.score(entry), ply);
+        int type = TranspositionTable.type(entry);
+        if (type == TranspositionTable.EXACT
+            || (type == TranspositionTable.LOWER && score >= beta)
+            || (type == TranspositionTable.UPPER && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    List<Move> moves = board.legalMoves();
+    if (moves.isEmpty()) {
+      return inCheck ? -MATE + ply : 0;
+    }
+    int[] order = orderMoves(moves, hashMove, ply);
+
+    int originalAlpha = alpha;
+    int bestScore = -INFINITE;
+    Move bestMove = null;
+
+    for (int i = 0; i < moves.size(); i++) {
+      Move move = pickNext(moves, order, i);
+      boolean quiet = isQuiet(move);
+
+      board.doMove(move);
+      int score;
+      if (i == 0) {
+        score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+      } else {
+        // Поздние тихие ходы сначала смотрим на меньшую глубину
+        int reduction = (depth >= 3 && i >= 4 && quiet && !inCheck) ? 1 + (i >= 12 ? 1 : 0) : 0;
+        score = -alphaBeta(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1);
+        if (score > alpha && reduction > 0) {
+          score = -alphaBeta(depth - 1, -alpha - 1, -alpha, ply + 1);
+        }
+        if (score > alpha && score < beta) {
+          score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+        }
+      }
+      board.undoMove();
+
+      if (stop.get()) {
+        return 0;
+      }
+
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = move;
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+      if (alpha >= beta) {
+        if (quiet) {
+          rememberKiller(move, ply);
+          history[move.getFrom().ordinal()][move.getTo().ordinal()] += depth * depth;
+        }
+        break;
+      }
+    }
+
+    int type = bestScore >= beta ? TranspositionTable.LOWER
+        : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+    table.store(key, bestMove, toTable(bestScore, ply), depth, type);
+    return bestScore;
+  }
+
+  private int quiesce(int alpha, int beta, int ply) {
+    if ((++nodes & CHECK_INTERVAL) == 0) {
+      checkLimits();
+    }
+    if (stop.get()) {
+      return 0;
+    }
+
+    boolean inCheck = board.isKingAttacked();
+    int bestScore;
+    if (inCheck) {
+      bestScore = -MATE + ply;
+    } else {
+      bestScore = Evaluator.evaluate(board);
+      if (bestScore >= beta || ply >= MAX_PLY - 1) {
+        return bestScore;
+      }
+      alpha = Math.max(alpha, bestScore);
+    }
+
+    List<Move> moves = board.legalMoves();
+    if (moves.isEmpty()) {
+      return inCheck ? -MATE + ply : 0;
+    }
+
+    // Под шахом смотрим все ответы, иначе только взятия и превращения
+    List<Move> candidates = inCheck ? moves : new ArrayList<>();
+    if (!inCheck) {
+      for (Move move : moves) {
+        if (!isQuiet(move)) {
+          candidates.add(move);
+        }
+      }
+    }
+    int[] order = orderMoves(candidates, null, ply);
+
+    for (int i = 0; i < candidates.size(); i++) {
+      Move move = pickNext(candidates, order, i);
+      board.doMove(move);
+      int score = -quiesce(-beta, -alpha, ply + 1);
+      board.undoMove();
+
+      if (stop.get()) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    return bestScore;
+  }
+
+  private boolean isDraw(int ply) {
+    Integer halfMoves = board.getHalfMoveCounter();
+    int reversible = halfMoves == null ? 0 : halfMoves;
+    if (reversible >= 100) {
+      return true;
+    }
+    int current = rootIndex + ply;
+    long key = keys[current];
+    int limit = Math.max(0, current - reversible);
+    for (int i = current - 2; i >= limit; i -= 2) {
+      if (keys[i] == key) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int[] orderMoves(List<Move> moves, Move hashMove, int ply) {
+    int[] scores = new int[moves.size()];
+    for (int i = 0; i < moves.size(); i++) {
+      Move move = moves.get(i);
+      if (move.equals(hashMove)) {
+        scores[i] = 1_000_000;
+        continue;
+      }
+      Piece victim = board.getPiece(move.getTo());
+      Piece attacker = board.getPiece(move.getFrom());
+      boolean promotion = move.getPromotion() != null && move.getPromotion() != Piece.NONE;
+      if (victim != Piece.NONE || promotion || isEnPassant(move, attacker, victim)) {
+        int victimValue = victim == Piece.NONE ? Evaluator.pieceValue(PieceType.PAWN)
+            : Evaluator.pieceValue(victim.getPieceType());
+        int promotionValue = promotion ? Evaluator.pieceValue(move.getPromotion().getPieceType()) : 0;
+        scores[i] = 500_000 + victimValue * 10 + promotionValue
+            - Evaluator.pieceValue(attacker.getPieceType()) / 10;
+      } else if (ply < MAX_PLY && move.equals(killers[ply][0])) {
+        scores[i] = 400_000;
+      } else if (ply < MAX_PLY && move.equals(killers[ply][1])) {
+        scores[i] = 399_000;
+      } else {
+        scores[i] = Math.min(history[move.getFrom().ordinal()][move.getTo().ordinal()], 300_000);
+      }
+    }
+    return scores;
+  }
+
+  // Выборочная сортировка: при отсечении остальные ходы не сортируются
+  private Move pickNext(List<Move> moves, int[] scores, int index) {
+    int best = index;
+    for (int i = index + 1; i < moves.size(); i++) {
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+    if (best != index) {
+      Move move = moves.get(best);
+      moves.set(best, moves.get(index));
+      moves.set(index, move);
+      int score = scores[best];
+      scores[best] = scores[index];
+      scores[index] = score;
+    }
+    return moves.get(index);
+  }
+
+  private boolean isQuiet(Move move) {
+    Piece victim = board.getPiece(move.getTo());
+    if (victim != Piece.NONE) {
+      return false;
+    }
+    if (move.getPromotion() != null && move.getPromotion() != Piece.NONE) {
+      return false;
+    }
+    return !isEnPassant(move, board.getPiece(move.getFrom()), victim);
+  }
+
+  private boolean isEnPassant(Move move, Piece mover, Piece victim) {
+    return victim == Piece.NONE
+        && mover != Piece.NONE
+        && mover.getPieceType() == PieceType.PAWN
+        && move.getFrom().getFile() != move.getTo().getFile();
+  }
+
+  private void rememberKiller(Move move, int ply) {
+    if (ply >= MAX_PLY || move.equals(killers[ply][0])) {
+      return;
+    }
+    killers[ply][1] = killers[ply][0];
+    killers[ply][0] = move;
+  }
+
+  private void sortRoot(List<Move> rootMoves, int[] rootScores) {
+    for (int i = 1; i < rootMoves.size(); i++) {
+      Move move = rootMoves.get(i);
+      int score = rootScores[i];
+      int j = i - 1;
+      while (j >= 0 && rootScores[j] < score) {
+        rootMoves.set(j + 1, rootMoves.get(j));
+        rootScores[j + 1] = rootScores[j];
+        j--;
+      }
+      rootMoves.set(j + 1, move);
+      rootScores[j + 1] = score;
+    }
+    for (int i = 0; i < rootScores.length; i++) {
+      if (rootScores[i] > INFINITE) {
+        rootScores[i] -= INFINITE;
+      }
+    }
+  }
+
+  private List<Move> principalVariation(Move first, int depth) {
+    List<Move> pv = new ArrayList<>();
+    pv.add(first);
+    board.doMove(first);
+    int played = 1;
+
+    while (played < depth) {
+      long entry = table.probe(board.getIncrementalHashKey());
+      Move next = entry == 0 ? null : TranspositionTable.move(entry);
+      if (next == null || !board.legalMoves().contains(next)) {
+        break;
+      }
+      pv.add(next);
+      board.doMove(next);
+      played++;
+    }
+
+    for (int i = 0; i < played; i++) {
+      board.undoMove();
+    }
+    return pv;
+  }
+
+  private void checkLimits() {
+    if (limits.hardTimeMs() > 0 && elapsedMs() >= limits.hardTimeMs()) {
+      stop.set(true);
+    } else if (limits.maxNodes() > 0 && nodes >= limits.maxNodes()) {
+      stop.set(true);
+    } else if (cpuTimeSupported
+        && (THREADS.getCurrentThreadCpuTime() - startCpuNanos) / 1_000_000 >= limits.cpuTimeMs()) {
+      stop.set(true);
+    }
+  }
+
+  private long elapsedMs() {
+    return (System.nanoTime() - startNanos) / 1_000_000;
+  }
+
+  private static int toTable(int score, int ply) {
+    if (score >= MATE_BOUND) {
+      return score + ply;
+    }
+    if (score <= -MATE_BOUND) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTable(int score, int ply) {
+    if (score >= MATE_BOUND) {
+      return score - ply;
+    }
+    if (score <= -MATE_BOUND) {
+      return score + ply;
+    }
+    return score;
+  }
+}
@@ -0,0 +1,13 @@
+package com.chess.api.engine;
+
+import java.util.List;
+
+/**
+ * Результат завершенной итерации поиска.
+ */
+public record SearchInfo(int depth, long nodes, long elapsedMs, List<SearchLine> lines) {
+
+  public SearchLine best() {
+    return lines.isEmpty() ? null : lines.get(0);
+  }
+}
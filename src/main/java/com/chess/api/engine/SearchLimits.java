@@ -0,0 +1,30 @@
+package com.chess.api.engine;
+
+/**
+ * Ограничения поиска. Нулевое значение означает "без ограничения".
+ *
+ * @param maxDepth    максимальная глубина итеративного углубления
+ * @param maxNodes    бюджет узлов
+ * @param softTimeMs  после этого времени новая итерация не начинается
+ * @param hardTimeMs  после этого времени поиск прерывается
+ * @param cpuTimeMs   предел процессорного времени потока поиска
+ * @param multiPv     число лучших вариантов
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long softTimeMs, long hardTimeMs,
+                           long cpuTimeMs, int multiPv) {
+
+  public static final int MAX_DEPTH = 64;
+
+  public SearchLimits {
+    maxDepth = maxDepth <= 0 ? MAX_DEPTH : Math.min(maxDepth, MAX_DEPTH);
+    multiPv = Math.max(1, multiPv);
+  }
+
+  public static SearchLimits depth(int depth) {
+    return new SearchLimits(depth, 0, 0, 0, 0, 1);
+  }
+
+  public SearchLimits withMultiPv(int lines) {
+    return new SearchLimits(maxDepth, maxNodes, softTimeMs, hardTimeMs, cpuTimeMs, lines);
+  }
+}
@@ -0,0 +1,27 @@
+package com.chess.api.engine;
+
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.List;
+
+/**
+ * Один вариант: ход, оценка с точки зрения стороны, которая ходит, и главная линия.
+ */
+public record SearchLine(Move move, int score, List<Move> pv) {
+
+  public boolean isMate() {
+    return Math.abs(score) >= Search.MATE_BOUND;
+  }
+
+  /**
+   * Мат в N ходов (отрицательное - нас матуют), 0 если оценка не матовая.
+   */
+  public int mateIn() {
+    if (!isMate()) {
+      return 0;
+    }
+    int plies = Search.MATE - Math.abs(score);
+    int moves = (plies + 1) / 2;
+    return score > 0 ? moves : -moves;
+  }
+}
@@ -0,0 +1,7 @@
+package com.chess.api.engine;
+
+@FunctionalInterface
+public interface SearchListener {
+
+  void onIteration(SearchInfo info);
+}
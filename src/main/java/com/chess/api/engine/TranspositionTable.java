@@ -0,0 +1,121 @@
+package com.chess.api.engine;
+
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Square;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Общая для всех потоков хеш-таблица позиций без блокировок.
+ * <p>
+ * Запись - два long: {@code key ^ data} и {@code data}. Если другой поток перезаписал
+ * слот между чтениями, ключ не сойдется и запись будет отброшена (схема Хайетта).
+ * <p>
+ * Формат data: 16 бит ход, 16 бит оценка, 8 бит глубина, 2 бита тип, 8 бит поколение.
+ */
+public class TranspositionTable {
+
+  public static final int EXACT = 0;
+  public static final int LOWER = 1;
+  public static final int UPPER = 2;
+
+  private static final Square[] SQUARES = Square.values();
+  private static final Piece[] PIECES = Piece.values();
+
+  private final AtomicLongArray slots;
+  private final int mask;
+  private volatile int generation;
+
+  public TranspositionTable(int sizeMb) {
+    long entries = Math.max(1024, (long) sizeMb * 1024 * 1024 / 16);
+    int capacity = Integer.highestOneBit((int) Math.min(entries, 1 << 28));
+    this.slots = new AtomicLongArray(capacity * 2);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Новое поколение: старые записи вытесняются в первую очередь.
+   */
+  public void newSearch() {
+    generation = (generation + 1) & 0xFF;
+  }
+
+  public void clear() {
+    for (int i = 0; i < slots.length(); i++) {
+      slots.setOpaque(i, 0);
+    }
+  }
+
+  /**
+   * @return упакованные данные записи или 0, если позиции нет
+   */
+  public long probe(long key) {
+    int index = (int) (key & mask) << 1;
+    long check = slots.getOpaque(index);
+    long data = slots.getOpaque(index + 1);
+    return data != 0 && (check ^ data) == key ? data : 0;
+  }
+
+  public void store(long key, Move move, int score, int depth, int type) {
+    int index = (int) (key & mask) << 1;
+    long existing = slots.getOpaque(index + 1);
+    boolean sameKey = existing != 0 && (slots.getOpaque(index) ^ existing) == key;
+
+    // Не затираем более глубокую запись текущего поколения другой позицией
+    if (existing != 0 && !sameKey && generation(existing) == generation && depth(existing) > depth) {
+      return;
+    }
+
+    int packedMove = encodeMove(move);
+    if (packedMove == 0 && sameKey) {
+      packedMove = (int) (existing & 0xFFFF);
+    }
+
+    long data = (packedMove & 0xFFFFL)
+        | ((long) (score & 0xFFFF) << 16)
+        | ((long) (Math.max(0, Math.min(255, depth)) & 0xFF) << 32)
+        | ((long) (type & 0x3) << 40)
+        | ((long) (generation & 0xFF) << 42)
+        | (1L << 50);
+
+    slots.setOpaque(index, key ^ data);
+    slots.setOpaque(index + 1, data);
+  }
+
+  public static int score(long data) {
+    return (short) ((data >>> 16) & 0xFFFF);
+  }
+
+  public static int depth(long data) {
+    return (int) ((data >>> 32) & 0xFF);
+  }
+
+  public static int type(long data) {
+    return (int) ((data >>> 40) & 0x3);
+  }
+
+  private static int generation(long data) {
+    return (int) ((data >>> 42) & 0xFF);
+  }
+
+  public static Move move(long data) {
+    int packed = (int) (data & 0xFFFF);
+    if (packed == 0) {
+      return null;
+    }
+    Square from = SQUARES[packed & 0x3F];
+    Square to = SQUARES[(packed >>> 6) & 0x3F];
+    int promotion = (packed >>> 12) & 0xF;
+    return promotion == 0 ? new Move(from, to) : new Move(from, to, PIECES[promotion - 1]);
+  }
+
+  private static int encodeMove(Move move) {
+    if (move == null) {
+      return 0;
+    }
+    int promotion = move.getPromotion() == null || move.getPromotion() == Piece.NONE
+        ? 0 : move.getPromotion().ordinal() + 1;
+    return move.getFrom().ordinal() | (move.getTo().ordinal() << 6) | (promotion << 12);
+  }
+}
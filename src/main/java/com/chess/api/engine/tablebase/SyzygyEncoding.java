@@ -0,0 +1,120 @@
+package com.chess.api.engine.tablebase;
+
+/**
+ * Таблицы перевода расстановки в индекс позиции в файле Syzygy.
+ * <p>
+ * Поля нумеруются как в chesslib: a1 = 0, b1 = 1, ..., h8 = 63.
+ */
+final class SyzygyEncoding {
+
+  /** Поле под диагональю a1-h8 -> 0..27 */
+  static final int[] MAP_B1H1H7 = new int[64];
+  /** Поле треугольника a1-d1-d4 -> 0..9, поля диагонали последними */
+  static final int[] MAP_A1D1D4 = new int[64];
+  /** Все 462 допустимые пары королей, первый - в треугольнике a1-d1-d4 */
+  static final int[][] MAP_KK = new int[10][64];
+  /** Пешечные поля a2-h7 -> 0..47; ведущая пешка - с наибольшим значением */
+  static final int[] MAP_PAWNS = new int[64];
+  static final long[][] BINOMIAL = new long[6][64];
+  static final int[][] LEAD_PAWN_IDX = new int[6][64];
+  static final int[][] LEAD_PAWNS_SIZE = new int[6][4];
+
+  static {
+    int code = 0;
+    for (int s = 0; s < 64; s++) {
+      if (offA1H8(s) < 0) {
+        MAP_B1H1H7[s] = code++;
+      }
+    }
+
+    code = 0;
+    int[] diagonal = new int[4];
+    int diagonalCount = 0;
+    for (int s = 0; s <= 27; s++) {
+      if (offA1H8(s) < 0 && file(s) <= 3) {
+        MAP_A1D1D4[s] = code++;
+      } else if (offA1H8(s) == 0 && file(s) <= 3) {
+        diagonal[diagonalCount++] = s;
+      }
+    }
+    for (int i = 0; i < diagonalCount; i++) {
+      MAP_A1D1D4[diagonal[i]] = code++;
+    }
+
+    // Пары с обоими королями на диагонали кодируются последними
+    code = 0;
+    int[][] bothOnDiagonal = new int[64][2];
+    int bothCount = 0;
+    for (int idx = 0; idx < 10; idx++) {
+      for (int s1 = 0; s1 <= 27; s1++) {
+        if (MAP_A1D1D4[s1] != idx || (idx == 0 && s1 != 1)) {
+          continue;
+        }
+        for (int s2 = 0; s2 < 64; s2++) {
+          if (Math.abs(file(s1) - file(s2)) <= 1 && Math.abs(rank(s1) - rank(s2)) <= 1) {
+            continue;
+          } else if (offA1H8(s1) == 0 && offA1H8(s2) > 0) {
+            continue;
+          } else if (offA1H8(s1) == 0 && offA1H8(s2) == 0) {
+            bothOnDiagonal[bothCount][0] = idx;
+            bothOnDiagonal[bothCount++][1] = s2;
+          } else {
+            MAP_KK[idx][s2] = code++;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < bothCount; i++) {
+      MAP_KK[bothOnDiagonal[i][0]][bothOnDiagonal[i][1]] = code++;
+    }
+
+    BINOMIAL[0][0] = 1;
+    for (int n = 1; n < 64; n++) {
+      for (int k = 0; k < 6 && k <= n; k++) {
+        BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0) + (k < n ? BINOMIAL[k][n - 1] : 0);
+      }
+    }
+
+    // Индексы ведущих пешек считаются отдельно для каждой вертикали a-d: файл разбит по ним
+    int availableSquares = 47;
+    for (int leadPawns = 1; leadPawns <= 5; leadPawns++) {
+      for (int f = 0; f <= 3; f++) {
+        int idx = 0;
+        for (int r = 1; r <= 6; r++) {
+          int sq = r * 8 + f;
+          if (leadPawns == 1) {
+            MAP_PAWNS[sq] = availableSquares--;
+            MAP_PAWNS[flipFile(sq)] = availableSquares--;
+          }
+          LEAD_PAWN_IDX[leadPawns][sq] = idx;
+          idx += (int) BINOMIAL[leadPawns - 1][MAP_PAWNS[sq]];
+        }
+        LEAD_PAWNS_SIZE[leadPawns][f] = idx;
+      }
+    }
+  }
+
+  private SyzygyEncoding() {
+  }
+
+  static int file(int sq) {
+    return sq & 7;
+  }
+
+  static int rank(int sq) {
+    return sq >> 3;
+  }
+
+  static int flipFile(int sq) {
+    return sq ^ 7;
+  }
+
+  static int flipRank(int sq) {
+    return sq ^ 56;
+  }
+
+  /** Положительное - над диагональю a1-h8, 0 - на ней */
+  static int offA1H8(int sq) {
+    return rank(sq) - file(sq);
+  }
+}
@@ -0,0 +1,553 @@
+package com.chess.api.engine.tablebase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static com.chess.api.engine.tablebase.SyzygyEncoding.BINOMIAL;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.LEAD_PAWNS_SIZE;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.LEAD_PAWN_IDX;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.MAP_A1D1D4;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.MAP_B1H1H7;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.MAP_KK;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.MAP_PAWNS;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.file;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.flipFile;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.flipRank;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.offA1H8;
+import static com.chess.api.engine.tablebase.SyzygyEncoding.rank;
+
+/**
+ * Один файл Syzygy (.rtbw или .rtbz), отображенный в память.
+ * <p>
+ * Разбор заголовка и распаковка следуют формату Рональда де Мана в том виде, в каком он
+ * реализован в Stockfish (tbprobe.cpp): позиция переводится в индекс, индекс - в блок
+ * через разреженный индекс, блок распаковывается с помощью канонического кода Хаффмана
+ * и дерева пар символов. После конструктора объект только читается и потокобезопасен.
+ * <p>
+ * Фигуры кодируются как в файлах: 1-6 белые пешка..король, 9-14 черные.
+ */
+final class SyzygyTable {
+
+  static final int CHANGE_STM = Integer.MIN_VALUE;
+
+  private static final int[] WDL_MAGIC = {0x71, 0xE8, 0x23, 0x5D};
+  private static final int[] DTZ_MAGIC = {0xD7, 0x66, 0x0C, 0xA5};
+
+  private static final int SPLIT = 1;
+  private static final int HAS_PAWNS = 2;
+
+  private static final int FLAG_STM = 1;
+  private static final int FLAG_MAPPED = 2;
+  private static final int FLAG_WIN_PLIES = 4;
+  private static final int FLAG_LOSS_PLIES = 8;
+  private static final int FLAG_WIDE = 16;
+  private static final int FLAG_SINGLE_VALUE = 128;
+
+  private static final int[] WDL_TO_MAP = {1, 3, 0, 2, 0};
+
+  private final ByteBuffer data;
+  private final ByteBuffer bigEndian;
+  private final boolean dtz;
+  private final int pieceCount;
+  private final boolean hasPawns;
+  private final boolean hasUniquePieces;
+  private final boolean bothSidesHavePawns;
+  private final boolean symmetric;
+  private final Pairs[][] pairs;
+  private int mapOffset;
+
+  /**
+   * @param code имя таблицы, например {@code KRPvKR}
+   */
+  SyzygyTable(ByteBuffer buffer, String code, boolean dtz) {
+    this.data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    this.bigEndian = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    this.dtz = dtz;
+
+    String[] sides = code.split("v");
+    this.pieceCount = code.length() - 1;
+    this.hasPawns = code.indexOf('P') >= 0;
+    this.symmetric = sides[0].equals(sides[1]);
+    this.bothSidesHavePawns = sides[0].indexOf('P') >= 0 && sides[1].indexOf('P') >= 0;
+    this.hasUniquePieces = hasUniquePieces(sides[0]) || hasUniquePieces(sides[1]);
+
+    int[] magic = dtz ? DTZ_MAGIC : WDL_MAGIC;
+    for (int i = 0; i < 4; i++) {
+      if (u8(i) != magic[i]) {
+        throw new IllegalArgumentException("Неверная сигнатура файла таблицы " + code);
+      }
+    }
+
+    int p = 4;
+    int header = u8(p++);
+    if (((header & HAS_PAWNS) != 0) != hasPawns || !dtz && ((header & SPLIT) != 0) == symmetric) {
+      throw new IllegalArgumentException("Заголовок таблицы " + code + " не соответствует материалу");
+    }
+
+    int sideCount = !dtz && !symmetric ? 2 : 1;
+    int maxFile = hasPawns ? 3 : 0;
+    pairs = new Pairs[sideCount][maxFile + 1];
+
+    for (int f = 0; f <= maxFile; f++) {
+      for (int i = 0; i < sideCount; i++) {
+        pairs[i][f] = new Pairs();
+      }
+      int[][] order = {
+          {u8(p) & 0xF, bothSidesHavePawns ? u8(p + 1) & 0xF : 0xF},
+          {u8(p) >> 4, bothSidesHavePawns ? u8(p + 1) >> 4 : 0xF}
+      };
+      p += bothSidesHavePawns ? 2 : 1;
+      for (int k = 0; k < pieceCount; k++, p++) {
+        for (int i = 0; i < sideCount; i++) {
+          pairs[i][f].pieces[k] = i == 1 ? u8(p) >> 4 : u8(p) & 0xF;
+        }
+      }
+      for (int i = 0; i < sideCount; i++) {
+        setGroups(pairs[i][f], order[i], f);
+      }
+    }
+
+    p += p & 1;
+    for (int f = 0; f <= maxFile; f++) {
+      for (int i = 0; i < sideCount; i++) {
+        p = setSizes(pairs[i][f], p);
+      }
+    }
+    if (dtz) {
+      p = setDtzMap(p, maxFile);
+    }
+    for (int f = 0; f <= maxFile; f++) {
+      for (int i = 0; i < sideCount; i++) {
+        pairs[i][f].sparseIndex = p;
+        p += (int) (pairs[i][f].sparseIndexSize * 6);
+      }
+    }
+    for (int f = 0; f <= maxFile; f++) {
+      for (int i = 0; i < sideCount; i++) {
+        pairs[i][f].blockLength = p;
+        p += pairs[i][f].blockLengthSize * 2;
+      }
+    }
+    for (int f = 0; f <= maxFile; f++) {
+      for (int i = 0; i < sideCount; i++) {
+        p = (p + 0x3F) & ~0x3F;
+        pairs[i][f].data = p;
+        p += (int) (pairs[i][f].numBlocks * pairs[i][f].sizeofBlock);
+      }
+    }
+  }
+
+  /**
+   * Значение из таблицы: для WDL - от 0 (проигрыш) до 4 (выигрыш), для DTZ - расстояние
+   * до обнуления счетчика 50 ходов в полуходах или {@link #CHANGE_STM}, если таблица
+   * хранит позиции только для другой стороны.
+   *
+   * @param board         фигуры по полям, 0 - пусто
+   * @param blackStronger материал белых совпадает со второй половиной имени таблицы
+   * @param wdl           результат позиции от -2 до 2, нужен только для DTZ
+   */
+  int probe(int[] board, boolean blackToMove, boolean blackStronger, int wdl) {
+    boolean flip = symmetric ? blackToMove : blackStronger;
+    int flipColor = flip ? 8 : 0;
+    int flipSquares = flip ? 56 : 0;
+    int stm = (flip ? 1 : 0) ^ (blackToMove ? 1 : 0);
+
+    int[] squares = new int[pieceCount];
+    int[] pieces = new int[pieceCount];
+    boolean[] leading = new boolean[64];
+    int size = 0;
+    int leadPawnsCount = 0;
+    int tbFile = 0;
+
+    if (hasPawns) {
+      // Цвет ведущих пешек задан первой фигурой в любой из таблиц
+      int pawn = pairs[0][0].pieces[0] ^ flipColor;
+      for (int sq = 0; sq < 64; sq++) {
+        if (board[sq] == pawn) {
+          leading[sq] = true;
+          squares[size++] = sq ^ flipSquares;
+        }
+      }
+      leadPawnsCount = size;
+      int max = 0;
+      for (int i = 1; i < leadPawnsCount; i++) {
+        if (MAP_PAWNS[squares[i]] > MAP_PAWNS[squares[max]]) {
+          max = i;
+        }
+      }
+      swap(squares, 0, max);
+      tbFile = Math.min(file(squares[0]), 7 - file(squares[0]));
+    }
+
+    if (dtz) {
+      int flags = pairs[0][tbFile].flags;
+      if ((flags & FLAG_STM) != stm && !(symmetric && !hasPawns)) {
+        return CHANGE_STM;
+      }
+    }
+
+    for (int sq = 0; sq < 64; sq++) {
+      if (board[sq] != 0 && !leading[sq]) {
+        squares[size] = sq ^ flipSquares;
+        pieces[size++] = board[sq] ^ flipColor;
+      }
+    }
+
+    Pairs d = pairs[dtz ? 0 : stm][tbFile];
+
+    // Порядок фигур как в файле - тот, при котором таблица лучше сжимается
+    for (int i = leadPawnsCount; i < size - 1; i++) {
+      for (int j = i + 1; j < size; j++) {
+        if (d.pieces[i] == pieces[j]) {
+          swap(pieces, i, j);
+          swap(squares, i, j);
+          break;
+        }
+      }
+    }
+
+    // Ведущая фигура - в треугольник a1-d1-d4
+    if (file(squares[0]) > 3) {
+      for (int i = 0; i < size; i++) {
+        squares[i] = flipFile(squares[i]);
+      }
+    }
+
+    long idx;
+    if (hasPawns) {
+      idx = LEAD_PAWN_IDX[leadPawnsCount][squares[0]];
+      sortByPawnMap(squares, 1, leadPawnsCount);
+      for (int i = 1; i < leadPawnsCount; i++) {
+        idx += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+      }
+    } else {
+      if (rank(squares[0]) > 3) {
+        for (int i = 0; i < size; i++) {
+          squares[i] = flipRank(squares[i]);
+        }
+      }
+      for (int i = 0; i < d.groupLen[0]; i++) {
+        int off = offA1H8(squares[i]);
+        if (off == 0) {
+          continue;
+        }
+        if (off > 0) {
+          for (int j = i; j < size; j++) {
+            squares[j] = ((squares[j] >> 3) | (squares[j] << 3)) & 63;
+          }
+        }
+        break;
+      }
+      idx = hasUniquePieces ? encodeUnique(squares) : MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]];
+    }
+
+    idx *= d.groupIdx[0];
+    int groupStart = d.groupLen[0];
+    boolean remainingPawns = hasPawns && bothSidesHavePawns;
+    int next = 0;
+    while (d.groupLen[++next] != 0) {
+      int length = d.groupLen[next];
+      Arrays.sort(squares, groupStart, groupStart + length);
+      long n = 0;
+      for (int i = 0; i < length; i++) {
+        int sq = squares[groupStart + i];
+        int adjust = 0;
+        for (int k = 0; k < groupStart; k++) {
+          if (sq > squares[k]) {
+            adjust++;
+          }
+        }
+        n += BINOMIAL[i + 1][sq - adjust - (remainingPawns ? 8 : 0)];
+      }
+      remainingPawns = false;
+      idx += n * d.groupIdx[next];
+      groupStart += length;
+    }
+
+    int value = decompress(d, idx);
+    return dtz ? mapDtz(tbFile, value, wdl) : value;
+  }
+
+  // Три уникальные фигуры: первая ниже диагонали a1-h8 или отдельные случаи фигур на ней
+  private static long encodeUnique(int[] squares) {
+    int adjust1 = squares[1] > squares[0] ? 1 : 0;
+    int adjust2 = (squares[2] > squares[0] ? 1 : 0) + (squares[2] > squares[1] ? 1 : 0);
+    if (offA1H8(squares[0]) != 0) {
+      return ((long) MAP_A1D1D4[squares[0]] * 63 + (squares[1] - adjust1)) * 62 + squares[2] - adjust2;
+    }
+    if (offA1H8(squares[1]) != 0) {
+      return (6L * 63 + rank(squares[0]) * 28 + MAP_B1H1H7[squares[1]]) * 62 + squares[2] - adjust2;
+    }
+    if (offA1H8(squares[2]) != 0) {
+      return 6L * 63 * 62 + 4 * 28 * 62 + rank(squares[0]) * 7 * 28
+          + (rank(squares[1]) - adjust1) * 28 + MAP_B1H1H7[squares[2]];
+    }
+    return 6L * 63 * 62 + 4 * 28 * 62 + 4 * 7 * 28 + rank(squares[0]) * 7 * 6
+        + (rank(squares[1]) - adjust1) * 6 + (rank(squares[2]) - adjust2);
+  }
+
+  private int mapDtz(int tbFile, int value, int wdl) {
+    Pairs d = pairs[0][tbFile];
+    int flags = d.flags;
+    if ((flags & FLAG_MAPPED) != 0) {
+      int index = d.mapIdx[WDL_TO_MAP[wdl + 2]] + value;
+      value = (flags & FLAG_WIDE) != 0 ? u16(mapOffset + 2 * index) : u8(mapOffset + index);
+    }
+    // Таблица хранит либо полуходы, либо ходы; возвращаем полуходы
+    if ((wdl == 2 && (flags & FLAG_WIN_PLIES) == 0)
+        || (wdl == -2 && (flags & FLAG_LOSS_PLIES) == 0)
+        || wdl == 1 || wdl == -1) {
+      value *= 2;
+    }
+    return value + 1;
+  }
+
+  private int decompress(Pairs d, long idx) {
+    if ((d.flags & FLAG_SINGLE_VALUE) != 0) {
+      return d.minSymLen;
+    }
+
+    int k = (int) (idx / d.span);
+    int entry = d.sparseIndex + k * 6;
+    int block = data.getInt(entry);
+    long offset = u16(entry + 4);
+    offset += idx % d.span - d.span / 2;
+
+    while (offset < 0) {
+      offset += u16(d.blockLength + 2 * --block) + 1;
+    }
+    while (offset > u16(d.blockLength + 2 * block)) {
+      offset -= u16(d.blockLength + 2 * block++) + 1;
+    }
+
+    int ptr = (int) (d.data + (long) block * d.sizeofBlock);
+    long buf64 = bigEndian.getLong(ptr);
+    ptr += 8;
+    int buf64Size = 64;
+    int sym;
+
+    while (true) {
+      int len = 0;
+      while (Long.compareUnsigned(buf64, d.base64[len]) < 0) {
+        len++;
+      }
+      sym = (int) ((buf64 - d.base64[len]) >>> (64 - len - d.minSymLen));
+      sym += u16(d.lowestSym + 2 * len);
+      if (offset < d.symlen[sym] + 1) {
+        break;
+      }
+      offset -= d.symlen[sym] + 1;
+      len += d.minSymLen;
+      buf64 <<= len;
+      buf64Size -= len;
+      if (buf64Size <= 32) {
+        buf64Size += 32;
+        buf64 |= (bigEndian.getInt(ptr) & 0xFFFFFFFFL) << (64 - buf64Size);
+        ptr += 4;
+      }
+    }
+
+    // Символ - пара символов: спускаемся по дереву до одиночного значения
+    while (d.symlen[sym] != 0) {
+      int left = left(d, sym);
+      if (offset < d.symlen[left] + 1) {
+        sym = left;
+      } else {
+        offset -= d.symlen[left] + 1;
+        sym = right(d, sym);
+      }
+    }
+    return left(d, sym);
+  }
+
+  private void setGroups(Pairs d, int[] order, int f) {
+    int n = 0;
+    int firstLen = hasPawns ? 0 : hasUniquePieces ? 3 : 2;
+    d.groupLen[n] = 1;
+    for (int i = 1; i < pieceCount; i++) {
+      if (--firstLen > 0 || d.pieces[i] == d.pieces[i - 1]) {
+        d.groupLen[n]++;
+      } else {
+        d.groupLen[++n] = 1;
+      }
+    }
+    d.groupLen[++n] = 0;
+
+    boolean pp = hasPawns && bothSidesHavePawns;
+    int next = pp ? 2 : 1;
+    int freeSquares = 64 - d.groupLen[0] - (pp ? d.groupLen[1] : 0);
+    long idx = 1;
+
+    for (int k = 0; next < n || k == order[0] || k == order[1]; k++) {
+      if (k == order[0]) {
+        d.groupIdx[0] = idx;
+        idx *= hasPawns ? LEAD_PAWNS_SIZE[d.groupLen[0]][f] : hasUniquePieces ? 31332 : 462;
+      } else if (k == order[1]) {
+        d.groupIdx[1] = idx;
+        idx *= BINOMIAL[d.groupLen[1]][48 - d.groupLen[0]];
+      } else {
+        d.groupIdx[next] = idx;
+        idx *= BINOMIAL[d.groupLen[next]][freeSquares];
+        freeSquares -= d.groupLen[next++];
+      }
+    }
+    d.groupIdx[n] = idx;
+  }
+
+  private int setSizes(Pairs d, int p) {
+    d.flags = u8(p++);
+    if ((d.flags & FLAG_SINGLE_VALUE) != 0) {
+      d.minSymLen = u8(p++);
+      return p;
+    }
+
+    int groups = 0;
+    while (d.groupLen[groups] != 0) {
+      groups++;
+    }
+    long tbSize = d.groupIdx[groups];
+
+    d.sizeofBlock = 1L << u8(p++);
+    d.span = 1L << u8(p++);
+    d.sparseIndexSize = (tbSize + d.span - 1) / d.span;
+    int padding = u8(p++);
+    d.numBlocks = data.getInt(p);
+    p += 4;
+    d.blockLengthSize = d.numBlocks + padding;
+    d.maxSymLen = u8(p++);
+    d.minSymLen = u8(p++);
+    d.lowestSym = p;
+
+    int baseSize = d.maxSymLen - d.minSymLen + 1;
+    d.base64 = new long[baseSize];
+    for (int i = baseSize - 2; i >= 0; i--) {
+      d.base64[i] = (d.base64[i + 1] + u16(d.lowestSym + 2 * i) - u16(d.lowestSym + 2 * (i + 1))) >>> 1;
+    }
+    for (int i = 0; i < baseSize; i++) {
+      d.base64[i] <<= 64 - i - d.minSymLen;
+    }
+    p += baseSize * 2;
+
+    int symbols = u16(p);
+    p += 2;
+    d.btree = p;
+    d.symlen = new int[symbols];
+    boolean[] visited = new boolean[symbols];
+    for (int sym = 0; sym < symbols; sym++) {
+      if (!visited[sym]) {
+        d.symlen[sym] = symlen(d, sym, visited);
+      }
+    }
+    return p + symbols * 3 + (symbols & 1);
+  }
+
+  private int symlen(Pairs d, int sym, boolean[] visited) {
+    visited[sym] = true;
+    int right = right(d, sym);
+    if (right == 0xFFF) {
+      return 0;
+    }
+    int left = left(d, sym);
+    if (!visited[left]) {
+      d.symlen[left] = symlen(d, left, visited);
+    }
+    if (!visited[right]) {
+      d.symlen[right] = symlen(d, right, visited);
+    }
+    return d.symlen[left] + d.symlen[right] + 1;
+  }
+
+  private int setDtzMap(int p, int maxFile) {
+    mapOffset = p;
+    for (int f = 0; f <= maxFile; f++) {
+      Pairs d = pairs[0][f];
+      if ((d.flags & FLAG_MAPPED) == 0) {
+        continue;
+      }
+      if ((d.flags & FLAG_WIDE) != 0) {
+        p += p & 1;
+        for (int i = 0; i < 4; i++) {
+          d.mapIdx[i] = (p - mapOffset) / 2 + 1;
+          p += 2 * u16(p) + 2;
+        }
+      } else {
+        for (int i = 0; i < 4; i++) {
+          d.mapIdx[i] = p - mapOffset + 1;
+          p += u8(p) + 1;
+        }
+      }
+    }
+    return p + (p & 1);
+  }
+
+  // Узел дерева - 3 байта: 12 бит левый символ, 12 бит правый
+  private int left(Pairs d, int sym) {
+    int node = d.btree + 3 * sym;
+    return ((u8(node + 1) & 0xF) << 8) | u8(node);
+  }
+
+  private int right(Pairs d, int sym) {
+    int node = d.btree + 3 * sym;
+    return (u8(node + 2) << 4) | (u8(node + 1) >> 4);
+  }
+
+  private int u8(int offset) {
+    return data.get(offset) & 0xFF;
+  }
+
+  private int u16(int offset) {
+    return data.getShort(offset) & 0xFFFF;
+  }
+
+  private static void swap(int[] array, int i, int j) {
+    int tmp = array[i];
+    array[i] = array[j];
+    array[j] = tmp;
+  }
+
+  // Устойчивая сортировка вставками: пешек не больше пяти
+  private static void sortByPawnMap(int[] squares, int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      int sq = squares[i];
+      int j = i - 1;
+      while (j >= from && MAP_PAWNS[squares[j]] > MAP_PAWNS[sq]) {
+        squares[j + 1] = squares[j];
+        j--;
+      }
+      squares[j + 1] = sq;
+    }
+  }
+
+  private static boolean hasUniquePieces(String side) {
+    for (char piece : "QRBNP".toCharArray()) {
+      if (side.indexOf(piece) >= 0 && side.indexOf(piece) == side.lastIndexOf(piece)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Параметры одной подтаблицы: сторона и вертикаль ведущей пешки */
+  private static final class Pairs {
+    int flags;
+    long sizeofBlock;
+    long span;
+    int numBlocks;
+    int maxSymLen;
+    int minSymLen;
+    int lowestSym;
+    long[] base64;
+    int[] symlen;
+    int btree;
+    int blockLength;
+    int blockLengthSize;
+    int sparseIndex;
+    long sparseIndexSize;
+    int data;
+    final int[] pieces = new int[7];
+    final long[] groupIdx = new long[8];
+    final int[] groupLen = new int[8];
+    final int[] mapIdx = new int[4];
+  }
+}
@@ -0,0 +1,363 @@
+package com.chess.api.engine.tablebase;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.Square;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+/**
+ * Таблицы Syzygy (.rtbw - результат, .rtbz - расстояние до обнуления) из каталога.
+ * <p>
+ * Файл отображается в память при первом обращении к его материалу. Открытых таблиц
+ * не больше {@code maxOpenTables}: давно не использованные вытесняются, и их отображение
+ * освобождается сборщиком мусора. Сами таблицы не меняются, поэтому потоки
+ * читают их без блокировок; синхронизирован только кеш открытых таблиц.
+ * <p>
+ * Логика пробы - как в Stockfish: сначала перебираются взятия (таблицы хранят
+ * значения в предположении, что лучший ход - не взятие), затем читается файл.
+ */
+public class SyzygyTablebase implements Tablebase {
+
+  private static final String WDL_SUFFIX = ".rtbw";
+  private static final String DTZ_SUFFIX = ".rtbz";
+  private static final String PIECE_ORDER = "KQRBNP";
+  private static final int MAX_DTZ = 1 << 18;
+
+  private final Map<String, Path> files = new HashMap<>();
+  private final Map<String, SyzygyTable> open;
+  private final int maxPieces;
+
+  public SyzygyTablebase(Path directory, int maxOpenTables) throws IOException {
+    int pieces = 0;
+    try (Stream<Path> list = Files.list(directory)) {
+      for (Path path : (Iterable<Path>) list::iterator) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(WDL_SUFFIX) || name.endsWith(DTZ_SUFFIX)) {
+          files.put(name, path);
+          if (name.endsWith(WDL_SUFFIX)) {
+            pieces = Math.max(pieces, name.length() - WDL_SUFFIX.length() - 1);
+          }
+        }
+      }
+    }
+    this.maxPieces = pieces;
+    this.open = new LinkedHashMap<>(64, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, SyzygyTable> eldest) {
+        return size() > maxOpenTables;
+      }
+    };
+  }
+
+  @Override
+  public int getMaxPieces() {
+    return maxPieces;
+  }
+
+  /**
+   * Число найденных файлов обоих видов.
+   */
+  public int getFileCount() {
+    return files.size();
+  }
+
+  @Override
+  public Optional<Wdl> probeWdl(Board board) {
+    if (!canProbe(board)) {
+      return Optional.empty();
+    }
+    try {
+      List<Move> moves = board.legalMoves();
+      if (moves.isEmpty()) {
+        return Optional.of(board.isKingAttacked() ? Wdl.LOSS : Wdl.DRAW);
+      }
+      return Optional.of(Wdl.of(search(board, false).value));
+    } catch (MissingTableException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public OptionalInt probeDtz(Board board) {
+    if (!canProbe(board)) {
+      return OptionalInt.empty();
+    }
+    try {
+      if (board.legalMoves().isEmpty()) {
+        return OptionalInt.of(0);
+      }
+      return OptionalInt.of(dtz(board));
+    } catch (MissingTableException e) {
+      return OptionalInt.empty();
+    }
+  }
+
+  @Override
+  public Optional<Move> bestMove(Board board) {
+    if (!canProbe(board)) {
+      return Optional.empty();
+    }
+    int halfMoves = board.getHalfMoveCounter() == null ? 0 : board.getHalfMoveCounter();
+    try {
+      Move best = null;
+      int bestRank = Integer.MIN_VALUE;
+      for (Move move : board.legalMoves()) {
+        boolean zeroing = isZeroing(board, move);
+        board.doMove(move);
+        try {
+          int moveDtz;
+          if (board.isMated()) {
+            moveDtz = 1;
+          } else if (zeroing) {
+            moveDtz = dtzBeforeZeroing(-search(board, false).value);
+          } else if (board.legalMoves().isEmpty()) {
+            moveDtz = 0;
+          } else {
+            moveDtz = -dtz(board);
+            moveDtz = moveDtz > 0 ? moveDtz + 1 : moveDtz < 0 ? moveDtz - 1 : 0;
+          }
+          int rank = rank(moveDtz, halfMoves);
+          if (rank > bestRank) {
+            bestRank = rank;
+            best = move;
+          }
+        } finally {
+          board.undoMove();
+        }
+      }
+      return Optional.ofNullable(best);
+    } catch (MissingTableException e) {
+      return Optional.empty();
+    }
+  }
+
+  // Выигрыш, который успевает до правила 50 ходов, лучше любого другого; чем короче, тем лучше
+  private static int rank(int dtz, int halfMoves) {
+    if (dtz > 0) {
+      return dtz + halfMoves <= 100 ? 2 * MAX_DTZ - dtz : MAX_DTZ - dtz;
+    }
+    if (dtz < 0) {
+      return -dtz + halfMoves > 100 ? -MAX_DTZ - dtz : -2 * MAX_DTZ - dtz;
+    }
+    return 0;
+  }
+
+  /**
+   * Перебор взятий (и ходов пешек, если {@code zeroingMoves}) поверх значения из файла.
+   */
+  private Result search(Board board, boolean zeroingMoves) {
+    List<Move> moves = board.legalMoves();
+    int best = Wdl.LOSS.value();
+    int counted = 0;
+
+    for (Move move : moves) {
+      boolean capture = isCapture(board, move);
+      if (!capture && (!zeroingMoves || !isPawnMove(board, move))) {
+        continue;
+      }
+      counted++;
+      board.doMove(move);
+      int value;
+      try {
+        value = -search(board, false).value;
+      } finally {
+        board.undoMove();
+      }
+      if (value > best) {
+        best = value;
+        if (value >= Wdl.WIN.value()) {
+          return new Result(value, true);
+        }
+      }
+    }
+
+    boolean noMoreMoves = counted > 0 && counted == moves.size();
+    int value;
+    if (noMoreMoves) {
+      value = best;
+    } else if (moves.isEmpty()) {
+      value = board.isKingAttacked() ? Wdl.LOSS.value() : Wdl.DRAW.value();
+    } else {
+      value = probeTable(board, false, 0) - 2;
+    }
+
+    if (best >= value) {
+      return new Result(best, best > Wdl.DRAW.value() || noMoreMoves);
+    }
+    return new Result(value, false);
+  }
+
+  private int dtz(Board board) {
+    Result wdl = search(board, true);
+    if (wdl.value == 0) {
+      return 0;
+    }
+    if (wdl.zeroingBest) {
+      return dtzBeforeZeroing(wdl.value);
+    }
+
+    int stored = probeTable(board, true, wdl.value);
+    if (stored != SyzygyTable.CHANGE_STM) {
+      boolean cursed = wdl.value == 1 || wdl.value == -1;
+      return (stored + (cursed ? 100 : 0)) * Integer.signum(wdl.value);
+    }
+
+    // Файл хранит позиции только другой стороны: смотрим на ход вперед
+    int min = 0xFFFF;
+    for (Move move : board.legalMoves()) {
+      boolean zeroing = isZeroing(board, move);
+      board.doMove(move);
+      try {
+        int value = zeroing ? -dtzBeforeZeroing(search(board, false).value) : -dtz(board);
+        if (value == 1 && board.isMated()) {
+          min = 1;
+        }
+        if (!zeroing) {
+          value += Integer.signum(value);
+        }
+        if (value < min && Integer.signum(value) == Integer.signum(wdl.value)) {
+          min = value;
+        }
+      } finally {
+        board.undoMove();
+      }
+    }
+    return min == 0xFFFF ? -1 : min;
+  }
+
+  private static int dtzBeforeZeroing(int wdl) {
+    return switch (wdl) {
+      case 2 -> 1;
+      case 1 -> 101;
+      case -1 -> -101;
+      case -2 -> -1;
+      default -> 0;
+    };
+  }
+
+  /**
+   * Значение из файла: для WDL 0..4, для DTZ - полуходы или {@link SyzygyTable#CHANGE_STM}.
+   */
+  private int probeTable(Board board, boolean dtz, int wdl) {
+    int[] pieces = new int[64];
+    StringBuilder white = new StringBuilder();
+    StringBuilder black = new StringBuilder();
+    int count = 0;
+    for (int sq = 0; sq < 64; sq++) {
+      Piece piece = board.getPiece(Square.squareAt(sq));
+      if (piece == Piece.NONE) {
+        continue;
+      }
+      pieces[sq] = code(piece);
+      count++;
+    }
+    if (count == 2) {
+      // Только короли
+      return dtz ? 0 : 2;
+    }
+    for (char letter : PIECE_ORDER.toCharArray()) {
+      for (int sq = 0; sq < 64; sq++) {
+        int code = pieces[sq];
+        if (code != 0 && letter(code) == letter) {
+          (code < 8 ? white : black).append(letter);
+        }
+      }
+    }
+
+    String suffix = dtz ? DTZ_SUFFIX : WDL_SUFFIX;
+    String direct = white + "v" + black;
+    String reversed = black + "v" + white;
+    boolean blackStronger = !files.containsKey(direct + suffix);
+    String code = blackStronger ? reversed : direct;
+    SyzygyTable table = table(code, dtz);
+    return table.probe(pieces, board.getSideToMove() == Side.BLACK, blackStronger, wdl);
+  }
+
+  private SyzygyTable table(String code, boolean dtz) {
+    String name = code + (dtz ? DTZ_SUFFIX : WDL_SUFFIX);
+    synchronized (open) {
+      SyzygyTable table = open.get(name);
+      if (table != null) {
+        return table;
+      }
+    }
+    Path path = files.get(name);
+    if (path == null) {
+      throw MissingTableException.INSTANCE;
+    }
+    SyzygyTable table;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // Отображение остается действительным после закрытия канала
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      table = new SyzygyTable(buffer, code, dtz);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Не удалось открыть таблицу " + path, e);
+    }
+    synchronized (open) {
+      // Параллельно открытую копию просто отбрасываем
+      return open.computeIfAbsent(name, key -> table);
+    }
+  }
+
+  // Коды фигур Syzygy: белые 1-6 (пешка..король), черные - те же плюс 8
+  private static int code(Piece piece) {
+    int type = switch (piece.getPieceType()) {
+      case PAWN -> 1;
+      case KNIGHT -> 2;
+      case BISHOP -> 3;
+      case ROOK -> 4;
+      case QUEEN -> 5;
+      default -> 6;
+    };
+    return piece.getPieceSide() == Side.WHITE ? type : type + 8;
+  }
+
+  private static char letter(int code) {
+    return "PNBRQK".charAt((code & 7) - 1);
+  }
+
+  private static boolean isZeroing(Board board, Move move) {
+    return isCapture(board, move) || isPawnMove(board, move);
+  }
+
+  private static boolean isPawnMove(Board board, Move move) {
+    return board.getPiece(move.getFrom()).getPieceType() == PieceType.PAWN;
+  }
+
+  private static boolean isCapture(Board board, Move move) {
+    if (board.getPiece(move.getTo()) != Piece.NONE) {
+      return true;
+    }
+    // Взятие на проходе: пешка уходит на соседнюю вертикаль на пустое поле
+    return isPawnMove(board, move) && move.getFrom().getFile() != move.getTo().getFile();
+  }
+
+  private record Result(int value, boolean zeroingBest) {
+  }
+
+  /** Нужного файла нет: проба прерывается целиком */
+  private static final class MissingTableException extends RuntimeException {
+    static final MissingTableException INSTANCE = new MissingTableException();
+
+    private MissingTableException() {
+      super(null, null, false, false);
+    }
+  }
+}
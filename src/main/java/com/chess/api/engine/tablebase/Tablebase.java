@@ -0,0 +1,74 @@
+package com.chess.api.engine.tablebase;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.CastleRight;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Таблицы эндшпиля.
+ * <p>
+ * Методы могут временно делать и отменять ходы на переданной доске, но возвращают
+ * ее в исходное состояние. Одну доску нельзя передавать из нескольких потоков.
+ */
+public interface Tablebase {
+
+  /** Таблицы не настроены: ни одна позиция не пробуется */
+  Tablebase NONE = new Tablebase() {
+    @Override
+    public int getMaxPieces() {
+      return 0;
+    }
+
+    @Override
+    public Optional<Wdl> probeWdl(Board board) {
+      return Optional.empty();
+    }
+
+    @Override
+    public OptionalInt probeDtz(Board board) {
+      return OptionalInt.empty();
+    }
+
+    @Override
+    public Optional<Move> bestMove(Board board) {
+      return Optional.empty();
+    }
+  };
+
+  /**
+   * Наибольшее число фигур (с королями) среди найденных таблиц.
+   */
+  int getMaxPieces();
+
+  /**
+   * Быстрая проверка без чтения файлов: фигур не больше {@link #getMaxPieces()}
+   * и нет права на рокировку (в таблицах его нет).
+   */
+  default boolean canProbe(Board board) {
+    return getMaxPieces() > 0
+        && Long.bitCount(board.getBitboard()) <= getMaxPieces()
+        && board.getCastleRight(Side.WHITE) == CastleRight.NONE
+        && board.getCastleRight(Side.BLACK) == CastleRight.NONE;
+  }
+
+  /**
+   * Результат позиции без учета счетчика 50 ходов; пусто, если нужной таблицы нет.
+   */
+  Optional<Wdl> probeWdl(Board board);
+
+  /**
+   * Расстояние до обнуления счетчика 50 ходов в полуходах при наилучшей игре:
+   * положительное - сторона, которая ходит, выигрывает, 0 - ничья.
+   */
+  OptionalInt probeDtz(Board board);
+
+  /**
+   * Ход, сохраняющий наилучший результат: при выигрыше - быстрее всего обнуляющий счетчик,
+   * при проигрыше - дольше всего оттягивающий его.
+   */
+  Optional<Move> bestMove(Board board);
+}
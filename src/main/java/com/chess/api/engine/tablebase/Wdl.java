@@ -0,0 +1,40 @@
+package com.chess.api.engine.tablebase;
+
+/**
+ * Результат позиции из таблиц эндшпиля с точки зрения стороны, которая ходит.
+ * <p>
+ * "Проклятый" выигрыш и "спасенный" проигрыш - выигрыш и проигрыш, которые
+ * не успевают реализоваться до правила 50 ходов.
+ */
+public enum Wdl {
+  LOSS(-2),
+  BLESSED_LOSS(-1),
+  DRAW(0),
+  CURSED_WIN(1),
+  WIN(2);
+
+  private final int value;
+
+  Wdl(int value) {
+    this.value = value;
+  }
+
+  public int value() {
+    return value;
+  }
+
+  public Wdl negate() {
+    return of(-value);
+  }
+
+  /**
+   * Ничья при игре по правилу 50 ходов.
+   */
+  public boolean isDrawn() {
+    return this == DRAW || this == CURSED_WIN || this == BLESSED_LOSS;
+  }
+
+  public static Wdl of(int value) {
+    return values()[value + 2];
+  }
+}
@@ -0,0 +1,51 @@
+package com.chess.api.model;
+
+import com.chess.api.model.enums.GameType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Счетчики дебютного справочника: сколько раз из позиции сыграли ход и с каким итогом.
+ * <p>
+ * Позиция - Zobrist-ключ chesslib, поэтому одна строка собирает все переходы в позицию.
+ * Строки разбиты по контролю времени и диапазону рейтинга; {@code ratingSum} - сумма
+ * средних рейтингов партий, средний рейтинг считается при чтении.
+ */
+@Entity
+@Table(name = "explorer_moves",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"position_key", "game_type", "rating_band", "move"}))
+@Data
+@NoArgsConstructor
+public class ExplorerMove {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long positionKey;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private GameType gameType;
+
+  @Column(nullable = false)
+  private Integer ratingBand; // нижняя граница диапазона
+
+  @Column(nullable = false, length = 5)
+  private String move; // UCI
+
+  private Integer whiteWins = 0;
+  private Integer draws = 0;
+  private Integer blackWins = 0;
+  private Long ratingSum = 0L;
+}
@@ -3,6 +3,8 @@ package com.chess.api.model;
 import com.chess.api.model.enums.GameResult;
 import com.chess.api.model.enums.GameStatus;
 import com.chess.api.model.enums.GameType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.github.bhlangonijr.chesslib.Board;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -19,6 +21,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,6 +32,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "games")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +42,13 @@ public class Game {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
+  // Каждое сохранение сверяет версию: параллельная запись не затирает чужую, а падает.
+  // NOT NULL DEFAULT 0 - чтобы колонка, добавленная к существующей таблице, не осталась пустой:
+  // у NULL не сработали бы ни сверка, ни version = version + 1 в условных UPDATE
+  @Version
+  @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+  private long version;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "white_player_id", nullable = false)
   private Player whitePlayer;
@@ -66,12 +77,22 @@ public class Game {
   @Column(columnDefinition = "TEXT")
   private String pgn;
 
+  // Контрольные позиции каждые K полуходов, см. GameSnapshots
+  @Column(columnDefinition = "TEXT")
+  private String snapshots;
+
   private Integer timeControl = 600; // секунды
   private Integer timeIncrement = 0; // секунды
 
   private Integer whiteTimeLeft; // миллисекунды
   private Integer blackTimeLeft; // миллисекунды
 
+  private Integer botLevel; // уровень бота, если соперник - бот
+
+  // Рейтинги игроков по итогам партии; у нерейтинговой партии пусты
+  private Integer whiteRatingAfter;
+  private Integer blackRatingAfter;
+
   private LocalDateTime createdAt = LocalDateTime.now();
   private LocalDateTime startedAt;
   private LocalDateTime finishedAt;
@@ -83,11 +104,16 @@ public class Game {
   @Transient
   private transient com.github.bhlangonijr.chesslib.Board chessBoard;
 
+  /**
+   * Доска текущей позиции без истории ходов: годится для проверки очереди хода,
+   * но не для повторений. Идущие партии ведет {@code LiveGameRegistry}.
+   */
   public void initializeChessBoard() {
     chessBoard = new Board();
-    chessBoard.loadFromFen(initialFen);
+    chessBoard.loadFromFen(currentFen != null ? currentFen : initialFen);
   }
 
+  @JsonIgnore
   public Board getChessBoard() {
     if (chessBoard == null) {
       initializeChessBoard();
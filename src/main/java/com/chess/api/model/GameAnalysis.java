@@ -0,0 +1,51 @@
+package com.chess.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Послепартийный анализ.
+ * <p>
+ * {@code evals} - оценки позиций с точки зрения белых в сантипешках, от начальной позиции
+ * до последней ({@code plyCount + 1} значений), по одному зигзаг-varint на позицию.
+ * Мат кодируется как {@code ±(MATE_CP - ходов до мата)}.
+ * {@code judgements} - по байту на ход, порядковый номер {@link com.chess.api.service.analysis.MoveJudgement}.
+ */
+@Entity
+@Table(name = "game_analysis")
+@Data
+@NoArgsConstructor
+public class GameAnalysis {
+
+  public static final int MATE_CP = 10000;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, unique = true)
+  private Long gameId;
+
+  private Integer depth;
+  private Integer plyCount;
+
+  @Column(length = 8192)
+  private byte[] evals;
+
+  @Column(length = 2048)
+  private byte[] judgements;
+
+  private Double whiteAccuracy;
+  private Double blackAccuracy;
+
+  private Long analysisMs;
+  private LocalDateTime analyzedAt = LocalDateTime.now();
+}
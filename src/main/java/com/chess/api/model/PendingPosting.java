@@ -0,0 +1,35 @@
+package com.chess.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Вхождение индекса позиций, еще не перенесенное в {@link PositionPostingChunk}.
+ * <p>
+ * Пишется в транзакции хода, поэтому не теряется при падении узла; сброс переносит
+ * строки в куски и удаляет их в одной транзакции.
+ */
+@Entity
+@Table(name = "position_postings_pending",
+    indexes = @Index(columnList = "position_key"))
+@Data
+@NoArgsConstructor
+public class PendingPosting {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long positionKey;
+
+  @Column(nullable = false)
+  private Long posting; // PostingList.pack(партия, полуход)
+}
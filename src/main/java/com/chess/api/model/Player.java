@@ -1,6 +1,8 @@
 package com.chess.api.model;
 
+import com.chess.api.model.enums.GameType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -24,6 +26,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "players")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +55,20 @@ public class Player {
   private Integer rapidRating = 1200;
   private Integer blitzRating = 1200;
 
+  // Glicko-2: отклонение рейтинга (RD) и волатильность для каждого контроля времени
+  private Double classicalRatingDeviation = 350.0;
+  private Double classicalVolatility = 0.06;
+  private Double rapidRatingDeviation = 350.0;
+  private Double rapidVolatility = 0.06;
+  private Double blitzRatingDeviation = 350.0;
+  private Double blitzVolatility = 0.06;
+
+  private Boolean bot = false;
+
+  // Уровень силы бота; у людей null. Ботов ищут по нему, а не по имени
+  @Column(unique = true)
+  private Integer botLevel;
+
   private Integer gamesPlayed = 0;
   private Integer gamesWon = 0;
   private Integer gamesDrawn = 0;
@@ -68,12 +85,50 @@ public class Player {
   @OneToMany(mappedBy = "blackPlayer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   private List<Game> gamesAsBlack = new ArrayList<>();
 
+  @JsonIgnore
   @OneToMany(mappedBy = "sender", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   private List<GameInvite> sentInvites = new ArrayList<>();
 
+  @JsonIgnore
   @OneToMany(mappedBy = "receiver", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   private List<GameInvite> receivedInvites = new ArrayList<>();
 
+  public RatingState getRatingState(GameType gameType) {
+    return switch (gameType) {
+      case CLASSICAL -> ratingState(classicalRating, classicalRatingDeviation, classicalVolatility);
+      case RAPID -> ratingState(rapidRating, rapidRatingDeviation, rapidVolatility);
+      case BLITZ -> ratingState(blitzRating, blitzRatingDeviation, blitzVolatility);
+    };
+  }
+
+  public void applyRatingState(GameType gameType, RatingState state) {
+    switch (gameType) {
+      case CLASSICAL -> {
+        classicalRating = state.roundedRating();
+        classicalRatingDeviation = state.deviation();
+        classicalVolatility = state.volatility();
+      }
+      case RAPID -> {
+        rapidRating = state.roundedRating();
+        rapidRatingDeviation = state.deviation();
+        rapidVolatility = state.volatility();
+      }
+      case BLITZ -> {
+        blitzRating = state.roundedRating();
+        blitzRatingDeviation = state.deviation();
+        blitzVolatility = state.volatility();
+      }
+    }
+  }
+
+  // Строки, созданные до появления RD и волатильности, хранят в этих колонках null
+  private static RatingState ratingState(Integer rating, Double deviation, Double volatility) {
+    return new RatingState(
+        rating != null ? rating : 1200,
+        deviation != null ? deviation : 350.0,
+        volatility != null ? volatility : 0.06);
+  }
+
   @PrePersist
   protected void onCreate() {
     createdAt = LocalDateTime.now();
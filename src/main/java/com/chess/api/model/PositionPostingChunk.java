@@ -0,0 +1,44 @@
+package com.chess.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Кусок списка вхождений позиции: до {@link #MAX_POSTINGS} пар (партия, полуход),
+ * отсортированных и закодированных {@link com.chess.api.service.positions.PostingList}.
+ * <p>
+ * У позиции не больше одного неполного куска - в него дописываются новые вхождения.
+ * Границы по id партий хранятся в колонках, чтобы читать куски от новых партий к старым
+ * и останавливаться, не раскодируя остальные.
+ */
+@Entity
+@Table(name = "position_postings",
+    indexes = @Index(columnList = "position_key, last_game_id"))
+@Data
+@NoArgsConstructor
+public class PositionPostingChunk {
+
+  public static final int MAX_POSTINGS = 4096;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long positionKey;
+
+  private Long firstGameId;
+  private Long lastGameId;
+  private Integer lastPly;
+  private Integer postingCount = 0;
+
+  @Column(length = 16384)
+  private byte[] data = new byte[0];
+}
@@ -0,0 +1,59 @@
+package com.chess.api.model;
+
+import com.chess.api.model.enums.GameType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Кусок истории рейтинга игрока: до {@link #MAX_POINTS} точек, закодированных дельтами.
+ * <p>
+ * Каждая точка в {@code data} - пара varint: прирост времени в секундах от предыдущей точки
+ * (первая - от {@code firstEpochSecond}) и зигзаг-дельта рейтинга (первая - от нуля).
+ * Последние время и рейтинг хранятся в колонках, чтобы дописывать без декодирования.
+ */
+@Entity
+@Table(name = "rating_history",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"player_id", "game_type", "chunk_index"}),
+    indexes = @Index(columnList = "player_id, game_type, last_epoch_second"))
+@Data
+@NoArgsConstructor
+public class RatingHistoryChunk {
+
+  public static final int MAX_POINTS = 512;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long playerId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private GameType gameType;
+
+  @Column(nullable = false)
+  private Integer chunkIndex;
+
+  private Long firstEpochSecond;
+  private Long lastEpochSecond;
+  private Integer lastRating;
+  private Integer pointCount = 0;
+
+  @Column(length = 8192)
+  private byte[] data = new byte[0];
+
+  public boolean isFull() {
+    return pointCount >= MAX_POINTS;
+  }
+}
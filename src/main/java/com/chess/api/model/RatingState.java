@@ -0,0 +1,13 @@
+package com.chess.api.model;
+
+/**
+ * Рейтинг игрока в одном контроле времени: значение, отклонение (RD) и волатильность.
+ */
+public record RatingState(double rating, double deviation, double volatility) {
+
+  public static final int MIN_RATING = 100;
+
+  public int roundedRating() {
+    return Math.max(MIN_RATING, (int) Math.round(rating));
+  }
+}
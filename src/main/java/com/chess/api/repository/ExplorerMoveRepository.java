@@ -0,0 +1,28 @@
+package com.chess.api.repository;
+
+import com.chess.api.model.ExplorerMove;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.service.explorer.ExplorerMoveRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExplorerMoveRepository extends JpaRepository<ExplorerMove, Long> {
+
+  /**
+   * Ходы позиции; null в фильтре - по всем значениям.
+   */
+  @Query("SELECT new com.chess.api.service.explorer.ExplorerMoveRow(" +
+      "e.move, SUM(e.whiteWins), SUM(e.draws), SUM(e.blackWins), SUM(e.ratingSum)) " +
+      "FROM ExplorerMove e WHERE e.positionKey = :positionKey " +
+      "AND (:gameType IS NULL OR e.gameType = :gameType) " +
+      "AND (:ratingBand IS NULL OR e.ratingBand = :ratingBand) " +
+      "GROUP BY e.move")
+  List<ExplorerMoveRow> aggregate(@Param("positionKey") long positionKey,
+                                  @Param("gameType") GameType gameType,
+                                  @Param("ratingBand") Integer ratingBand);
+}
@@ -0,0 +1,15 @@
+package com.chess.api.repository;
+
+import com.chess.api.model.GameAnalysis;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GameAnalysisRepository extends JpaRepository<GameAnalysis, Long> {
+
+  Optional<GameAnalysis> findByGameId(Long gameId);
+
+  boolean existsByGameId(Long gameId);
+}
@@ -0,0 +1,52 @@
+package com.chess.api.repository;
+
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Выборка отдельных полей партий ({@code fields=}): в запрос попадают только столбцы
+ * выбранных полей, игроки присоединяются, только если выбраны.
+ */
+public interface GameFieldsRepository {
+
+  /**
+   * Строки в порядке условия; ключи - имена полей {@link com.chess.api.dto.GameDTO},
+   * игрок - {@link com.chess.api.dto.PlayerDTO} с рейтингом в контроле партии.
+   */
+  List<Map<String, Object>> findFields(Set<String> fields, Filter filter);
+
+  /**
+   * Условие и порядок списка; {@code limit <= 0} - без ограничения.
+   */
+  record Filter(String where, String orderBy, Map<String, Object> params, int limit) {
+
+    public static Filter all() {
+      return new Filter(null, "g.id", Map.of(), 0);
+    }
+
+    public static Filter byId(Long id) {
+      return new Filter("g.id = :id", null, Map.of("id", id), 0);
+    }
+
+    public static Filter active(Player player) {
+      return new Filter("g.status = :status AND (g.whitePlayer = :player OR g.blackPlayer = :player)", null,
+          Map.of("status", GameStatus.ACTIVE, "player", player), 0);
+    }
+
+    public static Filter waiting() {
+      return new Filter("g.status = :status AND (g.blackPlayer IS NULL OR g.whitePlayer IS NULL)", "g.createdAt ASC",
+          Map.of("status", GameStatus.WAITING), 0);
+    }
+
+    public static Filter finished(Player player, int limit) {
+      return new Filter("(g.whitePlayer = :player OR g.blackPlayer = :player) AND g.status IN :finished",
+          "g.finishedAt DESC",
+          Map.of("player", player, "finished", List.of(GameStatus.WHITE_WON, GameStatus.BLACK_WON, GameStatus.DRAW)),
+          limit);
+    }
+  }
+}
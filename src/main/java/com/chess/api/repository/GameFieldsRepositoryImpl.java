@@ -0,0 +1,89 @@
+package com.chess.api.repository;
+
+import com.chess.api.dto.PlayerDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class GameFieldsRepositoryImpl implements GameFieldsRepository {
+
+  private static final Map<String, String> COLUMNS = Map.ofEntries(
+      Map.entry("id", "g.id"),
+      Map.entry("version", "g.version"),
+      Map.entry("gameType", "g.gameType"),
+      Map.entry("status", "g.status"),
+      Map.entry("currentFen", "g.currentFen"),
+      Map.entry("pgn", "g.pgn"),
+      Map.entry("timeControl", "g.timeControl"),
+      Map.entry("timeIncrement", "g.timeIncrement"),
+      Map.entry("whiteTimeLeft", "g.whiteTimeLeft"),
+      Map.entry("blackTimeLeft", "g.blackTimeLeft"),
+      Map.entry("createdAt", "g.createdAt"),
+      Map.entry("startedAt", "g.startedAt"),
+      Map.entry("finishedAt", "g.finishedAt"),
+      Map.entry("result", "g.result"),
+      Map.entry("whiteRatingAfter", "g.whiteRatingAfter"),
+      Map.entry("blackRatingAfter", "g.blackRatingAfter"));
+
+  // Игрок - три столбца: id, имя и рейтинг в контроле партии, как в краткой записи
+  private static final Map<String, String> PLAYERS = Map.of("whitePlayer", "w", "blackPlayer", "b");
+  private static final String RATING = "CASE g.gameType " +
+      "WHEN com.chess.api.model.enums.GameType.BLITZ THEN %1$s.blitzRating " +
+      "WHEN com.chess.api.model.enums.GameType.RAPID THEN %1$s.rapidRating ELSE %1$s.classicalRating END";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<Map<String, Object>> findFields(Set<String> fields, Filter filter) {
+    List<String> select = new ArrayList<>();
+    StringBuilder joins = new StringBuilder();
+    for (String field : fields) {
+      String alias = PLAYERS.get(field);
+      if (alias != null) {
+        select.add(alias + ".id");
+        select.add(alias + ".username");
+        select.add(RATING.formatted(alias));
+        joins.append(" LEFT JOIN g.").append(field).append(' ').append(alias);
+      } else if (COLUMNS.containsKey(field)) {
+        select.add(COLUMNS.get(field));
+      } else {
+        throw new IllegalArgumentException("Поле не хранится в партии: " + field);
+      }
+    }
+
+    String jpql = "SELECT " + String.join(", ", select) + " FROM Game g" + joins +
+        (filter.where() != null ? " WHERE " + filter.where() : "") +
+        (filter.orderBy() != null ? " ORDER BY " + filter.orderBy() : "");
+    TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+    filter.params().forEach(query::setParameter);
+    if (filter.limit() > 0) {
+      query.setMaxResults(filter.limit());
+    }
+
+    List<Map<String, Object>> rows = new ArrayList<>();
+    for (Tuple tuple : query.getResultList()) {
+      Map<String, Object> row = new LinkedHashMap<>();
+      int column = 0;
+      for (String field : fields) {
+        if (PLAYERS.containsKey(field)) {
+          Long id = (Long) tuple.get(column);
+          row.put(field, id == null ? null
+              : new PlayerDTO(id, (String) tuple.get(column + 1), (Integer) tuple.get(column + 2)));
+          column += 3;
+        } else {
+          row.put(field, tuple.get(column++));
+        }
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+}
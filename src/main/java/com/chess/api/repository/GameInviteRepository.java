@@ -1,9 +1,12 @@
 package com.chess.api.repository;
 
+import com.chess.api.dto.GameInviteDTO;
 import com.chess.api.model.GameInvite;
 import com.chess.api.model.Player;
 import com.chess.api.model.enums.InviteStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,13 +15,29 @@ import java.util.Optional;
 @Repository
 public interface GameInviteRepository extends JpaRepository<GameInvite, Long> {
 
-  List<GameInvite> findByReceiverAndStatus(Player receiver, InviteStatus status);
-
-  List<GameInvite> findBySenderAndStatus(Player sender, InviteStatus status);
+  // Рейтинг игроков - в контроле приглашения; значения аннотаций должны быть константами
+  String INVITE_DTO = "SELECT new com.chess.api.dto.GameInviteDTO(i.id, " +
+      "s.id, s.username, " +
+      "CASE i.gameType WHEN com.chess.api.model.enums.GameType.BLITZ THEN s.blitzRating " +
+      "WHEN com.chess.api.model.enums.GameType.RAPID THEN s.rapidRating ELSE s.classicalRating END, " +
+      "r.id, r.username, " +
+      "CASE i.gameType WHEN com.chess.api.model.enums.GameType.BLITZ THEN r.blitzRating " +
+      "WHEN com.chess.api.model.enums.GameType.RAPID THEN r.rapidRating ELSE r.classicalRating END, " +
+      "i.gameType, i.status, i.timeControl, i.timeIncrement, i.sentAt, i.respondedAt, g.id) " +
+      "FROM GameInvite i JOIN i.sender s JOIN i.receiver r LEFT JOIN i.game g ";
+
+  /**
+   * Приглашения игроку сразу в виде DTO: отправитель и получатель - колонками одного запроса.
+   */
+  @Query(INVITE_DTO + "WHERE r = :player AND i.status = :status ORDER BY i.sentAt DESC")
+  List<GameInviteDTO> findReceivedDTOs(@Param("player") Player receiver, @Param("status") InviteStatus status);
+
+  @Query(INVITE_DTO + "WHERE s = :player AND i.status = :status ORDER BY i.sentAt DESC")
+  List<GameInviteDTO> findSentDTOs(@Param("player") Player sender, @Param("status") InviteStatus status);
 
   Optional<GameInvite> findByIdAndReceiver(Long id, Player receiver);
 
   Optional<GameInvite> findByIdAndSender(Long id, Player sender);
 
   boolean existsBySenderAndReceiverAndStatus(Player sender, Player receiver, InviteStatus status);
-}
\ No newline at end of file
+}
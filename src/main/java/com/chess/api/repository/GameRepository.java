@@ -1,32 +1,129 @@
 package com.chess.api.repository;
 
+import com.chess.api.dto.GameRevision;
+import com.chess.api.dto.GameSummaryDTO;
 import com.chess.api.model.Game;
 import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameResult;
 import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.rating.FinishedGameRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface GameRepository extends JpaRepository<Game, Long> {
+public interface GameRepository extends JpaRepository<Game, Long>, GameFieldsRepository {
 
   List<Game> findByStatus(GameStatus status);
 
+  @Query("SELECT g.status FROM Game g WHERE g.id = :id")
+  Optional<GameStatus> findStatusById(@Param("id") Long id);
+
+  @Query("SELECT new com.chess.api.dto.GameRevision(g.status, g.version) FROM Game g WHERE g.id = :id")
+  Optional<GameRevision> findRevisionById(@Param("id") Long id);
+
+  // Переходы состояния условным UPDATE: из двух одновременных проходит один, второй получает 0 строк
+
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE Game g SET g.blackPlayer = :player, g.status = :active, g.startedAt = :now, " +
+      "g.version = g.version + 1 " +
+      "WHERE g.id = :id AND g.status = :waiting AND g.blackPlayer IS NULL AND g.whitePlayer <> :player")
+  int join(@Param("id") Long id,
+           @Param("player") Player player,
+           @Param("waiting") GameStatus waiting,
+           @Param("active") GameStatus active,
+           @Param("now") LocalDateTime now);
+
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE Game g SET g.status = :status, g.result = :result, g.finishedAt = :now, " +
+      "g.whiteRatingAfter = :whiteRatingAfter, g.blackRatingAfter = :blackRatingAfter, " +
+      "g.version = g.version + 1 " +
+      "WHERE g.id = :id AND g.status IN :from")
+  int finish(@Param("id") Long id,
+             @Param("from") Collection<GameStatus> from,
+             @Param("status") GameStatus status,
+             @Param("result") GameResult result,
+             @Param("now") LocalDateTime now,
+             @Param("whiteRatingAfter") Integer whiteRatingAfter,
+             @Param("blackRatingAfter") Integer blackRatingAfter);
+
+  // Краткие записи для списков: только нужные колонки, рейтинг игроков - в контроле партии
+  String SUMMARY = "SELECT new com.chess.api.dto.GameSummaryDTO(g.id, g.gameType, g.status, " +
+      "w.id, w.username, " +
+      "CASE g.gameType WHEN com.chess.api.model.enums.GameType.BLITZ THEN w.blitzRating " +
+      "WHEN com.chess.api.model.enums.GameType.RAPID THEN w.rapidRating ELSE w.classicalRating END, " +
+      "b.id, b.username, " +
+      "CASE g.gameType WHEN com.chess.api.model.enums.GameType.BLITZ THEN b.blitzRating " +
+      "WHEN com.chess.api.model.enums.GameType.RAPID THEN b.rapidRating ELSE b.classicalRating END, " +
+      "g.timeControl, g.timeIncrement, g.result) " +
+      "FROM Game g LEFT JOIN g.whitePlayer w LEFT JOIN g.blackPlayer b ";
+
+  @Query(SUMMARY + "ORDER BY g.id")
+  List<GameSummaryDTO> findAllSummaries();
+
+  @Query(SUMMARY + "WHERE g.status = :status AND (w = :player OR b = :player)")
+  List<GameSummaryDTO> findActiveSummariesByPlayer(@Param("player") Player player,
+                                                   @Param("status") GameStatus status);
+
+  @Query(SUMMARY + "WHERE g.status = 'WAITING' AND (b IS NULL OR w IS NULL) ORDER BY g.createdAt ASC")
+  List<GameSummaryDTO> findWaitingSummaries();
+
+  @Query(SUMMARY + "WHERE (w = :player OR b = :player) " +
+      "AND g.status IN ('WHITE_WON', 'BLACK_WON', 'DRAW') " +
+      "ORDER BY g.finishedAt DESC")
+  List<GameSummaryDTO> findFinishedSummariesByPlayer(@Param("player") Player player, Pageable pageable);
+
+  // Полные DTO партий - с обоими игроками: игроки читаются тем же запросом
+
+  @EntityGraph(attributePaths = {"whitePlayer", "blackPlayer"})
   @Query("SELECT g FROM Game g WHERE g.status = :status AND " +
       "(g.whitePlayer = :player OR g.blackPlayer = :player)")
   List<Game> findActiveGamesByPlayer(@Param("player") Player player,
                                      @Param("status") GameStatus status);
 
+  @EntityGraph(attributePaths = {"whitePlayer", "blackPlayer"})
   @Query("SELECT g FROM Game g WHERE g.status = 'WAITING' AND " +
       "(g.blackPlayer IS NULL OR g.whitePlayer IS NULL) " +
       "ORDER BY g.createdAt ASC")
   List<Game> findWaitingGames();
 
+  @EntityGraph(attributePaths = {"whitePlayer", "blackPlayer"})
   @Query("SELECT g FROM Game g WHERE (g.whitePlayer = :player OR g.blackPlayer = :player) " +
       "AND g.status IN ('WHITE_WON', 'BLACK_WON', 'DRAW') " +
       "ORDER BY g.finishedAt DESC")
-  List<Game> findFinishedGamesByPlayer(@Param("player") Player player);
-}
\ No newline at end of file
+  List<Game> findFinishedGamesByPlayer(@Param("player") Player player, Pageable pageable);
+
+  @EntityGraph(attributePaths = {"whitePlayer", "blackPlayer"})
+  @Query("SELECT g FROM Game g ORDER BY g.id")
+  List<Game> findAllWithPlayers();
+
+  @EntityGraph(attributePaths = {"whitePlayer", "blackPlayer"})
+  Optional<Game> findWithPlayersById(Long id);
+
+  /**
+   * Все рейтинговые партии в порядке завершения. Вызывать внутри транзакции и закрывать поток.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+  @Query("SELECT new com.chess.api.service.rating.FinishedGameRow(" +
+      "g.whitePlayer.id, g.blackPlayer.id, g.gameType, g.result, g.finishedAt) " +
+      "FROM Game g WHERE g.blackPlayer IS NOT NULL AND g.finishedAt IS NOT NULL " +
+      "AND g.result IN ('WHITE_WIN', 'BLACK_WIN', 'DRAW') " +
+      "ORDER BY g.finishedAt ASC, g.id ASC")
+  Stream<FinishedGameRow> streamRatedGames();
+
+  @Query("SELECT g FROM Game g LEFT JOIN FETCH g.whitePlayer LEFT JOIN FETCH g.blackPlayer WHERE g.id IN :ids")
+  List<Game> findWithPlayersByIdIn(@Param("ids") Collection<Long> ids);
+}
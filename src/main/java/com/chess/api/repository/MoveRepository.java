@@ -4,10 +4,15 @@ import com.chess.api.model.Move;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MoveRepository extends JpaRepository<Move, Long> {
 
   List<Move> findByGameIdOrderByMoveNumberAsc(Long gameId);
+
+  List<Move> findByGameIdInOrderByGameIdAscMoveNumberAsc(Collection<Long> gameIds);
+
+  List<Move> findByGameIdAndMoveNumberBetweenOrderByMoveNumberAsc(Long gameId, int from, int to);
 }
\ No newline at end of file
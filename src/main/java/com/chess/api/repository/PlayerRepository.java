@@ -19,6 +19,11 @@ public interface PlayerRepository extends JpaRepository<Player, Long> {
 
   boolean existsByEmail(String email);
 
+  Optional<Player> findByBotTrueAndBotLevel(Integer botLevel);
+
+  @Query("SELECT p.id FROM Player p ORDER BY p.id")
+  List<Long> findAllIds();
+
   @Query("SELECT p FROM Player p ORDER BY p.classicalRating DESC")
   List<Player> findTopByClassicalRating(int limit);
 
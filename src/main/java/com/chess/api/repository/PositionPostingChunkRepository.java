@@ -0,0 +1,25 @@
+package com.chess.api.repository;
+
+import com.chess.api.model.PositionPostingChunk;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface PositionPostingChunkRepository extends JpaRepository<PositionPostingChunk, Long> {
+
+  /**
+   * Куски позиции с партиями раньше {@code before}, от новых к старым. Вызывать в транзакции.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "16"))
+  @Query("SELECT c FROM PositionPostingChunk c WHERE c.positionKey = :positionKey " +
+      "AND c.firstGameId < :before ORDER BY c.lastGameId DESC")
+  Stream<PositionPostingChunk> streamNewestFirst(@Param("positionKey") long positionKey,
+                                                 @Param("before") long before);
+}
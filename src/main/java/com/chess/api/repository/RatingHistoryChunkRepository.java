@@ -0,0 +1,32 @@
+package com.chess.api.repository;
+
+import com.chess.api.model.RatingHistoryChunk;
+import com.chess.api.model.enums.GameType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RatingHistoryChunkRepository extends JpaRepository<RatingHistoryChunk, Long> {
+
+  /**
+   * Последний кусок под блокировкой строки: две партии игрока, закончившиеся одновременно,
+   * дописывают его по очереди, а не перезаписывают данные друг друга.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<RatingHistoryChunk> findTopByPlayerIdAndGameTypeOrderByChunkIndexDesc(Long playerId,
+                                                                               GameType gameType);
+
+  @Query("SELECT c FROM RatingHistoryChunk c WHERE c.playerId = :playerId AND c.gameType = :gameType " +
+      "AND c.lastEpochSecond >= :from AND c.firstEpochSecond <= :to ORDER BY c.chunkIndex ASC")
+  List<RatingHistoryChunk> findOverlapping(@Param("playerId") Long playerId,
+                                           @Param("gameType") GameType gameType,
+                                           @Param("from") long from,
+                                           @Param("to") long to);
+}
@@ -1,6 +1,7 @@
 package com.chess.api.security;
 
 import com.chess.api.service.PlayerService;
+import com.chess.api.service.metrics.GameMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,12 +23,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private JwtUtils jwtUtils;
   private PlayerService playerService;
+  private GameMetrics metrics;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request,
                                   HttpServletResponse response,
                                   FilterChain filterChain) throws ServletException, IOException {
 
+    long start = metrics != null ? metrics.start() : 0;
     try {
       String jwt = parseJwt(request);
 
@@ -47,6 +50,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     } catch (Exception e) {
       log.error("Cannot set user authentication: {}", e.getMessage());
     }
+    if (metrics != null) {
+      metrics.jwtFilter(start);
+    }
 
     filterChain.doFilter(request, response);
   }
@@ -0,0 +1,19 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.AnalysisRequest;
+
+public interface AnalysisService {
+
+  /**
+   * Запускает анализ позиции; итерации отправляются пользователю в {@code /user/queue/analysis}.
+   * Предыдущий анализ этого пользователя отменяется.
+   */
+  void start(String username, AnalysisRequest request);
+
+  /**
+   * Отменяет анализ пользователя. Поиск останавливается, когда у него не остается подписчиков.
+   */
+  void stop(String username);
+
+  int getRunningSearches();
+}
@@ -0,0 +1,13 @@
+package com.chess.api.service;
+
+import com.chess.api.service.event.MoveMadeEvent;
+
+public interface BotService {
+
+  /**
+   * Запускает расчет ответа бота в фоновом пуле, если ход за ботом.
+   */
+  void onMoveMade(MoveMadeEvent event);
+
+  int getThinkingGames();
+}
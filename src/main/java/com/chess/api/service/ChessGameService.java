@@ -1,24 +1,82 @@
 package com.chess.api.service;
 
 import com.chess.api.dto.MoveRequest;
+import com.chess.api.dto.TimeSyncFrame;
 import com.chess.api.model.Game;
 import com.chess.api.model.Move;
 import com.chess.api.model.Player;
 import com.chess.api.exception.IllegalMoveException;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.github.bhlangonijr.chesslib.Side;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface ChessGameService {
+  /**
+   * Только сам ход: очередь предходов соперника не трогается. Вызывающий, который
+   * рассылает ходы, должен брать {@link #makeMoveWithPremove}, иначе предход застрянет.
+   */
   @Transactional
   Move makeMove(Game game, Player player, MoveRequest moveRequest)
       throws IllegalMoveException;
 
+  /**
+   * Ход и сразу за ним предход соперника из его очереди, если он допустим.
+   *
+   * @return один или два хода в порядке выполнения
+   */
+  @Transactional
+  List<Move> makeMoveWithPremove(Game game, Player player, MoveRequest moveRequest)
+      throws IllegalMoveException;
+
+  /**
+   * Поставить ход в очередь предходов игрока.
+   *
+   * @return false, если сейчас ход игрока - тогда это обычный ход
+   */
+  boolean queuePremove(Game game, Player player, MoveRequest moveRequest)
+      throws IllegalMoveException;
+
+  void clearPremoves(Game game, Player player);
+
+  /**
+   * Часы идут только на узле-владельце партии; на другом узле запрос уходит ему.
+   */
   void startGameTimer(Game game);
 
+  /**
+   * Таймер партии, продолженной с середины.
+   *
+   * @param increment инкремент в секундах
+   */
+  void resumeGameTimer(Long gameId, int whiteTimeLeft, int blackTimeLeft, int increment, Side sideToMove);
+
+  /**
+   * Останавливает часы здесь или, если их здесь нет, на владельце партии.
+   */
   void stopGameTimer(Long gameId);
 
+  /**
+   * Партия закончилась любым способом: часы этого узла убираются вместе с задачей тика.
+   */
+  void onGameFinished(GameFinishedEvent event);
+
   Integer[] getTimeLeft(Long gameId);
 
+  /**
+   * Часы перечисленных партий; партии без идущего таймера пропускаются.
+   */
+  List<TimeSyncFrame> getClocks(Collection<Long> gameIds);
+
+  int getActiveClockCount();
+
+  /**
+   * Партии, чьи часы идут на этом узле.
+   */
+  Set<Long> getActiveClockGameIds();
+
   List<String> getLegalMoves(Game game, String square);
 }
\ No newline at end of file
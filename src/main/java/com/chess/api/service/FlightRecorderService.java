@@ -0,0 +1,23 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.FlightRecordingStatus;
+
+public interface FlightRecorderService {
+
+  /**
+   * Начать запись JFR; одновременно идет не больше одной.
+   *
+   * @param durationSeconds длительность, не больше настроенного предела; null - предел
+   */
+  FlightRecordingStatus start(Long durationSeconds);
+
+  /**
+   * Остановить запись и сбросить ее в файл.
+   */
+  FlightRecordingStatus stop();
+
+  /**
+   * Текущая или последняя запись; null, если записей не было.
+   */
+  FlightRecordingStatus getStatus();
+}
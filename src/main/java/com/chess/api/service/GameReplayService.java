@@ -0,0 +1,11 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.GamePositionDTO;
+
+public interface GameReplayService {
+
+  /**
+   * Позиция партии после полухода {@code ply}; 0 - начальная позиция.
+   */
+  GamePositionDTO getPosition(Long gameId, int ply);
+}
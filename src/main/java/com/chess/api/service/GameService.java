@@ -3,14 +3,21 @@ package com.chess.api.service;
 import com.chess.api.dto.GameCreateRequest;
 import com.chess.api.dto.GameInviteDTO;
 import com.chess.api.dto.GameInviteRequest;
+import com.chess.api.dto.GameRevision;
+import com.chess.api.dto.GameSummaryDTO;
 import com.chess.api.dto.MoveDTO;
 import com.chess.api.model.Game;
 import com.chess.api.model.GameInvite;
 import com.chess.api.model.Move;
 import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameStatus;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface GameService {
   @Transactional
@@ -18,22 +25,40 @@ public interface GameService {
 
   Game getGameById(Long id);
 
+  /**
+   * Статус партии без загрузки самой партии.
+   */
+  GameStatus getGameStatus(Long id);
+
+  /**
+   * Статус и версия партии одним запросом.
+   */
+  GameRevision getGameRevision(Long id);
+
+  /**
+   * Занимает место черных условным UPDATE: из двух одновременных присоединений проходит одно.
+   */
   @Transactional
   Game joinGame(Long gameId, Player player);
 
-  @Transactional
+  /**
+   * Как и ничья, пауза и возобновление, сама повторяет транзакцию при конфликте версий партии.
+   */
   void resignGame(Long gameId, Player player);
 
+  /**
+   * Завершает игру с указанным результатом и пересчитывает рейтинги.
+   * Повторный вызов для уже завершенной игры ничего не делает.
+   */
   @Transactional
+  void finishGame(Game game, GameStatus status, GameResult result);
+
   void offerDraw(Long gameId, Player player);
 
-  @Transactional
   void acceptDraw(Long gameId, Player player);
 
-  @Transactional
   void pauseGame(Long gameId, Player player);
 
-  @Transactional
   void resumeGame(Long gameId, Player player);
 
   @Transactional
@@ -60,6 +85,26 @@ public interface GameService {
 
   List<Game> findWaitingGames();
 
+  List<GameSummaryDTO> getActiveGameSummaries(Player player);
+
+  List<GameSummaryDTO> getGameHistorySummaries(Player player, int limit);
+
+  List<GameSummaryDTO> getAllGameSummaries();
+
+  List<GameSummaryDTO> findWaitingGameSummaries();
+
+  // Выбранные поля партий (fields=): запрос читает только их столбцы
+
+  Map<String, Object> getGameFields(Long id, Set<String> fields);
+
+  List<Map<String, Object>> getActiveGameFields(Player player, Set<String> fields);
+
+  List<Map<String, Object>> getGameHistoryFields(Player player, int limit, Set<String> fields);
+
+  List<Map<String, Object>> getAllGameFields(Set<String> fields);
+
+  List<Map<String, Object>> findWaitingGameFields(Set<String> fields);
+
   @Transactional
   void saveGame(Game game);
 
@@ -67,4 +112,9 @@ public interface GameService {
   void saveMove(Game game, Move move);
 
   List<MoveDTO> getGameMoves(Long gameId);
+
+  /**
+   * Ходы нескольких партий одним запросом; у партий без ходов - пустой список.
+   */
+  Map<Long, List<MoveDTO>> getGameMoves(Collection<Long> gameIds);
 }
\ No newline at end of file
@@ -1,13 +1,66 @@
 package com.chess.api.service;
 
+import com.chess.api.dto.TimeSyncFrame;
+import com.github.bhlangonijr.chesslib.Side;
+
 public interface GameTimer {
 
-  void switchTurn();
+  default void switchTurn() {
+    switchTurn(0);
+  }
+
+  /**
+   * Передать ход сопернику, списав с ходившего затраченное время.
+   *
+   * @param lagCreditMs сколько из затраченного времени не списывать (задержка сети)
+   * @return фактически не списанное время
+   */
+  long switchTurn(long lagCreditMs);
+
+  /**
+   * Передача хода, которую еще нужно применить через {@link #apply} - после фиксации хода.
+   * Сами часы не меняются: ход, проигравший гонку за версию партии, их не переводит.
+   * Следующий план в той же транзакции (предход после хода) считается от предыдущего.
+   */
+  TurnSwitch planSwitch(long lagCreditMs);
+
+  /**
+   * @return фактически не списанное время
+   */
+  long apply(TurnSwitch turn);
+
+  /**
+   * Забыть непримененные планы: транзакция хода откатилась.
+   */
+  void discard(TurnSwitch turn);
 
   int getWhiteTimeLeft();
 
   int getBlackTimeLeft();
 
+  /**
+   * Оба остатка на один и тот же момент.
+   */
+  TimeSyncFrame snapshot();
+
+  /**
+   * На сколько флажок упал позже истечения времени, мс; 0, пока время не вышло.
+   */
+  long getFlagDelayMs();
+
   void stop();
 
-}
\ No newline at end of file
+  /**
+   * Часы идут: не остановлены и флажок не упал.
+   */
+  boolean isRunning();
+
+  /**
+   * Остатки обеих сторон сразу после передачи хода стороной {@code mover}.
+   *
+   * @param at момент передачи по часам таймера
+   */
+  record TurnSwitch(Side mover, int whiteTimeLeft, int blackTimeLeft, long at, long lagCreditMs) {
+  }
+
+}
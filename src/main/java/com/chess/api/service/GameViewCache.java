@@ -0,0 +1,36 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.GameRevision;
+
+/**
+ * Сериализованные ответы по законченным партиям.
+ * <p>
+ * Законченная партия больше не меняется, поэтому ее ответ собирается один раз,
+ * а ETag выводится из id и версии ({@code @Version}) партии и проверяется без ее загрузки.
+ * Версия хранится в базе, поэтому ETag переживает вытеснение из кеша и перезапуск, а любая
+ * запись в партию после завершения дает новый.
+ */
+public interface GameViewCache {
+
+  /**
+   * Готовый ответ или {@code null}, если его нет в кеше.
+   *
+   * @param view вид ответа: партия, ходы, набор полей
+   */
+  CachedView get(Long gameId, String view);
+
+  /**
+   * Сериализует и сохраняет ответ законченной партии.
+   *
+   * @return сохраненный ответ или {@code null}, если партия еще не закончена
+   */
+  CachedView put(Long gameId, String view, GameRevision revision, Object body);
+
+  /**
+   * ETag законченной партии или {@code null}, если партия еще идет.
+   */
+  String etag(Long gameId, GameRevision revision);
+
+  record CachedView(String etag, byte[] body) {
+  }
+}
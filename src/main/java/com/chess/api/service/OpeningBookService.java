@@ -0,0 +1,28 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.BookMoveDTO;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OpeningBookService {
+
+  boolean isLoaded();
+
+  /**
+   * Ходы книги для позиции, по убыванию веса. Пустой список, если позиции нет или книга не загружена.
+   */
+  List<BookMoveDTO> getMoves(String fen);
+
+  /**
+   * Случайный легальный ход книги с вероятностью по весу.
+   */
+  Optional<Move> pickMove(Board board);
+
+  /**
+   * Перечитывает книгу, если файл изменился. Запросы в процессе продолжают читать старую книгу.
+   */
+  void reloadIfChanged();
+}
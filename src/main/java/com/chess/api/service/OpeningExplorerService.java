@@ -0,0 +1,20 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.ExplorerMoveDTO;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.service.event.GameFinishedEvent;
+
+import java.util.List;
+
+public interface OpeningExplorerService {
+
+  void onGameFinished(GameFinishedEvent event);
+
+  /**
+   * Ходы из позиции по сыгранным партиям, от самого частого.
+   *
+   * @param gameType   null - все контроли времени
+   * @param ratingBand нижняя граница диапазона рейтинга; null - все диапазоны
+   */
+  List<ExplorerMoveDTO> getMoves(String fen, GameType gameType, Integer ratingBand);
+}
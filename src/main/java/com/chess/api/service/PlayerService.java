@@ -30,6 +30,18 @@ public interface PlayerService {
 
   List<Player> getTopPlayers(String gameType, int limit);
 
+  /**
+   * Бот уровня {@code level}; ботов создает {@link #ensureBotPlayer} при запуске.
+   */
+  Player getBotPlayer(int level);
+
+  /**
+   * Найти или создать бота уровня {@code level}. На нескольких узлах вторая вставка
+   * упирается в уникальность уровня - вызывающий перечитывает бота.
+   */
+  @Transactional
+  Player ensureBotPlayer(int level);
+
   @Transactional
   Player updatePlayerStatistics(Player player);
 
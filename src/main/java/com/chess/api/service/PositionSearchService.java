@@ -0,0 +1,18 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.PositionSearchPage;
+import com.chess.api.service.event.MoveMadeEvent;
+
+public interface PositionSearchService {
+
+  void onMoveMade(MoveMadeEvent event);
+
+  /**
+   * Партии, в которых возникла позиция.
+   *
+   * @param before только партии с id меньше этого; null - с самых новых
+   */
+  PositionSearchPage search(String fen, Long before, int size);
+
+  void flush();
+}
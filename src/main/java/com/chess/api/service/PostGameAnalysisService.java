@@ -0,0 +1,27 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.AnalysisQueueStats;
+import com.chess.api.dto.GameAnalysisDTO;
+import com.chess.api.model.Player;
+import com.chess.api.service.event.GameFinishedEvent;
+
+import java.util.Optional;
+
+public interface PostGameAnalysisService {
+
+  /**
+   * Ставит завершенную партию в очередь анализа с обычным приоритетом.
+   */
+  void onGameFinished(GameFinishedEvent event);
+
+  /**
+   * Запрос анализа пользователем: партии участников анализируются вне очереди.
+   *
+   * @return true, если анализ уже готов
+   */
+  boolean requestAnalysis(Long gameId, Player player);
+
+  Optional<GameAnalysisDTO> getAnalysis(Long gameId);
+
+  AnalysisQueueStats getStats();
+}
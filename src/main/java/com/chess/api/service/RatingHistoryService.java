@@ -0,0 +1,24 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.RatingPointDTO;
+import com.chess.api.model.enums.GameType;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RatingHistoryService {
+
+  enum Interval {
+    RAW, DAY, WEEK
+  }
+
+  @Transactional
+  void record(Long playerId, GameType gameType, int rating, LocalDateTime timestamp);
+
+  /**
+   * История за период; для DAY и WEEK возвращается последний рейтинг каждого интервала.
+   */
+  List<RatingPointDTO> getHistory(Long playerId, GameType gameType,
+                                  LocalDateTime from, LocalDateTime to, Interval interval);
+}
@@ -0,0 +1,51 @@
+package com.chess.api.service.analysis;
+
+import com.chess.api.model.GameAnalysis;
+
+/**
+ * Точность ходов по изменению шансов на победу, как на lichess.
+ * <p>
+ * Шансы считаются из оценки в сантипешках логистической кривой; точность хода
+ * экспоненциально падает с потерей шансов, ошибки размечаются по порогам потери.
+ */
+public final class Accuracy {
+
+  private static final double INACCURACY = 5;
+  private static final double MISTAKE = 10;
+  private static final double BLUNDER = 15;
+
+  private Accuracy() {
+  }
+
+  /**
+   * Шансы на победу в процентах по оценке с точки зрения игрока.
+   */
+  public static double winPercent(int cp) {
+    int clamped = Math.max(-GameAnalysis.MATE_CP, Math.min(GameAnalysis.MATE_CP, cp));
+    return 50 + 50 * (2 / (1 + Math.exp(-0.00368208 * clamped)) - 1);
+  }
+
+  /**
+   * @param before оценка до хода с точки зрения сделавшего ход
+   * @param after  оценка после хода с его же точки зрения
+   */
+  public static double moveAccuracy(int before, int after) {
+    double loss = Math.max(0, winPercent(before) - winPercent(after));
+    double accuracy = 103.1668 * Math.exp(-0.04354 * loss) - 3.1669;
+    return Math.max(0, Math.min(100, accuracy));
+  }
+
+  public static MoveJudgement judge(int before, int after) {
+    double loss = winPercent(before) - winPercent(after);
+    if (loss >= BLUNDER) {
+      return MoveJudgement.BLUNDER;
+    }
+    if (loss >= MISTAKE) {
+      return MoveJudgement.MISTAKE;
+    }
+    if (loss >= INACCURACY) {
+      return MoveJudgement.INACCURACY;
+    }
+    return MoveJudgement.GOOD;
+  }
+}
@@ -0,0 +1,11 @@
+package com.chess.api.service.analysis;
+
+/**
+ * Оценка хода по потере шансов на победу.
+ */
+public enum MoveJudgement {
+  GOOD,
+  INACCURACY,
+  MISTAKE,
+  BLUNDER
+}
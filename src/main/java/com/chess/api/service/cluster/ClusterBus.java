@@ -0,0 +1,38 @@
+package com.chess.api.service.cluster;
+
+import java.util.Set;
+
+/**
+ * Шина между узлами кластера: состав участников и доставка сообщений.
+ * <p>
+ * От реализации нужно немногое: сообщения одного отправителя приходят в порядке
+ * отправки, а об уходе узла (остановка или потеря связи) узнают все остальные.
+ * Для тестов и запуска в одном процессе есть {@link LoopbackClusterBus}; сетевая
+ * реализация подключается своим бином {@code ClusterBus}.
+ */
+public interface ClusterBus {
+
+  /**
+   * @return состав кластера сразу после входа, включая сам узел
+   */
+  Set<String> join(String nodeId, Listener listener);
+
+  void leave(String nodeId);
+
+  /**
+   * Доставка одному узлу. Если узла уже нет, сообщение теряется.
+   */
+  void send(String fromNode, String toNode, ClusterMessage message);
+
+  /**
+   * Доставка всем узлам, кроме отправителя.
+   */
+  void publish(String fromNode, ClusterMessage message);
+
+  interface Listener {
+
+    void onMessage(ClusterMessage message);
+
+    void onMembershipChanged(Set<String> members);
+  }
+}
@@ -0,0 +1,99 @@
+package com.chess.api.service.cluster;
+
+import com.chess.api.model.Game;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.GameService;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.chess.api.service.live.LiveGameRegistry;
+import com.chess.api.service.live.LiveGameRestoreJob;
+import com.chess.api.websocket.ClusterRelayInterceptor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Обработка сообщений кластера, кроме ходов - их принимает {@code GameWebSocketController}.
+ * <p>
+ * Часы и доска партии живут только на владельце. При смене состава узел отдает
+ * партии, которые ему больше не принадлежат, а если кто-то ушел - поднимает из базы
+ * доставшиеся ему, тем же восстановлением, что и при запуске.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterCoordinator {
+
+  private final GameOwnership ownership;
+  private final GameService gameService;
+  private final ChessGameService chessGameService;
+  private final LiveGameRegistry liveGames;
+  private final LiveGameRestoreJob restoreJob;
+  private final SimpMessagingTemplate messagingTemplate;
+
+  @EventListener
+  public void onStartClock(ClusterMessage.StartClock message) {
+    Game game = gameService.getGameById(message.gameId());
+    if (game.getStatus() == GameStatus.ACTIVE) {
+      chessGameService.startGameTimer(game);
+    }
+  }
+
+  @EventListener
+  public void onStopClock(ClusterMessage.StopClock message) {
+    chessGameService.stopGameTimer(message.gameId());
+  }
+
+  @EventListener
+  public void onRemoteGameFinished(ClusterMessage.GameFinished message) {
+    // Не владелец ничего не держит: часы не пересылаем обратно
+    if (ownership.isLocal(message.gameId())) {
+      chessGameService.stopGameTimer(message.gameId());
+    }
+    liveGames.evict(message.gameId());
+  }
+
+  @EventListener
+  public void onBroadcast(ClusterMessage.Broadcast message) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setDestination(message.destination());
+    if (message.contentType() != null) {
+      accessor.setContentType(MimeTypeUtils.parseMimeType(message.contentType()));
+    }
+    accessor.setHeader(ClusterRelayInterceptor.RELAYED_HEADER, Boolean.TRUE);
+    accessor.setLeaveMutable(true);
+    messagingTemplate.send(message.destination(),
+        MessageBuilder.createMessage(message.payload(), accessor.getMessageHeaders()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameFinished(GameFinishedEvent event) {
+    ownership.publish(new ClusterMessage.GameFinished(event.gameId()));
+  }
+
+  @EventListener
+  public void onOwnershipChanged(OwnershipChangedEvent event) {
+    Set<Long> clocks = chessGameService.getActiveClockGameIds();
+    for (Long gameId : List.copyOf(clocks)) {
+      if (!ownership.isLocal(gameId)) {
+        chessGameService.stopGameTimer(gameId);
+        liveGames.evict(gameId);
+        log.debug("Партия {} передана узлу {}", gameId, ownership.ownerOf(gameId));
+      }
+    }
+    // Пришедший узел только забирает партии; новые свои бывают, лишь когда кто-то ушел
+    if (!event.current().containsAll(event.previous())) {
+      restoreJob.restore(gameId -> ownership.isLocal(gameId) && !clocks.contains(gameId));
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.chess.api.service.cluster;
+
+import com.chess.api.dto.MoveRequest;
+
+import java.util.Set;
+
+/**
+ * Сообщения между узлами. Все они - простые записи, чтобы сетевая шина могла
+ * передавать их через JSON без отдельных DTO.
+ */
+public sealed interface ClusterMessage {
+
+  /**
+   * Действие игрока, пришедшее на узел, который партией не владеет.
+   *
+   * @param move null для отмены предходов
+   * @param hops сколько раз действие уже пересылалось
+   */
+  record ForwardedMove(Long gameId, String username, Kind kind, MoveRequest move, int hops)
+      implements ClusterMessage {
+
+    public ForwardedMove(Long gameId, String username, Kind kind, MoveRequest move) {
+      this(gameId, username, kind, move, 0);
+    }
+
+    public ForwardedMove nextHop() {
+      return new ForwardedMove(gameId, username, kind, move, hops + 1);
+    }
+
+    public enum Kind {
+      MOVE,
+      PREMOVE,
+      CANCEL_PREMOVES
+    }
+  }
+
+  /**
+   * Запустить часы партии на владельце: они берутся из базы, как при восстановлении.
+   */
+  record StartClock(Long gameId) implements ClusterMessage {
+  }
+
+  record StopClock(Long gameId) implements ClusterMessage {
+  }
+
+  /**
+   * Партия закончилась на каком-то узле: остальным остановить часы и забыть доску.
+   */
+  record GameFinished(Long gameId) implements ClusterMessage {
+  }
+
+  /**
+   * Партии получателя, на которые подписаны клиенты узла {@code nodeId}: владелец шлет
+   * им TIME_SYNC. Интерес живет несколько тиков часов, отписка отдельно не передается.
+   *
+   * @param complete все такие партии узла, а не только новая подписка
+   */
+  record WatchedGames(String nodeId, Set<Long> gameIds, boolean complete) implements ClusterMessage {
+  }
+
+  /**
+   * Кадр из брокера узла-отправителя для подписчиков на других узлах.
+   *
+   * @param payload тело кадра уже в JSON
+   */
+  record Broadcast(String destination, String contentType, byte[] payload) implements ClusterMessage {
+  }
+}
@@ -0,0 +1,68 @@
+package com.chess.api.service.cluster;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Кольцо согласованного хеширования: партия принадлежит первому узлу по часовой
+ * стрелке от хеша ее id.
+ * <p>
+ * У каждого узла несколько виртуальных точек, чтобы партии делились ровно. Когда
+ * узел уходит, переезжают только его партии; когда приходит - только те, что
+ * попали на его точки. Кольцо зависит лишь от состава, поэтому все узлы с одним
+ * составом считают одинаково без согласования.
+ */
+public final class ConsistentHashRing {
+
+  private final NavigableMap<Long, String> ring = new TreeMap<>();
+  private final Set<String> nodes;
+
+  public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+    this.nodes = Set.copyOf(nodes);
+    for (String node : this.nodes) {
+      for (int i = 0; i < virtualNodes; i++) {
+        // При совпадении хешей точка достается меньшему имени - одинаково на всех узлах
+        ring.merge(hash(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+      }
+    }
+  }
+
+  /**
+   * @return null, если в кольце нет узлов
+   */
+  public String owner(long key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> entry = ring.ceilingEntry(mix(key));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  public Set<String> nodes() {
+    return nodes;
+  }
+
+  // Id партий идут подряд - перемешиваем биты, чтобы соседние партии расходились по кольцу
+  private static long mix(long key) {
+    long z = key + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static long hash(String value) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 недоступен", e);
+    }
+  }
+}
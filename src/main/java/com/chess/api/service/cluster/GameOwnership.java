@@ -0,0 +1,150 @@
+package com.chess.api.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Какой узел владеет партией: доской в памяти, часами и предходами.
+ * <p>
+ * Владелец определяется кольцом {@link ConsistentHashRing} по текущему составу
+ * {@link ClusterBus}. Узел входит в кластер последним при запуске и выходит первым
+ * при остановке: его партии переезжают к другим, пока он еще отвечает на запросы.
+ * Сообщения с шины и смена состава публикуются как события приложения.
+ * Без {@code chess.cluster.enabled} узел один и владеет всеми партиями.
+ */
+@Component
+@Slf4j
+public class GameOwnership implements SmartLifecycle, ClusterBus.Listener {
+
+  private final ClusterBus bus;
+  private final ApplicationEventPublisher eventPublisher;
+  private final boolean enabled;
+  private final String nodeId;
+  private final int virtualNodes;
+
+  private volatile ConsistentHashRing ring;
+  private volatile boolean running;
+
+  public GameOwnership(ClusterBus bus,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${chess.cluster.enabled:false}") boolean enabled,
+                       @Value("${chess.cluster.node-id:}") String nodeId,
+                       @Value("${chess.cluster.virtual-nodes:128}") int virtualNodes) {
+    this.bus = bus;
+    this.eventPublisher = eventPublisher;
+    this.enabled = enabled;
+    this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    this.virtualNodes = Math.max(1, virtualNodes);
+    this.ring = new ConsistentHashRing(Set.of(this.nodeId), this.virtualNodes);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public Set<String> members() {
+    return ring.nodes();
+  }
+
+  public String ownerOf(Long gameId) {
+    return enabled ? ring.owner(gameId) : nodeId;
+  }
+
+  public boolean isLocal(Long gameId) {
+    return nodeId.equals(ownerOf(gameId));
+  }
+
+  /**
+   * Передать сообщение владельцу партии, если это не этот узел. Внутри транзакции
+   * отправка откладывается до фиксации: владелец должен увидеть ее результат.
+   *
+   * @return false, если партия своя и обрабатывать ее нужно здесь
+   */
+  public boolean forward(Long gameId, ClusterMessage message) {
+    String owner = ownerOf(gameId);
+    if (nodeId.equals(owner)) {
+      return false;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          bus.send(nodeId, owner, message);
+        }
+      });
+    } else {
+      bus.send(nodeId, owner, message);
+    }
+    return true;
+  }
+
+  /**
+   * Отправить одному узлу.
+   */
+  public void send(String node, ClusterMessage message) {
+    if (enabled && running) {
+      bus.send(nodeId, node, message);
+    }
+  }
+
+  /**
+   * Разослать всем остальным узлам.
+   */
+  public void publish(ClusterMessage message) {
+    if (enabled && running) {
+      bus.publish(nodeId, message);
+    }
+  }
+
+  @Override
+  public void onMessage(ClusterMessage message) {
+    eventPublisher.publishEvent(message);
+  }
+
+  @Override
+  public synchronized void onMembershipChanged(Set<String> members) {
+    if (!members.contains(nodeId)) {
+      return;
+    }
+    Set<String> previous = ring.nodes();
+    ring = new ConsistentHashRing(members, virtualNodes);
+    log.info("Состав кластера изменился: {} -> {}", previous, members);
+    eventPublisher.publishEvent(new OwnershipChangedEvent(previous, members));
+  }
+
+  @Override
+  public synchronized void start() {
+    if (enabled) {
+      // Свои партии при запуске поднимает восстановление, событие здесь не нужно
+      ring = new ConsistentHashRing(bus.join(nodeId, this), virtualNodes);
+      log.info("Узел {} вошел в кластер: {}", nodeId, ring.nodes());
+    }
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (enabled) {
+      bus.leave(nodeId);
+      log.info("Узел {} вышел из кластера", nodeId);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -0,0 +1,100 @@
+package com.chess.api.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Шина внутри одного процесса. Узлы одной группы - это несколько контекстов
+ * приложения в одной JVM, поэтому группы общие для всего процесса.
+ * <p>
+ * У каждого узла свой поток доставки: сообщения приходят асинхронно, как по сети,
+ * и в порядке отправки.
+ */
+@Slf4j
+public class LoopbackClusterBus implements ClusterBus {
+
+  private static final Map<String, LoopbackClusterBus> GROUPS = new ConcurrentHashMap<>();
+
+  private final Map<String, Member> members = new ConcurrentHashMap<>();
+
+  public static LoopbackClusterBus group(String name) {
+    return GROUPS.computeIfAbsent(name, n -> new LoopbackClusterBus());
+  }
+
+  @Override
+  public synchronized Set<String> join(String nodeId, Listener listener) {
+    ExecutorService inbox = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cluster-inbox-" + nodeId);
+      thread.setDaemon(true);
+      return thread;
+    });
+    members.put(nodeId, new Member(listener, inbox));
+    Set<String> current = membership();
+    notifyMembers(nodeId, current);
+    return current;
+  }
+
+  @Override
+  public synchronized void leave(String nodeId) {
+    Member member = members.remove(nodeId);
+    if (member == null) {
+      return;
+    }
+    member.inbox().shutdownNow();
+    notifyMembers(nodeId, membership());
+  }
+
+  @Override
+  public void send(String fromNode, String toNode, ClusterMessage message) {
+    Member member = members.get(toNode);
+    if (member == null) {
+      log.warn("Узел {} недоступен, сообщение от {} потеряно: {}", toNode, fromNode, message);
+      return;
+    }
+    deliver(member, () -> member.listener().onMessage(message));
+  }
+
+  @Override
+  public void publish(String fromNode, ClusterMessage message) {
+    members.forEach((nodeId, member) -> {
+      if (!nodeId.equals(fromNode)) {
+        deliver(member, () -> member.listener().onMessage(message));
+      }
+    });
+  }
+
+  private Set<String> membership() {
+    return Set.copyOf(members.keySet());
+  }
+
+  private void notifyMembers(String changedNode, Set<String> current) {
+    members.forEach((nodeId, member) -> {
+      if (!nodeId.equals(changedNode)) {
+        deliver(member, () -> member.listener().onMembershipChanged(current));
+      }
+    });
+  }
+
+  private static void deliver(Member member, Runnable delivery) {
+    try {
+      member.inbox().execute(() -> {
+        try {
+          delivery.run();
+        } catch (Exception e) {
+          log.error("Ошибка обработки сообщения кластера", e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Узел как раз выходит из группы
+    }
+  }
+
+  private record Member(Listener listener, ExecutorService inbox) {
+  }
+}
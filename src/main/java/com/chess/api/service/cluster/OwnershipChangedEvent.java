@@ -0,0 +1,9 @@
+package com.chess.api.service.cluster;
+
+import java.util.Set;
+
+/**
+ * Состав кластера изменился, часть партий сменила владельца.
+ */
+public record OwnershipChangedEvent(Set<String> previous, Set<String> current) {
+}
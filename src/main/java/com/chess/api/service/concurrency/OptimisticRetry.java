@@ -0,0 +1,73 @@
+package com.chess.api.service.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Повтор транзакции, проигравшей гонку за версию партии.
+ * <p>
+ * Каждая попытка - новая транзакция: партия перечитывается и условия перехода
+ * проверяются заново, так что повтор либо проходит, либо падает с понятной
+ * ошибкой ("Игра не активна"). Внутри чужой транзакции повторять нечего -
+ * она уже помечена на откат, решает вызывающий.
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+  private final TransactionTemplate transactions;
+  private final int maxAttempts;
+  private final long backoffMs;
+
+  public OptimisticRetry(PlatformTransactionManager transactionManager,
+                         @Value("${chess.optimistic-retry.max-attempts:3}") int maxAttempts,
+                         @Value("${chess.optimistic-retry.backoff-ms:20}") long backoffMs) {
+    this.transactions = new TransactionTemplate(transactionManager);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffMs = backoffMs;
+  }
+
+  public <T> T execute(String operation, Supplier<T> work) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return work.get();
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactions.execute(status -> work.get());
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxAttempts) {
+          log.warn("{}: версия партии менялась {} раз подряд, сдаемся", operation, attempt);
+          throw e;
+        }
+        log.debug("{}: партию изменили параллельно, попытка {}", operation, attempt + 1);
+        pause(attempt);
+      }
+    }
+  }
+
+  public void run(String operation, Runnable work) {
+    execute(operation, () -> {
+      work.run();
+      return null;
+    });
+  }
+
+  // Растущая пауза со случайной добавкой, чтобы соперники не столкнулись снова
+  private void pause(int attempt) {
+    long delay = backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs + 1);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Повтор прерван", e);
+    }
+  }
+}
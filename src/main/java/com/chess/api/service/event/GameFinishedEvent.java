@@ -0,0 +1,12 @@
+package com.chess.api.service.event;
+
+import com.chess.api.model.enums.GameResult;
+
+/**
+ * Партия завершена и результат сохранен.
+ *
+ * @param whiteRating рейтинг белых до партии по ее контролю времени; null, если соперника не было
+ */
+public record GameFinishedEvent(Long gameId, GameResult result, boolean rated,
+                                Integer whiteRating, Integer blackRating) {
+}
@@ -0,0 +1,9 @@
+package com.chess.api.service.event;
+
+/**
+ * Ход сохранен. Слушатели получают событие после фиксации транзакции.
+ *
+ * @param botToMove следующий ход за ботом
+ */
+public record MoveMadeEvent(Long gameId, int moveNumber, String fen, boolean botToMove) {
+}
@@ -0,0 +1,7 @@
+package com.chess.api.service.event;
+
+/**
+ * Предход оказался недопустимым после хода соперника; очередь игрока очищена.
+ */
+public record PremoveRejectedEvent(Long gameId, String username, String reason) {
+}
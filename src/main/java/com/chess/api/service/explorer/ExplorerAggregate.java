@@ -0,0 +1,100 @@
+package com.chess.api.service.explorer;
+
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.enums.GameType;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Приращения счетчиков справочника по пачке партий, копятся в памяти до записи.
+ * <p>
+ * Не потокобезопасен: параллельная загрузка собирает по агрегату на поток и сливает их.
+ */
+public class ExplorerAggregate {
+
+  private static final int WHITE_WINS = 0;
+  private static final int DRAWS = 1;
+  private static final int BLACK_WINS = 2;
+  private static final int RATING_SUM = 3;
+
+  private final Map<Key, long[]> counts = new HashMap<>();
+  private long games;
+
+  /**
+   * Проигрывает первые {@code maxPly} полуходов партии и учитывает каждый ход в позиции перед ним.
+   */
+  public void addGame(ExplorerGame game, int maxPly) {
+    int outcome = switch (game.result()) {
+      case WHITE_WIN -> WHITE_WINS;
+      case BLACK_WIN -> BLACK_WINS;
+      case DRAW -> DRAWS;
+      default -> -1;
+    };
+    if (outcome < 0) {
+      return;
+    }
+
+    Board board = new Board();
+    board.loadFromFen(game.initialFen());
+    int plies = Math.min(maxPly, game.moves().size());
+    for (int ply = 0; ply < plies; ply++) {
+      String uci = game.moves().get(ply);
+      long positionKey = MoveNotation.positionKey(board);
+      Move move = MoveNotation.play(board, uci.substring(0, 2), uci.substring(2, 4),
+          uci.length() > 4 ? uci.substring(4) : null);
+      long[] row = counts.computeIfAbsent(
+          new Key(positionKey, game.gameType(), game.ratingBand(), MoveNotation.toUci(move)), key -> new long[4]);
+      row[outcome]++;
+      row[RATING_SUM] += game.averageRating();
+    }
+    games++;
+  }
+
+  public void merge(ExplorerAggregate other) {
+    other.counts.forEach((key, row) -> {
+      long[] target = counts.computeIfAbsent(key, k -> new long[4]);
+      for (int i = 0; i < target.length; i++) {
+        target[i] += row[i];
+      }
+    });
+    games += other.games;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public int size() {
+    return counts.size();
+  }
+
+  public boolean isEmpty() {
+    return counts.isEmpty();
+  }
+
+  Map<Key, long[]> counts() {
+    return counts;
+  }
+
+  static long whiteWins(long[] row) {
+    return row[WHITE_WINS];
+  }
+
+  static long draws(long[] row) {
+    return row[DRAWS];
+  }
+
+  static long blackWins(long[] row) {
+    return row[BLACK_WINS];
+  }
+
+  static long ratingSum(long[] row) {
+    return row[RATING_SUM];
+  }
+
+  record Key(long positionKey, GameType gameType, int ratingBand, String move) {
+  }
+}
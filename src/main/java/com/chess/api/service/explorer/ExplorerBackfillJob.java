@@ -0,0 +1,180 @@
+package com.chess.api.service.explorer;
+
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Полное построение дебютного справочника по архиву партий.
+ * <p>
+ * Партии читаются диапазонами id, ходы диапазона - одним запросом до {@code max-ply}.
+ * Диапазон делится между потоками, каждый копит свой {@link ExplorerAggregate},
+ * после слияния приращения пишутся одним проходом. Справочник строится в теневой таблице
+ * и подменяет живой в конце, так что чтение все это время видит прежние данные.
+ * Учитываются партии, завершенные до старта; более поздние добавит обработчик
+ * завершения партии на любом узле. Построение одно на кластер, см.
+ * {@link ExplorerWriter#beginRebuild}.
+ * <p>
+ * Рейтинги на момент партии не хранятся, поэтому берутся текущие рейтинги игроков.
+ * Запуск: {@code --chess.explorer.backfill.on-startup=true}.
+ */
+@Component
+@Slf4j
+public class ExplorerBackfillJob implements ApplicationRunner {
+
+  private static final String GAMES_SQL = "SELECT g.id, g.game_type, g.result, g.initial_fen, " +
+      "CASE g.game_type WHEN 'BLITZ' THEN w.blitz_rating WHEN 'RAPID' THEN w.rapid_rating " +
+      "ELSE w.classical_rating END AS white_rating, " +
+      "CASE g.game_type WHEN 'BLITZ' THEN b.blitz_rating WHEN 'RAPID' THEN b.rapid_rating " +
+      "ELSE b.classical_rating END AS black_rating " +
+      "FROM games g JOIN players w ON w.id = g.white_player_id JOIN players b ON b.id = g.black_player_id " +
+      "WHERE g.id >= ? AND g.id < ? AND g.finished_at <= ? AND g.bot_level IS NULL " +
+      "AND g.result IN ('WHITE_WIN', 'BLACK_WIN', 'DRAW') ORDER BY g.id";
+
+  private static final String MOVES_SQL = "SELECT game_id, from_square, to_square, promotion FROM moves " +
+      "WHERE game_id >= ? AND game_id < ? AND move_number <= ? ORDER BY game_id, move_number";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ExplorerWriter writer;
+  private final RatingBands ratingBands;
+  private final boolean runOnStartup;
+  private final int maxPly;
+  private final int parallelism;
+  private final int chunkSize;
+
+  public ExplorerBackfillJob(JdbcTemplate jdbcTemplate,
+                             ExplorerWriter writer,
+                             @Value("${chess.explorer.rating-bands:1000,1400,1800,2200}") int[] ratingBands,
+                             @Value("${chess.explorer.backfill.on-startup:false}") boolean runOnStartup,
+                             @Value("${chess.explorer.max-ply:20}") int maxPly,
+                             @Value("${chess.explorer.backfill.parallelism:0}") int parallelism,
+                             @Value("${chess.explorer.backfill.chunk-size:5000}") int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.writer = writer;
+    this.ratingBands = new RatingBands(ratingBands);
+    this.runOnStartup = runOnStartup;
+    this.maxPly = maxPly;
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.chunkSize = Math.max(1, chunkSize);
+  }
+
+  public record Summary(long games, long rows, Duration duration) {
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (runOnStartup) {
+      backfill();
+    }
+  }
+
+  public Summary backfill() {
+    long started = System.nanoTime();
+    LocalDateTime rebuild = writer.beginRebuild();
+    Timestamp cutoff = Timestamp.valueOf(rebuild);
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM games", Long.class);
+    log.info("Построение дебютного справочника: партии до id {}, {} полуходов, потоков {}",
+        maxId, maxPly, parallelism);
+
+    long games = 0;
+    long rows = 0;
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      for (long from = 1; maxId != null && from <= maxId; from += chunkSize) {
+        ExplorerAggregate chunk = processChunk(from, from + chunkSize, cutoff, executor);
+        writer.writeRebuild(rebuild, chunk);
+        games += chunk.getGames();
+        rows += chunk.size();
+      }
+      writer.finishRebuild(rebuild);
+    } catch (RuntimeException e) {
+      writer.abortRebuild(rebuild);
+      throw e;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Summary summary = new Summary(games, rows, Duration.ofNanos(System.nanoTime() - started));
+    log.info("Дебютный справочник построен: {}", summary);
+    return summary;
+  }
+
+  private ExplorerAggregate processChunk(long from, long to, Timestamp cutoff, ExecutorService executor) {
+    List<ExplorerGame> games = loadGames(from, to, cutoff);
+    int slices = Math.min(parallelism, Math.max(1, games.size()));
+    int sliceSize = (games.size() + slices - 1) / slices;
+
+    List<Future<ExplorerAggregate>> futures = new ArrayList<>(slices);
+    for (int start = 0; start < games.size(); start += sliceSize) {
+      List<ExplorerGame> slice = games.subList(start, Math.min(games.size(), start + sliceSize));
+      futures.add(executor.submit(() -> {
+        ExplorerAggregate aggregate = new ExplorerAggregate();
+        for (ExplorerGame game : slice) {
+          try {
+            aggregate.addGame(game, maxPly);
+          } catch (Exception e) {
+            log.warn("Партия пропущена при построении справочника: {}", e.getMessage());
+          }
+        }
+        return aggregate;
+      }));
+    }
+
+    ExplorerAggregate merged = new ExplorerAggregate();
+    try {
+      for (Future<ExplorerAggregate> future : futures) {
+        merged.merge(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Построение справочника прервано", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Ошибка построения справочника", e.getCause());
+    }
+    return merged;
+  }
+
+  private List<ExplorerGame> loadGames(long from, long to, Timestamp cutoff) {
+    Map<Long, List<String>> moves = new HashMap<>();
+    jdbcTemplate.query(MOVES_SQL, rs -> {
+      String promotion = rs.getString("promotion");
+      String uci = rs.getString("from_square").toLowerCase() + rs.getString("to_square").toLowerCase()
+          + (promotion != null ? promotion.toLowerCase() : "");
+      moves.computeIfAbsent(rs.getLong("game_id"), id -> new ArrayList<>(maxPly)).add(uci);
+    }, from, to, maxPly);
+
+    List<ExplorerGame> games = new ArrayList<>();
+    jdbcTemplate.query(GAMES_SQL, rs -> {
+      List<String> gameMoves = moves.get(rs.getLong("id"));
+      if (gameMoves == null) {
+        return;
+      }
+      int averageRating = (rs.getInt("white_rating") + rs.getInt("black_rating")) / 2;
+      games.add(new ExplorerGame(
+          GameType.valueOf(rs.getString("game_type")),
+          ratingBands.bandOf(averageRating),
+          averageRating,
+          GameResult.valueOf(rs.getString("result")),
+          rs.getString("initial_fen"),
+          gameMoves));
+    }, from, to, cutoff);
+    return games;
+  }
+}
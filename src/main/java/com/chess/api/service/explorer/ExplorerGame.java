@@ -0,0 +1,15 @@
+package com.chess.api.service.explorer;
+
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+
+import java.util.List;
+
+/**
+ * Завершенная партия в виде, достаточном для справочника.
+ *
+ * @param moves ходы в UCI от начальной позиции, не обязательно все
+ */
+public record ExplorerGame(GameType gameType, int ratingBand, int averageRating, GameResult result,
+                           String initialFen, List<String> moves) {
+}
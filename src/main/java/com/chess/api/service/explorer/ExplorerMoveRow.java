@@ -0,0 +1,11 @@
+package com.chess.api.service.explorer;
+
+/**
+ * Счетчики хода, просуммированные по выбранным контролям времени и диапазонам рейтинга.
+ */
+public record ExplorerMoveRow(String move, Long whiteWins, Long draws, Long blackWins, Long ratingSum) {
+
+  public long games() {
+    return whiteWins + draws + blackWins;
+  }
+}
@@ -0,0 +1,240 @@
+package com.chess.api.service.explorer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись приращений справочника одним атомарным upsert на строку.
+ * <p>
+ * В PostgreSQL - {@code INSERT ... ON CONFLICT DO UPDATE}, в H2 - {@code MERGE}: счетчики
+ * прибавляются в базе, поэтому писатели не мешают друг другу ни в одном процессе, ни между
+ * узлами. Строки пакета идут в порядке ключа, чтобы одновременные пакеты блокировали
+ * строки в одном порядке.
+ * <p>
+ * Полное построение пишет в теневую таблицу и подменяет ею живую
+ * (см. {@link #beginRebuild}); живые записи на это время дублируются в теневую.
+ * Отсечка построения хранится в единственной строке {@code explorer_rebuild}, общей для всех
+ * узлов: запись партии берет эту строку на чтение, начало построения и подмена таблиц -
+ * на изменение, так что писатель любого узла либо закончил до подмены, либо видит ее итог.
+ */
+@Component
+@Slf4j
+public class ExplorerWriter {
+
+  static final String TABLE = "explorer_moves";
+  static final String SHADOW_TABLE = "explorer_moves_rebuild";
+  private static final String RETIRED_TABLE = "explorer_moves_retired";
+  static final String REBUILD_TABLE = "explorer_rebuild";
+  private static final int REBUILD_ROW = 1;
+
+  private static final String POSTGRES_UPSERT = "INSERT INTO %s AS t " +
+      "(white_wins, draws, black_wins, rating_sum, position_key, game_type, rating_band, move) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+      "ON CONFLICT (position_key, game_type, rating_band, move) DO UPDATE SET " +
+      "white_wins = t.white_wins + EXCLUDED.white_wins, draws = t.draws + EXCLUDED.draws, " +
+      "black_wins = t.black_wins + EXCLUDED.black_wins, rating_sum = t.rating_sum + EXCLUDED.rating_sum";
+
+  private static final String H2_UPSERT = "MERGE INTO %s t USING (VALUES (CAST(? AS INTEGER), " +
+      "CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR(20)), " +
+      "CAST(? AS INTEGER), CAST(? AS VARCHAR(5)))) " +
+      "s (white_wins, draws, black_wins, rating_sum, position_key, game_type, rating_band, move) " +
+      "ON t.position_key = s.position_key AND t.game_type = s.game_type " +
+      "AND t.rating_band = s.rating_band AND t.move = s.move " +
+      "WHEN MATCHED THEN UPDATE SET white_wins = t.white_wins + s.white_wins, draws = t.draws + s.draws, " +
+      "black_wins = t.black_wins + s.black_wins, rating_sum = t.rating_sum + s.rating_sum " +
+      "WHEN NOT MATCHED THEN INSERT " +
+      "(white_wins, draws, black_wins, rating_sum, position_key, game_type, rating_band, move) " +
+      "VALUES (s.white_wins, s.draws, s.black_wins, s.rating_sum, s.position_key, s.game_type, " +
+      "s.rating_band, s.move)";
+
+  // Та же структура, что у explorer_moves; IDENTITY понимают и PostgreSQL, и H2
+  private static final String CREATE_SHADOW_SQL = "CREATE TABLE " + SHADOW_TABLE + " (" +
+      "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+      "position_key BIGINT NOT NULL, game_type VARCHAR(20) NOT NULL, rating_band INTEGER NOT NULL, " +
+      "move VARCHAR(5) NOT NULL, white_wins INTEGER NOT NULL DEFAULT 0, draws INTEGER NOT NULL DEFAULT 0, " +
+      "black_wins INTEGER NOT NULL DEFAULT 0, rating_sum BIGINT NOT NULL DEFAULT 0, " +
+      "UNIQUE (position_key, game_type, rating_band, move))";
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final Comparator<Map.Entry<ExplorerAggregate.Key, long[]>> KEY_ORDER =
+      Comparator.comparing((Map.Entry<ExplorerAggregate.Key, long[]> entry) -> entry.getKey().positionKey())
+          .thenComparing(entry -> entry.getKey().gameType())
+          .thenComparingInt(entry -> entry.getKey().ratingBand())
+          .thenComparing(entry -> entry.getKey().move());
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String upsert;
+  // H2 не знает FOR SHARE, в тестах записи просто идут по очереди
+  private final String lockForWrite;
+  private final Duration staleAfter;
+
+  public ExplorerWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        @Value("${chess.explorer.backfill.stale-after:PT30M}") Duration staleAfter) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.staleAfter = staleAfter;
+    String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+        connection.getMetaData().getDatabaseProductName());
+    boolean h2 = "H2".equals(product);
+    this.upsert = h2 ? H2_UPSERT : POSTGRES_UPSERT;
+    this.lockForWrite = h2 ? "FOR UPDATE" : "FOR SHARE";
+    createRebuildRow();
+  }
+
+  /**
+   * Приращения одной завершенной партии. Во время построения партии после отсечки
+   * пишутся и в теневую таблицу.
+   */
+  public void write(ExplorerAggregate aggregate, LocalDateTime finishedAt) {
+    transactionTemplate.executeWithoutResult(status -> {
+      LocalDateTime cutoff = lockRebuild(lockForWrite);
+      write(TABLE, aggregate);
+      if (cutoff != null && finishedAt != null && finishedAt.isAfter(cutoff)) {
+        write(SHADOW_TABLE, aggregate);
+      }
+    });
+  }
+
+  /**
+   * Создает пустую теневую таблицу и возвращает отсечку: построение берет партии,
+   * завершенные не позже нее, живые записи более поздних партий дублируются в теневую.
+   * <p>
+   * Отсечка записывается под блокировкой строки построения, поэтому идущая запись любого узла
+   * либо закончилась до нее (и ее партия завершена раньше отсечки), либо уже видит отсечку.
+   * Не покрыта только партия, которая завершилась до отсечки, а зафиксирована после чтения
+   * ее диапазона, - окно в длину одной транзакции.
+   * <p>
+   * Построение одно на кластер: пока отсечка стоит и построение отмечается
+   * ({@link #writeRebuild}), второе не начнется. Построение упавшего узла перестает отмечаться
+   * и через {@code stale-after} перехватывается. Отсечка служит и меткой построения: узел,
+   * у которого построение перехватили, узнает об этом на следующей записи.
+   */
+  public LocalDateTime beginRebuild() {
+    return transactionTemplate.execute(status -> {
+      // Точность TIMESTAMP в базе - микросекунды, метка должна читаться обратно без потерь
+      LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+      if (lockRebuild("FOR UPDATE") != null) {
+        LocalDateTime heartbeat = jdbcTemplate.queryForObject(
+            "SELECT heartbeat FROM " + REBUILD_TABLE + " WHERE id = ?", LocalDateTime.class, REBUILD_ROW);
+        if (heartbeat != null && heartbeat.isAfter(now.minus(staleAfter))) {
+          throw new IllegalStateException("Построение справочника уже идет");
+        }
+        log.warn("Построение справочника, брошенное в {}, перехвачено", heartbeat);
+      }
+      jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW_TABLE);
+      jdbcTemplate.execute(CREATE_SHADOW_SQL);
+      jdbcTemplate.update("UPDATE " + REBUILD_TABLE + " SET cutoff = ?, heartbeat = ? WHERE id = ?",
+          now, now, REBUILD_ROW);
+      return now;
+    });
+  }
+
+  public void writeRebuild(LocalDateTime rebuild, ExplorerAggregate aggregate) {
+    transactionTemplate.executeWithoutResult(status -> {
+      checkOwner(rebuild, lockRebuild(lockForWrite));
+      write(SHADOW_TABLE, aggregate);
+    });
+    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+        "UPDATE " + REBUILD_TABLE + " SET heartbeat = ? WHERE id = ? AND cutoff = ?",
+        LocalDateTime.now(), REBUILD_ROW, rebuild));
+  }
+
+  /**
+   * Подменяет живую таблицу построенной. Живые записи всех узлов на время подмены ждут.
+   */
+  public void finishRebuild(LocalDateTime rebuild) {
+    transactionTemplate.executeWithoutResult(status -> {
+      checkOwner(rebuild, lockRebuild("FOR UPDATE"));
+      jdbcTemplate.execute("DROP TABLE IF EXISTS " + RETIRED_TABLE);
+      jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + RETIRED_TABLE);
+      jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " RENAME TO " + TABLE);
+      jdbcTemplate.execute("DROP TABLE " + RETIRED_TABLE);
+      clearRebuild();
+    });
+  }
+
+  /**
+   * Построение не удалось: живая таблица остается, теневая удаляется. Перехваченное
+   * построение уже не наше - его не трогаем.
+   */
+  public void abortRebuild(LocalDateTime rebuild) {
+    transactionTemplate.executeWithoutResult(status -> {
+      if (!rebuild.equals(lockRebuild("FOR UPDATE"))) {
+        return;
+      }
+      clearRebuild();
+      jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW_TABLE);
+    });
+  }
+
+  private void createRebuildRow() {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + REBUILD_TABLE +
+        " (id INTEGER PRIMARY KEY, cutoff TIMESTAMP, heartbeat TIMESTAMP)");
+    Integer rows = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM " + REBUILD_TABLE + " WHERE id = ?", Integer.class, REBUILD_ROW);
+    if (rows != null && rows == 0) {
+      try {
+        jdbcTemplate.update("INSERT INTO " + REBUILD_TABLE + " (id, cutoff) VALUES (?, NULL)", REBUILD_ROW);
+      } catch (DuplicateKeyException e) {
+        // строку одновременно вставил другой узел
+      }
+    }
+  }
+
+  /**
+   * Блокирует строку построения до конца текущей транзакции и возвращает отсечку.
+   */
+  private LocalDateTime lockRebuild(String lock) {
+    return jdbcTemplate.queryForObject("SELECT cutoff FROM " + REBUILD_TABLE + " WHERE id = ? " + lock,
+        LocalDateTime.class, REBUILD_ROW);
+  }
+
+  private static void checkOwner(LocalDateTime rebuild, LocalDateTime cutoff) {
+    if (!rebuild.equals(cutoff)) {
+      throw new IllegalStateException("Построение справочника перехвачено другим узлом");
+    }
+  }
+
+  private void clearRebuild() {
+    jdbcTemplate.update("UPDATE " + REBUILD_TABLE + " SET cutoff = NULL, heartbeat = NULL WHERE id = ?",
+        REBUILD_ROW);
+  }
+
+  private void write(String table, ExplorerAggregate aggregate) {
+    List<Map.Entry<ExplorerAggregate.Key, long[]>> entries = new ArrayList<>(aggregate.counts().entrySet());
+    entries.sort(KEY_ORDER);
+    String sql = String.format(upsert, table);
+    for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+      int to = Math.min(entries.size(), from + BATCH_SIZE);
+      List<Object[]> batch = new ArrayList<>(to - from);
+      for (Map.Entry<ExplorerAggregate.Key, long[]> entry : entries.subList(from, to)) {
+        batch.add(row(entry.getKey(), entry.getValue()));
+      }
+      transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+    }
+  }
+
+  private static Object[] row(ExplorerAggregate.Key key, long[] counts) {
+    return new Object[]{
+        ExplorerAggregate.whiteWins(counts), ExplorerAggregate.draws(counts),
+        ExplorerAggregate.blackWins(counts), ExplorerAggregate.ratingSum(counts),
+        key.positionKey(), key.gameType().name(), key.ratingBand(), key.move()
+    };
+  }
+}
@@ -0,0 +1,29 @@
+package com.chess.api.service.explorer;
+
+import java.util.Arrays;
+
+/**
+ * Диапазоны рейтинга справочника, заданные нижними границами; ниже первой границы - диапазон 0.
+ */
+public final class RatingBands {
+
+  private final int[] bounds;
+
+  public RatingBands(int[] bounds) {
+    this.bounds = Arrays.stream(bounds).filter(bound -> bound > 0).sorted().distinct().toArray();
+  }
+
+  public int bandOf(int rating) {
+    int band = 0;
+    for (int bound : bounds) {
+      if (rating >= bound) {
+        band = bound;
+      }
+    }
+    return band;
+  }
+
+  public boolean isBand(int value) {
+    return value == 0 || Arrays.binarySearch(bounds, value) >= 0;
+  }
+}
@@ -0,0 +1,333 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.AnalysisLineDTO;
+import com.chess.api.dto.AnalysisRequest;
+import com.chess.api.dto.AnalysisUpdate;
+import com.chess.api.dto.MoveDTO;
+import com.chess.api.engine.LazySmpSearch;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.engine.SearchInfo;
+import com.chess.api.engine.SearchLimits;
+import com.chess.api.engine.SearchLine;
+import com.chess.api.engine.TranspositionTable;
+import com.chess.api.engine.tablebase.Tablebase;
+import com.chess.api.engine.tablebase.Wdl;
+import com.chess.api.model.Game;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.AnalysisService;
+import com.chess.api.service.GameService;
+import com.chess.api.service.metrics.GameMetrics;
+import com.github.bhlangonijr.chesslib.Board;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Анализ позиций по запросу пользователей.
+ * <p>
+ * Одинаковые запросы объединяются в один поиск, на итерации которого подписаны все
+ * запросившие. Все поиски делят общий бюджет ядер: каждый берет одно ядро под главный
+ * поток и сколько получится под вспомогательные потоки Lazy SMP. Завершенные анализы
+ * кешируются и повторно отдаются сразу.
+ */
+@Service
+@Slf4j
+public class AnalysisServiceImpl implements AnalysisService {
+
+  static final String DESTINATION = "/queue/analysis";
+
+  private static final Set<GameStatus> IN_PROGRESS =
+      EnumSet.of(GameStatus.WAITING, GameStatus.ACTIVE, GameStatus.PAUSED, GameStatus.DRAW_PROPOSED);
+
+  private final GameService gameService;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final Tablebase tablebase;
+  private final TranspositionTable table;
+  private final Semaphore cores;
+  private final ThreadPoolExecutor searches;
+  private final ExecutorService helpers;
+  private final int threadsPerSearch;
+  private final int defaultDepth;
+  private final int maxDepth;
+  private final long maxTimeMs;
+
+  // Поиски по ключу позиции и текущий поиск каждого пользователя; изменяются под lock
+  private final Object lock = new Object();
+  private final Map<String, AnalysisTask> running = new HashMap<>();
+  private final Map<String, AnalysisTask> byUser = new HashMap<>();
+
+  private final Map<String, AnalysisUpdate> cache;
+  private final GameMetrics.CacheMetrics cacheMetrics;
+
+  public AnalysisServiceImpl(GameService gameService,
+                             SimpMessagingTemplate messagingTemplate,
+                             Tablebase tablebase,
+                             GameMetrics metrics,
+                             @Value("${chess.analysis.threads:0}") int threads,
+                             @Value("${chess.analysis.threads-per-search:4}") int threadsPerSearch,
+                             @Value("${chess.analysis.hash-size-mb:128}") int hashSizeMb,
+                             @Value("${chess.analysis.default-depth:16}") int defaultDepth,
+                             @Value("${chess.analysis.max-depth:24}") int maxDepth,
+                             @Value("${chess.analysis.max-time-ms:20000}") long maxTimeMs,
+                             @Value("${chess.analysis.cache-size:2000}") int cacheSize) {
+    this.gameService = gameService;
+    this.messagingTemplate = messagingTemplate;
+    this.tablebase = tablebase;
+    this.cacheMetrics = metrics.cache("analysis");
+    this.table = new TranspositionTable(hashSizeMb);
+    this.threadsPerSearch = Math.max(1, threadsPerSearch);
+    this.defaultDepth = defaultDepth;
+    this.maxDepth = maxDepth;
+    this.maxTimeMs = maxTimeMs;
+
+    int budget = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    this.cores = new Semaphore(budget);
+    // Главных потоков не больше бюджета; вспомогательных не больше свободных разрешений
+    this.searches = new ThreadPoolExecutor(budget, budget, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), threadFactory("analysis-search-"));
+    this.helpers = Executors.newCachedThreadPool(threadFactory("analysis-helper-"));
+
+    this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, AnalysisUpdate> eldest) {
+        return size() > cacheSize;
+      }
+    });
+  }
+
+  @Override
+  public void start(String username, AnalysisRequest request) {
+    String fen = resolveFen(request);
+    int depth = Math.min(request.getDepth() != null ? request.getDepth() : defaultDepth, maxDepth);
+    int lines = request.getMultiPv() != null ? Math.max(1, Math.min(request.getMultiPv(), 5)) : 1;
+    String key = key(fen, depth, lines);
+
+    stop(username);
+
+    AnalysisUpdate cached = cache.get(key);
+    cacheMetrics.record(cached != null);
+    if (cached != null) {
+      send(username, cached);
+      return;
+    }
+
+    AnalysisUpdate latest = null;
+    synchronized (lock) {
+      AnalysisTask task = running.get(key);
+      if (task == null) {
+        SearchLimits limits = new SearchLimits(depth, 0, 0, maxTimeMs, 0, lines);
+        task = new AnalysisTask(key, fen, limits);
+        running.put(key, task);
+        searches.execute(task);
+      } else {
+        latest = task.latest;
+      }
+      task.subscribers.add(username);
+      byUser.put(username, task);
+    }
+
+    // Присоединившийся к идущему поиску сразу получает последнюю итерацию
+    if (latest != null) {
+      send(username, latest);
+    }
+  }
+
+  @Override
+  public void stop(String username) {
+    synchronized (lock) {
+      AnalysisTask task = byUser.remove(username);
+      if (task != null) {
+        task.subscribers.remove(username);
+        if (task.subscribers.isEmpty()) {
+          task.cancelled = true;
+          task.stop.set(true);
+          running.remove(task.key, task);
+        }
+      }
+    }
+  }
+
+  @Override
+  public int getRunningSearches() {
+    synchronized (lock) {
+      return running.size();
+    }
+  }
+
+  private String resolveFen(AnalysisRequest request) {
+    String fen;
+    if (request.getGameId() != null) {
+      Game game = gameService.getGameById(request.getGameId());
+      if (IN_PROGRESS.contains(game.getStatus())) {
+        throw new RuntimeException("Анализ доступен только для завершенных партий");
+      }
+      fen = request.getPly() == null ? game.getCurrentFen() : positionAt(game, request.getPly());
+    } else if (request.getFen() != null && !request.getFen().isBlank()) {
+      fen = request.getFen().trim();
+    } else {
+      throw new RuntimeException("Укажите позицию или партию для анализа");
+    }
+
+    try {
+      Board board = new Board();
+      board.loadFromFen(fen);
+      return board.getFen();
+    } catch (Exception e) {
+      throw new RuntimeException("Неверная позиция: " + fen);
+    }
+  }
+
+  private String positionAt(Game game, int ply) {
+    List<MoveDTO> moves = gameService.getGameMoves(game.getId());
+    if (ply < 0 || ply > moves.size()) {
+      throw new RuntimeException("В партии нет хода " + ply);
+    }
+    Board board = new Board();
+    board.loadFromFen(game.getInitialFen());
+    for (MoveDTO move : moves.subList(0, ply)) {
+      MoveNotation.play(board, move.getFromSquare(), move.getToSquare(), move.getPromotion());
+    }
+    return board.getFen();
+  }
+
+  // Счетчики ходов на оценку не влияют, поэтому в ключ не входят
+  private static String key(String fen, int depth, int lines) {
+    String[] parts = fen.split(" ");
+    String position = parts.length >= 4 ? String.join(" ", parts[0], parts[1], parts[2], parts[3]) : fen;
+    return position + "|" + depth + "|" + lines;
+  }
+
+  private void send(String username, AnalysisUpdate update) {
+    messagingTemplate.convertAndSendToUser(username, DESTINATION, update);
+  }
+
+  private void broadcast(AnalysisTask task, AnalysisUpdate update) {
+    List<String> subscribers;
+    synchronized (lock) {
+      subscribers = new ArrayList<>(task.subscribers);
+    }
+    for (String username : subscribers) {
+      send(username, update);
+    }
+  }
+
+  private static AnalysisUpdate toUpdate(String type, String fen, SearchInfo info, boolean cached, Wdl wdl) {
+    // Оценки поиска - с точки зрения стороны, которая ходит; клиенту отдаем с точки зрения белых
+    int sign = fen.split(" ")[1].equals("b") ? -1 : 1;
+    List<AnalysisLineDTO> lines = new ArrayList<>(info.lines().size());
+    for (SearchLine line : info.lines()) {
+      if (line.move() == null) {
+        continue;
+      }
+      lines.add(new AnalysisLineDTO(
+          MoveNotation.toUci(line.move()),
+          line.isMate() ? null : line.score() * sign,
+          line.isMate() ? line.mateIn() * sign : null,
+          MoveNotation.toUci(line.pv())));
+    }
+    String tablebase = wdl == null ? null : (sign < 0 ? wdl.negate() : wdl).name();
+    return new AnalysisUpdate(type, fen, info.depth(), info.nodes(), info.elapsedMs(), cached, lines, tablebase);
+  }
+
+  private static ThreadFactory threadFactory(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    searches.shutdownNow();
+    helpers.shutdownNow();
+  }
+
+  private final class AnalysisTask implements Runnable {
+
+    final String key;
+    final String fen;
+    final SearchLimits limits;
+    final AtomicBoolean stop = new AtomicBoolean();
+    final Set<String> subscribers = new HashSet<>();
+    volatile boolean cancelled;
+    volatile AnalysisUpdate latest;
+
+    AnalysisTask(String key, String fen, SearchLimits limits) {
+      this.key = key;
+      this.fen = fen;
+      this.limits = limits;
+    }
+
+    @Override
+    public void run() {
+      int acquired = 0;
+      try {
+        if (cancelled) {
+          return;
+        }
+        cores.acquire();
+        acquired = 1;
+        while (acquired < threadsPerSearch && cores.tryAcquire()) {
+          acquired++;
+        }
+
+        Board board = new Board();
+        board.loadFromFen(fen);
+        Wdl wdl = tablebase.probeWdl(board).orElse(null);
+
+        table.newSearch();
+        SearchInfo info = new LazySmpSearch(fen, table, limits, stop, iteration -> {
+          latest = toUpdate("ANALYSIS_INFO", fen, iteration, false, wdl);
+          broadcast(this, latest);
+        }).withTablebase(tablebase).run(acquired - 1, helpers);
+
+        if (!cancelled) {
+          // Сначала кеш, потом снятие с учета: новый запрос либо попадет в кеш, либо в подписчики
+          cache.put(key, toUpdate("ANALYSIS_DONE", fen, info, true, wdl));
+          synchronized (lock) {
+            running.remove(key, this);
+          }
+          broadcast(this, toUpdate("ANALYSIS_DONE", fen, info, false, wdl));
+        }
+        log.debug("Анализ {}: глубина {}, узлов {}, потоков {}, {} мс",
+            key, info.depth(), info.nodes(), acquired, info.elapsedMs());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        log.error("Ошибка анализа позиции {}", fen, e);
+      } finally {
+        cores.release(acquired);
+        synchronized (lock) {
+          running.remove(key, this);
+          for (String username : subscribers) {
+            byUser.remove(username, this);
+          }
+        }
+      }
+    }
+  }
+}
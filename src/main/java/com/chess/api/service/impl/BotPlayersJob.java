@@ -0,0 +1,35 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.engine.BotLevel;
+import com.chess.api.service.PlayerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Боты всех уровней создаются при запуске, а не при первой партии: партии с ботом
+ * только читают их. Узлы, запущенные одновременно, могут вставить бота дважды -
+ * вторую вставку отбивает уникальность уровня, и бот перечитывается.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BotPlayersJob implements ApplicationRunner {
+
+  private final PlayerService playerService;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    for (BotLevel level : BotLevel.values()) {
+      try {
+        playerService.ensureBotPlayer(level.getLevel());
+      } catch (DataIntegrityViolationException e) {
+        log.info("Бота уровня {} одновременно создал другой узел", level.getLevel());
+        playerService.getBotPlayer(level.getLevel());
+      }
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.engine.BotLevel;
+import com.chess.api.engine.Search;
+import com.chess.api.engine.SearchInfo;
+import com.chess.api.engine.SearchLimits;
+import com.chess.api.engine.SearchLine;
+import com.chess.api.engine.TranspositionTable;
+import com.chess.api.exception.IllegalMoveException;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.BotService;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.GameService;
+import com.chess.api.service.OpeningBookService;
+import com.chess.api.service.event.MoveMadeEvent;
+import com.chess.api.websocket.GameBroadcaster;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Side;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Бот-соперник.
+ * <p>
+ * Ход считается в отдельном пуле с ограниченным числом потоков пониженного приоритета,
+ * чтобы партии с ботами не отнимали процессор у обработки ходов людей. Время на ход
+ * берется из часов партии, дополнительно ограничено уровнем бота и процессорным временем.
+ */
+@Service
+@Slf4j
+public class BotServiceImpl implements BotService {
+
+  private final GameService gameService;
+  private final ChessGameService chessGameService;
+  private final GameBroadcaster broadcaster;
+  private final OpeningBookService bookService;
+  private final TransactionTemplate transactionTemplate;
+  private final TranspositionTable table;
+  private final ThreadPoolExecutor executor;
+  private final long maxMoveTimeMs;
+  private final long maxCpuTimeMs;
+
+  private final Set<Long> thinking = ConcurrentHashMap.newKeySet();
+
+  public BotServiceImpl(GameService gameService,
+                        ChessGameService chessGameService,
+                        GameBroadcaster broadcaster,
+                        OpeningBookService bookService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${chess.bot.threads:0}") int threads,
+                        @Value("${chess.bot.hash-size-mb:64}") int hashSizeMb,
+                        @Value("${chess.bot.max-move-time-ms:15000}") long maxMoveTimeMs,
+                        @Value("${chess.bot.max-cpu-time-ms:10000}") long maxCpuTimeMs) {
+    this.gameService = gameService;
+    this.chessGameService = chessGameService;
+    this.broadcaster = broadcaster;
+    this.bookService = bookService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.table = new TranspositionTable(hashSizeMb);
+    this.maxMoveTimeMs = maxMoveTimeMs;
+    this.maxCpuTimeMs = maxCpuTimeMs;
+
+    int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "bot-search-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          thread.setPriority(Thread.MIN_PRIORITY);
+          return thread;
+        });
+  }
+
+  @Override
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMoveMade(MoveMadeEvent event) {
+    if (!event.botToMove() || !thinking.add(event.gameId())) {
+      return;
+    }
+    executor.execute(() -> {
+      try {
+        think(event.gameId(), event.fen());
+      } catch (Exception e) {
+        log.error("Ошибка расчета хода бота в игре {}", event.gameId(), e);
+      } finally {
+        thinking.remove(event.gameId());
+      }
+    });
+  }
+
+  @Override
+  public int getThinkingGames() {
+    return thinking.size();
+  }
+
+  private void think(Long gameId, String fen) {
+    Game snapshot = transactionTemplate.execute(status -> gameService.getGameById(gameId));
+    if (snapshot == null || snapshot.getStatus() != GameStatus.ACTIVE || snapshot.getBotLevel() == null
+        || !fen.equals(snapshot.getCurrentFen())) {
+      return;
+    }
+
+    BotLevel level = BotLevel.of(snapshot.getBotLevel());
+    Board board = new Board();
+    board.loadFromFen(fen);
+
+    // В дебюте ходим по книге без расчета
+    Optional<com.github.bhlangonijr.chesslib.move.Move> bookMove = bookService.pickMove(board);
+    if (bookMove.isPresent()) {
+      log.debug("Бот {} в игре {}: {} по книге", level, gameId, bookMove.get());
+      play(gameId, fen, bookMove.get());
+      return;
+    }
+
+    Integer[] clocks = chessGameService.getTimeLeft(gameId);
+    long remainingMs = board.getSideToMove() == Side.WHITE ? clocks[0] : clocks[1];
+    long incrementMs = snapshot.getTimeIncrement() != null ? snapshot.getTimeIncrement() * 1000L : 0;
+
+    long softMs = Math.min(level.getMaxTimeMs(), Math.min(maxMoveTimeMs, timeBudget(remainingMs, incrementMs)));
+    long hardMs = Math.max(softMs, Math.min(softMs * 3, remainingMs / 4));
+    int lines = level.getNoiseCp() > 0 ? 4 : 1;
+    SearchLimits limits = new SearchLimits(level.getMaxDepth(), 0, softMs, hardMs, maxCpuTimeMs, lines);
+
+    table.newSearch();
+    // Таблицы Syzygy в игре бота не используются, пока разбор файлов не сверен с эталонными таблицами
+    SearchInfo info = new Search(board, table, limits, new AtomicBoolean(), null).run();
+    SearchLine chosen = choose(info.lines(), level.getNoiseCp());
+    if (chosen == null || chosen.move() == null) {
+      return;
+    }
+
+    log.debug("Бот {} в игре {}: {} (оценка {}, глубина {}, узлов {}, {} мс)", level, gameId,
+        chosen.move(), chosen.score(), info.depth(), info.nodes(), info.elapsedMs());
+    play(gameId, fen, chosen.move());
+  }
+
+  private void play(Long gameId, String fen, com.github.bhlangonijr.chesslib.move.Move chessMove) {
+    MoveRequest request = new MoveRequest();
+    request.setFrom(chessMove.getFrom().value().toLowerCase());
+    request.setTo(chessMove.getTo().value().toLowerCase());
+    if (chessMove.getPromotion() != null && chessMove.getPromotion() != Piece.NONE) {
+      request.setPromotion(switch (chessMove.getPromotion().getPieceType()) {
+        case ROOK -> "R";
+        case BISHOP -> "B";
+        case KNIGHT -> "N";
+        default -> "Q";
+      });
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      Game game = gameService.getGameById(gameId);
+      // Пока бот думал, партия могла закончиться
+      if (game.getStatus() != GameStatus.ACTIVE || !fen.equals(game.getCurrentFen())) {
+        return;
+      }
+
+      Player bot = game.getBlackPlayer() != null && Boolean.TRUE.equals(game.getBlackPlayer().getBot())
+          ? game.getBlackPlayer() : game.getWhitePlayer();
+      try {
+        List<Move> moves = chessGameService.makeMoveWithPremove(game, bot, request);
+        broadcaster.moveMade(game, moves);
+        if (game.getStatus() != GameStatus.ACTIVE) {
+          chessGameService.stopGameTimer(gameId);
+        }
+      } catch (IllegalMoveException e) {
+        log.error("Бот выбрал недопустимый ход {} в игре {}: {}", chessMove, gameId, e.getMessage());
+      }
+    });
+  }
+
+  // Доля оставшегося времени плюс большая часть инкремента
+  private long timeBudget(long remainingMs, long incrementMs) {
+    long budget = remainingMs / 30 + incrementMs * 3 / 4;
+    return Math.max(50, Math.min(budget, remainingMs / 2));
+  }
+
+  // Слабые уровни выбирают среди нескольких лучших ходов с шумом к оценке
+  private SearchLine choose(List<SearchLine> lines, int noiseCp) {
+    if (lines.isEmpty() || noiseCp == 0) {
+      return lines.isEmpty() ? null : lines.get(0);
+    }
+    SearchLine best = null;
+    int bestScore = Integer.MIN_VALUE;
+    for (SearchLine line : lines) {
+      int score = line.isMate() ? line.score() : line.score() + ThreadLocalRandom.current().nextInt(noiseCp);
+      if (score > bestScore) {
+        bestScore = score;
+        best = line;
+      }
+    }
+    return best;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -1,6 +1,7 @@
 package com.chess.api.service.impl;
 
 import com.chess.api.dto.MoveRequest;
+import com.chess.api.dto.TimeSyncFrame;
 import com.chess.api.exception.IllegalMoveException;
 import com.chess.api.model.Game;
 import com.chess.api.model.Move;
@@ -10,20 +11,42 @@ import com.chess.api.model.enums.GameStatus;
 import com.chess.api.service.ChessGameService;
 import com.chess.api.service.GameService;
 import com.chess.api.service.GameTimer;
+import com.chess.api.service.cluster.ClusterMessage;
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.chess.api.service.event.MoveMadeEvent;
+import com.chess.api.service.event.PremoveRejectedEvent;
+import com.chess.api.service.live.GameRehydrator;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.live.LiveGame;
+import com.chess.api.service.live.LiveGameRegistry;
+import com.chess.api.service.metrics.GameMetrics;
+import com.chess.api.service.metrics.MoveEvent;
+import com.chess.api.service.replay.GameSnapshots;
 import com.github.bhlangonijr.chesslib.Board;
 import com.github.bhlangonijr.chesslib.Piece;
 import com.github.bhlangonijr.chesslib.PieceType;
 import com.github.bhlangonijr.chesslib.Side;
 import com.github.bhlangonijr.chesslib.Square;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -34,19 +57,118 @@ import java.util.concurrent.TimeUnit;
 public class ChessGameServiceImpl implements ChessGameService {
 
   private final ConcurrentHashMap<Long, GameTimer> gameTimers = new ConcurrentHashMap<>();
+  // Задачи тика часов: отменяются вместе с удалением таймера
+  private final ConcurrentHashMap<Long, ScheduledFuture<?>> timerTasks = new ConcurrentHashMap<>();
   private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
   private final GameService gameService;
-
-  public ChessGameServiceImpl(GameService gameService) {
+  private final LiveGameRegistry liveGames;
+  private final LatencyTracker latencyTracker;
+  private final GameMetrics metrics;
+  private final ApplicationEventPublisher eventPublisher;
+  private final GameOwnership ownership;
+  private final int snapshotInterval;
+  private final int maxPremoves;
+
+  public ChessGameServiceImpl(GameService gameService,
+                              LiveGameRegistry liveGames,
+                              LatencyTracker latencyTracker,
+                              GameMetrics metrics,
+                              ApplicationEventPublisher eventPublisher,
+                              GameOwnership ownership,
+                              @Value("${chess.replay.snapshot-interval:16}") int snapshotInterval,
+                              @Value("${chess.premove.max-depth:3}") int maxPremoves) {
     this.gameService = gameService;
+    this.liveGames = liveGames;
+    this.latencyTracker = latencyTracker;
+    this.metrics = metrics;
+    this.eventPublisher = eventPublisher;
+    this.ownership = ownership;
+    this.snapshotInterval = snapshotInterval;
+    this.maxPremoves = maxPremoves;
+  }
+
+  @Override
+  @Transactional
+  public Move makeMove(Game game, Player player, MoveRequest moveRequest)
+      throws IllegalMoveException {
+    LiveGame live = liveGames.get(game);
+    synchronized (live) {
+      return playMove(game, live, player, moveRequest, latencyTracker.lagCredit(player.getUsername()));
+    }
   }
 
+  /**
+   * Доску партии защищает ее собственный монитор: партии не ждут друг друга.
+   * От записи поверх чужого хода, сдачи или флажка - в том числе с другого узла -
+   * защищает версия партии, а не монитор.
+   */
   @Override
   @Transactional
-  public synchronized Move makeMove(Game game, Player player, MoveRequest moveRequest)
+  public List<Move> makeMoveWithPremove(Game game, Player player, MoveRequest moveRequest)
       throws IllegalMoveException {
+    LiveGame live = liveGames.get(game);
+    synchronized (live) {
+      return playWithPremove(game, live, player, moveRequest);
+    }
+  }
 
-    Board board = game.getChessBoard();
+  private List<Move> playWithPremove(Game game, LiveGame live, Player player, MoveRequest moveRequest)
+      throws IllegalMoveException {
+    Move move = playMove(game, live, player, moveRequest, latencyTracker.lagCredit(player.getUsername()));
+    if (game.getStatus() != GameStatus.ACTIVE) {
+      return List.of(move);
+    }
+
+    // Предход соперника - в том же шаге, пока его часы не успели пойти
+    Side next = live.getBoard().getSideToMove();
+    MoveRequest premove = live.getPremoves().poll(next);
+    if (premove == null) {
+      return List.of(move);
+    }
+    Player premover = next == Side.WHITE ? game.getWhitePlayer() : game.getBlackPlayer();
+    try {
+      // Предход не идет по сети - компенсировать нечего
+      return List.of(move, playMove(game, live, premover, premove, 0));
+    } catch (IllegalMoveException e) {
+      live.getPremoves().clear(next);
+      eventPublisher.publishEvent(new PremoveRejectedEvent(game.getId(), premover.getUsername(), e.getMessage()));
+      return List.of(move);
+    }
+  }
+
+  @Override
+  public boolean queuePremove(Game game, Player player, MoveRequest moveRequest)
+      throws IllegalMoveException {
+    if (game.getStatus() != GameStatus.ACTIVE) {
+      throw new IllegalMoveException("Игра не активна");
+    }
+    Side side = player.equals(game.getWhitePlayer()) ? Side.WHITE : Side.BLACK;
+    LiveGame live = liveGames.get(game);
+    synchronized (live) {
+      if (live.getBoard().getSideToMove() == side) {
+        return false;
+      }
+      if (!live.getPremoves().offer(side, moveRequest, maxPremoves)) {
+        throw new IllegalMoveException("Очередь предходов заполнена");
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public void clearPremoves(Game game, Player player) {
+    Side side = player.equals(game.getWhitePlayer()) ? Side.WHITE : Side.BLACK;
+    liveGames.get(game).getPremoves().clear(side);
+  }
+
+  private Move playMove(Game game, LiveGame live, Player player, MoveRequest moveRequest, long lagCreditMs)
+      throws IllegalMoveException {
+    MoveEvent event = new MoveEvent();
+    event.begin();
+    // Часы читаются, только если ход кто-то замеряет
+    boolean timed = event.isEnabled() || metrics.isEnabled();
+    long validateStart = now(timed);
+    Board board = live.getBoard();
     Side sideToMove = board.getSideToMove();
 
     // Проверяем, чей ход
@@ -80,12 +202,17 @@ public class ChessGameServiceImpl implements ChessGameService {
     if (!board.isMoveLegal(chessMove, true)) {
       throw new IllegalMoveException("Недопустимый ход");
     }
+    long validated = now(timed);
+    metrics.moveStage(GameMetrics.MoveStage.VALIDATE, validateStart);
 
-    // Выполняем ход
-    board.doMove(chessMove);
+    // Выполняем ход; при откате транзакции доска в памяти разошлась бы с базой
+    live.play(chessMove);
+    evictOnRollback(game.getId());
 
     // Обновляем состояние игры
+    int ply = game.getMoves().size() + 1;
     game.setCurrentFen(board.getFen());
+    game.setSnapshots(GameSnapshots.append(game.getSnapshots(), snapshotInterval, ply, game.getCurrentFen()));
 
     // Сохраняем ход в БД
     Move move = new Move();
@@ -94,29 +221,102 @@ public class ChessGameServiceImpl implements ChessGameService {
     move.setToSquare(moveRequest.getTo());
     move.setPromotion(moveRequest.getPromotion());
     move.setSan(chessMove.toString());
-    move.setMoveNumber(game.getMoves().size() + 1);
+    move.setMoveNumber(ply);
 
     // Обновляем таймер
+    long clockStart = now(timed);
     GameTimer timer = gameTimers.get(game.getId());
-    if (timer != null) {
-      startGameTimer(game);
+    if (timer == null) {
+      resumeGameTimer(game, sideToMove, move.getMoveNumber());
       timer = gameTimers.get(game.getId());
     }
     if (timer != null) {
-      timer.switchTurn();
-      move.setWhiteTimeLeft(timer.getWhiteTimeLeft());
-      move.setBlackTimeLeft(timer.getBlackTimeLeft());
+      GameTimer.TurnSwitch turn = timer.planSwitch(lagCreditMs);
+      move.setWhiteTimeLeft(turn.whiteTimeLeft());
+      move.setBlackTimeLeft(turn.blackTimeLeft());
+      switchOnCommit(timer, turn);
     }
 
     // Сохраняем ход через GameServiceImpl
+    long persistStart = now(timed);
     gameService.saveMove(game, move);
+    long persisted = now(timed);
+    metrics.moveStage(GameMetrics.MoveStage.PERSIST, persistStart);
 
     // Проверяем окончание игры
-    checkGameEnd(game, board);
+    checkGameEnd(game, live);
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.gameId = game.getId();
+      event.ply = ply;
+      event.validate = validated - validateStart;
+      event.clock = persistStart - clockStart;
+      event.persist = persisted - persistStart;
+      event.gameEnd = System.nanoTime() - persisted;
+      event.commit();
+    }
+
+    Player next = board.getSideToMove() == Side.WHITE ? game.getWhitePlayer() : game.getBlackPlayer();
+    boolean botToMove = game.getStatus() == GameStatus.ACTIVE && next != null && Boolean.TRUE.equals(next.getBot());
+    eventPublisher.publishEvent(new MoveMadeEvent(game.getId(), move.getMoveNumber(), game.getCurrentFen(), botToMove));
 
     return move;
   }
 
+  private static long now(boolean timed) {
+    return timed ? System.nanoTime() : 0;
+  }
+
+  private void evictOnRollback(Long gameId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          liveGames.evict(gameId);
+        }
+      }
+    });
+  }
+
+  // Часы переводит только зафиксированный ход: проигравший гонку за версию партии их не трогает
+  private void switchOnCommit(GameTimer timer, GameTimer.TurnSwitch turn) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      latencyTracker.recordCompensation(timer.apply(turn));
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_COMMITTED) {
+          latencyTracker.recordCompensation(timer.apply(turn));
+        } else {
+          timer.discard(turn);
+        }
+      }
+    });
+  }
+
+  // Таймера нет после перезапуска: часы продолжаются с последнего сохраненного хода
+  private void resumeGameTimer(Game game, Side sideToMove, int ply) {
+    List<Move> moves = game.getMoves();
+    if (ply == 1 || moves.isEmpty()) {
+      startGameTimer(game);
+      return;
+    }
+    Move last = moves.get(moves.size() - 1);
+    if (last.getWhiteTimeLeft() == null || last.getBlackTimeLeft() == null) {
+      startGameTimer(game);
+      return;
+    }
+    int[] clocks = GameRehydrator.restoreClocks(last.getWhiteTimeLeft(), last.getBlackTimeLeft(),
+        sideToMove, last.getTimestamp(), LocalDateTime.now());
+    resumeGameTimer(game.getId(), clocks[0], clocks[1], game.getTimeIncrement(), sideToMove);
+  }
+
   private Piece getPromotionPiece(String promotion, Side side) {
     PieceType type = switch (promotion.toUpperCase()) {
       case "Q" -> PieceType.QUEEN;
@@ -128,29 +328,29 @@ public class ChessGameServiceImpl implements ChessGameService {
     return Piece.make(side, type);
   }
 
-  private void checkGameEnd(Game game, Board board) {
-    if (board.isMated()) {
-      if (board.getSideToMove() == Side.WHITE) {
-        game.setStatus(GameStatus.BLACK_WON);
-        game.setResult(GameResult.BLACK_WIN);
+  // Одна генерация ходов на мат и пат; ничейные правила - из счетчиков партии
+  private void checkGameEnd(Game game, LiveGame live) {
+    Board board = live.getBoard();
+    if (board.legalMoves().isEmpty()) {
+      stopGameTimer(game.getId());
+      if (!board.isKingAttacked()) {
+        gameService.finishGame(game, GameStatus.DRAW, GameResult.DRAW);
+      } else if (board.getSideToMove() == Side.WHITE) {
+        gameService.finishGame(game, GameStatus.BLACK_WON, GameResult.BLACK_WIN);
       } else {
-        game.setStatus(GameStatus.WHITE_WON);
-        game.setResult(GameResult.WHITE_WIN);
+        gameService.finishGame(game, GameStatus.WHITE_WON, GameResult.WHITE_WIN);
       }
+    } else if (live.getDraws().isDraw()) {
       stopGameTimer(game.getId());
-    } else if (board.isStaleMate() || board.isDraw()) {
-      game.setStatus(GameStatus.DRAW);
-      game.setResult(GameResult.DRAW);
-      stopGameTimer(game.getId());
-    }
-
-    if (game.getStatus().ordinal() >= GameStatus.WHITE_WON.ordinal()) {
-      game.setFinishedAt(LocalDateTime.now());
+      gameService.finishGame(game, GameStatus.DRAW, GameResult.DRAW);
     }
   }
 
   @Override
   public void startGameTimer(Game game) {
+    if (ownership.forward(game.getId(), new ClusterMessage.StartClock(game.getId()))) {
+      return;
+    }
     GameTimerImpl timer = new GameTimerImpl(
         game.getId(),
         game.getWhiteTimeLeft(),
@@ -159,26 +359,56 @@ public class ChessGameServiceImpl implements ChessGameService {
         this::onTimeExpired
     );
 
-    gameTimers.put(game.getId(), timer);
-    scheduler.scheduleAtFixedRate(timer, 1, 1, TimeUnit.SECONDS);
+    schedule(game.getId(), timer);
+  }
+
+  @Override
+  public void resumeGameTimer(Long gameId, int whiteTimeLeft, int blackTimeLeft, int increment, Side sideToMove) {
+    GameTimerImpl timer = new GameTimerImpl(gameId, whiteTimeLeft, blackTimeLeft, increment * 1000,
+        sideToMove, this::onTimeExpired);
+    schedule(gameId, timer);
+  }
+
+  private void schedule(Long gameId, GameTimerImpl timer) {
+    GameTimer previous = gameTimers.put(gameId, timer);
+    if (previous != null) {
+      previous.stop();
+    }
+    ScheduledFuture<?> task = timerTasks.put(gameId, scheduler.scheduleAtFixedRate(timer, 1, 1, TimeUnit.SECONDS));
+    if (task != null) {
+      task.cancel(false);
+    }
+  }
+
+  // Таймер уходит вместе с задачей тика; false - часов этой партии здесь нет
+  private boolean removeTimer(Long gameId) {
+    ScheduledFuture<?> task = timerTasks.remove(gameId);
+    if (task != null) {
+      task.cancel(false);
+    }
+    GameTimer timer = gameTimers.remove(gameId);
+    if (timer == null) {
+      return false;
+    }
+    timer.stop();
+    return true;
   }
 
   private void onTimeExpired(Long gameId, Side side) {
     log.info("Время вышло для игры {}, сторона: {}", gameId, side);
+    GameTimer timer = gameTimers.get(gameId);
+    if (timer != null) {
+      metrics.flagDelay(timer.getFlagDelayMs());
+    }
 
     try {
       Game game = gameService.getGameById(gameId);
 
       if (side == Side.WHITE) {
-        game.setResult(GameResult.BLACK_WIN);
-        game.setStatus(GameStatus.BLACK_WON);
+        gameService.finishGame(game, GameStatus.BLACK_WON, GameResult.BLACK_WIN);
       } else {
-        game.setResult(GameResult.WHITE_WIN);
-        game.setStatus(GameStatus.WHITE_WON);
+        gameService.finishGame(game, GameStatus.WHITE_WON, GameResult.WHITE_WIN);
       }
-
-      game.setFinishedAt(LocalDateTime.now());
-      gameService.saveGame(game);
     } catch (Exception e) {
       log.error("Ошибка при обработке окончания времени для игры {}", gameId, e);
     }
@@ -186,12 +416,17 @@ public class ChessGameServiceImpl implements ChessGameService {
 
   @Override
   public void stopGameTimer(Long gameId) {
-    GameTimer timer = gameTimers.remove(gameId);
-    if (timer != null) {
-      timer.stop();
+    if (!removeTimer(gameId)) {
+      ownership.forward(gameId, new ClusterMessage.StopClock(gameId));
     }
   }
 
+  @Override
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameFinished(GameFinishedEvent event) {
+    removeTimer(event.gameId());
+  }
+
   @Override
   public Integer[] getTimeLeft(Long gameId) {
     GameTimer timer = gameTimers.get(gameId);
@@ -201,9 +436,33 @@ public class ChessGameServiceImpl implements ChessGameService {
     return new Integer[]{0, 0};
   }
 
+  @Override
+  public List<TimeSyncFrame> getClocks(Collection<Long> gameIds) {
+    List<TimeSyncFrame> frames = new ArrayList<>(gameIds.size());
+    for (Long gameId : gameIds) {
+      GameTimer timer = gameTimers.get(gameId);
+      if (timer != null && timer.isRunning()) {
+        frames.add(timer.snapshot());
+      }
+    }
+    return frames;
+  }
+
+  @Override
+  public int getActiveClockCount() {
+    return gameTimers.size();
+  }
+
+  @Override
+  public Set<Long> getActiveClockGameIds() {
+    return Collections.unmodifiableSet(gameTimers.keySet());
+  }
+
   @Override
   public List<String> getLegalMoves(Game game, String square) {
-    Board board = game.getChessBoard();
+    // Доска в памяти принадлежит makeMove; для чтения - своя копия позиции
+    Board board = new Board();
+    board.loadFromFen(game.getCurrentFen());
     try {
       Square sq = Square.fromValue(square.toUpperCase());
       return board.legalMoves().stream()
@@ -0,0 +1,117 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.FlightRecordingStatus;
+import com.chess.api.service.FlightRecorderService;
+import com.chess.api.service.metrics.BroadcastEvent;
+import com.chess.api.service.metrics.ClockEvent;
+import com.chess.api.service.metrics.MoveEvent;
+import com.chess.api.service.metrics.SaveMoveEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Запись JFR по запросу администратора.
+ * <p>
+ * Запись ограничена по времени и размеру: по истечении {@code max-duration-seconds}
+ * JFR останавливает ее сам и пишет файл, так что забытая запись не копится. Пока
+ * записи нет, события {@code chess.*} выключены и стоят одной проверки флага.
+ */
+@Slf4j
+@Service
+public class FlightRecorderServiceImpl implements FlightRecorderService {
+
+  private static final List<Class<? extends Event>> CHESS_EVENTS =
+      List.of(MoveEvent.class, SaveMoveEvent.class, ClockEvent.class, BroadcastEvent.class);
+  private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private final Path directory;
+  private final String settings;
+  private final long maxDurationSeconds;
+  private final long maxSizeMb;
+
+  private Recording recording;
+
+  public FlightRecorderServiceImpl(@Value("${chess.jfr.directory:recordings}") String directory,
+                                   @Value("${chess.jfr.settings:profile}") String settings,
+                                   @Value("${chess.jfr.max-duration-seconds:600}") long maxDurationSeconds,
+                                   @Value("${chess.jfr.max-size-mb:256}") long maxSizeMb) {
+    this.directory = Path.of(directory);
+    this.settings = settings;
+    this.maxDurationSeconds = maxDurationSeconds;
+    this.maxSizeMb = maxSizeMb;
+  }
+
+  @Override
+  public synchronized FlightRecordingStatus start(Long durationSeconds) {
+    if (recording != null && recording.getState() == RecordingState.RUNNING) {
+      throw new RuntimeException("Запись уже идет");
+    }
+    if (recording != null) {
+      recording.close();
+    }
+    long duration = durationSeconds == null || durationSeconds <= 0
+        ? maxDurationSeconds
+        : Math.min(durationSeconds, maxDurationSeconds);
+    try {
+      Files.createDirectories(directory);
+      Recording next = new Recording(Configuration.getConfiguration(settings));
+      next.setName("chess-api");
+      for (Class<? extends Event> event : CHESS_EVENTS) {
+        next.enable(event);
+      }
+      next.setDuration(Duration.ofSeconds(duration));
+      next.setMaxSize(maxSizeMb * 1024 * 1024);
+      next.setToDisk(true);
+      next.setDestination(directory.resolve("chess-" + LocalDateTime.now().format(FILE_TIME) + ".jfr"));
+      next.start();
+      recording = next;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Не удалось начать запись JFR", e);
+    } catch (ParseException e) {
+      throw new RuntimeException("Неверные настройки JFR: " + settings, e);
+    }
+    log.info("Запись JFR {} начата на {} с", recording.getId(), duration);
+    return status(recording);
+  }
+
+  @Override
+  public synchronized FlightRecordingStatus stop() {
+    if (recording == null || recording.getState() != RecordingState.RUNNING) {
+      throw new RuntimeException("Запись не идет");
+    }
+    // Файл пишется в destination при остановке
+    recording.stop();
+    log.info("Запись JFR {} сохранена в {}", recording.getId(), recording.getDestination());
+    return status(recording);
+  }
+
+  @Override
+  public synchronized FlightRecordingStatus getStatus() {
+    return recording == null ? null : status(recording);
+  }
+
+  private FlightRecordingStatus status(Recording recording) {
+    return new FlightRecordingStatus(
+        recording.getId(),
+        recording.getState().name(),
+        recording.getStartTime(),
+        recording.getDuration() != null ? recording.getDuration().toSeconds() : null,
+        recording.getMaxSize() / (1024 * 1024),
+        recording.getDestination() != null ? recording.getDestination().toAbsolutePath().toString() : null);
+  }
+}
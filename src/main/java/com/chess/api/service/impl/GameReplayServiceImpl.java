@@ -0,0 +1,171 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.GamePositionDTO;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.MoveRepository;
+import com.chess.api.service.GameReplayService;
+import com.chess.api.service.metrics.GameMetrics;
+import com.chess.api.service.replay.GameSnapshots;
+import com.github.bhlangonijr.chesslib.Board;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Случайный доступ к позициям партии для просмотра записи.
+ * <p>
+ * Партия делится на отрезки по K полуходов, начало каждого - контрольная позиция из
+ * {@link GameSnapshots}. Запрос переигрывает не больше K ходов своего отрезка; разобранные
+ * отрезки держатся в LRU, так что пошаговый просмотр обращается к базе раз в K полуходов.
+ * В кеш попадают только отрезки, которые больше не изменятся.
+ * <p>
+ * У партий, сыгранных до появления контрольных позиций, отрезок переигрывается от начала
+ * партии. Чтение ничего не сохраняет: запись сдвинула бы версию партии, а с ней и ETag
+ * законченной партии; повторные запросы закрывает кеш отрезков.
+ */
+@Service
+public class GameReplayServiceImpl implements GameReplayService {
+
+  private final GameRepository gameRepository;
+  private final MoveRepository moveRepository;
+  private final int snapshotInterval;
+  private final Map<SegmentKey, Segment> segments;
+  private final GameMetrics.CacheMetrics cacheMetrics;
+
+  public GameReplayServiceImpl(GameRepository gameRepository,
+                               MoveRepository moveRepository,
+                               GameMetrics metrics,
+                               @Value("${chess.replay.snapshot-interval:16}") int snapshotInterval,
+                               @Value("${chess.replay.cache-size:1024}") int cacheSize) {
+    this.gameRepository = gameRepository;
+    this.moveRepository = moveRepository;
+    this.snapshotInterval = snapshotInterval;
+    this.cacheMetrics = metrics.cache("replay");
+    this.segments = new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<SegmentKey, Segment> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public GamePositionDTO getPosition(Long gameId, int ply) {
+    if (ply < 0) {
+      throw new RuntimeException("Номер полухода не может быть отрицательным");
+    }
+    Segment cached = findCached(gameId, ply);
+    cacheMetrics.record(cached != null);
+    if (cached != null) {
+      return cached.toDTO(gameId, ply);
+    }
+
+    Game game = gameRepository.findById(gameId)
+        .orElseThrow(() -> new RuntimeException("Игра не найдена"));
+    GameSnapshots snapshots = GameSnapshots.parse(game.getSnapshots(), snapshotInterval);
+    int interval = snapshots.getInterval();
+    int index = ply / interval;
+    Segment segment = replay(game, snapshots, index);
+    if (ply > segment.lastPly()) {
+      throw new RuntimeException("В партии нет полухода " + ply);
+    }
+    if (isFinished(game) || segment.lastPly() == segment.firstPly() + interval - 1) {
+      synchronized (segments) {
+        segments.put(new SegmentKey(gameId, interval, index), segment);
+      }
+    }
+    return segment.toDTO(gameId, ply);
+  }
+
+  private Segment findCached(Long gameId, int ply) {
+    synchronized (segments) {
+      // Интервал партии до чтения из базы неизвестен: пробуем текущий
+      Segment segment = segments.get(new SegmentKey(gameId, snapshotInterval, ply / snapshotInterval));
+      return segment != null && ply <= segment.lastPly() ? segment : null;
+    }
+  }
+
+  /**
+   * Переигрывает отрезок {@code index} от ближайшей имеющейся контрольной позиции.
+   */
+  private Segment replay(Game game, GameSnapshots snapshots, int index) {
+    int interval = snapshots.getInterval();
+    int base = Math.min(index, snapshots.size());
+    int firstPly = index * interval;
+    int fromMove = Math.max(1, Math.min(base * interval + 1, firstPly));
+    List<Move> moves = moveRepository.findByGameIdAndMoveNumberBetweenOrderByMoveNumberAsc(
+        game.getId(), fromMove, firstPly + interval - 1);
+
+    Board board = new Board();
+    board.loadFromFen(base == 0 ? game.getInitialFen() : snapshots.get(base));
+    int ply = base * interval;
+    List<String> fens = new ArrayList<>(interval);
+    List<Move> played = new ArrayList<>(interval);
+    if (ply == firstPly) {
+      fens.add(board.getFen());
+      played.add(firstPly > 0 && !moves.isEmpty() && moves.get(0).getMoveNumber() == firstPly ? moves.get(0) : null);
+    }
+    for (Move move : moves) {
+      if (move.getMoveNumber() <= ply) {
+        continue;
+      }
+      MoveNotation.play(board, move.getFromSquare(), move.getToSquare(), move.getPromotion());
+      ply = move.getMoveNumber();
+      if (ply >= firstPly) {
+        fens.add(board.getFen());
+        played.add(move);
+      }
+    }
+
+    if (fens.isEmpty()) {
+      return new Segment(firstPly, new String[0], new String[0], new String[0]);
+    }
+
+    String[] uci = new String[played.size()];
+    String[] san = new String[played.size()];
+    for (int i = 0; i < played.size(); i++) {
+      Move move = played.get(i);
+      if (move != null) {
+        uci[i] = move.getFromSquare().toLowerCase() + move.getToSquare().toLowerCase()
+            + (move.getPromotion() != null ? move.getPromotion().toLowerCase() : "");
+        san[i] = move.getSan();
+      }
+    }
+    return new Segment(firstPly, fens.toArray(new String[0]), uci, san);
+  }
+
+  private static boolean isFinished(Game game) {
+    return switch (game.getStatus()) {
+      case WHITE_WON, BLACK_WON, DRAW, ABORTED -> true;
+      default -> false;
+    };
+  }
+
+  private record SegmentKey(long gameId, int interval, int index) {
+  }
+
+  /**
+   * Позиции полуходов {@code firstPly .. firstPly + fens.length - 1} и ходы, которые к ним привели.
+   */
+  private record Segment(int firstPly, String[] fens, String[] uci, String[] san) {
+
+    int lastPly() {
+      return firstPly + fens.length - 1;
+    }
+
+    GamePositionDTO toDTO(Long gameId, int ply) {
+      int i = ply - firstPly;
+      return new GamePositionDTO(gameId, ply, fens[i], uci[i], san[i]);
+    }
+  }
+}
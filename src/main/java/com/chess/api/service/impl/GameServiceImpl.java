@@ -6,29 +6,54 @@ import com.chess.api.model.enums.GameResult;
 import com.chess.api.model.enums.GameStatus;
 import com.chess.api.model.enums.GameType;
 import com.chess.api.model.enums.InviteStatus;
+import com.chess.api.repository.GameFieldsRepository;
 import com.chess.api.repository.GameInviteRepository;
 import com.chess.api.repository.GameRepository;
 import com.chess.api.repository.MoveRepository;
 import com.chess.api.service.GameService;
 import com.chess.api.service.PlayerService;
+import com.chess.api.service.RatingHistoryService;
+import com.chess.api.service.concurrency.OptimisticRetry;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.chess.api.service.metrics.SaveMoveEvent;
+import com.chess.api.service.rating.RatingEngine;
+import com.chess.api.service.rating.RatingOutcome;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GameServiceImpl implements GameService {
 
+  private static final Set<GameStatus> FINISHED_STATUSES =
+      Set.of(GameStatus.WHITE_WON, GameStatus.BLACK_WON, GameStatus.DRAW, GameStatus.ABORTED);
+  private static final Set<GameStatus> OPEN_STATUSES = EnumSet.complementOf(EnumSet.copyOf(FINISHED_STATUSES));
+
   private final GameRepository gameRepository;
   private final MoveRepository moveRepository;
   private final GameInviteRepository gameInviteRepository;
   private final PlayerService playerService;
+  private final RatingEngine ratingEngine;
+  private final RatingHistoryService ratingHistoryService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final OptimisticRetry retry;
+  private final EntityManager entityManager;
 
   @Override
   @Transactional
@@ -50,12 +75,33 @@ public class GameServiceImpl implements GameService {
     game.setBlackTimeLeft(game.getTimeControl() * 1000);
     game.setCreatedAt(LocalDateTime.now());
 
+    // Игра с ботом начинается сразу, человек играет белыми
+    if (request.getBotLevel() != null) {
+      game.setBlackPlayer(playerService.getBotPlayer(request.getBotLevel()));
+      game.setBotLevel(request.getBotLevel());
+      game.setStatus(GameStatus.ACTIVE);
+      game.setStartedAt(LocalDateTime.now());
+    }
+
     return gameRepository.save(game);
   }
 
   @Override
   public Game getGameById(Long id) {
-    return gameRepository.findById(id)
+    // Почти все вызывающие сверяют игроков: читаем их сразу
+    return gameRepository.findWithPlayersById(id)
+        .orElseThrow(() -> new RuntimeException("Игра не найдена"));
+  }
+
+  @Override
+  public GameStatus getGameStatus(Long id) {
+    return gameRepository.findStatusById(id)
+        .orElseThrow(() -> new RuntimeException("Игра не найдена"));
+  }
+
+  @Override
+  public GameRevision getGameRevision(Long id) {
+    return gameRepository.findRevisionById(id)
         .orElseThrow(() -> new RuntimeException("Игра не найдена"));
   }
 
@@ -64,116 +110,149 @@ public class GameServiceImpl implements GameService {
   public Game joinGame(Long gameId, Player player) {
     Game game = getGameById(gameId);
 
-    if (game.getBlackPlayer() == null && !player.equals(game.getWhitePlayer())) {
-      game.setBlackPlayer(player);
-      game.setStatus(GameStatus.ACTIVE);
-      game.setStartedAt(LocalDateTime.now());
-      return gameRepository.save(game);
+    // Второй из двух одновременно присоединившихся получает 0 строк
+    if (game.getBlackPlayer() != null || isSame(player, game.getWhitePlayer())
+        || gameRepository.join(gameId, player, GameStatus.WAITING, GameStatus.ACTIVE, LocalDateTime.now()) == 0) {
+      throw new RuntimeException("Нельзя присоединиться к этой игре");
     }
-
-    throw new RuntimeException("Нельзя присоединиться к этой игре");
+    entityManager.refresh(game);
+    return game;
   }
 
   @Override
-  @Transactional
   public void resignGame(Long gameId, Player player) {
-    Game game = getGameById(gameId);
+    retry.run("Сдача в игре " + gameId, () -> {
+      Game game = getGameById(gameId);
+
+      if (!game.getStatus().equals(GameStatus.ACTIVE)) {
+        throw new RuntimeException("Игра не активна");
+      }
+
+      if (isSame(player, game.getWhitePlayer())) {
+        finishGame(game, GameStatus.BLACK_WON, GameResult.BLACK_WIN);
+      } else if (isSame(player, game.getBlackPlayer())) {
+        finishGame(game, GameStatus.WHITE_WON, GameResult.WHITE_WIN);
+      } else {
+        throw new RuntimeException("Вы не участник этой игры");
+      }
+    });
+  }
 
-    if (!game.getStatus().equals(GameStatus.ACTIVE)) {
-      throw new RuntimeException("Игра не активна");
+  @Override
+  @Transactional
+  public void finishGame(Game game, GameStatus status, GameResult result) {
+    if (game.getFinishedAt() != null || FINISHED_STATUSES.contains(game.getStatus())) {
+      return;
     }
 
-    if (player.equals(game.getWhitePlayer())) {
-      game.setResult(GameResult.BLACK_WIN);
-      game.setStatus(GameStatus.BLACK_WON);
-    } else if (player.equals(game.getBlackPlayer())) {
-      game.setResult(GameResult.WHITE_WIN);
-      game.setStatus(GameStatus.WHITE_WON);
+    // Игры с ботами не рейтинговые. Новые рейтинги считаются заранее и пишутся в строку
+    // партии тем же UPDATE, что ее завершает
+    boolean rated = result != GameResult.ABORTED && game.getBotLevel() == null;
+    RatingChange change = rated ? rate(game, result) : null;
+    Integer whiteRatingAfter = change != null ? change.whiteAfter().roundedRating() : null;
+    Integer blackRatingAfter = change != null ? change.blackAfter().roundedRating() : null;
+
+    // Мат, флажок и сдача могут прийти одновременно: партию завершает только первый
+    LocalDateTime now = LocalDateTime.now();
+    if (gameRepository.finish(game.getId(), OPEN_STATUSES, status, result, now,
+        whiteRatingAfter, blackRatingAfter) == 0) {
+      log.info("Игра {} уже завершена параллельно, {} не применяется", game.getId(), status);
+      return;
+    }
+    if (entityManager.contains(game)) {
+      entityManager.refresh(game);
     } else {
-      throw new RuntimeException("Вы не участник этой игры");
+      // Отсоединенную копию вызывающие только рассылают, версию ей не догоняем
+      game.setStatus(status);
+      game.setResult(result);
+      game.setFinishedAt(now);
+      game.setWhiteRatingAfter(whiteRatingAfter);
+      game.setBlackRatingAfter(blackRatingAfter);
     }
 
-    game.setFinishedAt(LocalDateTime.now());
-    gameRepository.save(game);
-
-    // Обновляем рейтинги
-    updatePlayerRatings(game);
+    boolean paired = game.getWhitePlayer() != null && game.getBlackPlayer() != null;
+    Integer whiteRating = paired ? getRatingForGameType(game.getWhitePlayer(), game.getGameType()) : null;
+    Integer blackRating = paired ? getRatingForGameType(game.getBlackPlayer(), game.getGameType()) : null;
+    if (change != null) {
+      updatePlayerRatings(game, change);
+    }
+    eventPublisher.publishEvent(new GameFinishedEvent(game.getId(), result, rated, whiteRating, blackRating));
   }
 
   @Override
-  @Transactional
   public void offerDraw(Long gameId, Player player) {
-    Game game = getGameById(gameId);
+    retry.run("Предложение ничьей в игре " + gameId, () -> {
+      Game game = getGameById(gameId);
 
-    if (!game.getStatus().equals(GameStatus.ACTIVE)) {
-      throw new RuntimeException("Игра не активна");
-    }
+      if (!game.getStatus().equals(GameStatus.ACTIVE)) {
+        throw new RuntimeException("Игра не активна");
+      }
 
-    if (!player.equals(game.getWhitePlayer()) && !player.equals(game.getBlackPlayer())) {
-      throw new RuntimeException("Вы не участник этой игры");
-    }
+      if (!isSame(player, game.getWhitePlayer()) && !isSame(player, game.getBlackPlayer())) {
+        throw new RuntimeException("Вы не участник этой игры");
+      }
 
-    game.setStatus(GameStatus.DRAW_PROPOSED);
-    gameRepository.save(game);
+      game.setStatus(GameStatus.DRAW_PROPOSED);
+      gameRepository.saveAndFlush(game);
+    });
   }
 
   @Override
-  @Transactional
   public void acceptDraw(Long gameId, Player player) {
-    Game game = getGameById(gameId);
-
-    if (!game.getStatus().equals(GameStatus.DRAW_PROPOSED)) {
-      throw new RuntimeException("Ничья не была предложена");
-    }
+    retry.run("Принятие ничьей в игре " + gameId, () -> {
+      Game game = getGameById(gameId);
 
-    // Проверяем, что игрок принимает ничью от оппонента
-    Player opponent = player.equals(game.getWhitePlayer()) ?
-        game.getBlackPlayer() : game.getWhitePlayer();
+      if (!game.getStatus().equals(GameStatus.DRAW_PROPOSED)) {
+        throw new RuntimeException("Ничья не была предложена");
+      }
 
-    game.setStatus(GameStatus.DRAW);
-    game.setResult(GameResult.DRAW);
-    game.setFinishedAt(LocalDateTime.now());
-    gameRepository.save(game);
-
-    updatePlayerRatings(game);
+      finishGame(game, GameStatus.DRAW, GameResult.DRAW);
+    });
   }
 
   @Override
-  @Transactional
   public void pauseGame(Long gameId, Player player) {
-    Game game = getGameById(gameId);
+    retry.run("Пауза в игре " + gameId, () -> {
+      Game game = getGameById(gameId);
 
-    if (!game.getStatus().equals(GameStatus.ACTIVE)) {
-      throw new RuntimeException("Игра не активна");
-    }
+      if (!game.getStatus().equals(GameStatus.ACTIVE)) {
+        throw new RuntimeException("Игра не активна");
+      }
 
-    if (!player.equals(game.getWhitePlayer()) && !player.equals(game.getBlackPlayer())) {
-      throw new RuntimeException("Вы не участник этой игры");
-    }
+      if (!isSame(player, game.getWhitePlayer()) && !isSame(player, game.getBlackPlayer())) {
+        throw new RuntimeException("Вы не участник этой игры");
+      }
 
-    game.setStatus(GameStatus.PAUSED);
-    gameRepository.save(game);
+      game.setStatus(GameStatus.PAUSED);
+      gameRepository.saveAndFlush(game);
+    });
     log.info("Игра {} приостановлена игроком {}", gameId, player.getUsername());
   }
 
   @Override
-  @Transactional
   public void resumeGame(Long gameId, Player player) {
-    Game game = getGameById(gameId);
+    retry.run("Возобновление игры " + gameId, () -> {
+      Game game = getGameById(gameId);
 
-    if (!game.getStatus().equals(GameStatus.PAUSED)) {
-      throw new RuntimeException("Игра не приостановлена");
-    }
+      if (!game.getStatus().equals(GameStatus.PAUSED)) {
+        throw new RuntimeException("Игра не приостановлена");
+      }
 
-    if (!player.equals(game.getWhitePlayer()) && !player.equals(game.getBlackPlayer())) {
-      throw new RuntimeException("Вы не участник этой игры");
-    }
+      if (!isSame(player, game.getWhitePlayer()) && !isSame(player, game.getBlackPlayer())) {
+        throw new RuntimeException("Вы не участник этой игры");
+      }
 
-    game.setStatus(GameStatus.ACTIVE);
-    gameRepository.save(game);
+      game.setStatus(GameStatus.ACTIVE);
+      gameRepository.saveAndFlush(game);
+    });
     log.info("Игра {} возобновлена игроком {}", gameId, player.getUsername());
   }
 
+  // После отката повтор читает игроков заново: сравниваем по id, а не по экземпляру
+  private static boolean isSame(Player player, Player other) {
+    return player != null && other != null && player.getId().equals(other.getId());
+  }
+
   @Override
   @Transactional
   public GameInvite invitePlayer(GameInviteRequest inviteRequest, Player sender) {
@@ -218,66 +297,13 @@ public class GameServiceImpl implements GameService {
   @Override
   public List<GameInviteDTO> getPlayerInvites(Player player) {
     // Получаем все приглашения, где игрок является получателем и статус PENDING
-    List<GameInvite> invites = gameInviteRepository.findByReceiverAndStatus(
-        player, InviteStatus.PENDING);
-
-    List<GameInviteDTO> inviteDTOs = new ArrayList<>();
-
-    for (GameInvite invite : invites) {
-      GameInviteDTO dto = new GameInviteDTO();
-      dto.setId(invite.getId());
-      dto.setSender(new PlayerDTO(
-          invite.getSender().getId(),
-          invite.getSender().getUsername(),
-          getRatingForGameType(invite.getSender(), invite.getGameType())
-      ));
-      dto.setReceiver(new PlayerDTO(
-          invite.getReceiver().getId(),
-          invite.getReceiver().getUsername(),
-          getRatingForGameType(invite.getReceiver(), invite.getGameType())
-      ));
-      dto.setGameType(invite.getGameType());
-      dto.setStatus(invite.getStatus());
-      dto.setTimeControl(invite.getTimeControl());
-      dto.setTimeIncrement(invite.getTimeIncrement());
-      dto.setSentAt(invite.getSentAt());
-      dto.setRespondedAt(invite.getRespondedAt());
-      dto.setGameId(invite.getGame() != null ? invite.getGame().getId() : null);
-
-      inviteDTOs.add(dto);
-    }
-
-    return inviteDTOs;
+    return gameInviteRepository.findReceivedDTOs(player, InviteStatus.PENDING);
   }
 
   @Override
   public List<GameInviteDTO> getSentInvites(Player player) {
     // Получаем все приглашения, которые игрок отправил
-    List<GameInvite> sentInvites = gameInviteRepository.findBySenderAndStatus(
-        player, InviteStatus.PENDING);
-
-    return sentInvites.stream()
-        .map(invite -> new GameInviteDTO(
-            invite.getId(),
-            new PlayerDTO(
-                invite.getSender().getId(),
-                invite.getSender().getUsername(),
-                getRatingForGameType(invite.getSender(), invite.getGameType())
-            ),
-            new PlayerDTO(
-                invite.getReceiver().getId(),
-                invite.getReceiver().getUsername(),
-                getRatingForGameType(invite.getReceiver(), invite.getGameType())
-            ),
-            invite.getGameType(),
-            invite.getStatus(),
-            invite.getTimeControl(),
-            invite.getTimeIncrement(),
-            invite.getSentAt(),
-            invite.getRespondedAt(),
-            invite.getGame() != null ? invite.getGame().getId() : null
-        ))
-        .toList();
+    return gameInviteRepository.findSentDTOs(player, InviteStatus.PENDING);
   }
 
   @Override
@@ -365,18 +391,14 @@ public class GameServiceImpl implements GameService {
 
   @Override
   public List<Game> getPlayerGameHistory(Player player, int limit) {
-    List<Game> finishedGames = gameRepository.findFinishedGamesByPlayer(player);
-
-    if (limit > 0 && finishedGames.size() > limit) {
-      return finishedGames.subList(0, limit);
-    }
-
-    return finishedGames;
+    // Лимит - в запросе, а не обрезкой загруженного списка
+    Pageable page = limit > 0 ? PageRequest.of(0, limit) : Pageable.unpaged();
+    return gameRepository.findFinishedGamesByPlayer(player, page);
   }
 
   @Override
   public List<Game> getAllGames() {
-    return gameRepository.findAll();
+    return gameRepository.findAllWithPlayers();
   }
 
   @Override
@@ -384,6 +406,53 @@ public class GameServiceImpl implements GameService {
     return gameRepository.findWaitingGames();
   }
 
+  @Override
+  public List<GameSummaryDTO> getActiveGameSummaries(Player player) {
+    return gameRepository.findActiveSummariesByPlayer(player, GameStatus.ACTIVE);
+  }
+
+  @Override
+  public List<GameSummaryDTO> getGameHistorySummaries(Player player, int limit) {
+    return gameRepository.findFinishedSummariesByPlayer(player, limit > 0 ? PageRequest.of(0, limit) : Pageable.unpaged());
+  }
+
+  @Override
+  public List<GameSummaryDTO> getAllGameSummaries() {
+    return gameRepository.findAllSummaries();
+  }
+
+  @Override
+  public List<GameSummaryDTO> findWaitingGameSummaries() {
+    return gameRepository.findWaitingSummaries();
+  }
+
+  @Override
+  public Map<String, Object> getGameFields(Long id, Set<String> fields) {
+    return gameRepository.findFields(fields, GameFieldsRepository.Filter.byId(id)).stream()
+        .findFirst()
+        .orElseThrow(() -> new RuntimeException("Игра не найдена"));
+  }
+
+  @Override
+  public List<Map<String, Object>> getActiveGameFields(Player player, Set<String> fields) {
+    return gameRepository.findFields(fields, GameFieldsRepository.Filter.active(player));
+  }
+
+  @Override
+  public List<Map<String, Object>> getGameHistoryFields(Player player, int limit, Set<String> fields) {
+    return gameRepository.findFields(fields, GameFieldsRepository.Filter.finished(player, limit));
+  }
+
+  @Override
+  public List<Map<String, Object>> getAllGameFields(Set<String> fields) {
+    return gameRepository.findFields(fields, GameFieldsRepository.Filter.all());
+  }
+
+  @Override
+  public List<Map<String, Object>> findWaitingGameFields(Set<String> fields) {
+    return gameRepository.findFields(fields, GameFieldsRepository.Filter.waiting());
+  }
+
   @Override
   @Transactional
   public void saveGame(Game game) {
@@ -393,69 +462,105 @@ public class GameServiceImpl implements GameService {
   @Override
   @Transactional
   public void saveMove(Game game, Move move) {
+    SaveMoveEvent event = new SaveMoveEvent();
+    event.begin();
+    boolean timed = event.isEnabled();
+    long started = timed ? System.nanoTime() : 0;
     move.setGame(game);
     moveRepository.save(move);
+    long moveSaved = timed ? System.nanoTime() : 0;
     game.getMoves().add(move);
     gameRepository.save(game);
+    event.end();
+    if (event.shouldCommit()) {
+      event.gameId = game.getId();
+      event.ply = move.getMoveNumber();
+      event.moveSave = moveSaved - started;
+      event.gameSave = System.nanoTime() - moveSaved;
+      event.commit();
+    }
   }
 
   @Override
   public List<MoveDTO> getGameMoves(Long gameId) {
-    List<Move> moves = moveRepository.findByGameIdOrderByMoveNumberAsc(gameId);
-    return moves.stream()
-        .map(move -> new MoveDTO(
-            move.getId(),
-            move.getMoveNumber(),
-            move.getFromSquare(),
-            move.getToSquare(),
-            move.getPromotion(),
-            move.getSan(),
-            move.getWhiteTimeLeft(),
-            move.getBlackTimeLeft(),
-            move.getTimestamp()
-        ))
+    return moveRepository.findByGameIdOrderByMoveNumberAsc(gameId).stream()
+        .map(GameServiceImpl::toMoveDTO)
         .toList();
   }
 
-  private void updatePlayerRatings(Game game) {
-    if (game.getWhitePlayer() == null || game.getBlackPlayer() == null) {
-      return;
+  @Override
+  public Map<Long, List<MoveDTO>> getGameMoves(Collection<Long> gameIds) {
+    Map<Long, List<MoveDTO>> moves = new HashMap<>();
+    gameIds.forEach(id -> moves.put(id, new ArrayList<>()));
+    if (gameIds.isEmpty()) {
+      return moves;
+    }
+    for (Move move : moveRepository.findByGameIdInOrderByGameIdAscMoveNumberAsc(gameIds)) {
+      // Идентификатор берется из прокси партии без ее загрузки
+      moves.get(move.getGame().getId()).add(toMoveDTO(move));
     }
+    return moves;
+  }
+
+  private static MoveDTO toMoveDTO(Move move) {
+    return new MoveDTO(
+        move.getId(),
+        move.getMoveNumber(),
+        move.getFromSquare(),
+        move.getToSquare(),
+        move.getPromotion(),
+        move.getSan(),
+        move.getWhiteTimeLeft(),
+        move.getBlackTimeLeft(),
+        move.getTimestamp()
+    );
+  }
 
-    int whiteRating = getRatingForGameType(game.getWhitePlayer(), game.getGameType());
-    int blackRating = getRatingForGameType(game.getBlackPlayer(), game.getGameType());
-
-    double expectedWhite = 1.0 / (1.0 + Math.pow(10, (blackRating - whiteRating) / 400.0));
-    double expectedBlack = 1.0 - expectedWhite;
-
-    int kFactor = 32;
-    int whiteChange, blackChange;
-
-    switch (game.getResult()) {
-      case WHITE_WIN:
-        whiteChange = (int) (kFactor * (1 - expectedWhite));
-        blackChange = (int) (kFactor * (0 - expectedBlack));
-        break;
-      case BLACK_WIN:
-        whiteChange = (int) (kFactor * (0 - expectedWhite));
-        blackChange = (int) (kFactor * (1 - expectedBlack));
-        break;
-      default: // DRAW
-        whiteChange = (int) (kFactor * (0.5 - expectedWhite));
-        blackChange = (int) (kFactor * (0.5 - expectedBlack));
-        break;
+  private record RatingChange(RatingState whiteBefore, RatingState blackBefore,
+                              RatingState whiteAfter, RatingState blackAfter) {
+  }
+
+  /**
+   * Рейтинги обоих игроков по итогам партии; {@code null}, если соперника нет.
+   */
+  private RatingChange rate(Game game, GameResult result) {
+    if (game.getWhitePlayer() == null || game.getBlackPlayer() == null) {
+      return null;
     }
 
-    // Обновляем рейтинги через PlayerServiceImpl
-    playerService.updatePlayerRating(game.getWhitePlayer().getId(),
-        game.getGameType().name(), whiteChange);
-    playerService.updatePlayerRating(game.getBlackPlayer().getId(),
-        game.getGameType().name(), blackChange);
+    // Оба новых рейтинга считаются от состояний до партии
+    GameType gameType = game.getGameType();
+    RatingState whiteBefore = game.getWhitePlayer().getRatingState(gameType);
+    RatingState blackBefore = game.getBlackPlayer().getRatingState(gameType);
+    double whiteScore = RatingOutcome.whiteScore(result);
+
+    RatingState whiteAfter = ratingEngine.update(whiteBefore,
+        List.of(new RatingOutcome(blackBefore, whiteScore)));
+    RatingState blackAfter = ratingEngine.update(blackBefore,
+        List.of(new RatingOutcome(whiteBefore, 1.0 - whiteScore)));
+    return new RatingChange(whiteBefore, blackBefore, whiteAfter, blackAfter);
+  }
 
-    // Обновляем статистику игроков
+  private void updatePlayerRatings(Game game, RatingChange change) {
     Player white = game.getWhitePlayer();
     Player black = game.getBlackPlayer();
+    GameType gameType = game.getGameType();
+    RatingState whiteBefore = change.whiteBefore();
+    RatingState blackBefore = change.blackBefore();
+    RatingState whiteAfter = change.whiteAfter();
+    RatingState blackAfter = change.blackAfter();
+
+    white.applyRatingState(gameType, whiteAfter);
+    black.applyRatingState(gameType, blackAfter);
 
+    ratingHistoryService.record(white.getId(), gameType, whiteAfter.roundedRating(), game.getFinishedAt());
+    ratingHistoryService.record(black.getId(), gameType, blackAfter.roundedRating(), game.getFinishedAt());
+
+    log.info("Рейтинги обновлены ({}, {}): {} {} -> {}, {} {} -> {}", ratingEngine.getName(), gameType,
+        white.getUsername(), whiteBefore.roundedRating(), whiteAfter.roundedRating(),
+        black.getUsername(), blackBefore.roundedRating(), blackAfter.roundedRating());
+
+    // Обновляем статистику игроков
     white.setGamesPlayed(white.getGamesPlayed() + 1);
     black.setGamesPlayed(black.getGamesPlayed() + 1);
 
@@ -1,98 +1,200 @@
 package com.chess.api.service.impl;
 
+import com.chess.api.dto.TimeSyncFrame;
 import com.chess.api.service.GameTimer;
+import com.chess.api.service.metrics.ClockEvent;
 import com.github.bhlangonijr.chesslib.Side;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
 
 /**
  * Таймеры с инкрементом.
+ * <p>
+ * Остаток ходящей стороны считается от начала ее хода: {@code run} только проверяет
+ * флажок, а при передаче хода списывается точное затраченное время за вычетом
+ * компенсации задержки.
  */
 @Slf4j
 @Getter
 public class GameTimerImpl implements GameTimer, Runnable {
 
+  /** Не зависит от перевода системных часов */
+  static final LongSupplier MONOTONIC_CLOCK = () -> System.nanoTime() / 1_000_000;
 
   private final Long gameId;
-  private final AtomicInteger whiteTimeLeft;
-  private final AtomicInteger blackTimeLeft;
   private final int increment; // в миллисекундах
   private final BiConsumer<Long, Side> timeExpiredCallback;
+  private final LongSupplier clock;
 
-  private Side currentSide = Side.WHITE;
+  private Side currentSide;
   private final AtomicBoolean running = new AtomicBoolean(true);
-  private long lastUpdateTime;
+  private int whiteTimeLeft; // на начало текущего хода
+  private int blackTimeLeft;
+  private long turnStartedAt;
+  private long flagDelayMs;
+  private TurnSwitch pending; // последний запланированный, но еще не примененный план
 
   public GameTimerImpl(Long gameId, int whiteTimeLeft, int blackTimeLeft,
                        int increment, BiConsumer<Long, Side> timeExpiredCallback) {
+    this(gameId, whiteTimeLeft, blackTimeLeft, increment, Side.WHITE, timeExpiredCallback);
+  }
+
+  /**
+   * Таймер партии, продолженной с середины: например, после перезапуска сервера.
+   */
+  public GameTimerImpl(Long gameId, int whiteTimeLeft, int blackTimeLeft,
+                       int increment, Side sideToMove, BiConsumer<Long, Side> timeExpiredCallback) {
+    this(gameId, whiteTimeLeft, blackTimeLeft, increment, sideToMove, timeExpiredCallback,
+        MONOTONIC_CLOCK);
+  }
+
+  GameTimerImpl(Long gameId, int whiteTimeLeft, int blackTimeLeft, int increment, Side sideToMove,
+                BiConsumer<Long, Side> timeExpiredCallback, LongSupplier clock) {
     this.gameId = gameId;
-    this.whiteTimeLeft = new AtomicInteger(whiteTimeLeft);
-    this.blackTimeLeft = new AtomicInteger(blackTimeLeft);
+    this.currentSide = sideToMove;
+    this.whiteTimeLeft = whiteTimeLeft;
+    this.blackTimeLeft = blackTimeLeft;
     this.increment = increment;
     this.timeExpiredCallback = timeExpiredCallback;
-    this.lastUpdateTime = System.currentTimeMillis();
+    this.clock = clock;
+    this.turnStartedAt = clock.getAsLong();
   }
 
   @Override
   public void run() {
-    if (!running.get()) {
-      return;
+    // Начало события - до блокировки: ожидание таймера видно в длительности
+    ClockEvent event = new ClockEvent();
+    event.begin();
+    Side expired;
+    synchronized (this) {
+      long now = clock.getAsLong();
+      int left = remaining(currentSide, now);
+      if (!running.get() || left > 0) {
+        commit(event, "TICK", currentSide, left, 0, false);
+        return;
+      }
+      expired = currentSide;
+      // Проверка раз в секунду: флажок падает позже, чем время фактически вышло
+      flagDelayMs = now - turnStartedAt - timeAtTurnStart(expired);
+      setTimeAtTurnStart(expired, 0);
+      running.set(false);
     }
+    commit(event, "TICK", expired, 0, 0, true);
+    timeExpiredCallback.accept(gameId, expired);
+  }
 
-    long currentTime = System.currentTimeMillis();
-    long elapsed = currentTime - lastUpdateTime;
+  @Override
+  public long switchTurn(long lagCreditMs) {
+    return apply(planSwitch(lagCreditMs));
+  }
 
-    if (currentSide == Side.WHITE) {
-      int newTime = whiteTimeLeft.get() - (int) elapsed;
-      if (newTime <= 0) {
-        whiteTimeLeft.set(0);
-        running.set(false);
-        timeExpiredCallback.accept(gameId, Side.WHITE);
-        return;
-      }
-      whiteTimeLeft.set(newTime);
-    } else {
-      int newTime = blackTimeLeft.get() - (int) elapsed;
-      if (newTime <= 0) {
-        blackTimeLeft.set(0);
-        running.set(false);
-        timeExpiredCallback.accept(gameId, Side.BLACK);
-        return;
+  @Override
+  public synchronized TurnSwitch planSwitch(long lagCreditMs) {
+    long now = clock.getAsLong();
+    Side mover = pending != null ? pending.mover().flip() : currentSide;
+    long startedAt = pending != null ? pending.at() : turnStartedAt;
+    int white = pending != null ? pending.whiteTimeLeft() : whiteTimeLeft;
+    int black = pending != null ? pending.blackTimeLeft() : blackTimeLeft;
+
+    long spent = Math.max(0, now - startedAt);
+    long credit = Math.min(spent, Math.max(0, lagCreditMs));
+    int left = (int) Math.max(0, (mover == Side.WHITE ? white : black) - (spent - credit)) + increment;
+    pending = mover == Side.WHITE
+        ? new TurnSwitch(mover, left, black, now, credit)
+        : new TurnSwitch(mover, white, left, now, credit);
+    return pending;
+  }
+
+  @Override
+  public long apply(TurnSwitch turn) {
+    ClockEvent event = new ClockEvent();
+    event.begin();
+    synchronized (this) {
+      if (pending == turn) {
+        pending = null;
       }
-      blackTimeLeft.set(newTime);
+      whiteTimeLeft = turn.whiteTimeLeft();
+      blackTimeLeft = turn.blackTimeLeft();
+      currentSide = turn.mover().flip();
+      turnStartedAt = turn.at();
     }
-
-    lastUpdateTime = currentTime;
+    int left = turn.mover() == Side.WHITE ? turn.whiteTimeLeft() : turn.blackTimeLeft();
+    commit(event, "SWITCH", turn.mover(), left, turn.lagCreditMs(), false);
+    return turn.lagCreditMs();
   }
 
   @Override
-  public void switchTurn() {
-    if (currentSide == Side.WHITE) {
-      whiteTimeLeft.addAndGet(increment);
-    } else {
-      blackTimeLeft.addAndGet(increment);
+  public synchronized void discard(TurnSwitch turn) {
+    pending = null;
+  }
+
+  private void commit(ClockEvent event, String operation, Side side, int timeLeftMs, long lagCreditMs,
+                      boolean flagged) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.gameId = gameId;
+      event.operation = operation;
+      event.side = side.name();
+      event.timeLeftMs = timeLeftMs;
+      event.lagCreditMs = lagCreditMs;
+      event.flagged = flagged;
+      event.commit();
     }
+  }
 
-    currentSide = currentSide.flip();
-    lastUpdateTime = System.currentTimeMillis();
+  @Override
+  public synchronized int getWhiteTimeLeft() {
+    return remaining(Side.WHITE, clock.getAsLong());
   }
 
   @Override
-  public int getWhiteTimeLeft() {
-    return whiteTimeLeft.get();
+  public synchronized int getBlackTimeLeft() {
+    return remaining(Side.BLACK, clock.getAsLong());
   }
 
   @Override
-  public int getBlackTimeLeft() {
-    return blackTimeLeft.get();
+  public synchronized TimeSyncFrame snapshot() {
+    long now = clock.getAsLong();
+    return new TimeSyncFrame("TIME_SYNC", gameId, remaining(Side.WHITE, now), remaining(Side.BLACK, now),
+        running.get() ? currentSide.name() : null, now);
+  }
+
+  @Override
+  public synchronized void stop() {
+    // Остановленные часы показывают время на момент остановки
+    if (running.get()) {
+      setTimeAtTurnStart(currentSide, remaining(currentSide, clock.getAsLong()));
+      running.set(false);
+    }
   }
 
   @Override
-  public void stop() {
-    running.set(false);
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  // Для ходящей стороны - с учетом времени, идущего сейчас
+  private int remaining(Side side, long now) {
+    int atTurnStart = timeAtTurnStart(side);
+    if (side != currentSide || !running.get()) {
+      return atTurnStart;
+    }
+    return (int) Math.max(0, atTurnStart - (now - turnStartedAt));
+  }
+
+  private int timeAtTurnStart(Side side) {
+    return side == Side.WHITE ? whiteTimeLeft : blackTimeLeft;
+  }
+
+  private void setTimeAtTurnStart(Side side, int timeLeft) {
+    if (side == Side.WHITE) {
+      whiteTimeLeft = timeLeft;
+    } else {
+      blackTimeLeft = timeLeft;
+    }
   }
-}
\ No newline at end of file
+}
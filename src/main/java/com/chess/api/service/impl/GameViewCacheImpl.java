@@ -0,0 +1,75 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.GameRevision;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.GameViewCache;
+import com.chess.api.service.metrics.GameMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class GameViewCacheImpl implements GameViewCache {
+
+  private final ObjectMapper objectMapper;
+  private final GameMetrics.CacheMetrics cacheMetrics;
+  private final Map<ViewKey, CachedView> views;
+
+  public GameViewCacheImpl(ObjectMapper objectMapper,
+                           GameMetrics metrics,
+                           @Value("${chess.game-view-cache.size:1000}") int cacheSize) {
+    this.objectMapper = objectMapper;
+    this.cacheMetrics = metrics.cache("game-view");
+    this.views = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ViewKey, CachedView> eldest) {
+        return size() > cacheSize;
+      }
+    });
+  }
+
+  @Override
+  public CachedView get(Long gameId, String view) {
+    CachedView cached = views.get(new ViewKey(gameId, view));
+    cacheMetrics.record(cached != null);
+    return cached;
+  }
+
+  @Override
+  public CachedView put(Long gameId, String view, GameRevision revision, Object body) {
+    String etag = etag(gameId, revision);
+    if (etag == null) {
+      return null;
+    }
+    try {
+      CachedView cached = new CachedView(etag, objectMapper.writeValueAsBytes(body));
+      views.put(new ViewKey(gameId, view), cached);
+      return cached;
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Не удалось сериализовать партию " + gameId, e);
+    }
+  }
+
+  @Override
+  public String etag(Long gameId, GameRevision revision) {
+    if (!isFinished(revision.status())) {
+      return null;
+    }
+    return "\"" + gameId + "-v" + revision.version() + "\"";
+  }
+
+  private static boolean isFinished(GameStatus status) {
+    return switch (status) {
+      case WHITE_WON, BLACK_WON, DRAW, ABORTED -> true;
+      default -> false;
+    };
+  }
+
+  private record ViewKey(long gameId, String view) {
+  }
+}
@@ -0,0 +1,172 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.BookMoveDTO;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.engine.PolyglotBook;
+import com.chess.api.engine.PolyglotKey;
+import com.chess.api.service.OpeningBookService;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Square;
+import com.github.bhlangonijr.chesslib.move.Move;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Дебютная книга Polyglot для ботов и {@code GET /api/book}.
+ * <p>
+ * Книга отображается в память целиком; при изменении файла новая книга открывается
+ * рядом и подменяет старую одной записью в {@link AtomicReference}. Старое отображение
+ * освобождается сборщиком мусора, когда его перестают читать.
+ */
+@Service
+@Slf4j
+public class OpeningBookServiceImpl implements OpeningBookService {
+
+  private final String bookPath;
+  private final String randomPath;
+  private final AtomicReference<LoadedBook> book = new AtomicReference<>();
+  private PolyglotKey keys;
+
+  public OpeningBookServiceImpl(@Value("${chess.book.path:}") String bookPath,
+                                @Value("${chess.book.random64-path:}") String randomPath) {
+    this.bookPath = bookPath;
+    this.randomPath = randomPath;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (bookPath.isBlank()) {
+      log.info("Дебютная книга не настроена");
+      return;
+    }
+    String source = randomPath.isBlank() ? PolyglotKey.RESOURCE : randomPath;
+    try {
+      keys = randomPath.isBlank() ? PolyglotKey.loadResource().orElse(null) : PolyglotKey.load(Path.of(randomPath));
+    } catch (IOException | IllegalArgumentException e) {
+      log.error("Не удалось загрузить Random64 из {}: {}", source, e.getMessage());
+      return;
+    }
+    if (keys == null) {
+      log.warn("Нет таблицы Random64 ({} в ресурсах или chess.book.random64-path), дебютная книга отключена",
+          PolyglotKey.RESOURCE);
+      return;
+    }
+    if (!keys.isStandard()) {
+      // С чужой таблицей ни один ключ книги не найдется
+      log.error("Таблица Random64 из {} не совпадает со спецификацией Polyglot, дебютная книга отключена", source);
+      keys = null;
+      return;
+    }
+    reloadIfChanged();
+  }
+
+  @Override
+  public boolean isLoaded() {
+    return book.get() != null;
+  }
+
+  @Override
+  public List<BookMoveDTO> getMoves(String fen) {
+    LoadedBook current = book.get();
+    if (current == null) {
+      return List.of();
+    }
+    Board board = new Board();
+    try {
+      board.loadFromFen(fen);
+    } catch (Exception e) {
+      throw new RuntimeException("Неверная позиция: " + fen);
+    }
+
+    List<PolyglotBook.BookMove> moves = legalMoves(board, current.book().lookup(keys.of(fen)));
+    int total = moves.stream().mapToInt(PolyglotBook.BookMove::weight).sum();
+    List<BookMoveDTO> result = new ArrayList<>(moves.size());
+    for (PolyglotBook.BookMove move : moves) {
+      double share = total > 0 ? Math.round(move.weight() * 1000.0 / total) / 10.0 : 0;
+      result.add(new BookMoveDTO(move.uci(), move.weight(), share));
+    }
+    result.sort((a, b) -> Integer.compare(b.getWeight(), a.getWeight()));
+    return result;
+  }
+
+  @Override
+  public Optional<Move> pickMove(Board board) {
+    LoadedBook current = book.get();
+    if (current == null) {
+      return Optional.empty();
+    }
+    PolyglotBook.BookMove picked = current.book().pick(keys.of(board.getFen()), ThreadLocalRandom.current());
+    if (picked == null) {
+      return Optional.empty();
+    }
+    // Ключи Polyglot 64-битные, но коллизии возможны: ход обязан быть легальным
+    Move move = toMove(board, picked.uci());
+    return board.legalMoves().contains(move) ? Optional.of(move) : Optional.empty();
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${chess.book.reload-check-ms:10000}")
+  public void reloadIfChanged() {
+    if (keys == null) {
+      return;
+    }
+    Path path = Path.of(bookPath);
+    try {
+      FileTime modified = Files.getLastModifiedTime(path);
+      LoadedBook current = book.get();
+      if (current != null && current.modified().equals(modified)) {
+        return;
+      }
+      PolyglotBook loaded = PolyglotBook.open(path);
+      book.set(new LoadedBook(loaded, modified));
+      log.info("Дебютная книга {} загружена: {} записей", path, loaded.size());
+    } catch (IOException e) {
+      log.error("Не удалось открыть дебютную книгу {}: {}", path, e.getMessage());
+    }
+  }
+
+  private List<PolyglotBook.BookMove> legalMoves(Board board, List<PolyglotBook.BookMove> moves) {
+    List<Move> legal = board.legalMoves();
+    List<PolyglotBook.BookMove> result = new ArrayList<>(moves.size());
+    for (PolyglotBook.BookMove move : moves) {
+      Move chessMove = toMove(board, move.uci());
+      if (legal.contains(chessMove)) {
+        result.add(new PolyglotBook.BookMove(MoveNotation.toUci(chessMove), move.weight()));
+      }
+    }
+    return result;
+  }
+
+  // Рокировка в Polyglot - ход короля на свою ладью
+  private static Move toMove(Board board, String uci) {
+    String from = uci.substring(0, 2);
+    String to = uci.substring(2, 4);
+    String promotion = uci.length() > 4 ? uci.substring(4).toUpperCase() : null;
+    Piece piece = board.getPiece(Square.fromValue(from.toUpperCase()));
+    if (piece == Piece.WHITE_KING && from.equals("e1") || piece == Piece.BLACK_KING && from.equals("e8")) {
+      if (to.charAt(0) == 'h') {
+        to = "g" + to.charAt(1);
+      } else if (to.charAt(0) == 'a') {
+        to = "c" + to.charAt(1);
+      }
+    }
+    return MoveNotation.fromSquares(from, to, promotion, board.getSideToMove());
+  }
+
+  private record LoadedBook(PolyglotBook book, FileTime modified) {
+  }
+}
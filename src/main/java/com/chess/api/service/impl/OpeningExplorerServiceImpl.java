@@ -0,0 +1,139 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.ExplorerMoveDTO;
+import com.chess.api.dto.MoveDTO;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.repository.ExplorerMoveRepository;
+import com.chess.api.service.GameService;
+import com.chess.api.service.OpeningExplorerService;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.chess.api.service.explorer.ExplorerAggregate;
+import com.chess.api.service.explorer.ExplorerGame;
+import com.chess.api.service.explorer.ExplorerMoveRow;
+import com.chess.api.service.explorer.ExplorerWriter;
+import com.chess.api.service.explorer.RatingBands;
+import com.github.bhlangonijr.chesslib.Board;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Дебютный справочник по партиям сервера.
+ * <p>
+ * Чтение - одна группировка по индексу {@code (position_key, ...)}, без обращения к ходам.
+ * Завершенные рейтинговые партии добавляются по одной в отдельном потоке;
+ * полное построение - {@link com.chess.api.service.explorer.ExplorerBackfillJob}.
+ */
+@Service
+@Slf4j
+public class OpeningExplorerServiceImpl implements OpeningExplorerService {
+
+  private final GameService gameService;
+  private final ExplorerMoveRepository explorerRepository;
+  private final ExplorerWriter writer;
+  private final TransactionTemplate transactionTemplate;
+  private final RatingBands ratingBands;
+  private final int maxPly;
+  private final ExecutorService executor;
+
+  public OpeningExplorerServiceImpl(GameService gameService,
+                                    ExplorerMoveRepository explorerRepository,
+                                    ExplorerWriter writer,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${chess.explorer.rating-bands:1000,1400,1800,2200}") int[] ratingBands,
+                                    @Value("${chess.explorer.max-ply:20}") int maxPly) {
+    this.gameService = gameService;
+    this.explorerRepository = explorerRepository;
+    this.writer = writer;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.ratingBands = new RatingBands(ratingBands);
+    this.maxPly = maxPly;
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "explorer-update");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+  }
+
+  @Override
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameFinished(GameFinishedEvent event) {
+    if (!event.rated() || event.whiteRating() == null || event.blackRating() == null) {
+      return;
+    }
+    executor.execute(() -> {
+      try {
+        index(event);
+      } catch (Exception e) {
+        log.error("Ошибка добавления партии {} в дебютный справочник", event.gameId(), e);
+      }
+    });
+  }
+
+  @Override
+  public List<ExplorerMoveDTO> getMoves(String fen, GameType gameType, Integer ratingBand) {
+    if (ratingBand != null && !ratingBands.isBand(ratingBand)) {
+      throw new RuntimeException("Неизвестный диапазон рейтинга: " + ratingBand);
+    }
+    Board board = new Board();
+    try {
+      board.loadFromFen(fen);
+    } catch (Exception e) {
+      throw new RuntimeException("Неверная позиция: " + fen);
+    }
+
+    List<ExplorerMoveRow> rows = explorerRepository.aggregate(
+        MoveNotation.positionKey(board), gameType, ratingBand);
+    List<ExplorerMoveDTO> result = new ArrayList<>(rows.size());
+    for (ExplorerMoveRow row : rows) {
+      long games = row.games();
+      result.add(new ExplorerMoveDTO(row.move(), games, row.whiteWins(), row.draws(), row.blackWins(),
+          games > 0 ? (int) (row.ratingSum() / games) : null));
+    }
+    result.sort(Comparator.comparing(ExplorerMoveDTO::getGames).reversed());
+    return result;
+  }
+
+  private void index(GameFinishedEvent event) {
+    FinishedGame finished = transactionTemplate.execute(status -> {
+      Game game = gameService.getGameById(event.gameId());
+      List<MoveDTO> moves = gameService.getGameMoves(event.gameId());
+      List<String> uci = new ArrayList<>(Math.min(maxPly, moves.size()));
+      for (MoveDTO move : moves.subList(0, Math.min(maxPly, moves.size()))) {
+        uci.add(move.getFromSquare().toLowerCase() + move.getToSquare().toLowerCase()
+            + (move.getPromotion() != null ? move.getPromotion().toLowerCase() : ""));
+      }
+      int averageRating = (event.whiteRating() + event.blackRating()) / 2;
+      return new FinishedGame(new ExplorerGame(game.getGameType(), ratingBands.bandOf(averageRating),
+          averageRating, event.result(), game.getInitialFen(), uci), game.getFinishedAt());
+    });
+
+    ExplorerAggregate aggregate = new ExplorerAggregate();
+    aggregate.addGame(finished.game(), maxPly);
+    if (!aggregate.isEmpty()) {
+      writer.write(aggregate, finished.finishedAt());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private record FinishedGame(ExplorerGame game, LocalDateTime finishedAt) {
+  }
+}
@@ -6,6 +6,7 @@ import com.chess.api.service.PlayerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,40 +17,61 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PlayerServiceImpl implements PlayerService, UserDetailsService {
 
+  // Имена ботов; людям этот префикс не выдается
+  private static final String BOT_PREFIX = "bot_level_";
+
   private final PlayerRepository playerRepository;
 
   private PasswordEncoder passwordEncoder;
 
+  private Set<String> adminUsernames = Set.of();
+
   @Override
   @Autowired
   public void setPasswordEncoder(PasswordEncoder passwordEncoder) {
     this.passwordEncoder = passwordEncoder;
   }
 
+  // Отдельной роли в базе нет: администраторы перечислены в настройках
+  @Autowired
+  public void setAdminUsernames(@Value("${chess.admin.usernames:}") Set<String> adminUsernames) {
+    this.adminUsernames = adminUsernames;
+  }
+
   @Override
   @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     Player player = playerRepository.findByUsername(username)
         .orElseThrow(() -> new UsernameNotFoundException("Игрок не найден: " + username));
 
+    List<SimpleGrantedAuthority> authorities = adminUsernames.contains(username)
+        ? List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"))
+        : List.of(new SimpleGrantedAuthority("ROLE_USER"));
     return new User(
         player.getUsername(),
         player.getPassword(),
-        Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+        authorities
     );
   }
 
   @Override
   @Transactional
   public Player registerPlayer(String username, String email, String password) {
+    if (username.toLowerCase(Locale.ROOT).startsWith(BOT_PREFIX)) {
+      throw new RuntimeException("Имя пользователя зарезервировано");
+    }
+
     if (playerRepository.existsByUsername(username)) {
       throw new RuntimeException("Имя пользователя уже занято");
     }
@@ -107,6 +129,44 @@ public class PlayerServiceImpl implements PlayerService, UserDetailsService {
     };
   }
 
+  @Override
+  public Player getBotPlayer(int level) {
+    return playerRepository.findByBotTrueAndBotLevel(level)
+        .orElseThrow(() -> new RuntimeException("Бот уровня " + level + " не найден"));
+  }
+
+  @Override
+  @Transactional
+  public Player ensureBotPlayer(int level) {
+    Optional<Player> existing = playerRepository.findByBotTrueAndBotLevel(level);
+    if (existing.isPresent()) {
+      return existing.get();
+    }
+
+    String username = BOT_PREFIX + level;
+    Optional<Player> named = playerRepository.findByUsername(username);
+    if (named.isPresent() && Boolean.TRUE.equals(named.get().getBot())) {
+      // Бот из базы, где уровень еще не хранился
+      named.get().setBotLevel(level);
+      return playerRepository.save(named.get());
+    }
+    if (named.isPresent()) {
+      // Имя занял человек до того, как префикс зарезервировали
+      log.warn("Имя {} занято игроком {}, бот получит другое", username, named.get().getId());
+      username = username + "_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    Player bot = new Player();
+    bot.setUsername(username);
+    bot.setEmail(username + "@bots.local");
+    bot.setPassword(passwordEncoder.encode(UUID.randomUUID().toString()));
+    bot.setBot(true);
+    bot.setBotLevel(level);
+    bot.setCreatedAt(LocalDateTime.now());
+    log.info("Создан бот: {}", username);
+    return playerRepository.save(bot);
+  }
+
   @Override
   @Transactional
   public Player updatePlayerStatistics(Player player) {
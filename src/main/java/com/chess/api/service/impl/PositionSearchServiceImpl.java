@@ -0,0 +1,135 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.PositionHitDTO;
+import com.chess.api.dto.PositionSearchPage;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.chess.api.model.PositionPostingChunk;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.PositionPostingChunkRepository;
+import com.chess.api.service.PositionSearchService;
+import com.chess.api.service.event.MoveMadeEvent;
+import com.chess.api.service.positions.PositionIndexWriter;
+import com.chess.api.service.positions.PostingList;
+import com.github.bhlangonijr.chesslib.Board;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Поиск партий по позиции через обратный индекс ключ позиции -> (партия, полуход).
+ * <p>
+ * Каждый ход в своей транзакции добавляет вхождение в таблицу ожидающих
+ * {@link PositionIndexWriter}, по расписанию они переносятся в куски. Поиск читает куски
+ * от новых партий к старым и останавливается, как только набрана страница и следующий
+ * кусок целиком старше ее.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PositionSearchServiceImpl implements PositionSearchService {
+
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final PositionIndexWriter writer;
+  private final PositionPostingChunkRepository chunkRepository;
+  private final GameRepository gameRepository;
+
+  @Override
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onMoveMade(MoveMadeEvent event) {
+    // До фиксации: вхождение сохраняется вместе с ходом или не сохраняется вовсе
+    Board board = new Board();
+    board.loadFromFen(event.fen());
+    writer.add(MoveNotation.positionKey(board), PostingList.pack(event.gameId(), event.moveNumber()));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public PositionSearchPage search(String fen, Long before, int size) {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    long upper = before != null ? before : Long.MAX_VALUE;
+    Board board = new Board();
+    try {
+      board.loadFromFen(fen);
+    } catch (Exception e) {
+      throw new RuntimeException("Неверная позиция: " + fen);
+    }
+    long key = MoveNotation.positionKey(board);
+
+    // id партии -> первый полуход с позицией; держим на одну партию больше страницы,
+    // чтобы знать, есть ли следующая
+    TreeMap<Long, Integer> candidates = new TreeMap<>();
+    collect(candidates, writer.buffered(key), upper, pageSize + 1);
+    try (Stream<PositionPostingChunk> chunks = chunkRepository.streamNewestFirst(key, upper)) {
+      Iterator<PositionPostingChunk> iterator = chunks.iterator();
+      while (iterator.hasNext()) {
+        PositionPostingChunk chunk = iterator.next();
+        if (candidates.size() > pageSize && chunk.getLastGameId() < candidates.firstKey()) {
+          break;
+        }
+        collect(candidates, PostingList.decode(chunk.getData(), chunk.getPostingCount()), upper, pageSize + 1);
+      }
+    }
+
+    Long nextBefore = null;
+    if (candidates.size() > pageSize) {
+      candidates.pollFirstEntry();
+      nextBefore = candidates.firstKey();
+    }
+    Map<Long, Game> games = gameRepository.findWithPlayersByIdIn(candidates.keySet()).stream()
+        .collect(Collectors.toMap(Game::getId, Function.identity()));
+
+    List<PositionHitDTO> hits = new ArrayList<>(candidates.size());
+    for (Map.Entry<Long, Integer> entry : candidates.descendingMap().entrySet()) {
+      Game game = games.get(entry.getKey());
+      if (game == null) {
+        continue;
+      }
+      hits.add(new PositionHitDTO(game.getId(), entry.getValue(),
+          game.getWhitePlayer() != null ? game.getWhitePlayer().getUsername() : null,
+          game.getBlackPlayer() != null ? game.getBlackPlayer().getUsername() : null,
+          game.getGameType(), game.getResult(), game.getCreatedAt()));
+    }
+    return new PositionSearchPage(hits, nextBefore);
+  }
+
+  private static void collect(TreeMap<Long, Integer> candidates, long[] postings, long before, int limit) {
+    for (long posting : postings) {
+      long gameId = PostingList.gameId(posting);
+      if (gameId >= before) {
+        continue;
+      }
+      candidates.merge(gameId, PostingList.ply(posting), Math::min);
+      if (candidates.size() > limit) {
+        candidates.pollFirstEntry();
+      }
+    }
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${chess.position-index.flush-ms:5000}")
+  public void flush() {
+    try {
+      int moved = writer.flush();
+      if (moved > 0) {
+        log.debug("В индекс позиций перенесено вхождений: {}", moved);
+      }
+    } catch (Exception e) {
+      log.error("Ошибка сброса индекса позиций", e);
+    }
+  }
+}
@@ -0,0 +1,324 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.AnalysisQueueStats;
+import com.chess.api.dto.GameAnalysisDTO;
+import com.chess.api.dto.MoveDTO;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.engine.Search;
+import com.chess.api.engine.SearchLimits;
+import com.chess.api.engine.SearchLine;
+import com.chess.api.engine.TranspositionTable;
+import com.chess.api.model.Game;
+import com.chess.api.model.GameAnalysis;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.repository.GameAnalysisRepository;
+import com.chess.api.service.GameService;
+import com.chess.api.service.PostGameAnalysisService;
+import com.chess.api.service.analysis.Accuracy;
+import com.chess.api.service.analysis.MoveJudgement;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.chess.api.util.VarInts;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Side;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновый анализ завершенных партий: оценка каждой позиции, точность игроков, разметка ошибок.
+ * <p>
+ * Партии ставятся в очередь с приоритетом после фиксации результата и разбираются
+ * собственным пулом потоков пониженного приоритета с фиксированной глубиной и бюджетом
+ * узлов на позицию. Запросы участников партии обгоняют обычную очередь.
+ */
+@Service
+@Slf4j
+public class PostGameAnalysisServiceImpl implements PostGameAnalysisService {
+
+  private static final int REQUESTED = 0;
+  private static final int NORMAL = 1;
+
+  private final GameService gameService;
+  private final GameAnalysisRepository analysisRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final TranspositionTable table;
+  private final ThreadPoolExecutor executor;
+  private final boolean enabled;
+  private final int depth;
+  private final long maxNodes;
+  private final int queueCapacity;
+
+  // Последнее поставленное задание по партии; более ранние для той же партии пропускаются
+  private final Map<Long, AnalysisJob> queued = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger queuedRequested = new AtomicInteger();
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong analyzedPlies = new AtomicLong();
+  private final AtomicLong analysisNanos = new AtomicLong();
+  private final Deque<Long> recentCompletions = new ConcurrentLinkedDeque<>();
+
+  public PostGameAnalysisServiceImpl(GameService gameService,
+                                     GameAnalysisRepository analysisRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${chess.post-game-analysis.enabled:true}") boolean enabled,
+                                     @Value("${chess.post-game-analysis.threads:1}") int threads,
+                                     @Value("${chess.post-game-analysis.depth:8}") int depth,
+                                     @Value("${chess.post-game-analysis.max-nodes:100000}") long maxNodes,
+                                     @Value("${chess.post-game-analysis.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${chess.post-game-analysis.hash-size-mb:32}") int hashSizeMb) {
+    this.gameService = gameService;
+    this.analysisRepository = analysisRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.table = new TranspositionTable(hashSizeMb);
+    this.enabled = enabled;
+    this.depth = depth;
+    this.maxNodes = maxNodes;
+    this.queueCapacity = queueCapacity;
+
+    AtomicInteger counter = new AtomicInteger();
+    int poolSize = Math.max(1, threads);
+    // Задания сравнимы, поэтому исполнитель выбирает из очереди по приоритету
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+        new PriorityBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "post-game-analysis-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          thread.setPriority(Thread.MIN_PRIORITY);
+          return thread;
+        });
+  }
+
+  @Override
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameFinished(GameFinishedEvent event) {
+    if (enabled) {
+      enqueue(event.gameId(), NORMAL);
+    }
+  }
+
+  @Override
+  public boolean requestAnalysis(Long gameId, Player player) {
+    Game game = gameService.getGameById(gameId);
+    if (game.getFinishedAt() == null) {
+      throw new RuntimeException("Анализ доступен только для завершенных партий");
+    }
+    if (analysisRepository.existsByGameId(gameId)) {
+      return true;
+    }
+    enqueue(gameId, game.isPlayerInGame(player) ? REQUESTED : NORMAL);
+    return false;
+  }
+
+  @Override
+  public Optional<GameAnalysisDTO> getAnalysis(Long gameId) {
+    return analysisRepository.findByGameId(gameId).map(this::convertToDTO);
+  }
+
+  @Override
+  public AnalysisQueueStats getStats() {
+    long nanos = analysisNanos.get();
+    double pliesPerSecond = nanos > 0 ? analyzedPlies.get() * 1e9 / nanos : 0;
+    return new AnalysisQueueStats(executor.getQueue().size(), queuedRequested.get(), running.get(),
+        completed.get(), failed.get(), dropped.get(), (double) completionsLastMinute(), pliesPerSecond);
+  }
+
+  private void enqueue(Long gameId, int priority) {
+    AnalysisJob current = queued.get(gameId);
+    if (current != null && current.priority <= priority) {
+      return;
+    }
+    if (priority == NORMAL && executor.getQueue().size() >= queueCapacity) {
+      dropped.incrementAndGet();
+      log.warn("Очередь анализа переполнена, партия {} пропущена", gameId);
+      return;
+    }
+
+    AnalysisJob job = new AnalysisJob(gameId, priority, sequence.incrementAndGet());
+    queued.put(gameId, job);
+    if (priority == REQUESTED) {
+      queuedRequested.incrementAndGet();
+    }
+    executor.execute(job);
+  }
+
+  private void analyze(Long gameId) {
+    if (analysisRepository.existsByGameId(gameId)) {
+      return;
+    }
+    Game game = gameService.getGameById(gameId);
+    List<MoveDTO> moves = gameService.getGameMoves(gameId);
+    if (moves.isEmpty()) {
+      return;
+    }
+
+    long started = System.nanoTime();
+    Board board = new Board();
+    board.loadFromFen(game.getInitialFen());
+    long[] keys = new long[moves.size() + 1];
+    int[] evals = new int[moves.size() + 1];
+
+    for (int ply = 0; ; ply++) {
+      evals[ply] = evaluate(board, Arrays.copyOf(keys, ply));
+      keys[ply] = board.getIncrementalHashKey();
+      if (ply == moves.size()) {
+        break;
+      }
+      MoveDTO move = moves.get(ply);
+      MoveNotation.play(board, move.getFromSquare(), move.getToSquare(), move.getPromotion());
+    }
+
+    GameAnalysis analysis = annotate(gameId, evals, game.getInitialFen().split(" ")[1].equals("b"));
+    long elapsed = System.nanoTime() - started;
+    analysis.setAnalysisMs(TimeUnit.NANOSECONDS.toMillis(elapsed));
+    transactionTemplate.executeWithoutResult(status -> analysisRepository.save(analysis));
+
+    analyzedPlies.addAndGet(evals.length);
+    analysisNanos.addAndGet(elapsed);
+    log.debug("Партия {} проанализирована: {} позиций, {} мс", gameId, evals.length, analysis.getAnalysisMs());
+  }
+
+  // Оценка позиции с точки зрения белых
+  private int evaluate(Board board, long[] previousKeys) {
+    SearchLimits limits = new SearchLimits(depth, maxNodes, 0, 0, 0, 1);
+    SearchLine line = new Search(board, table, limits, new AtomicBoolean(), null, previousKeys).run().best();
+    int score;
+    if (line.isMate()) {
+      score = line.score() > 0 ? GameAnalysis.MATE_CP - line.mateIn() : -GameAnalysis.MATE_CP - line.mateIn();
+    } else {
+      score = Math.max(-GameAnalysis.MATE_CP + 100, Math.min(GameAnalysis.MATE_CP - 100, line.score()));
+    }
+    return board.getSideToMove() == Side.WHITE ? score : -score;
+  }
+
+  private GameAnalysis annotate(Long gameId, int[] evals, boolean blackStarts) {
+    int plies = evals.length - 1;
+    byte[] judgements = new byte[plies];
+    double[] accuracySum = new double[2];
+    int[] accuracyCount = new int[2];
+
+    for (int ply = 0; ply < plies; ply++) {
+      boolean white = (ply % 2 == 0) != blackStarts;
+      int sign = white ? 1 : -1;
+      int before = evals[ply] * sign;
+      int after = evals[ply + 1] * sign;
+      judgements[ply] = (byte) Accuracy.judge(before, after).ordinal();
+      int side = white ? 0 : 1;
+      accuracySum[side] += Accuracy.moveAccuracy(before, after);
+      accuracyCount[side]++;
+    }
+
+    VarInts.Writer writer = new VarInts.Writer(evals.length * 2);
+    for (int eval : evals) {
+      writer.writeSigned(eval);
+    }
+
+    GameAnalysis analysis = new GameAnalysis();
+    analysis.setGameId(gameId);
+    analysis.setDepth(depth);
+    analysis.setPlyCount(plies);
+    analysis.setEvals(writer.toByteArray());
+    analysis.setJudgements(judgements);
+    analysis.setWhiteAccuracy(accuracyCount[0] > 0 ? round(accuracySum[0] / accuracyCount[0]) : null);
+    analysis.setBlackAccuracy(accuracyCount[1] > 0 ? round(accuracySum[1] / accuracyCount[1]) : null);
+    analysis.setAnalyzedAt(LocalDateTime.now());
+    return analysis;
+  }
+
+  private GameAnalysisDTO convertToDTO(GameAnalysis analysis) {
+    List<Integer> evals = new ArrayList<>(analysis.getPlyCount() + 1);
+    VarInts.Reader reader = new VarInts.Reader(analysis.getEvals());
+    while (reader.hasRemaining()) {
+      evals.add((int) reader.readSigned());
+    }
+    MoveJudgement[] values = MoveJudgement.values();
+    List<String> judgements = new ArrayList<>(analysis.getJudgements().length);
+    for (byte judgement : analysis.getJudgements()) {
+      judgements.add(values[judgement].name());
+    }
+    return new GameAnalysisDTO(analysis.getGameId(), analysis.getDepth(), evals, judgements,
+        analysis.getWhiteAccuracy(), analysis.getBlackAccuracy(), analysis.getAnalyzedAt());
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 10) / 10.0;
+  }
+
+  private int completionsLastMinute() {
+    long threshold = System.currentTimeMillis() - 60_000;
+    Long oldest;
+    while ((oldest = recentCompletions.peekFirst()) != null && oldest < threshold) {
+      recentCompletions.pollFirst();
+    }
+    return recentCompletions.size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private final class AnalysisJob implements Runnable, Comparable<AnalysisJob> {
+
+    final Long gameId;
+    final int priority;
+    final long sequence;
+
+    AnalysisJob(Long gameId, int priority, long sequence) {
+      this.gameId = gameId;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(AnalysisJob other) {
+      return priority != other.priority
+          ? Integer.compare(priority, other.priority)
+          : Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public void run() {
+      if (priority == REQUESTED) {
+        queuedRequested.decrementAndGet();
+      }
+      // Партию уже переставили с более высоким приоритетом
+      if (!queued.remove(gameId, this)) {
+        return;
+      }
+      running.incrementAndGet();
+      try {
+        analyze(gameId);
+        completed.incrementAndGet();
+        recentCompletions.addLast(System.currentTimeMillis());
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        log.error("Ошибка анализа партии {}", gameId, e);
+      } finally {
+        running.decrementAndGet();
+      }
+    }
+  }
+}
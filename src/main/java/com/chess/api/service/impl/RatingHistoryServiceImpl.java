@@ -0,0 +1,123 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.RatingPointDTO;
+import com.chess.api.model.RatingHistoryChunk;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.repository.RatingHistoryChunkRepository;
+import com.chess.api.service.RatingHistoryService;
+import com.chess.api.util.VarInts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * История рейтинга: только дозапись в последний кусок под блокировкой строки,
+ * чтение одним запросом по диапазону.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingHistoryServiceImpl implements RatingHistoryService {
+
+  private static final long SECONDS_PER_DAY = 86_400;
+
+  private final RatingHistoryChunkRepository chunkRepository;
+
+  @Override
+  @Transactional
+  public void record(Long playerId, GameType gameType, int rating, LocalDateTime timestamp) {
+    long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+
+    // Строка последнего куска заблокирована до конца транзакции finishGame. Первый кусок
+    // блокировать нечем - вторую одновременную вставку отбивает уникальный индекс
+    RatingHistoryChunk chunk = chunkRepository
+        .findTopByPlayerIdAndGameTypeOrderByChunkIndexDesc(playerId, gameType)
+        .orElse(null);
+
+    if (chunk == null || chunk.isFull()) {
+      RatingHistoryChunk next = new RatingHistoryChunk();
+      next.setPlayerId(playerId);
+      next.setGameType(gameType);
+      next.setChunkIndex(chunk == null ? 0 : chunk.getChunkIndex() + 1);
+      next.setFirstEpochSecond(epochSecond);
+      next.setLastEpochSecond(epochSecond);
+      next.setLastRating(0);
+      chunk = next;
+    }
+
+    // Время в истории не убывает, даже если часы сервера ушли назад
+    long timeDelta = Math.max(0, epochSecond - chunk.getLastEpochSecond());
+    byte[] data = new VarInts.Writer(chunk.getData())
+        .writeUnsigned(timeDelta)
+        .writeSigned(rating - chunk.getLastRating())
+        .toByteArray();
+
+    chunk.setData(data);
+    chunk.setLastEpochSecond(chunk.getLastEpochSecond() + timeDelta);
+    chunk.setLastRating(rating);
+    chunk.setPointCount(chunk.getPointCount() + 1);
+    chunkRepository.save(chunk);
+  }
+
+  @Override
+  public List<RatingPointDTO> getHistory(Long playerId, GameType gameType,
+                                         LocalDateTime from, LocalDateTime to, Interval interval) {
+    long fromSecond = from != null ? from.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+    long toSecond = to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+
+    List<RatingPointDTO> points = new ArrayList<>();
+    long currentBucket = Long.MIN_VALUE;
+    long pendingSecond = 0;
+    int pendingRating = 0;
+    boolean pending = false;
+
+    for (RatingHistoryChunk chunk : chunkRepository.findOverlapping(playerId, gameType, fromSecond, toSecond)) {
+      VarInts.Reader reader = new VarInts.Reader(chunk.getData());
+      long second = chunk.getFirstEpochSecond();
+      int rating = 0;
+
+      while (reader.hasRemaining()) {
+        second += reader.readUnsigned();
+        rating += (int) reader.readSigned();
+        if (second < fromSecond || second > toSecond) {
+          continue;
+        }
+
+        if (interval == Interval.RAW) {
+          points.add(toPoint(second, rating));
+          continue;
+        }
+
+        long bucket = bucketOf(second, interval);
+        if (pending && bucket != currentBucket) {
+          points.add(toPoint(pendingSecond, pendingRating));
+        }
+        currentBucket = bucket;
+        pendingSecond = second;
+        pendingRating = rating;
+        pending = true;
+      }
+    }
+
+    if (pending) {
+      points.add(toPoint(pendingSecond, pendingRating));
+    }
+    return points;
+  }
+
+  private long bucketOf(long epochSecond, Interval interval) {
+    long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    // 1970-01-01 - четверг, сдвиг на 3 дня дает недели с понедельника
+    return interval == Interval.WEEK ? Math.floorDiv(day + 3, 7) : day;
+  }
+
+  private RatingPointDTO toPoint(long epochSecond, int rating) {
+    return new RatingPointDTO(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), rating);
+  }
+}
@@ -0,0 +1,111 @@
+package com.chess.api.service.live;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ничейные правила партии, которые ведутся по ходу игры, без перебора истории доски.
+ * <p>
+ * Повторения считаются по Zobrist-ключам позиций с последнего необратимого хода
+ * (взятия или хода пешки): раньше него ни одна позиция повториться не может, поэтому
+ * на необратимом ходе счетчики сбрасываются. Ключ включает очередь хода и права
+ * рокировки, так что совпадение ключей - та же позиция по правилам. Материал
+ * пересчитывается только после взятия или превращения - других ходов, меняющих его, нет.
+ */
+public class DrawTracker {
+
+  // Светлые поля: b1, d1, ..., a2, c2, ... (a1 = бит 0 - темное)
+  private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+  private final Map<Long, Integer> repetitions = new HashMap<>();
+  private long currentKey;
+  private int halfMoves;
+  private boolean insufficientMaterial;
+
+  private DrawTracker() {
+  }
+
+  /**
+   * Состояние для позиции доски без предыстории: повторения считаются с нее.
+   */
+  public static DrawTracker of(Board board) {
+    DrawTracker tracker = new DrawTracker();
+    tracker.halfMoves = board.getHalfMoveCounter() != null ? board.getHalfMoveCounter() : 0;
+    tracker.currentKey = board.getIncrementalHashKey();
+    tracker.repetitions.put(tracker.currentKey, 1);
+    tracker.insufficientMaterial = isInsufficientMaterial(board);
+    return tracker;
+  }
+
+  /**
+   * Взятие или ход пешки; проверять до хода.
+   */
+  public static boolean isIrreversible(Board board, Move move) {
+    return board.getPiece(move.getFrom()).getPieceType() == PieceType.PAWN
+        || board.getPiece(move.getTo()) != Piece.NONE;
+  }
+
+  /**
+   * Учесть сделанный ход.
+   *
+   * @param board        доска после хода
+   * @param irreversible ход был взятием или ходом пешки
+   */
+  public void onMove(Board board, boolean irreversible) {
+    currentKey = board.getIncrementalHashKey();
+    if (irreversible) {
+      repetitions.clear();
+      halfMoves = 0;
+      insufficientMaterial = isInsufficientMaterial(board);
+    } else {
+      halfMoves++;
+    }
+    repetitions.merge(currentKey, 1, Integer::sum);
+  }
+
+  /** Текущая позиция встречается третий раз */
+  public boolean isThreefoldRepetition() {
+    return repetitions.getOrDefault(currentKey, 0) >= 3;
+  }
+
+  /** 50 ходов каждой стороны без взятий и ходов пешек */
+  public boolean isFiftyMoveRule() {
+    return halfMoves >= 100;
+  }
+
+  public boolean isInsufficientMaterial() {
+    return insufficientMaterial;
+  }
+
+  public boolean isDraw() {
+    return insufficientMaterial || isThreefoldRepetition() || isFiftyMoveRule();
+  }
+
+  public int getHalfMoves() {
+    return halfMoves;
+  }
+
+  /**
+   * Мата не поставить никакой последовательностью ходов: одна легкая фигура на доске
+   * или только слоны одного цвета полей.
+   */
+  static boolean isInsufficientMaterial(Board board) {
+    long heavy = board.getBitboard(Piece.WHITE_PAWN) | board.getBitboard(Piece.BLACK_PAWN)
+        | board.getBitboard(Piece.WHITE_ROOK) | board.getBitboard(Piece.BLACK_ROOK)
+        | board.getBitboard(Piece.WHITE_QUEEN) | board.getBitboard(Piece.BLACK_QUEEN);
+    if (heavy != 0) {
+      return false;
+    }
+    long knights = board.getBitboard(Piece.WHITE_KNIGHT) | board.getBitboard(Piece.BLACK_KNIGHT);
+    long bishops = board.getBitboard(Piece.WHITE_BISHOP) | board.getBitboard(Piece.BLACK_BISHOP);
+    if (Long.bitCount(knights) + Long.bitCount(bishops) <= 1) {
+      return true;
+    }
+    return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+  }
+}
@@ -0,0 +1,155 @@
+package com.chess.api.service.live;
+
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.repository.MoveRepository;
+import com.chess.api.service.replay.GameSnapshots;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Side;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Восстановление доски идущей партии из базы.
+ * <p>
+ * Позицию задает {@code currentFen}, но повторение позиций требует истории с последнего
+ * необратимого хода (взятия или хода пешки): ее длина - счетчик полуходов в FEN. Если
+ * повторение возможно, доска переигрывается от ближайшей контрольной позиции до этого хода,
+ * иначе достаточно загрузить {@code currentFen}. Так переигрывается не больше
+ * счетчик полуходов + K ходов, независимо от длины партии.
+ */
+@Component
+@Slf4j
+public class GameRehydrator {
+
+  // Меньше четырех полуходов без взятий и ходов пешек позиция повториться не может
+  private static final int MIN_REPETITION_PLIES = 4;
+
+  private final MoveRepository moveRepository;
+  private final int snapshotInterval;
+
+  public GameRehydrator(MoveRepository moveRepository,
+                        @Value("${chess.replay.snapshot-interval:16}") int snapshotInterval) {
+    this.moveRepository = moveRepository;
+    this.snapshotInterval = snapshotInterval;
+  }
+
+  /**
+   * Откуда переигрывать: позиция {@code baseFen} после полухода {@code basePly}, ходы до {@code lastPly}.
+   */
+  public record Plan(String baseFen, int basePly, int lastPly) {
+
+    /** Первый нужный ход; последний ход читается всегда - по нему восстанавливаются часы */
+    public int fromMove() {
+      return Math.max(1, Math.min(basePly + 1, lastPly));
+    }
+  }
+
+  public Plan plan(String initialFen, String currentFen, String snapshots) {
+    int lastPly = ply(currentFen) - ply(initialFen);
+    int halfMoves = field(currentFen, 4, 0);
+    if (lastPly <= 0 || halfMoves < MIN_REPETITION_PLIES) {
+      return new Plan(currentFen, Math.max(lastPly, 0), Math.max(lastPly, 0));
+    }
+    GameSnapshots checkpoints = GameSnapshots.parse(snapshots, snapshotInterval);
+    int start = Math.max(0, lastPly - halfMoves);
+    int index = Math.min(start / checkpoints.getInterval(), checkpoints.size());
+    String baseFen = index == 0 ? initialFen : checkpoints.get(index);
+    return new Plan(baseFen, index * checkpoints.getInterval(), lastPly);
+  }
+
+  /**
+   * @param moves ходы партии по возрастанию номера, включая {@link Plan#fromMove()}..{@link Plan#lastPly()}
+   */
+  public LiveGame rehydrate(Long gameId, String currentFen, Plan plan, List<Move> moves) {
+    Board board = new Board();
+    board.loadFromFen(plan.baseFen());
+    LiveGame live = new LiveGame(gameId, board);
+    try {
+      for (Move move : moves) {
+        if (move.getMoveNumber() > plan.basePly() && move.getMoveNumber() <= plan.lastPly()) {
+          live.play(MoveNotation.fromSquares(move.getFromSquare(), move.getToSquare(), move.getPromotion(),
+              board.getSideToMove()));
+        }
+      }
+    } catch (Exception e) {
+      log.warn("Партия {}: не удалось переиграть ходы ({}), история повторений потеряна", gameId, e.getMessage());
+      return fromCurrentFen(gameId, currentFen);
+    }
+    if (!samePosition(board.getFen(), currentFen)) {
+      log.warn("Партия {}: переигранная позиция не совпала с currentFen, история повторений потеряна", gameId);
+      return fromCurrentFen(gameId, currentFen);
+    }
+    return live;
+  }
+
+  private static LiveGame fromCurrentFen(Long gameId, String currentFen) {
+    Board board = new Board();
+    board.loadFromFen(currentFen);
+    return new LiveGame(gameId, board);
+  }
+
+  public LiveGame rehydrate(Game game) {
+    Plan plan = plan(game.getInitialFen(), game.getCurrentFen(), game.getSnapshots());
+    List<Move> moves = plan.lastPly() > plan.basePly()
+        ? moveRepository.findByGameIdAndMoveNumberBetweenOrderByMoveNumberAsc(game.getId(), plan.fromMove(), plan.lastPly())
+        : List.of();
+    return rehydrate(game.getId(), game.getCurrentFen(), plan, moves);
+  }
+
+  /**
+   * Остаток времени на момент {@code now}: с последнего хода (или начала партии) идут часы стороны,
+   * которая должна ходить. Время простоя сервера тоже засчитывается ей.
+   *
+   * @return {белые, черные} в миллисекундах
+   */
+  public static int[] restoreClocks(int whiteTimeLeft, int blackTimeLeft, Side sideToMove,
+                                    LocalDateTime runningSince, LocalDateTime now) {
+    long elapsed = runningSince != null ? Math.max(0, Duration.between(runningSince, now).toMillis()) : 0;
+    if (sideToMove == Side.WHITE) {
+      whiteTimeLeft = (int) Math.max(0, whiteTimeLeft - elapsed);
+    } else {
+      blackTimeLeft = (int) Math.max(0, blackTimeLeft - elapsed);
+    }
+    return new int[]{whiteTimeLeft, blackTimeLeft};
+  }
+
+  // Полуходы от начала шахматной партии по номеру хода и очереди в FEN
+  static int ply(String fen) {
+    int fullMove = field(fen, 5, 1);
+    boolean blackToMove = "b".equals(fieldText(fen, 1));
+    return (fullMove - 1) * 2 + (blackToMove ? 1 : 0);
+  }
+
+  private static int field(String fen, int index, int fallback) {
+    String text = fieldText(fen, index);
+    try {
+      return text != null ? Integer.parseInt(text) : fallback;
+    } catch (NumberFormatException e) {
+      return fallback;
+    }
+  }
+
+  private static String fieldText(String fen, int index) {
+    String[] fields = fen.trim().split("\\s+");
+    return index < fields.length ? fields[index] : null;
+  }
+
+  // Расстановка, очередь хода, рокировки и взятие на проходе
+  static boolean samePosition(String left, String right) {
+    String[] a = left.trim().split("\\s+");
+    String[] b = right.trim().split("\\s+");
+    for (int i = 0; i < 4; i++) {
+      if (i >= a.length || i >= b.length || !a[i].equals(b[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
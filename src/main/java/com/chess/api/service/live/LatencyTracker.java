@@ -0,0 +1,156 @@
+package com.chess.api.service.live;
+
+import com.chess.api.dto.LatencyStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Задержка WebSocket-сессий: время ping-pong, сглаженное экспоненциальным средним.
+ * <p>
+ * Ход доходит до сервера позже, чем сделан: позиция идет к игроку, ход - обратно, это
+ * RTT. Поэтому с затраченного на ход времени списывается RTT сессии, но не больше
+ * {@code max-credit-ms} - клиент, тянущий с ответом на ping, много не выиграет. Если
+ * у игрока несколько сессий, берется самая быстрая. Сессии проиндексированы по игроку:
+ * ход смотрит только сессии своего игрока, а не все подключения.
+ */
+@Component
+public class LatencyTracker {
+
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+  private final Map<String, Set<Session>> sessionsByUser = new ConcurrentHashMap<>();
+  private final Map<Long, Long> pings = new ConcurrentHashMap<>();
+  private final AtomicLong pingSequence = new AtomicLong();
+  private final AtomicLong compensatedMoves = new AtomicLong();
+  private final AtomicLong compensatedMs = new AtomicLong();
+  private final double alpha;
+  private final long maxCreditMs;
+
+  public LatencyTracker(@Value("${chess.lag.ewma-alpha:0.2}") double alpha,
+                        @Value("${chess.lag.max-credit-ms:500}") long maxCreditMs) {
+    this.alpha = alpha;
+    this.maxCreditMs = maxCreditMs;
+  }
+
+  public void register(String sessionId, String username) {
+    Session session = new Session(username);
+    Session previous = sessions.put(sessionId, session);
+    if (previous != null) {
+      unindex(previous);
+    }
+    sessionsByUser.compute(username, (user, userSessions) -> {
+      Set<Session> result = userSessions != null ? userSessions : ConcurrentHashMap.newKeySet();
+      result.add(session);
+      return result;
+    });
+  }
+
+  public void unregister(String sessionId) {
+    Session session = sessions.remove(sessionId);
+    if (session != null) {
+      unindex(session);
+    }
+  }
+
+  private void unindex(Session session) {
+    // Пустой набор удаляется тем же атомарным шагом, что и сессия, - регистрация не потеряется
+    sessionsByUser.computeIfPresent(session.username, (user, userSessions) -> {
+      userSessions.remove(session);
+      return userSessions.isEmpty() ? null : userSessions;
+    });
+  }
+
+  /**
+   * Новый ping: номер, который клиент вернет в pong.
+   */
+  public long newPing() {
+    long id = pingSequence.incrementAndGet();
+    pings.put(id, System.nanoTime());
+    // Ответы старше пары сотен ping-ов уже не нужны
+    pings.remove(id - 256);
+    return id;
+  }
+
+  public void recordPong(String sessionId, long pingId) {
+    Long sentAt = pings.get(pingId);
+    if (sentAt != null) {
+      recordRtt(sessionId, (System.nanoTime() - sentAt) / 1_000_000);
+    }
+  }
+
+  public void recordRtt(String sessionId, long rttMs) {
+    Session session = sessions.get(sessionId);
+    if (session != null) {
+      session.update(Math.max(0, rttMs), alpha);
+    }
+  }
+
+  /**
+   * Сглаженный RTT игрока в миллисекундах; null, если еще не измерен.
+   */
+  public Integer latencyMs(String username) {
+    Set<Session> userSessions = sessionsByUser.get(username);
+    if (userSessions == null) {
+      return null;
+    }
+    double best = -1;
+    for (Session session : userSessions) {
+      double rtt = session.rtt;
+      if (rtt >= 0 && (best < 0 || rtt < best)) {
+        best = rtt;
+      }
+    }
+    return best < 0 ? null : (int) Math.round(best);
+  }
+
+  /**
+   * Сколько миллисекунд не списывать с часов игрока за ход.
+   */
+  public long lagCredit(String username) {
+    Integer latency = latencyMs(username);
+    return latency == null ? 0 : Math.min(maxCreditMs, latency);
+  }
+
+  /**
+   * Учесть фактически возвращенное время: для статистики.
+   */
+  public void recordCompensation(long creditMs) {
+    if (creditMs > 0) {
+      compensatedMoves.incrementAndGet();
+      compensatedMs.addAndGet(creditMs);
+    }
+  }
+
+  public LatencyStats getStats() {
+    int measured = 0;
+    double sum = 0;
+    double max = 0;
+    for (Session session : sessions.values()) {
+      double rtt = session.rtt;
+      if (rtt >= 0) {
+        measured++;
+        sum += rtt;
+        max = Math.max(max, rtt);
+      }
+    }
+    return new LatencyStats(sessions.size(), measured, measured > 0 ? sum / measured : null,
+        measured > 0 ? max : null, compensatedMoves.get(), compensatedMs.get());
+  }
+
+  private static final class Session {
+    private final String username;
+    private volatile double rtt = -1;
+
+    Session(String username) {
+      this.username = username;
+    }
+
+    synchronized void update(long sample, double alpha) {
+      rtt = rtt < 0 ? sample : rtt + alpha * (sample - rtt);
+    }
+  }
+}
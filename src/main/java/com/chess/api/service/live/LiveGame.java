@@ -0,0 +1,61 @@
+package com.chess.api.service.live;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+/**
+ * Состояние идущей партии в памяти. Доска меняется только под монитором
+ * этого объекта (см. {@link com.chess.api.service.ChessGameService#makeMove});
+ * читать ее из других потоков нельзя - для чтения есть {@code Game.currentFen}
+ * и {@link #getFen()}.
+ */
+public class LiveGame {
+
+  private final Long gameId;
+  private final Board board;
+  private final DrawTracker draws;
+  private final PremoveQueue premoves = new PremoveQueue();
+  // Позиция после последнего хода - для сверки со строкой партии без монитора
+  private volatile String fen;
+
+  public LiveGame(Long gameId, Board board) {
+    this(gameId, board, DrawTracker.of(board));
+  }
+
+  public LiveGame(Long gameId, Board board, DrawTracker draws) {
+    this.gameId = gameId;
+    this.board = board;
+    this.draws = draws;
+    this.fen = board.getFen();
+  }
+
+  /**
+   * Сделать легальный ход и учесть его в ничейных правилах.
+   */
+  public void play(Move move) {
+    boolean irreversible = DrawTracker.isIrreversible(board, move);
+    board.doMove(move);
+    draws.onMove(board, irreversible);
+    fen = board.getFen();
+  }
+
+  public Long getGameId() {
+    return gameId;
+  }
+
+  public String getFen() {
+    return fen;
+  }
+
+  public Board getBoard() {
+    return board;
+  }
+
+  public DrawTracker getDraws() {
+    return draws;
+  }
+
+  public PremoveQueue getPremoves() {
+    return premoves;
+  }
+}
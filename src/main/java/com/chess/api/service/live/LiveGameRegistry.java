@@ -0,0 +1,66 @@
+package com.chess.api.service.live;
+
+import com.chess.api.model.Game;
+import com.chess.api.service.event.GameFinishedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Идущие партии в памяти. Партия, которой здесь нет (запуск без восстановления,
+ * вытеснение после отката транзакции), восстанавливается при первом обращении.
+ * <p>
+ * Доска в памяти сверяется со строкой партии при каждом обращении: если в базе партия
+ * ушла дальше или в другую позицию (ход сделан на другом узле, пока партия была там),
+ * доска восстанавливается заново. Доска впереди строки не трогается - такую строку
+ * прочитали до фиксации хода этого узла, и запись по ней отобьет версия партии.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveGameRegistry {
+
+  private final ConcurrentHashMap<Long, LiveGame> games = new ConcurrentHashMap<>();
+  private final GameRehydrator rehydrator;
+
+  public LiveGame get(Game game) {
+    LiveGame live = games.computeIfAbsent(game.getId(), id -> rehydrator.rehydrate(game));
+    if (isCurrent(live, game.getCurrentFen())) {
+      return live;
+    }
+    log.info("Партия {}: доска в памяти разошлась с базой, восстанавливается", game.getId());
+    LiveGame fresh = rehydrator.rehydrate(game);
+    games.put(game.getId(), fresh);
+    return fresh;
+  }
+
+  private static boolean isCurrent(LiveGame live, String currentFen) {
+    String fen = live.getFen();
+    return currentFen == null
+        || GameRehydrator.samePosition(fen, currentFen)
+        || GameRehydrator.ply(fen) > GameRehydrator.ply(currentFen);
+  }
+
+  /**
+   * @return false, если партия уже в памяти - тогда ее состояние новее
+   */
+  public boolean register(LiveGame game) {
+    return games.putIfAbsent(game.getGameId(), game) == null;
+  }
+
+  public void evict(Long gameId) {
+    games.remove(gameId);
+  }
+
+  public int size() {
+    return games.size();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameFinished(GameFinishedEvent event) {
+    evict(event.gameId());
+  }
+}
@@ -0,0 +1,231 @@
+package com.chess.api.service.live;
+
+import com.chess.api.model.Move;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.cluster.GameOwnership;
+import com.github.bhlangonijr.chesslib.Side;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Восстановление идущих партий при запуске: доски в {@link LiveGameRegistry} и часы.
+ * <p>
+ * Партии читаются пачками по id. Для каждой {@link GameRehydrator#plan} говорит, какие
+ * ходы нужны; ходы всей пачки берутся одним запросом, доски переигрываются параллельно.
+ * Часы продолжаются с остатков последнего хода за вычетом времени, прошедшего с него.
+ * В кластере узел поднимает только свои партии; тем же путем он забирает партии
+ * ушедшего узла.
+ */
+@Component
+@Slf4j
+public class LiveGameRestoreJob implements ApplicationRunner {
+
+  private static final String GAMES_SQL = "SELECT id, initial_fen, current_fen, snapshots, time_control, " +
+      "time_increment, white_time_left, black_time_left, started_at FROM games WHERE status = 'ACTIVE' AND id > ? ORDER BY id LIMIT ?";
+
+  private static final String MOVES_SQL = "SELECT game_id, move_number, from_square, to_square, promotion, " +
+      "white_time_left, black_time_left, timestamp FROM moves WHERE %s ORDER BY game_id, move_number";
+
+  private static final String MOVES_RANGE = "(game_id = ? AND move_number BETWEEN ? AND ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final GameRehydrator rehydrator;
+  private final LiveGameRegistry registry;
+  private final ChessGameService chessGameService;
+  private final GameOwnership ownership;
+  private final boolean runOnStartup;
+  private final int parallelism;
+  private final int chunkSize;
+
+  public LiveGameRestoreJob(JdbcTemplate jdbcTemplate,
+                            GameRehydrator rehydrator,
+                            LiveGameRegistry registry,
+                            ChessGameService chessGameService,
+                            GameOwnership ownership,
+                            @Value("${chess.live.restore.on-startup:true}") boolean runOnStartup,
+                            @Value("${chess.live.restore.parallelism:0}") int parallelism,
+                            @Value("${chess.live.restore.chunk-size:500}") int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.rehydrator = rehydrator;
+    this.registry = registry;
+    this.chessGameService = chessGameService;
+    this.ownership = ownership;
+    this.runOnStartup = runOnStartup;
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.chunkSize = Math.max(1, chunkSize);
+  }
+
+  public record Summary(long games, long replayedMoves, Duration duration) {
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (runOnStartup) {
+      restore(ownership::isLocal);
+    }
+  }
+
+  /**
+   * @param filter какие из идущих партий поднимать
+   */
+  public Summary restore(Predicate<Long> filter) {
+    long started = System.nanoTime();
+    long games = 0;
+    long replayed = 0;
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      long afterId = 0;
+      while (true) {
+        List<PendingGame> chunk = loadGames(afterId);
+        if (chunk.isEmpty()) {
+          break;
+        }
+        afterId = chunk.get(chunk.size() - 1).id;
+        chunk.removeIf(game -> !filter.test(game.id));
+        if (chunk.isEmpty()) {
+          continue;
+        }
+        loadMoves(chunk);
+        replayed += restoreChunk(chunk, executor);
+        games += chunk.size();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Summary summary = new Summary(games, replayed, Duration.ofNanos(System.nanoTime() - started));
+    log.info("Идущие партии восстановлены: {}", summary);
+    return summary;
+  }
+
+  private long restoreChunk(List<PendingGame> chunk, ExecutorService executor) {
+    int slices = Math.min(parallelism, chunk.size());
+    int sliceSize = (chunk.size() + slices - 1) / slices;
+    List<Future<Long>> futures = new ArrayList<>(slices);
+    for (int start = 0; start < chunk.size(); start += sliceSize) {
+      List<PendingGame> slice = chunk.subList(start, Math.min(chunk.size(), start + sliceSize));
+      futures.add(executor.submit(() -> {
+        long moves = 0;
+        for (PendingGame game : slice) {
+          try {
+            restoreGame(game);
+            moves += game.plan.lastPly() - game.plan.basePly();
+          } catch (Exception e) {
+            log.error("Не удалось восстановить партию {}", game.id, e);
+          }
+        }
+        return moves;
+      }));
+    }
+
+    long replayed = 0;
+    try {
+      for (Future<Long> future : futures) {
+        replayed += future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Восстановление партий прервано", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Ошибка восстановления партий", e.getCause());
+    }
+    return replayed;
+  }
+
+  private void restoreGame(PendingGame game) {
+    LiveGame live = rehydrator.rehydrate(game.id, game.currentFen, game.plan, game.moves);
+    if (!registry.register(live)) {
+      // Партию уже восстановил ход, сделанный во время запуска, - его часы новее
+      return;
+    }
+    Side sideToMove = live.getBoard().getSideToMove();
+    Move last = game.moves.isEmpty() ? null : game.moves.get(game.moves.size() - 1);
+    int[] clocks;
+    if (last != null && last.getMoveNumber() == game.plan.lastPly() && last.getWhiteTimeLeft() != null) {
+      clocks = GameRehydrator.restoreClocks(last.getWhiteTimeLeft(), last.getBlackTimeLeft(),
+          sideToMove, last.getTimestamp(), LocalDateTime.now());
+    } else {
+      clocks = GameRehydrator.restoreClocks(game.whiteTimeLeft, game.blackTimeLeft,
+          sideToMove, game.plan.lastPly() == 0 ? game.startedAt : null, LocalDateTime.now());
+    }
+    chessGameService.resumeGameTimer(game.id, clocks[0], clocks[1], game.increment, sideToMove);
+  }
+
+  private List<PendingGame> loadGames(long afterId) {
+    List<PendingGame> games = new ArrayList<>(chunkSize);
+    jdbcTemplate.query(GAMES_SQL, rs -> {
+      PendingGame game = new PendingGame();
+      game.id = rs.getLong("id");
+      game.currentFen = rs.getString("current_fen");
+      game.plan = rehydrator.plan(rs.getString("initial_fen"), game.currentFen, rs.getString("snapshots"));
+      game.increment = rs.getInt("time_increment");
+      int fullTime = rs.getInt("time_control") * 1000;
+      Integer white = (Integer) rs.getObject("white_time_left");
+      Integer black = (Integer) rs.getObject("black_time_left");
+      game.whiteTimeLeft = white != null ? white : fullTime;
+      game.blackTimeLeft = black != null ? black : fullTime;
+      Timestamp startedAt = rs.getTimestamp("started_at");
+      game.startedAt = startedAt != null ? startedAt.toLocalDateTime() : null;
+      games.add(game);
+    }, afterId, chunkSize);
+    return games;
+  }
+
+  private void loadMoves(List<PendingGame> chunk) {
+    Map<Long, PendingGame> byId = new HashMap<>(chunk.size() * 2);
+    List<Object> args = new ArrayList<>(chunk.size() * 3);
+    for (PendingGame game : chunk) {
+      if (game.plan.lastPly() > 0) {
+        byId.put(game.id, game);
+        args.add(game.id);
+        args.add(game.plan.fromMove());
+        args.add(game.plan.lastPly());
+      }
+    }
+    if (byId.isEmpty()) {
+      return;
+    }
+    String sql = String.format(MOVES_SQL, String.join(" OR ", Collections.nCopies(byId.size(), MOVES_RANGE)));
+    jdbcTemplate.query(sql, rs -> {
+      Move move = new Move();
+      move.setMoveNumber(rs.getInt("move_number"));
+      move.setFromSquare(rs.getString("from_square"));
+      move.setToSquare(rs.getString("to_square"));
+      move.setPromotion(rs.getString("promotion"));
+      move.setWhiteTimeLeft((Integer) rs.getObject("white_time_left"));
+      move.setBlackTimeLeft((Integer) rs.getObject("black_time_left"));
+      Timestamp timestamp = rs.getTimestamp("timestamp");
+      move.setTimestamp(timestamp != null ? timestamp.toLocalDateTime() : null);
+      byId.get(rs.getLong("game_id")).moves.add(move);
+    }, args.toArray());
+  }
+
+  private static final class PendingGame {
+    private long id;
+    private String currentFen;
+    private GameRehydrator.Plan plan;
+    private int increment;
+    private int whiteTimeLeft;
+    private int blackTimeLeft;
+    private LocalDateTime startedAt;
+    private final List<Move> moves = new ArrayList<>();
+  }
+}
@@ -0,0 +1,45 @@
+package com.chess.api.service.live;
+
+import com.chess.api.dto.MoveRequest;
+import com.github.bhlangonijr.chesslib.Side;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Предходы обеих сторон партии. Очередь пишется из потоков WebSocket,
+ * а читается при ходе соперника, поэтому методы синхронизированы.
+ */
+public class PremoveQueue {
+
+  private final ArrayDeque<MoveRequest> white = new ArrayDeque<>();
+  private final ArrayDeque<MoveRequest> black = new ArrayDeque<>();
+
+  /**
+   * @return false, если очередь стороны уже заполнена
+   */
+  public synchronized boolean offer(Side side, MoveRequest move, int maxDepth) {
+    ArrayDeque<MoveRequest> queue = of(side);
+    if (queue.size() >= maxDepth) {
+      return false;
+    }
+    queue.addLast(move);
+    return true;
+  }
+
+  public synchronized MoveRequest poll(Side side) {
+    return of(side).pollFirst();
+  }
+
+  public synchronized void clear(Side side) {
+    of(side).clear();
+  }
+
+  public synchronized List<MoveRequest> list(Side side) {
+    return List.copyOf(of(side));
+  }
+
+  private ArrayDeque<MoveRequest> of(Side side) {
+    return side == Side.WHITE ? white : black;
+  }
+}
@@ -0,0 +1,27 @@
+package com.chess.api.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Рассылка в {@code /topic/game/{id}}: сериализация Jackson и передача брокеру
+ * идут в вызывающем потоке, запись в сокеты - уже в {@code clientOutboundChannel}.
+ */
+@Name("chess.Broadcast")
+@Label("Рассылка партии")
+@Category({"Chess", "WebSocket"})
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+  @Label("Партия")
+  public long gameId;
+
+  @Label("Тип сообщения")
+  public String type;
+
+  @Label("Полуход")
+  public int ply;
+}
@@ -0,0 +1,39 @@
+package com.chess.api.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Проверка флажка или передача хода в {@code GameTimerImpl}. Проверки идут раз в
+ * секунду на каждую партию, поэтому по умолчанию пишутся только долгие - те, что
+ * ждали блокировку таймера.
+ */
+@Name("chess.Clock")
+@Label("Часы партии")
+@Category({"Chess", "Clock"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class ClockEvent extends Event {
+
+  @Label("Партия")
+  public long gameId;
+
+  @Label("Операция")
+  public String operation; // TICK или SWITCH
+
+  @Label("Сторона")
+  public String side;
+
+  @Label("Остаток, мс")
+  public long timeLeftMs;
+
+  @Label("Компенсация, мс")
+  public long lagCreditMs;
+
+  @Label("Флажок")
+  public boolean flagged;
+}
@@ -0,0 +1,140 @@
+package com.chess.api.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики горячих путей для {@code /actuator/prometheus}.
+ * <p>
+ * Таймеры публикуют гистограммы, перцентили считает Prometheus. При
+ * {@code chess.metrics.enabled=false} ничего не регистрируется, а {@link #start()}
+ * не читает часы: замеры сводятся к проверке одного поля.
+ */
+@Component
+public class GameMetrics {
+
+  public enum MoveStage {
+    LOAD, VALIDATE, PERSIST, BROADCAST
+  }
+
+  private final MeterRegistry registry;
+  private final boolean enabled;
+  private final Map<MoveStage, Timer> moveStages = new EnumMap<>(MoveStage.class);
+  private final Timer flagDelay;
+  private final Timer jwtFilter;
+  private final Timer outboundSend;
+  private final Map<String, DistributionSummary> sqlStatements = new ConcurrentHashMap<>();
+
+  public GameMetrics(MeterRegistry registry, @Value("${chess.metrics.enabled:true}") boolean enabled) {
+    this.registry = registry;
+    this.enabled = enabled;
+    if (!enabled) {
+      flagDelay = null;
+      jwtFilter = null;
+      outboundSend = null;
+      return;
+    }
+    for (MoveStage stage : MoveStage.values()) {
+      moveStages.put(stage, timer("chess.move.stage", "Этапы обработки хода", "stage", stage.name().toLowerCase()));
+    }
+    flagDelay = timer("chess.clock.flag.delay", "Опоздание флажка относительно истечения времени");
+    jwtFilter = timer("chess.jwt.filter", "Разбор JWT и загрузка пользователя в фильтре");
+    outboundSend = timer("chess.websocket.outbound.send", "Запись сообщения клиенту из clientOutboundChannel");
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Начало замера; 0, если метрики выключены.
+   */
+  public long start() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  public void moveStage(MoveStage stage, long start) {
+    if (enabled) {
+      moveStages.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public void flagDelay(long delayMs) {
+    if (enabled) {
+      flagDelay.record(Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public void jwtFilter(long start) {
+    if (enabled) {
+      jwtFilter.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public void outboundSend(long start) {
+    if (enabled) {
+      outboundSend.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Число SQL-запросов одного HTTP-запроса или STOMP-кадра.
+   */
+  public void sqlStatements(String endpoint, int count) {
+    if (enabled) {
+      sqlStatements.computeIfAbsent(endpoint, key -> DistributionSummary.builder("chess.sql.statements")
+              .description("SQL-запросы на запрос или кадр")
+              .tag("endpoint", key)
+              .publishPercentileHistogram()
+              .register(registry))
+          .record(count);
+    }
+  }
+
+  /**
+   * Счетчики попаданий и промахов кеша {@code name}.
+   */
+  public CacheMetrics cache(String name) {
+    if (!enabled) {
+      return CacheMetrics.NONE;
+    }
+    return new CacheMetrics(
+        Counter.builder("chess.cache.requests").tag("cache", name).tag("result", "hit").register(registry),
+        Counter.builder("chess.cache.requests").tag("cache", name).tag("result", "miss").register(registry));
+  }
+
+  private Timer timer(String name, String description, String... tags) {
+    return Timer.builder(name)
+        .description(description)
+        .tags(tags)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  public static final class CacheMetrics {
+    static final CacheMetrics NONE = new CacheMetrics(null, null);
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private CacheMetrics(Counter hits, Counter misses) {
+      this.hits = hits;
+      this.misses = misses;
+    }
+
+    public void record(boolean hit) {
+      if (hits != null) {
+        (hit ? hits : misses).increment();
+      }
+    }
+  }
+}
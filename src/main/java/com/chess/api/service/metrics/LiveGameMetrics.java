@@ -0,0 +1,81 @@
+package com.chess.api.service.metrics;
+
+import com.chess.api.dto.LatencyStats;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.live.LiveGameRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Состояние в памяти: идущие партии, часы и задержка сессий. Значения читаются
+ * только при опросе {@code /actuator/prometheus}.
+ */
+@Component
+public class LiveGameMetrics implements MeterBinder {
+
+  private final GameMetrics metrics;
+  private final LiveGameRegistry liveGames;
+  private final ChessGameService chessGameService;
+  private final LatencyTracker latencyTracker;
+  private final ObjectProvider<ThreadPoolTaskExecutor> outboundExecutor;
+
+  // Исполнитель канала создается конфигурацией STOMP; берем его при опросе, а не при запуске
+  public LiveGameMetrics(GameMetrics metrics,
+                         LiveGameRegistry liveGames,
+                         ChessGameService chessGameService,
+                         LatencyTracker latencyTracker,
+                         @Qualifier("clientOutboundChannelExecutor")
+                         ObjectProvider<ThreadPoolTaskExecutor> outboundExecutor) {
+    this.metrics = metrics;
+    this.liveGames = liveGames;
+    this.chessGameService = chessGameService;
+    this.latencyTracker = latencyTracker;
+    this.outboundExecutor = outboundExecutor;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (!metrics.isEnabled()) {
+      return;
+    }
+    Gauge.builder("chess.games.live", liveGames, LiveGameRegistry::size)
+        .description("Партии с доской в памяти")
+        .register(registry);
+    Gauge.builder("chess.clocks.active", chessGameService, ChessGameService::getActiveClockCount)
+        .description("Идущие таймеры партий")
+        .register(registry);
+    Gauge.builder("chess.websocket.sessions.rtt", latencyTracker, tracker -> rtt(tracker.getStats()))
+        .description("Средний сглаженный RTT сессий, мс")
+        .register(registry);
+    FunctionCounter.builder("chess.lag.compensated", latencyTracker, tracker -> tracker.getStats().getCompensatedMs())
+        .description("Возвращено игрокам за задержку сети, мс")
+        .register(registry);
+    Gauge.builder("chess.websocket.outbound.queue", this, LiveGameMetrics::outboundQueueSize)
+        .description("Сообщения в очереди clientOutboundChannel")
+        .register(registry);
+  }
+
+  private double outboundQueueSize() {
+    ThreadPoolTaskExecutor executor = outboundExecutor.getIfAvailable();
+    if (executor == null) {
+      return Double.NaN;
+    }
+    try {
+      return executor.getThreadPoolExecutor().getQueue().size();
+    } catch (IllegalStateException e) {
+      // Исполнитель еще не инициализирован или уже остановлен
+      return Double.NaN;
+    }
+  }
+
+  private static double rtt(LatencyStats stats) {
+    return stats.getAverageRttMs() == null ? Double.NaN : stats.getAverageRttMs();
+  }
+}
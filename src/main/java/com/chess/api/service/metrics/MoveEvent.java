@@ -0,0 +1,44 @@
+package com.chess.api.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ход целиком, от проверки до сохранения; длительность события - весь ход,
+ * поля - его этапы. Ожидание блокировки сервиса сюда не входит, его показывает
+ * стандартное {@code jdk.JavaMonitorEnter}.
+ */
+@Name("chess.Move")
+@Label("Ход")
+@Category({"Chess", "Game"})
+@StackTrace(false)
+public class MoveEvent extends Event {
+
+  @Label("Партия")
+  public long gameId;
+
+  @Label("Полуход")
+  public int ply;
+
+  @Label("Проверка")
+  @Timespan(Timespan.NANOSECONDS)
+  public long validate;
+
+  @Label("Часы")
+  @Timespan(Timespan.NANOSECONDS)
+  public long clock;
+
+  @Label("Сохранение")
+  @Timespan(Timespan.NANOSECONDS)
+  public long persist;
+
+  @Label("Проверка окончания")
+  @Description("Мат, пат, ничейные правила и таблицы")
+  @Timespan(Timespan.NANOSECONDS)
+  public long gameEnd;
+}
@@ -0,0 +1,32 @@
+package com.chess.api.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Запись хода и партии через репозитории.
+ */
+@Name("chess.SaveMove")
+@Label("Сохранение хода")
+@Category({"Chess", "Database"})
+@StackTrace(false)
+public class SaveMoveEvent extends Event {
+
+  @Label("Партия")
+  public long gameId;
+
+  @Label("Полуход")
+  public int ply;
+
+  @Label("Ход")
+  @Timespan(Timespan.NANOSECONDS)
+  public long moveSave;
+
+  @Label("Партия")
+  @Timespan(Timespan.NANOSECONDS)
+  public long gameSave;
+}
@@ -0,0 +1,46 @@
+package com.chess.api.service.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Подсчет SQL на HTTP-запрос. Стоит раньше фильтров безопасности, чтобы в счет
+ * вошла загрузка пользователя по JWT.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SqlCountingFilter extends OncePerRequestFilter {
+
+  private final SqlStatementCounter counter;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    // Область уже открыта вызывающим, например тестом бюджета
+    if (counter.isOpen()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    try (SqlStatementCounter.Scope scope = counter.open(request.getMethod() + " " + request.getRequestURI())) {
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        // И при исключении: иначе счет уйдет под сырой URI с id и раздует теги метрики
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        scope.setEndpoint(request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED"));
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.chess.api.service.metrics;
+
+import com.chess.api.exception.SqlBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Число SQL-запросов на HTTP-запрос или STOMP-кадр.
+ * <p>
+ * Hibernate передает сюда каждый подготавливаемый запрос. Пока в потоке открыт
+ * {@link Scope}, запросы считаются по тексту: если их больше {@code warn-threshold},
+ * в лог попадает самый частый - при N+1 это он и есть. Запросы вне области
+ * (фоновые задачи) не считаются.
+ */
+@Slf4j
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+  private final GameMetrics metrics;
+  private final int warnThreshold;
+  private final boolean failOverThreshold;
+  private final double logSampleRate;
+
+  public SqlStatementCounter(GameMetrics metrics,
+                             @Value("${chess.sql.warn-threshold:30}") int warnThreshold,
+                             @Value("${chess.sql.fail-over-threshold:false}") boolean failOverThreshold,
+                             @Value("${chess.sql.log-sample-rate:0}") double logSampleRate) {
+    this.metrics = metrics;
+    this.warnThreshold = warnThreshold;
+    this.failOverThreshold = failOverThreshold;
+    this.logSampleRate = logSampleRate;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    Scope scope = CURRENT.get();
+    if (scope != null) {
+      scope.add(sql);
+    }
+    if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+      log.info("SQL [{}]: {}", scope != null ? scope.endpoint : "-", sql);
+    }
+    return sql;
+  }
+
+  /**
+   * Открыта ли область в текущем потоке.
+   */
+  public boolean isOpen() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * Начать подсчет в текущем потоке; вложенные области не поддерживаются.
+   */
+  public Scope open(String endpoint) {
+    if (CURRENT.get() != null) {
+      throw new IllegalStateException("Подсчет SQL уже идет: " + CURRENT.get().endpoint);
+    }
+    Scope scope = new Scope(endpoint);
+    CURRENT.set(scope);
+    return scope;
+  }
+
+  public final class Scope implements AutoCloseable {
+
+    private final Map<String, Integer> statements = new HashMap<>();
+    private String endpoint;
+    private int count;
+    private boolean closed;
+
+    private Scope(String endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    private void add(String sql) {
+      count++;
+      statements.merge(sql, 1, Integer::sum);
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * Точка входа известна не сразу: шаблон пути появляется после выбора контроллера.
+     */
+    public void setEndpoint(String endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      CURRENT.remove();
+      metrics.sqlStatements(endpoint, count);
+      if (count <= warnThreshold) {
+        return;
+      }
+      Map.Entry<String, Integer> top = statements.entrySet().stream()
+          .max(Map.Entry.comparingByValue())
+          .orElseThrow();
+      String message = String.format("%s: %d SQL-запросов при пороге %d; чаще всего (%d раз): %s",
+          endpoint, count, warnThreshold, top.getValue(), top.getKey());
+      if (failOverThreshold) {
+        throw new SqlBudgetExceededException(message);
+      }
+      log.warn(message);
+    }
+  }
+}
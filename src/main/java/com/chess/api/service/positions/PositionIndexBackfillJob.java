@@ -0,0 +1,204 @@
+package com.chess.api.service.positions;
+
+import com.chess.api.engine.MoveNotation;
+import com.github.bhlangonijr.chesslib.Board;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Полное построение индекса позиций по архиву ходов.
+ * <p>
+ * Партии берутся диапазонами id, ходы диапазона - одним запросом. Партии диапазона
+ * переигрываются параллельно, вхождения сливаются по ключу и пишутся через
+ * {@link PositionIndexWriter}. Учитываются ходы, сделанные до старта; более поздние
+ * добавляет обработчик хода. Повторное вхождение безвредно - списки без повторов.
+ * Запуск: {@code --chess.position-index.backfill.on-startup=true}.
+ */
+@Component
+@Slf4j
+public class PositionIndexBackfillJob implements ApplicationRunner {
+
+  private static final String GAMES_SQL = "SELECT id, initial_fen FROM games WHERE id >= ? AND id < ?";
+
+  private static final String MOVES_SQL = "SELECT game_id, move_number, from_square, to_square, promotion " +
+      "FROM moves WHERE game_id >= ? AND game_id < ? AND timestamp < ? ORDER BY game_id, move_number";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PositionIndexWriter writer;
+  private final boolean runOnStartup;
+  private final int parallelism;
+  private final int chunkSize;
+
+  public PositionIndexBackfillJob(JdbcTemplate jdbcTemplate,
+                                  PositionIndexWriter writer,
+                                  @Value("${chess.position-index.backfill.on-startup:false}") boolean runOnStartup,
+                                  @Value("${chess.position-index.backfill.parallelism:0}") int parallelism,
+                                  @Value("${chess.position-index.backfill.chunk-size:2000}") int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.writer = writer;
+    this.runOnStartup = runOnStartup;
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.chunkSize = Math.max(1, chunkSize);
+  }
+
+  public record Summary(long games, long postings, Duration duration) {
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (runOnStartup) {
+      backfill();
+    }
+  }
+
+  public Summary backfill() {
+    long started = System.nanoTime();
+    writer.clear();
+    Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now());
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM games", Long.class);
+    log.info("Построение индекса позиций: партии до id {}, потоков {}", maxId, parallelism);
+
+    long games = 0;
+    long postings = 0;
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      for (long from = 1; maxId != null && from <= maxId; from += chunkSize) {
+        List<ReplayGame> chunk = loadGames(from, from + chunkSize, cutoff);
+        Map<Long, long[]> index = replay(chunk, executor);
+        writer.write(index);
+        games += chunk.size();
+        for (long[] list : index.values()) {
+          postings += list.length;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Summary summary = new Summary(games, postings, Duration.ofNanos(System.nanoTime() - started));
+    log.info("Индекс позиций построен: {}", summary);
+    return summary;
+  }
+
+  private Map<Long, long[]> replay(List<ReplayGame> games, ExecutorService executor) {
+    int slices = Math.min(parallelism, Math.max(1, games.size()));
+    int sliceSize = (games.size() + slices - 1) / slices;
+
+    List<Future<Map<Long, Postings>>> futures = new ArrayList<>(slices);
+    for (int start = 0; start < games.size(); start += sliceSize) {
+      List<ReplayGame> slice = games.subList(start, Math.min(games.size(), start + sliceSize));
+      futures.add(executor.submit(() -> {
+        Map<Long, Postings> index = new HashMap<>();
+        for (ReplayGame game : slice) {
+          try {
+            game.replay(index);
+          } catch (Exception e) {
+            log.warn("Партия {} пропущена при построении индекса: {}", game.id, e.getMessage());
+          }
+        }
+        return index;
+      }));
+    }
+
+    Map<Long, Postings> merged = new HashMap<>();
+    try {
+      for (Future<Map<Long, Postings>> future : futures) {
+        future.get().forEach((key, list) -> merged.merge(key, list, Postings::addAll));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Построение индекса позиций прервано", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Ошибка построения индекса позиций", e.getCause());
+    }
+
+    Map<Long, long[]> sorted = new HashMap<>(merged.size() * 2);
+    merged.forEach((key, list) -> sorted.put(key, list.sorted()));
+    return sorted;
+  }
+
+  private List<ReplayGame> loadGames(long from, long to, Timestamp cutoff) {
+    Map<Long, ReplayGame> games = new LinkedHashMap<>();
+    jdbcTemplate.query(GAMES_SQL, rs -> {
+      games.put(rs.getLong("id"), new ReplayGame(rs.getLong("id"), rs.getString("initial_fen")));
+    }, from, to);
+    jdbcTemplate.query(MOVES_SQL, rs -> {
+      ReplayGame game = games.get(rs.getLong("game_id"));
+      if (game != null) {
+        game.moves.add(new ReplayMove(rs.getInt("move_number"), rs.getString("from_square"),
+            rs.getString("to_square"), rs.getString("promotion")));
+      }
+    }, from, to, cutoff);
+    games.values().removeIf(game -> game.moves.isEmpty());
+    return new ArrayList<>(games.values());
+  }
+
+  private static final class ReplayGame {
+    private final long id;
+    private final String initialFen;
+    private final List<ReplayMove> moves = new ArrayList<>();
+
+    ReplayGame(long id, String initialFen) {
+      this.id = id;
+      this.initialFen = initialFen;
+    }
+
+    void replay(Map<Long, Postings> index) {
+      Board board = new Board();
+      if (initialFen != null) {
+        board.loadFromFen(initialFen);
+      }
+      for (ReplayMove move : moves) {
+        MoveNotation.play(board, move.from(), move.to(), move.promotion());
+        long posting = PostingList.pack(id, move.ply());
+        index.computeIfAbsent(MoveNotation.positionKey(board), key -> new Postings()).add(posting);
+      }
+    }
+  }
+
+  private record ReplayMove(int ply, String from, String to, String promotion) {
+  }
+
+  private static final class Postings {
+    private long[] values = new long[2];
+    private int size;
+
+    void add(long posting) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = posting;
+    }
+
+    Postings addAll(Postings other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.values[i]);
+      }
+      return this;
+    }
+
+    long[] sorted() {
+      long[] result = Arrays.copyOf(values, size);
+      Arrays.sort(result);
+      return result;
+    }
+  }
+}
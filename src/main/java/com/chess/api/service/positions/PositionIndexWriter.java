@@ -0,0 +1,286 @@
+package com.chess.api.service.positions;
+
+import com.chess.api.model.PositionPostingChunk;
+import com.chess.api.util.VarInts;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись индекса позиций: новые вхождения пишутся в транзакции хода в
+ * {@code position_postings_pending} и переносятся в куски пачкой.
+ * <p>
+ * При сбросе для каждой позиции берется ее последний кусок. Если новые вхождения
+ * идут после его последнего вхождения (обычный случай - id партий растут), varint-ы
+ * дописываются в конец неполного куска без раскодирования. Запоздавшие вхождения (долгая
+ * партия, повтор после сбоя) сливаются с куском, в диапазон которого попадают, и со всеми
+ * более новыми: вытесненные вхождения сдвигаются в следующий кусок. Так диапазоны кусков
+ * не пересекаются, и неполным остается только последний. Переполнение уходит в новые куски. Запись в куски и удаление перенесенных строк идут
+ * одной транзакцией, поэтому падение узла посреди сброса ничего не теряет. Сбросы узла
+ * сериализованы монитором; если те же строки забрал другой узел, сброс откатывается.
+ */
+@Component
+public class PositionIndexWriter {
+
+  private static final String CHUNK_COLUMNS = "id, position_key, first_game_id, last_game_id, " +
+      "last_ply, posting_count, data";
+
+  // Последний кусок каждой позиции: нет куска с более поздним последним вхождением
+  private static final String SELECT_LAST_SQL = "SELECT " + CHUNK_COLUMNS + " FROM position_postings p " +
+      "WHERE p.position_key IN (%s) AND NOT EXISTS (SELECT 1 FROM position_postings n " +
+      "WHERE n.position_key = p.position_key AND (n.last_game_id > p.last_game_id " +
+      "OR (n.last_game_id = p.last_game_id AND n.last_ply > p.last_ply)))";
+
+  private static final String SELECT_FROM_SQL = "SELECT " + CHUNK_COLUMNS + " FROM position_postings " +
+      "WHERE position_key = ? AND last_game_id >= ? ORDER BY last_game_id, last_ply";
+
+  private static final String UPDATE_SQL = "UPDATE position_postings SET first_game_id = ?, last_game_id = ?, " +
+      "last_ply = ?, posting_count = ?, data = ? WHERE id = ?";
+
+  private static final String INSERT_SQL = "INSERT INTO position_postings " +
+      "(position_key, first_game_id, last_game_id, last_ply, posting_count, data) VALUES (?, ?, ?, ?, ?, ?)";
+
+  private static final String INSERT_PENDING_SQL =
+      "INSERT INTO position_postings_pending (position_key, posting) VALUES (?, ?)";
+
+  private static final String SELECT_PENDING_SQL =
+      "SELECT id, position_key, posting FROM position_postings_pending ORDER BY id LIMIT ?";
+
+  private static final String DELETE_PENDING_SQL = "DELETE FROM position_postings_pending WHERE id = ?";
+
+  private static final int KEYS_PER_QUERY = 500;
+  private static final int PENDING_PER_FLUSH = 10_000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public PositionIndexWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Записывает вхождение в текущей транзакции - вызывать из транзакции хода.
+   */
+  public void add(long positionKey, long posting) {
+    jdbcTemplate.update(INSERT_PENDING_SQL, positionKey, posting);
+  }
+
+  /**
+   * Еще не перенесенные в куски вхождения позиции, отсортированные.
+   */
+  public long[] buffered(long positionKey) {
+    long[] postings = jdbcTemplate.queryForList(
+            "SELECT posting FROM position_postings_pending WHERE position_key = ?", Long.class, positionKey)
+        .stream()
+        .mapToLong(Long::longValue)
+        .toArray();
+    Arrays.sort(postings);
+    return postings;
+  }
+
+  /**
+   * Переносит ожидающие вхождения в куски пачками по {@value #PENDING_PER_FLUSH}.
+   *
+   * @return сколько вхождений перенесено
+   */
+  public synchronized int flush() {
+    int moved = 0;
+    int batch;
+    do {
+      Integer taken = transactionTemplate.execute(status -> {
+        List<long[]> rows = jdbcTemplate.query(SELECT_PENDING_SQL,
+            (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("position_key"), rs.getLong("posting")},
+            PENDING_PER_FLUSH);
+        if (rows.isEmpty()) {
+          return 0;
+        }
+        List<Object[]> ids = new ArrayList<>(rows.size());
+        for (long[] row : rows) {
+          ids.add(new Object[]{row[0]});
+        }
+        int deleted = Arrays.stream(jdbcTemplate.batchUpdate(DELETE_PENDING_SQL, ids)).sum();
+        if (deleted != rows.size()) {
+          // Часть строк уже перенес другой узел: откатываемся, остаток заберем следующим сбросом
+          status.setRollbackOnly();
+          return 0;
+        }
+        write(group(rows));
+        return rows.size();
+      });
+      batch = taken == null ? 0 : taken;
+      moved += batch;
+    } while (batch == PENDING_PER_FLUSH);
+    return moved;
+  }
+
+  /**
+   * Очищает индекс и ожидающие вхождения: перед полным построением.
+   */
+  public synchronized void clear() {
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.update("DELETE FROM position_postings_pending");
+      jdbcTemplate.update("DELETE FROM position_postings");
+    });
+  }
+
+  private static Map<Long, long[]> group(List<long[]> rows) {
+    Map<Long, Pending> grouped = new HashMap<>();
+    for (long[] row : rows) {
+      grouped.computeIfAbsent(row[1], key -> new Pending()).add(row[2]);
+    }
+    Map<Long, long[]> sorted = new HashMap<>(grouped.size() * 2);
+    grouped.forEach((key, list) -> {
+      long[] postings = list.toArray();
+      Arrays.sort(postings);
+      sorted.put(key, postings);
+    });
+    return sorted;
+  }
+
+  /**
+   * @param postings отсортированные вхождения по ключу позиции; в открытой транзакции
+   *                 пишутся в ней
+   */
+  public synchronized void write(Map<Long, long[]> postings) {
+    List<Long> keys = new ArrayList<>(postings.keySet());
+    for (int from = 0; from < keys.size(); from += KEYS_PER_QUERY) {
+      List<Long> batch = keys.subList(from, Math.min(keys.size(), from + KEYS_PER_QUERY));
+      transactionTemplate.executeWithoutResult(status -> writeBatch(batch, postings));
+    }
+  }
+
+  private void writeBatch(List<Long> keys, Map<Long, long[]> postings) {
+    Map<Long, Chunk> lastChunks = new HashMap<>();
+    String sql = String.format(SELECT_LAST_SQL, String.join(",", Collections.nCopies(keys.size(), "?")));
+    jdbcTemplate.query(sql, rs -> {
+      lastChunks.put(rs.getLong("position_key"), chunk(rs));
+    }, keys.toArray());
+
+    List<Object[]> updates = new ArrayList<>();
+    List<Object[]> inserts = new ArrayList<>();
+    for (Long key : keys) {
+      long[] added = postings.get(key);
+      if (added.length == 0) {
+        continue;
+      }
+      Chunk lastChunk = lastChunks.get(key);
+      long[] rest;
+      if (lastChunk == null) {
+        rest = added;
+      } else if (added[0] > lastChunk.last()) {
+        rest = lastChunk.count() < PositionPostingChunk.MAX_POSTINGS ? append(lastChunk, added, updates) : added;
+      } else {
+        rest = mergeLate(key, added, updates);
+      }
+      for (int start = 0; start < rest.length; start += PositionPostingChunk.MAX_POSTINGS) {
+        int end = Math.min(rest.length, start + PositionPostingChunk.MAX_POSTINGS);
+        long last = rest[end - 1];
+        inserts.add(new Object[]{key, PostingList.gameId(rest[start]), PostingList.gameId(last),
+            PostingList.ply(last), end - start, PostingList.encode(rest, start, end)});
+      }
+    }
+    if (!updates.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+    }
+    if (!inserts.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+    }
+  }
+
+  /**
+   * Дописывает вхождения после последнего вхождения неполного куска.
+   *
+   * @return вхождения, не поместившиеся в кусок, - для новых кусков
+   */
+  private long[] append(Chunk chunk, long[] added, List<Object[]> updates) {
+    int taken = Math.min(PositionPostingChunk.MAX_POSTINGS - chunk.count(), added.length);
+    VarInts.Writer writer = new VarInts.Writer(chunk.data());
+    PostingList.append(writer, chunk.last(), added, 0, taken);
+    long last = added[taken - 1];
+    updates.add(new Object[]{PostingList.gameId(chunk.first()), PostingList.gameId(last), PostingList.ply(last),
+        chunk.count() + taken, writer.toByteArray(), chunk.id()});
+    return Arrays.copyOfRange(added, taken, added.length);
+  }
+
+  /**
+   * Сливает запоздавшие вхождения с куском, чей диапазон их покрывает, и всеми после него.
+   * Куски заполняются заново по порядку, каждый кроме последнего - до полного, поэтому
+   * вытесненные вхождения переходят в следующий кусок, а не расширяют диапазон назад.
+   *
+   * @return вхождения, не поместившиеся в последний кусок, - для новых кусков
+   */
+  private long[] mergeLate(long key, long[] added, List<Object[]> updates) {
+    List<Chunk> covering = new ArrayList<>();
+    jdbcTemplate.query(SELECT_FROM_SQL, rs -> {
+      Chunk chunk = chunk(rs);
+      // Кусок той же партии, но с более ранним полуходом, запоздавших вхождений не покрывает
+      if (chunk.last() >= added[0]) {
+        covering.add(chunk);
+      }
+    }, key, PostingList.gameId(added[0]));
+
+    int existing = 0;
+    for (Chunk chunk : covering) {
+      existing += chunk.count();
+    }
+    long[] stored = new long[existing];
+    int offset = 0;
+    for (Chunk chunk : covering) {
+      System.arraycopy(PostingList.decode(chunk.data(), chunk.count()), 0, stored, offset, chunk.count());
+      offset += chunk.count();
+    }
+    long[] merged = PostingList.merge(stored, added);
+
+    int from = 0;
+    for (Chunk chunk : covering) {
+      if (from == merged.length) {
+        // Только у неполных кусков в середине, которые оставили прежние версии
+        jdbcTemplate.update("DELETE FROM position_postings WHERE id = ?", chunk.id());
+        continue;
+      }
+      int to = Math.min(merged.length, from + PositionPostingChunk.MAX_POSTINGS);
+      long last = merged[to - 1];
+      updates.add(new Object[]{PostingList.gameId(merged[from]), PostingList.gameId(last), PostingList.ply(last),
+          to - from, PostingList.encode(merged, from, to), chunk.id()});
+      from = to;
+    }
+    return Arrays.copyOfRange(merged, from, merged.length);
+  }
+
+  private static Chunk chunk(ResultSet rs) throws SQLException {
+    return new Chunk(rs.getLong("id"),
+        PostingList.pack(rs.getLong("first_game_id"), 0),
+        PostingList.pack(rs.getLong("last_game_id"), rs.getInt("last_ply")),
+        rs.getInt("posting_count"), rs.getBytes("data"));
+  }
+
+  private record Chunk(long id, long first, long last, int count, byte[] data) {
+  }
+
+  private static final class Pending {
+    private long[] postings = new long[4];
+    private int size;
+
+    void add(long posting) {
+      if (size == postings.length) {
+        postings = Arrays.copyOf(postings, size * 2);
+      }
+      postings[size++] = posting;
+    }
+
+    long[] toArray() {
+      return Arrays.copyOf(postings, size);
+    }
+  }
+}
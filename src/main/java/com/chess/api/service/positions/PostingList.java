@@ -0,0 +1,83 @@
+package com.chess.api.service.positions;
+
+import com.chess.api.util.VarInts;
+
+import java.util.Arrays;
+
+/**
+ * Кодирование списка вхождений позиции.
+ * <p>
+ * Вхождение - партия и полуход, упакованные в long ({@code gameId << 16 | ply}), поэтому
+ * сортировка чисел совпадает с сортировкой по партии, затем по полуходу. В байтах каждое
+ * вхождение - два varint: прирост id партии от предыдущего и полуход (для той же партии -
+ * прирост полухода). Соседние партии обычно отличаются на единицы, так что вхождение
+ * занимает 2-3 байта.
+ */
+public final class PostingList {
+
+  private PostingList() {
+  }
+
+  public static long pack(long gameId, int ply) {
+    return gameId << 16 | (ply & 0xFFFF);
+  }
+
+  public static long gameId(long posting) {
+    return posting >>> 16;
+  }
+
+  public static int ply(long posting) {
+    return (int) (posting & 0xFFFF);
+  }
+
+  /**
+   * @param previous последнее вхождение, после которого дописывается {@code sorted}; 0 - с начала
+   */
+  public static void append(VarInts.Writer writer, long previous, long[] sorted, int from, int to) {
+    for (int i = from; i < to; i++) {
+      long posting = sorted[i];
+      long gameDelta = gameId(posting) - gameId(previous);
+      writer.writeUnsigned(gameDelta);
+      writer.writeUnsigned(gameDelta == 0 ? ply(posting) - ply(previous) : ply(posting));
+      previous = posting;
+    }
+  }
+
+  public static byte[] encode(long[] sorted, int from, int to) {
+    VarInts.Writer writer = new VarInts.Writer((to - from) * 3);
+    append(writer, 0, sorted, from, to);
+    return writer.toByteArray();
+  }
+
+  public static long[] decode(byte[] data, int count) {
+    long[] postings = new long[count];
+    VarInts.Reader reader = new VarInts.Reader(data);
+    long gameId = 0;
+    int ply = 0;
+    for (int i = 0; i < count; i++) {
+      long gameDelta = reader.readUnsigned();
+      int value = (int) reader.readUnsigned();
+      gameId += gameDelta;
+      ply = gameDelta == 0 ? ply + value : value;
+      postings[i] = pack(gameId, ply);
+    }
+    return postings;
+  }
+
+  /**
+   * Слияние двух отсортированных списков без повторов.
+   */
+  public static long[] merge(long[] left, long[] right) {
+    long[] result = new long[left.length + right.length];
+    int i = 0;
+    int j = 0;
+    int size = 0;
+    while (i < left.length || j < right.length) {
+      long next = j == right.length || (i < left.length && left[i] <= right[j]) ? left[i++] : right[j++];
+      if (size == 0 || result[size - 1] != next) {
+        result[size++] = next;
+      }
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+}
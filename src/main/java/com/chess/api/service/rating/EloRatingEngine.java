@@ -0,0 +1,43 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.RatingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Классический Эло с постоянным K-фактором. Отклонение и волатильность не меняются.
+ */
+@Component
+@ConditionalOnProperty(name = "chess.rating.engine", havingValue = "elo")
+public class EloRatingEngine implements RatingEngine {
+
+  private final double kFactor;
+
+  public EloRatingEngine(@Value("${chess.rating.elo.k-factor:32}") double kFactor) {
+    this.kFactor = kFactor;
+  }
+
+  @Override
+  public String getName() {
+    return "elo";
+  }
+
+  @Override
+  public RatingState initialState() {
+    return new RatingState(1200, Glicko2RatingEngine.DEFAULT_DEVIATION,
+        Glicko2RatingEngine.DEFAULT_VOLATILITY);
+  }
+
+  @Override
+  public RatingState update(RatingState player, List<RatingOutcome> outcomes) {
+    double change = 0;
+    for (RatingOutcome outcome : outcomes) {
+      double expected = 1.0 / (1.0 + Math.pow(10, (outcome.opponent().rating() - player.rating()) / 400.0));
+      change += kFactor * (outcome.score() - expected);
+    }
+    return new RatingState(player.rating() + change, player.deviation(), player.volatility());
+  }
+}
@@ -0,0 +1,16 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Минимальная проекция завершенной партии для пересчета рейтингов.
+ */
+public record FinishedGameRow(Long whitePlayerId,
+                              Long blackPlayerId,
+                              GameType gameType,
+                              GameResult result,
+                              LocalDateTime finishedAt) {
+}
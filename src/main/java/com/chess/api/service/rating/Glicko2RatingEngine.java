@@ -0,0 +1,135 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.RatingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Glicko-2 по описанию Марка Гликмана (http://www.glicko.net/glicko/glicko2.pdf).
+ */
+@Component
+@ConditionalOnProperty(name = "chess.rating.engine", havingValue = "glicko2", matchIfMissing = true)
+public class Glicko2RatingEngine implements RatingEngine {
+
+  public static final double DEFAULT_DEVIATION = 350.0;
+  public static final double DEFAULT_VOLATILITY = 0.06;
+
+  private static final double SCALE = 173.7178;
+  private static final double CENTER = 1500.0;
+  private static final double EPSILON = 0.000001;
+
+  private final double tau;
+  private final double minDeviation;
+  private final double maxDeviation;
+
+  public Glicko2RatingEngine(@Value("${chess.rating.glicko2.tau:0.5}") double tau,
+                             @Value("${chess.rating.glicko2.min-deviation:30}") double minDeviation,
+                             @Value("${chess.rating.glicko2.max-deviation:350}") double maxDeviation) {
+    this.tau = tau;
+    this.minDeviation = minDeviation;
+    this.maxDeviation = maxDeviation;
+  }
+
+  @Override
+  public String getName() {
+    return "glicko2";
+  }
+
+  @Override
+  public RatingState initialState() {
+    return new RatingState(1200, DEFAULT_DEVIATION, DEFAULT_VOLATILITY);
+  }
+
+  @Override
+  public RatingState update(RatingState player, List<RatingOutcome> outcomes) {
+    if (outcomes.isEmpty()) {
+      return idle(player, 1);
+    }
+
+    double mu = (player.rating() - CENTER) / SCALE;
+    double phi = player.deviation() / SCALE;
+    double sigma = player.volatility();
+
+    double vInverse = 0;
+    double scoreSum = 0;
+    for (RatingOutcome outcome : outcomes) {
+      double muJ = (outcome.opponent().rating() - CENTER) / SCALE;
+      double g = g(outcome.opponent().deviation() / SCALE);
+      double e = 1.0 / (1.0 + Math.exp(-g * (mu - muJ)));
+      vInverse += g * g * e * (1 - e);
+      scoreSum += g * (outcome.score() - e);
+    }
+    double v = 1.0 / vInverse;
+    double delta = v * scoreSum;
+
+    double newSigma = volatility(phi, sigma, v, delta);
+    double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+    double newPhi = 1.0 / Math.sqrt(1.0 / (phiStar * phiStar) + 1.0 / v);
+    double newMu = mu + newPhi * newPhi * scoreSum;
+
+    return new RatingState(CENTER + newMu * SCALE, clampDeviation(newPhi * SCALE), newSigma);
+  }
+
+  @Override
+  public RatingState idle(RatingState player, int periods) {
+    if (periods <= 0) {
+      return player;
+    }
+    double phi = player.deviation() / SCALE;
+    double sigma = player.volatility();
+    double newPhi = Math.sqrt(phi * phi + periods * sigma * sigma);
+    return new RatingState(player.rating(), clampDeviation(newPhi * SCALE), sigma);
+  }
+
+  private double g(double phi) {
+    return 1.0 / Math.sqrt(1.0 + 3.0 * phi * phi / (Math.PI * Math.PI));
+  }
+
+  // Шаг 5: итерационный поиск новой волатильности (метод Иллинойса)
+  private double volatility(double phi, double sigma, double v, double delta) {
+    double a = Math.log(sigma * sigma);
+    double deltaSq = delta * delta;
+    double phiSq = phi * phi;
+
+    double bigA = a;
+    double bigB;
+    if (deltaSq > phiSq + v) {
+      bigB = Math.log(deltaSq - phiSq - v);
+    } else {
+      int k = 1;
+      while (f(a - k * tau, a, deltaSq, phiSq, v) < 0) {
+        k++;
+      }
+      bigB = a - k * tau;
+    }
+
+    double fA = f(bigA, a, deltaSq, phiSq, v);
+    double fB = f(bigB, a, deltaSq, phiSq, v);
+    while (Math.abs(bigB - bigA) > EPSILON) {
+      double bigC = bigA + (bigA - bigB) * fA / (fB - fA);
+      double fC = f(bigC, a, deltaSq, phiSq, v);
+      if (fC * fB <= 0) {
+        bigA = bigB;
+        fA = fB;
+      } else {
+        fA = fA / 2;
+      }
+      bigB = bigC;
+      fB = fC;
+    }
+    return Math.exp(bigA / 2);
+  }
+
+  private double f(double x, double a, double deltaSq, double phiSq, double v) {
+    double ex = Math.exp(x);
+    double denominator = phiSq + v + ex;
+    return ex * (deltaSq - phiSq - v - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+  }
+
+  private double clampDeviation(double deviation) {
+    return Math.max(minDeviation, Math.min(maxDeviation, deviation));
+  }
+}
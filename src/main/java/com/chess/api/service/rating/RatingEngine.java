@@ -0,0 +1,28 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.RatingState;
+
+import java.util.List;
+
+/**
+ * Расчет рейтингов.
+ * <p>
+ * Все партии одного рейтингового периода считаются относительно рейтингов соперников
+ * на начало периода, поэтому игроков внутри периода можно пересчитывать независимо.
+ * Живая партия - это период из одной партии.
+ */
+public interface RatingEngine {
+
+  String getName();
+
+  RatingState initialState();
+
+  RatingState update(RatingState player, List<RatingOutcome> outcomes);
+
+  /**
+   * Состояние игрока, пропустившего {@code periods} рейтинговых периодов.
+   */
+  default RatingState idle(RatingState player, int periods) {
+    return player;
+  }
+}
@@ -0,0 +1,18 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.RatingState;
+import com.chess.api.model.enums.GameResult;
+
+/**
+ * Результат одной партии с точки зрения игрока: рейтинг соперника до партии и набранные очки.
+ */
+public record RatingOutcome(RatingState opponent, double score) {
+
+  public static double whiteScore(GameResult result) {
+    return switch (result) {
+      case WHITE_WIN -> 1.0;
+      case BLACK_WIN -> 0.0;
+      default -> 0.5;
+    };
+  }
+}
@@ -0,0 +1,354 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.RatingState;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.PlayerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Офлайн-пересчет рейтингов всех игроков с нуля.
+ * <p>
+ * Партии читаются потоком в порядке {@code finishedAt} и группируются в рейтинговые периоды.
+ * Внутри периода каждый игрок считается от рейтингов соперников на начало периода,
+ * поэтому игроки периода делятся на разделы и обрабатываются параллельно.
+ * Итоговые рейтинги записываются пакетами через JDBC.
+ * <p>
+ * Запуск: {@code --chess.rating.recompute.on-startup=true} при остановленной игровой нагрузке.
+ */
+@Component
+@Slf4j
+public class RatingRecomputeJob implements ApplicationRunner {
+
+  private static final GameType[] TYPES = GameType.values();
+
+  private static final String UPDATE_SQL = "UPDATE players SET " +
+      "classical_rating = ?, classical_rating_deviation = ?, classical_volatility = ?, " +
+      "rapid_rating = ?, rapid_rating_deviation = ?, rapid_volatility = ?, " +
+      "blitz_rating = ?, blitz_rating_deviation = ?, blitz_volatility = ? " +
+      "WHERE id = ?";
+
+  // Период меньше этого числа игроков считается в вызывающем потоке
+  private static final int PARALLEL_THRESHOLD = 2048;
+
+  private final GameRepository gameRepository;
+  private final PlayerRepository playerRepository;
+  private final RatingEngine ratingEngine;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readTransaction;
+  private final TransactionTemplate writeTransaction;
+
+  private final boolean runOnStartup;
+  private final long periodSeconds;
+  private final int parallelism;
+  private final int batchSize;
+
+  public RatingRecomputeJob(GameRepository gameRepository,
+                            PlayerRepository playerRepository,
+                            RatingEngine ratingEngine,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${chess.rating.recompute.on-startup:false}") boolean runOnStartup,
+                            @Value("${chess.rating.recompute.period:P1D}") Duration period,
+                            @Value("${chess.rating.recompute.parallelism:0}") int parallelism,
+                            @Value("${chess.rating.recompute.batch-size:1000}") int batchSize) {
+    this.gameRepository = gameRepository;
+    this.playerRepository = playerRepository;
+    this.ratingEngine = ratingEngine;
+    this.jdbcTemplate = jdbcTemplate;
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.runOnStartup = runOnStartup;
+    this.periodSeconds = Math.max(1, period.getSeconds());
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.batchSize = batchSize;
+  }
+
+  public record Summary(long games, long periods, int players, Duration duration) {
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (runOnStartup) {
+      recompute();
+    }
+  }
+
+  public Summary recompute() {
+    long started = System.nanoTime();
+    List<Long> playerIds = playerRepository.findAllIds();
+    log.info("Пересчет рейтингов ({}): игроков {}, период {} с, потоков {}",
+        ratingEngine.getName(), playerIds.size(), periodSeconds, parallelism);
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      Recomputation recomputation = new Recomputation(playerIds, executor);
+      readTransaction.executeWithoutResult(status -> {
+        try (Stream<FinishedGameRow> rows = gameRepository.streamRatedGames()) {
+          rows.forEach(recomputation::accept);
+        }
+        recomputation.flushPeriod();
+      });
+
+      writeBack(playerIds, recomputation);
+
+      Summary summary = new Summary(recomputation.games, recomputation.periods, playerIds.size(),
+          Duration.ofNanos(System.nanoTime() - started));
+      log.info("Пересчет рейтингов завершен: {}", summary);
+      return summary;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void writeBack(List<Long> playerIds, Recomputation recomputation) {
+    for (int from = 0; from < playerIds.size(); from += batchSize) {
+      int to = Math.min(playerIds.size(), from + batchSize);
+      List<Object[]> batch = new ArrayList<>(to - from);
+      for (int p = from; p < to; p++) {
+        Object[] args = new Object[TYPES.length * 3 + 1];
+        for (int t = 0; t < TYPES.length; t++) {
+          RatingState state = recomputation.state(t, p);
+          args[t * 3] = state.roundedRating();
+          args[t * 3 + 1] = state.deviation();
+          args[t * 3 + 2] = state.volatility();
+        }
+        args[args.length - 1] = playerIds.get(p);
+        batch.add(args);
+      }
+      writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch));
+    }
+  }
+
+  /**
+   * Состояние одного прогона: рейтинги в плоских массивах по индексу игрока
+   * и буфер партий текущего периода.
+   */
+  private class Recomputation {
+
+    private final Map<Long, Integer> playerIndex;
+    private final ExecutorService executor;
+    private final int playerCount;
+
+    private final double[][] rating;
+    private final double[][] deviation;
+    private final double[][] volatility;
+    private final long[][] lastPeriod;
+
+    // Буфер партий текущего периода
+    private int[] bufferWhite = new int[1024];
+    private int[] bufferBlack = new int[1024];
+    private byte[] bufferType = new byte[1024];
+    private double[] bufferScore = new double[1024];
+    private int bufferSize;
+    private long currentPeriod = -1;
+    private long firstEpochSecond = Long.MIN_VALUE;
+
+    // Рабочие массивы периода, переиспользуются между периодами
+    private final int[] degree;
+    private final int[] offset;
+    private final int[] cursor;
+    private final RatingState[] effective;
+    private final RatingState[] updated;
+
+    private long games;
+    private long periods;
+
+    Recomputation(List<Long> playerIds, ExecutorService executor) {
+      this.executor = executor;
+      this.playerCount = playerIds.size();
+      this.playerIndex = new HashMap<>(playerCount * 2);
+      for (int i = 0; i < playerCount; i++) {
+        playerIndex.put(playerIds.get(i), i);
+      }
+
+      RatingState initial = ratingEngine.initialState();
+      rating = new double[TYPES.length][playerCount];
+      deviation = new double[TYPES.length][playerCount];
+      volatility = new double[TYPES.length][playerCount];
+      lastPeriod = new long[TYPES.length][playerCount];
+      for (int t = 0; t < TYPES.length; t++) {
+        Arrays.fill(rating[t], initial.rating());
+        Arrays.fill(deviation[t], initial.deviation());
+        Arrays.fill(volatility[t], initial.volatility());
+        Arrays.fill(lastPeriod[t], -1);
+      }
+
+      degree = new int[playerCount];
+      offset = new int[playerCount];
+      cursor = new int[playerCount];
+      effective = new RatingState[playerCount];
+      updated = new RatingState[playerCount];
+    }
+
+    RatingState state(int type, int player) {
+      return new RatingState(rating[type][player], deviation[type][player], volatility[type][player]);
+    }
+
+    void accept(FinishedGameRow row) {
+      Integer white = playerIndex.get(row.whitePlayerId());
+      Integer black = playerIndex.get(row.blackPlayerId());
+      if (white == null || black == null || white.equals(black)) {
+        return;
+      }
+
+      long epochSecond = row.finishedAt().toEpochSecond(ZoneOffset.UTC);
+      if (firstEpochSecond == Long.MIN_VALUE) {
+        firstEpochSecond = epochSecond;
+      }
+      long period = (epochSecond - firstEpochSecond) / periodSeconds;
+      if (period != currentPeriod) {
+        flushPeriod();
+        currentPeriod = period;
+      }
+
+      if (bufferSize == bufferWhite.length) {
+        int capacity = bufferSize * 2;
+        bufferWhite = Arrays.copyOf(bufferWhite, capacity);
+        bufferBlack = Arrays.copyOf(bufferBlack, capacity);
+        bufferType = Arrays.copyOf(bufferType, capacity);
+        bufferScore = Arrays.copyOf(bufferScore, capacity);
+      }
+      bufferWhite[bufferSize] = white;
+      bufferBlack[bufferSize] = black;
+      bufferType[bufferSize] = (byte) row.gameType().ordinal();
+      bufferScore[bufferSize] = RatingOutcome.whiteScore(row.result());
+      bufferSize++;
+      games++;
+    }
+
+    void flushPeriod() {
+      if (bufferSize == 0) {
+        return;
+      }
+      for (int t = 0; t < TYPES.length; t++) {
+        processType(t);
+      }
+      bufferSize = 0;
+      periods++;
+    }
+
+    private void processType(int type) {
+      // Степени вершин и список игроков периода
+      List<Integer> touched = new ArrayList<>();
+      int entries = 0;
+      for (int i = 0; i < bufferSize; i++) {
+        if (bufferType[i] != type) {
+          continue;
+        }
+        if (degree[bufferWhite[i]]++ == 0) {
+          touched.add(bufferWhite[i]);
+        }
+        if (degree[bufferBlack[i]]++ == 0) {
+          touched.add(bufferBlack[i]);
+        }
+        entries += 2;
+      }
+      if (touched.isEmpty()) {
+        return;
+      }
+
+      // Списки смежности в CSR: соперник и очки игрока
+      int position = 0;
+      for (int p : touched) {
+        offset[p] = position;
+        cursor[p] = position;
+        position += degree[p];
+      }
+      int[] opponents = new int[entries];
+      double[] scores = new double[entries];
+      for (int i = 0; i < bufferSize; i++) {
+        if (bufferType[i] != type) {
+          continue;
+        }
+        int white = bufferWhite[i];
+        int black = bufferBlack[i];
+        opponents[cursor[white]] = black;
+        scores[cursor[white]++] = bufferScore[i];
+        opponents[cursor[black]] = white;
+        scores[cursor[black]++] = 1.0 - bufferScore[i];
+      }
+
+      // Рейтинги на начало периода с учетом пропущенных периодов
+      runPartitioned(touched, p -> {
+        RatingState state = state(type, p);
+        long idle = lastPeriod[type][p] < 0 ? 0 : currentPeriod - lastPeriod[type][p] - 1;
+        effective[p] = ratingEngine.idle(state, (int) Math.min(Integer.MAX_VALUE, idle));
+      });
+
+      runPartitioned(touched, p -> {
+        List<RatingOutcome> outcomes = new ArrayList<>(degree[p]);
+        for (int e = offset[p]; e < offset[p] + degree[p]; e++) {
+          outcomes.add(new RatingOutcome(effective[opponents[e]], scores[e]));
+        }
+        updated[p] = ratingEngine.update(effective[p], outcomes);
+      });
+
+      for (int p : touched) {
+        RatingState state = updated[p];
+        rating[type][p] = state.rating();
+        deviation[type][p] = state.deviation();
+        volatility[type][p] = state.volatility();
+        lastPeriod[type][p] = currentPeriod;
+        degree[p] = 0;
+        effective[p] = null;
+        updated[p] = null;
+      }
+    }
+
+    private void runPartitioned(List<Integer> players, PlayerTask task) {
+      if (players.size() < PARALLEL_THRESHOLD || parallelism == 1) {
+        players.forEach(task::run);
+        return;
+      }
+
+      int chunk = (players.size() + parallelism - 1) / parallelism;
+      List<Callable<Void>> partitions = new ArrayList<>(parallelism);
+      for (int from = 0; from < players.size(); from += chunk) {
+        List<Integer> partition = players.subList(from, Math.min(players.size(), from + chunk));
+        partitions.add(() -> {
+          partition.forEach(task::run);
+          return null;
+        });
+      }
+
+      try {
+        for (Future<Void> future : executor.invokeAll(partitions)) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Пересчет рейтингов прерван", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Ошибка пересчета рейтингов", e.getCause());
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface PlayerTask {
+    void run(int player);
+  }
+}
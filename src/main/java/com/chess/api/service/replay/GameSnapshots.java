@@ -0,0 +1,59 @@
+package com.chess.api.service.replay;
+
+/**
+ * Контрольные позиции партии в колонке {@code games.snapshots}.
+ * <p>
+ * Формат - строки через перевод строки: первая - интервал K, дальше FEN после
+ * полуходов K, 2K, 3K... Интервал хранится вместе с позициями, поэтому смена
+ * настройки касается только новых партий.
+ */
+public final class GameSnapshots {
+
+  private final int interval;
+  private final String[] fens;
+
+  private GameSnapshots(int interval, String[] fens) {
+    this.interval = interval;
+    this.fens = fens;
+  }
+
+  /**
+   * @param defaultInterval интервал для партии, у которой контрольных позиций еще нет
+   */
+  public static GameSnapshots parse(String snapshots, int defaultInterval) {
+    if (snapshots == null || snapshots.isEmpty()) {
+      return new GameSnapshots(defaultInterval, new String[0]);
+    }
+    String[] lines = snapshots.split("\n");
+    String[] fens = new String[lines.length - 1];
+    System.arraycopy(lines, 1, fens, 0, fens.length);
+    return new GameSnapshots(Integer.parseInt(lines[0]), fens);
+  }
+
+  /**
+   * Дописывает позицию после полухода {@code ply}, если он кратен интервалу и следует
+   * сразу за последней контрольной позицией; иначе возвращает строку без изменений.
+   */
+  public static String append(String snapshots, int defaultInterval, int ply, String fen) {
+    GameSnapshots current = parse(snapshots, defaultInterval);
+    if (ply % current.interval != 0 || ply / current.interval != current.fens.length + 1) {
+      return snapshots;
+    }
+    return (current.fens.length == 0 ? String.valueOf(current.interval) : snapshots) + "\n" + fen;
+  }
+
+  public int getInterval() {
+    return interval;
+  }
+
+  public int size() {
+    return fens.length;
+  }
+
+  /**
+   * Позиция после полухода {@code index * interval}; для index 0 - null (начальная позиция партии).
+   */
+  public String get(int index) {
+    return index == 0 ? null : fens[index - 1];
+  }
+}
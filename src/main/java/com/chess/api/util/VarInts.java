@@ -0,0 +1,114 @@
+package com.chess.api.util;
+
+import java.util.Arrays;
+
+/**
+ * Переменная длина целых (LEB128) и зигзаг-кодирование знаковых значений.
+ */
+public final class VarInts {
+
+  private VarInts() {
+  }
+
+  public static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  public static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Растущий буфер для записи.
+   */
+  public static final class Writer {
+
+    private byte[] buffer;
+    private int size;
+
+    public Writer() {
+      this(64);
+    }
+
+    public Writer(int capacity) {
+      this.buffer = new byte[Math.max(16, capacity)];
+    }
+
+    public Writer(byte[] initial) {
+      this.buffer = Arrays.copyOf(initial, Math.max(16, initial.length + 16));
+      this.size = initial.length;
+    }
+
+    public Writer writeUnsigned(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+      return this;
+    }
+
+    public Writer writeSigned(long value) {
+      return writeUnsigned(zigZag(value));
+    }
+
+    public Writer writeByte(int value) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) value;
+      return this;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+      }
+    }
+  }
+
+  /**
+   * Последовательное чтение из массива.
+   */
+  public static final class Reader {
+
+    private final byte[] data;
+    private int position;
+
+    public Reader(byte[] data) {
+      this.data = data;
+    }
+
+    public boolean hasRemaining() {
+      return position < data.length;
+    }
+
+    public long readUnsigned() {
+      long result = 0;
+      int shift = 0;
+      while (true) {
+        byte b = data[position++];
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+        shift += 7;
+      }
+    }
+
+    public long readSigned() {
+      return unZigZag(readUnsigned());
+    }
+
+    public int readByte() {
+      return data[position++];
+    }
+  }
+}
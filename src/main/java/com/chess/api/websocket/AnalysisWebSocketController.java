@@ -0,0 +1,55 @@
+package com.chess.api.websocket;
+
+import com.chess.api.dto.AnalysisRequest;
+import com.chess.api.service.AnalysisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Анализ позиций: результаты приходят в {@code /user/queue/analysis}.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class AnalysisWebSocketController {
+
+  private final AnalysisService analysisService;
+  private final SimpMessagingTemplate messagingTemplate;
+
+  @MessageMapping("/analysis/start")
+  public void startAnalysis(AnalysisRequest request, Principal principal) {
+    try {
+      analysisService.start(principal.getName(), request);
+    } catch (RuntimeException e) {
+      log.warn("Analysis rejected for {}: {}", principal.getName(), e.getMessage());
+      Map<String, Object> errorResponse = new HashMap<>();
+      errorResponse.put("type", "ANALYSIS_REJECTED");
+      errorResponse.put("message", e.getMessage());
+      messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors", errorResponse);
+    }
+  }
+
+  /**
+   * Клиент ушел со страницы анализа
+   */
+  @MessageMapping("/analysis/stop")
+  public void stopAnalysis(Principal principal) {
+    analysisService.stop(principal.getName());
+  }
+
+  @EventListener
+  public void onDisconnect(SessionDisconnectEvent event) {
+    if (event.getUser() != null) {
+      analysisService.stop(event.getUser().getName());
+    }
+  }
+}
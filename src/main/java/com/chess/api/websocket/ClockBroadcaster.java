@@ -0,0 +1,149 @@
+package com.chess.api.websocket;
+
+import com.chess.api.dto.TimeSyncFrame;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.cluster.ClusterMessage;
+import com.chess.api.service.cluster.GameOwnership;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Часы идущих партий - одним тиком на все партии.
+ * <p>
+ * Кадр TIME_SYNC уходит в {@code /topic/game/{id}} только тем партиям, на которые
+ * кто-то подписан, и только пока их таймер идет. Между кадрами клиент досчитывает
+ * часы ходящей стороны сам, так что стоимость рассылки зависит от числа партий,
+ * а не от того, как часто клиенты обновляют экран.
+ * <p>
+ * В кластере подписчики партии сидят на любых узлах, а часы - на владельце. Узел
+ * каждым тиком сообщает владельцам, на какие их партии подписаны его клиенты (одно
+ * сообщение на владельца), а новую подписку - сразу. Владелец шлет кадры своих
+ * партий по локальным подпискам и по этому интересу, пока тот не устарел.
+ */
+@Component
+public class ClockBroadcaster {
+
+  private static final String GAME_TOPIC = "/topic/game/";
+  // Через сколько тиков без обновления интерес другого узла забывается
+  private static final int INTEREST_TICKS = 3;
+
+  private final ChessGameService chessGameService;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final SimpUserRegistry userRegistry;
+  private final GameOwnership ownership;
+  private final long interestTtlMs;
+  private final Map<String, RemoteInterest> remoteInterest = new ConcurrentHashMap<>();
+
+  public ClockBroadcaster(ChessGameService chessGameService,
+                          SimpMessagingTemplate messagingTemplate,
+                          SimpUserRegistry userRegistry,
+                          GameOwnership ownership,
+                          @Value("${chess.clock.sync-interval-ms:1000}") long syncIntervalMs) {
+    this.chessGameService = chessGameService;
+    this.messagingTemplate = messagingTemplate;
+    this.userRegistry = userRegistry;
+    this.ownership = ownership;
+    this.interestTtlMs = syncIntervalMs * INTEREST_TICKS;
+  }
+
+  @Scheduled(fixedRateString = "${chess.clock.sync-interval-ms:1000}")
+  public void tick() {
+    Set<Long> watched = watchedGames();
+    if (ownership.isEnabled()) {
+      watched = shareInterest(watched);
+    }
+    if (watched.isEmpty()) {
+      return;
+    }
+    for (TimeSyncFrame frame : chessGameService.getClocks(watched)) {
+      messagingTemplate.convertAndSend(GAME_TOPIC + frame.getGameId(), frame);
+    }
+  }
+
+  @EventListener
+  public void onWatchedGames(ClusterMessage.WatchedGames message) {
+    long now = System.currentTimeMillis();
+    remoteInterest.compute(message.nodeId(), (node, current) -> {
+      Set<Long> games = new HashSet<>(message.gameIds());
+      if (!message.complete() && current != null && current.expiresAt() >= now) {
+        games.addAll(current.gameIds());
+      }
+      return new RemoteInterest(games, now + interestTtlMs);
+    });
+  }
+
+  // Новый зритель чужой партии получает часы с ближайшего тика владельца
+  @EventListener
+  public void onSubscribe(SessionSubscribeEvent event) {
+    if (!ownership.isEnabled()) {
+      return;
+    }
+    String destination = SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders());
+    Long gameId = destination != null && destination.startsWith(GAME_TOPIC) ? parseGameId(destination) : null;
+    if (gameId != null) {
+      ownership.forward(gameId, new ClusterMessage.WatchedGames(ownership.getNodeId(), Set.of(gameId), false));
+    }
+  }
+
+  // Свои партии из локальных подписок и интереса других узлов; о чужих узнают их владельцы
+  private Set<Long> shareInterest(Set<Long> local) {
+    Set<Long> own = new HashSet<>();
+    Map<String, Set<Long>> byOwner = new HashMap<>();
+    for (Long gameId : local) {
+      String owner = ownership.ownerOf(gameId);
+      if (owner.equals(ownership.getNodeId())) {
+        own.add(gameId);
+      } else {
+        byOwner.computeIfAbsent(owner, node -> new HashSet<>()).add(gameId);
+      }
+    }
+    byOwner.forEach((owner, games) ->
+        ownership.send(owner, new ClusterMessage.WatchedGames(ownership.getNodeId(), games, true)));
+
+    long now = System.currentTimeMillis();
+    remoteInterest.values().removeIf(interest -> interest.expiresAt() < now);
+    remoteInterest.values().forEach(interest -> own.addAll(interest.gameIds()));
+    return own;
+  }
+
+  private Set<Long> watchedGames() {
+    Set<Long> games = new HashSet<>();
+    for (SimpSubscription subscription : userRegistry.findSubscriptions(s -> s.getDestination().startsWith(GAME_TOPIC))) {
+      Long gameId = parseGameId(subscription.getDestination());
+      if (gameId != null) {
+        games.add(gameId);
+      }
+    }
+    return games;
+  }
+
+  // Только сам топик партии: у вложенных назначений часы не нужны
+  private static Long parseGameId(String destination) {
+    String id = destination.substring(GAME_TOPIC.length());
+    if (id.isEmpty() || id.length() > 18) {
+      return null;
+    }
+    for (int i = 0; i < id.length(); i++) {
+      if (!Character.isDigit(id.charAt(i))) {
+        return null;
+      }
+    }
+    return Long.parseLong(id);
+  }
+
+  private record RemoteInterest(Set<Long> gameIds, long expiresAt) {
+  }
+}
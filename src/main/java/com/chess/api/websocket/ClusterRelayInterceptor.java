@@ -0,0 +1,44 @@
+package com.chess.api.websocket;
+
+import com.chess.api.service.cluster.ClusterMessage;
+import com.chess.api.service.cluster.GameOwnership;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+/**
+ * Рассылка брокера на остальные узлы: подписчики партии могут сидеть на любом из них.
+ * <p>
+ * Копируются кадры в {@code /topic} и {@code /user}; адреса {@code /queue}, в которые
+ * брокер раскрывает {@code /user}, привязаны к сессиям этого узла и не копируются.
+ * Пришедший с другого узла кадр помечен {@link #RELAYED_HEADER} и дальше не идет.
+ */
+@RequiredArgsConstructor
+public class ClusterRelayInterceptor implements ChannelInterceptor {
+
+  public static final String RELAYED_HEADER = "chessClusterRelayed";
+
+  private final GameOwnership ownership;
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    MessageHeaders headers = message.getHeaders();
+    if (headers.containsKey(RELAYED_HEADER)
+        || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+        || !(message.getPayload() instanceof byte[] payload)) {
+      return message;
+    }
+    String destination = SimpMessageHeaderAccessor.getDestination(headers);
+    if (destination == null || !(destination.startsWith("/topic/") || destination.startsWith("/user/"))) {
+      return message;
+    }
+    Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+    ownership.publish(new ClusterMessage.Broadcast(destination,
+        contentType != null ? contentType.toString() : null, payload));
+    return message;
+  }
+}
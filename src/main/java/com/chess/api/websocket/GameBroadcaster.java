@@ -0,0 +1,149 @@
+package com.chess.api.websocket;
+
+import com.chess.api.dto.GameStateUpdate;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.GameService;
+import com.chess.api.service.event.PremoveRejectedEvent;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.metrics.BroadcastEvent;
+import com.chess.api.service.metrics.GameMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Рассылка событий партии подписчикам {@code /topic/game/{id}}.
+ * <p>
+ * Внутри транзакции сообщение уходит только после ее фиксации: ход или сдача,
+ * проигравшие гонку за версию партии, до клиентов не доходят.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameBroadcaster {
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final LatencyTracker latencyTracker;
+  private final GameMetrics metrics;
+  private final GameService gameService;
+
+  public void moveMade(Game game, Move move) {
+    moveMade(game, List.of(move));
+  }
+
+  /**
+   * Ход и выполненный за ним предход - одним сообщением.
+   */
+  public void moveMade(Game game, List<Move> moves) {
+    afterCommit(() -> {
+      long start = metrics.start();
+      GameStateUpdate gameUpdate = new GameStateUpdate();
+      gameUpdate.setType("MOVE_MADE");
+      gameUpdate.setGame(game);
+      gameUpdate.setMove(moves.get(0));
+      gameUpdate.setPremove(moves.size() > 1 ? moves.get(1) : null);
+      gameUpdate.setTimestamp(LocalDateTime.now());
+      fillLatency(gameUpdate, game);
+      sendNow(game.getId(), gameUpdate);
+      metrics.moveStage(GameMetrics.MoveStage.BROADCAST, start);
+
+      if (game.getStatus() != GameStatus.ACTIVE && game.getResult() != null) {
+        sendNow(game.getId(), gameEndedUpdate(game));
+      }
+    });
+  }
+
+  /**
+   * Сдача уже зафиксирована: партия перечитывается, чтобы разослать ее итог.
+   */
+  @Transactional(readOnly = true)
+  public void playerResigned(Long gameId, String username) {
+    Game game = gameService.getGameById(gameId);
+    GameStateUpdate resignUpdate = new GameStateUpdate();
+    resignUpdate.setType("PLAYER_RESIGNED");
+    resignUpdate.setGame(game);
+    resignUpdate.setPlayer(username);
+    resignUpdate.setTimestamp(LocalDateTime.now());
+    send(gameId, resignUpdate);
+  }
+
+  public void gameEnded(Game game) {
+    send(game.getId(), gameEndedUpdate(game));
+  }
+
+  private static GameStateUpdate gameEndedUpdate(Game game) {
+    GameStateUpdate endGameUpdate = new GameStateUpdate();
+    endGameUpdate.setType("GAME_ENDED");
+    endGameUpdate.setGame(game);
+    endGameUpdate.setResult(game.getResult().toString());
+    endGameUpdate.setTimestamp(LocalDateTime.now());
+    return endGameUpdate;
+  }
+
+  /**
+   * Задержка обоих игроков: клиенты показывают ее рядом с часами.
+   */
+  public void fillLatency(GameStateUpdate update, Game game) {
+    if (game.getWhitePlayer() != null) {
+      update.setWhiteLatencyMs(latencyTracker.latencyMs(game.getWhitePlayer().getUsername()));
+    }
+    if (game.getBlackPlayer() != null) {
+      update.setBlackLatencyMs(latencyTracker.latencyMs(game.getBlackPlayer().getUsername()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPremoveRejected(PremoveRejectedEvent event) {
+    Map<String, Object> message = new HashMap<>();
+    message.put("type", "PREMOVE_REJECTED");
+    message.put("gameId", event.gameId());
+    message.put("message", event.reason());
+    messagingTemplate.convertAndSendToUser(event.username(), "/queue/errors", message);
+  }
+
+  public void send(Long gameId, Object payload) {
+    afterCommit(() -> sendNow(gameId, payload));
+  }
+
+  private void sendNow(Long gameId, Object payload) {
+    BroadcastEvent event = new BroadcastEvent();
+    event.begin();
+    messagingTemplate.convertAndSend("/topic/game/" + gameId, payload);
+    event.end();
+    if (event.shouldCommit()) {
+      event.gameId = gameId;
+      if (payload instanceof GameStateUpdate update) {
+        event.type = update.getType();
+        event.ply = update.getMove() != null ? update.getMove().getMoveNumber() : 0;
+      } else {
+        event.type = payload.getClass().getSimpleName();
+      }
+      event.commit();
+    }
+  }
+
+  // Сообщение о несостоявшемся изменении хуже опоздавшего: ждем фиксации.
+  // Уже отложенное действие шлет через sendNow - во время afterCommit новые синхронизации не вызываются
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
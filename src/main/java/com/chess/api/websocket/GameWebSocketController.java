@@ -2,6 +2,7 @@ package com.chess.api.websocket;
 
 import com.chess.api.dto.ChatMessage;
 import com.chess.api.dto.GameMessage;
+import com.chess.api.dto.GameStateUpdate;
 import com.chess.api.dto.MoveRequest;
 import com.chess.api.model.Game;
 import com.chess.api.model.Player;
@@ -10,17 +11,21 @@ import com.chess.api.model.enums.GameStatus;
 import com.chess.api.service.ChessGameService;
 import com.chess.api.service.GameService;
 import com.chess.api.service.PlayerService;
+import com.chess.api.service.cluster.ClusterMessage.ForwardedMove;
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.metrics.GameMetrics;
 import com.chess.api.exception.IllegalMoveException;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
@@ -32,26 +37,46 @@ import java.util.Map;
 @Slf4j
 public class GameWebSocketController {
 
+  // Сколько раз пересылать ход вслед за сменой владельца, пока узлы расходятся в составе
+  private static final int MAX_FORWARD_HOPS = 3;
+
   private final ChessGameService chessGameService;
   private final GameService gameService;
   private final PlayerService playerService;
   private final SimpMessagingTemplate messagingTemplate;
+  private final GameBroadcaster broadcaster;
+  private final GameMetrics metrics;
+  private final GameOwnership ownership;
 
   /**
-   * Обработка хода в игре через WebSocket
+   * Обработка хода в игре через WebSocket.
+   * <p>
+   * Вне HTTP-запроса сессии Hibernate нет: партия и игрок читаются и сравниваются
+   * в одной транзакции, иначе ленивые связи недоступны. Рассылка хода ждет фиксации
+   * этой транзакции. Ход в чужую партию уходит узлу-владельцу, результат приходит
+   * рассылкой брокера.
    */
   @MessageMapping("/game/{gameId}/move")
+  @Transactional
   public void handleMove(
       @DestinationVariable Long gameId,
       MoveRequest moveRequest,
       Principal principal) {
 
+    if (!forwarded(gameId, principal, ForwardedMove.Kind.MOVE, moveRequest)) {
+      move(gameId, moveRequest, principal);
+    }
+  }
+
+  private void move(Long gameId, MoveRequest moveRequest, Principal principal) {
     log.info("Received move for game {} from {}: {} to {}",
         gameId, principal.getName(), moveRequest.getFrom(), moveRequest.getTo());
 
     try {
+      long loadStart = metrics.start();
       Game game = gameService.getGameById(gameId);
       Player player = playerService.getPlayerByUsername(principal.getName());
+      metrics.moveStage(GameMetrics.MoveStage.LOAD, loadStart);
 
       // Проверяем, что игрок участвует в игре
       if (!game.isPlayerInGame(player)) {
@@ -71,27 +96,14 @@ public class GameWebSocketController {
         return;
       }
 
-      // Выполняем ход
-      var move = chessGameService.makeMove(game, player, moveRequest);
+      // Выполняем ход и, если есть, предход соперника
+      var moves = chessGameService.makeMoveWithPremove(game, player, moveRequest);
 
       // Отправляем обновленное состояние игры всем подписчикам
-      GameStateUpdate gameUpdate = new GameStateUpdate();
-      gameUpdate.setType("MOVE_MADE");
-      gameUpdate.setGame(gameService.getGameById(gameId)); // Обновленная игра
-      gameUpdate.setMove(move);
-      gameUpdate.setTimestamp(LocalDateTime.now());
-
-      messagingTemplate.convertAndSend("/topic/game/" + gameId, gameUpdate);
+      broadcaster.moveMade(game, moves);
 
       // Проверяем, закончилась ли игра
       if (game.getStatus() != GameStatus.ACTIVE) {
-        GameStateUpdate endGameUpdate = new GameStateUpdate();
-        endGameUpdate.setType("GAME_ENDED");
-        endGameUpdate.setGame(game);
-        endGameUpdate.setResult(game.getResult().toString());
-        endGameUpdate.setTimestamp(LocalDateTime.now());
-
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, endGameUpdate);
         chessGameService.stopGameTimer(gameId);
       }
 
@@ -109,12 +121,116 @@ public class GameWebSocketController {
           "/queue/errors",
           errorResponse
       );
+    } catch (OptimisticLockingFailureException e) {
+      // Транзакция уже помечена к откату - ответ дает handleConcurrentUpdate
+      throw e;
     } catch (Exception e) {
       log.error("Error processing move", e);
       sendError(gameId, "Ошибка при обработке хода");
     }
   }
 
+  /**
+   * Предход: выполняется сразу после хода соперника, без расхода времени.
+   * Если ход уже за игроком, это обычный ход.
+   */
+  @MessageMapping("/game/{gameId}/premove")
+  @Transactional
+  public void handlePremove(
+      @DestinationVariable Long gameId,
+      MoveRequest moveRequest,
+      Principal principal) {
+
+    if (!forwarded(gameId, principal, ForwardedMove.Kind.PREMOVE, moveRequest)) {
+      premove(gameId, moveRequest, principal);
+    }
+  }
+
+  private void premove(Long gameId, MoveRequest moveRequest, Principal principal) {
+    try {
+      Game game = gameService.getGameById(gameId);
+      Player player = playerService.getPlayerByUsername(principal.getName());
+
+      if (!game.isPlayerInGame(player)) {
+        sendError(gameId, "Вы не участник этой игры");
+        return;
+      }
+
+      if (!chessGameService.queuePremove(game, player, moveRequest)) {
+        move(gameId, moveRequest, principal);
+      }
+
+    } catch (IllegalMoveException e) {
+      Map<String, Object> errorResponse = new HashMap<>();
+      errorResponse.put("type", "PREMOVE_REJECTED");
+      errorResponse.put("message", e.getMessage());
+      errorResponse.put("move", moveRequest);
+      messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors", errorResponse);
+    } catch (OptimisticLockingFailureException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error processing premove", e);
+      sendError(gameId, "Ошибка при обработке предхода");
+    }
+  }
+
+  /**
+   * Отмена всех предходов игрока
+   */
+  @MessageMapping("/game/{gameId}/premove/cancel")
+  public void handlePremoveCancel(
+      @DestinationVariable Long gameId,
+      Principal principal) {
+
+    if (!forwarded(gameId, principal, ForwardedMove.Kind.CANCEL_PREMOVES, null)) {
+      cancelPremoves(gameId, principal);
+    }
+  }
+
+  private void cancelPremoves(Long gameId, Principal principal) {
+    try {
+      Game game = gameService.getGameById(gameId);
+      Player player = playerService.getPlayerByUsername(principal.getName());
+      if (game.isPlayerInGame(player) && game.getStatus() == GameStatus.ACTIVE) {
+        chessGameService.clearPremoves(game, player);
+      }
+    } catch (Exception e) {
+      log.error("Error cancelling premoves", e);
+    }
+  }
+
+  /**
+   * Ход, пересланный с другого узла. Если состав кластера успел смениться и партия
+   * уже не здесь, ход уходит новому владельцу. После {@link #MAX_FORWARD_HOPS}
+   * пересылок он выполняется здесь: от двойной записи защищает версия партии,
+   * а доска сверяется с базой в {@link com.chess.api.service.live.LiveGameRegistry}.
+   */
+  @EventListener
+  @Transactional
+  public void onForwardedMove(ForwardedMove message) {
+    if (message.hops() < MAX_FORWARD_HOPS && ownership.forward(message.gameId(), message.nextHop())) {
+      log.debug("Ход в партии {} переслан дальше новому владельцу", message.gameId());
+      return;
+    }
+    Principal principal = message::username;
+    switch (message.kind()) {
+      case MOVE -> move(message.gameId(), message.move(), principal);
+      case PREMOVE -> premove(message.gameId(), message.move(), principal);
+      case CANCEL_PREMOVES -> cancelPremoves(message.gameId(), principal);
+    }
+  }
+
+  /**
+   * Ход опоздал: партию изменили параллельно - ход соперника, сдача или флажок.
+   * Версию партии проверяет UPDATE при фиксации транзакции обработчика, уже после
+   * выхода из него, поэтому ошибку отправляет обработчик исключений.
+   */
+  @MessageExceptionHandler(OptimisticLockingFailureException.class)
+  public void handleConcurrentUpdate(@DestinationVariable Long gameId, OptimisticLockingFailureException e) {
+    log.info("Ход в игре {} опоздал: партию изменили параллельно", gameId);
+    sendError(gameId, "Партия изменилась, ход не принят");
+  }
+
   /**
    * Обработка сообщений чата в игре
    */
@@ -168,25 +284,17 @@ public class GameWebSocketController {
 
       // Если черный игрок еще не присоединился, присоединяем его
       if (game.getBlackPlayer() == null && !game.getWhitePlayer().equals(player)) {
-        game.setBlackPlayer(player);
-
-        // Если теперь есть оба игрока, начинаем игру
-        if (game.getWhitePlayer() != null && game.getBlackPlayer() != null) {
-          game.setStatus(GameStatus.ACTIVE);
-          game.setStartedAt(LocalDateTime.now());
-          gameService.saveGame(game);
-          chessGameService.startGameTimer(game);
-
-          // Отправляем сообщение о начале игры
-          GameStateUpdate startUpdate = new GameStateUpdate();
-          startUpdate.setType("GAME_STARTED");
-          startUpdate.setGame(game);
-          startUpdate.setTimestamp(LocalDateTime.now());
-
-          messagingTemplate.convertAndSend("/topic/game/" + gameId, startUpdate);
-        } else {
-          gameService.saveGame(game);
-        }
+        // Место занимается условным UPDATE: из двух одновременно присоединившихся пройдет один
+        game = gameService.joinGame(gameId, player);
+        chessGameService.startGameTimer(game);
+
+        // Отправляем сообщение о начале игры
+        GameStateUpdate startUpdate = new GameStateUpdate();
+        startUpdate.setType("GAME_STARTED");
+        startUpdate.setGame(game);
+        startUpdate.setTimestamp(LocalDateTime.now());
+
+        broadcaster.send(gameId, startUpdate);
 
         // Отправляем уведомление о присоединении
         GameStateUpdate joinUpdate = new GameStateUpdate();
@@ -194,7 +302,7 @@ public class GameWebSocketController {
         joinUpdate.setPlayer(player.getUsername());
         joinUpdate.setTimestamp(LocalDateTime.now());
 
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, joinUpdate);
+        broadcaster.send(gameId, joinUpdate);
 
       } else if (game.isPlayerInGame(player)) {
         // Игрок уже в игре, просто отправляем уведомление
@@ -203,7 +311,7 @@ public class GameWebSocketController {
         reconnectUpdate.setPlayer(player.getUsername());
         reconnectUpdate.setTimestamp(LocalDateTime.now());
 
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, reconnectUpdate);
+        broadcaster.send(gameId, reconnectUpdate);
       } else {
         sendError(gameId, "Невозможно присоединиться к игре");
       }
@@ -239,14 +347,10 @@ public class GameWebSocketController {
 
         // Автоматически присуждаем победу оставшемуся игроку
         if (game.getWhitePlayer().getUsername().equals(principal.getName())) {
-          game.setStatus(GameStatus.BLACK_WON);
-          game.setResult(GameResult.BLACK_WIN);
+          gameService.finishGame(game, GameStatus.BLACK_WON, GameResult.BLACK_WIN);
         } else {
-          game.setStatus(GameStatus.WHITE_WON);
-          game.setResult(GameResult.WHITE_WIN);
+          gameService.finishGame(game, GameStatus.WHITE_WON, GameResult.WHITE_WIN);
         }
-        game.setFinishedAt(LocalDateTime.now());
-        gameService.saveGame(game);
       }
     } catch (Exception e) {
       log.error("Error processing player leave", e);
@@ -277,7 +381,7 @@ public class GameWebSocketController {
       drawOffer.setPlayer(player.getUsername());
       drawOffer.setTimestamp(LocalDateTime.now());
 
-      messagingTemplate.convertAndSend("/topic/game/" + gameId, drawOffer);
+      broadcaster.send(gameId, drawOffer);
 
       // Также отправляем приватное уведомление оппоненту
       Player opponent = game.getWhitePlayer().equals(player) ?
@@ -319,10 +423,7 @@ public class GameWebSocketController {
         return;
       }
 
-      game.setStatus(GameStatus.DRAW);
-      game.setResult(GameResult.DRAW);
-      game.setFinishedAt(LocalDateTime.now());
-      gameService.saveGame(game);
+      gameService.finishGame(game, GameStatus.DRAW, GameResult.DRAW);
       chessGameService.stopGameTimer(gameId);
 
       GameStateUpdate drawAccepted = new GameStateUpdate();
@@ -330,7 +431,7 @@ public class GameWebSocketController {
       drawAccepted.setGame(game);
       drawAccepted.setTimestamp(LocalDateTime.now());
 
-      messagingTemplate.convertAndSend("/topic/game/" + gameId, drawAccepted);
+      broadcaster.send(gameId, drawAccepted);
 
     } catch (Exception e) {
       log.error("Error processing draw accept", e);
@@ -339,7 +440,8 @@ public class GameWebSocketController {
   }
 
   /**
-   * Сдача в игре
+   * Сдача в игре. Своей транзакции у обработчика нет: сдача идет через
+   * {@link GameService#resignGame}, который повторяет ее при гонке за версию партии.
    */
   @MessageMapping("/game/{gameId}/resign")
   public void handleResign(
@@ -347,66 +449,18 @@ public class GameWebSocketController {
       Principal principal) {
 
     try {
-      Game game = gameService.getGameById(gameId);
       Player player = playerService.getPlayerByUsername(principal.getName());
-
-      if (!game.isPlayerInGame(player)) {
-        sendError(gameId, "Вы не участник этой игры");
-        return;
-      }
-
-      if (game.getStatus() != GameStatus.ACTIVE) {
-        sendError(gameId, "Игра не активна");
-        return;
-      }
-
-      if (game.getWhitePlayer().equals(player)) {
-        game.setStatus(GameStatus.BLACK_WON);
-        game.setResult(GameResult.BLACK_WIN);
-      } else {
-        game.setStatus(GameStatus.WHITE_WON);
-        game.setResult(GameResult.WHITE_WIN);
-      }
-
-      game.setFinishedAt(LocalDateTime.now());
-      gameService.saveGame(game);
+      gameService.resignGame(gameId, player);
       chessGameService.stopGameTimer(gameId);
-
-      GameStateUpdate resignUpdate = new GameStateUpdate();
-      resignUpdate.setType("PLAYER_RESIGNED");
-      resignUpdate.setGame(game);
-      resignUpdate.setPlayer(player.getUsername());
-      resignUpdate.setTimestamp(LocalDateTime.now());
-
-      messagingTemplate.convertAndSend("/topic/game/" + gameId, resignUpdate);
-
-    } catch (Exception e) {
-      log.error("Error processing resignation", e);
-      sendError(gameId, "Ошибка при сдаче");
-    }
-  }
-
-  /**
-   * Запрос оставшегося времени
-   */
-  @MessageMapping("/game/{gameId}/time")
-  public void handleTimeRequest(
-      @DestinationVariable Long gameId,
-      Principal principal) {
-
-    try {
-      Integer[] timeLeft = chessGameService.getTimeLeft(gameId);
-
-      Map<String, Object> timeUpdate = new HashMap<>();
-      timeUpdate.put("type", "TIME_UPDATE");
-      timeUpdate.put("whiteTimeLeft", timeLeft[0]);
-      timeUpdate.put("blackTimeLeft", timeLeft[1]);
-      timeUpdate.put("timestamp", LocalDateTime.now());
-
-      messagingTemplate.convertAndSend("/topic/game/" + gameId, timeUpdate);
-
-    } catch (Exception e) {
-      log.error("Error processing time request", e);
+      broadcaster.playerResigned(gameId, player.getUsername());
+
+    } catch (OptimisticLockingFailureException e) {
+      log.info("Сдача в игре {} не прошла: партию меняли параллельно", gameId);
+      sendError(gameId, "Партия изменилась, сдача не принята");
+    } catch (RuntimeException e) {
+      // Проверки resignGame: игра не найдена, не активна, не участник
+      log.warn("Сдача в игре {} отклонена: {}", gameId, e.getMessage());
+      sendError(gameId, e.getMessage());
     }
   }
 
@@ -425,6 +479,7 @@ public class GameWebSocketController {
       stateUpdate.setType("GAME_STATE");
       stateUpdate.setGame(game);
       stateUpdate.setTimestamp(LocalDateTime.now());
+      broadcaster.fillLatency(stateUpdate, game);
 
       // Отправляем только запросившему игроку
       messagingTemplate.convertAndSendToUser(
@@ -439,6 +494,11 @@ public class GameWebSocketController {
     }
   }
 
+  // Действие в чужой партии уходит ее владельцу
+  private boolean forwarded(Long gameId, Principal principal, ForwardedMove.Kind kind, MoveRequest moveRequest) {
+    return ownership.forward(gameId, new ForwardedMove(gameId, principal.getName(), kind, moveRequest));
+  }
+
   /**
    * Вспомогательный метод для отправки ошибок
    */
@@ -451,16 +511,3 @@ public class GameWebSocketController {
     messagingTemplate.convertAndSend("/topic/game/" + gameId + "/errors", error);
   }
 }
-
-// DTO для обновления состояния игры через WebSocket
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-class GameStateUpdate {
-  private String type;
-  private Game game;
-  private com.chess.api.model.Move move;
-  private String player;
-  private String result;
-  private LocalDateTime timestamp;
-}
\ No newline at end of file
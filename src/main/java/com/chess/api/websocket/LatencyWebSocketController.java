@@ -0,0 +1,58 @@
+package com.chess.api.websocket;
+
+import com.chess.api.service.live.LatencyTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+
+/**
+ * Замер задержки: сервер шлет PING в {@code /user/queue/ping}, клиент сразу
+ * возвращает его номер в {@code /app/pong}.
+ */
+@Controller
+@RequiredArgsConstructor
+public class LatencyWebSocketController {
+
+  private final LatencyTracker latencyTracker;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final SimpUserRegistry userRegistry;
+
+  @Scheduled(fixedDelayString = "${chess.lag.ping-interval-ms:5000}")
+  public void ping() {
+    if (userRegistry.getUserCount() == 0) {
+      return;
+    }
+    long id = latencyTracker.newPing();
+    Map<String, Object> ping = Map.of("type", "PING", "id", id);
+    userRegistry.getUsers().forEach(user -> messagingTemplate.convertAndSendToUser(user.getName(), "/queue/ping", ping));
+  }
+
+  @MessageMapping("/pong")
+  public void pong(Map<String, Object> pong, @Header("simpSessionId") String sessionId) {
+    if (pong.get("id") instanceof Number id) {
+      latencyTracker.recordPong(sessionId, id.longValue());
+    }
+  }
+
+  @EventListener
+  public void onConnect(SessionConnectedEvent event) {
+    String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+    if (event.getUser() != null && sessionId != null) {
+      latencyTracker.register(sessionId, event.getUser().getName());
+    }
+  }
+
+  @EventListener
+  public void onDisconnect(SessionDisconnectEvent event) {
+    latencyTracker.unregister(event.getSessionId());
+  }
+}
@@ -0,0 +1,36 @@
+package com.chess.api.websocket;
+
+import com.chess.api.service.metrics.GameMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+/**
+ * Время записи сообщения в сессию клиента на потоке {@code clientOutboundChannel}.
+ * Медленный клиент держит поток, и очередь канала растет у всех.
+ */
+@RequiredArgsConstructor
+public class OutboundMetricsInterceptor implements ExecutorChannelInterceptor {
+
+  private static final ThreadLocal<Long> STARTED = new ThreadLocal<>();
+
+  private final GameMetrics metrics;
+
+  @Override
+  public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+    STARTED.set(metrics.start());
+    return message;
+  }
+
+  @Override
+  public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                  Exception ex) {
+    Long start = STARTED.get();
+    if (start != null) {
+      STARTED.remove();
+      metrics.outboundSend(start);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.chess.api.websocket;
+
+import com.chess.api.service.metrics.SqlStatementCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.regex.Pattern;
+
+/**
+ * Подсчет SQL на входящий STOMP-кадр. Номера в назначении заменяются на
+ * {@code {id}}, чтобы у метрики было конечное число значений.
+ */
+@RequiredArgsConstructor
+public class SqlCountingInterceptor implements ExecutorChannelInterceptor {
+
+  private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+  private static final ThreadLocal<SqlStatementCounter.Scope> SCOPE = new ThreadLocal<>();
+
+  private final SqlStatementCounter counter;
+
+  @Override
+  public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+    // Кадр получают и брокер, и контроллеры; база нужна только контроллерам
+    if (handler instanceof SimpAnnotationMethodMessageHandler && !counter.isOpen()) {
+      SCOPE.set(counter.open(endpoint(message)));
+    }
+    return message;
+  }
+
+  @Override
+  public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                  Exception ex) {
+    SqlStatementCounter.Scope scope = SCOPE.get();
+    if (scope != null) {
+      SCOPE.remove();
+      scope.close();
+    }
+  }
+
+  private static String endpoint(Message<?> message) {
+    SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    if (destination == null) {
+      return "STOMP " + type;
+    }
+    return "STOMP " + type + " " + ID_SEGMENT.matcher(destination).replaceAll("/{id}");
+  }
+}
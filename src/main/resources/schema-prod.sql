@@ -7,6 +7,14 @@ CREATE TABLE IF NOT EXISTS players
     classical_rating INTEGER   DEFAULT 1200,
     rapid_rating     INTEGER   DEFAULT 1200,
     blitz_rating     INTEGER   DEFAULT 1200,
+    classical_rating_deviation DOUBLE PRECISION DEFAULT 350,
+    classical_volatility       DOUBLE PRECISION DEFAULT 0.06,
+    rapid_rating_deviation     DOUBLE PRECISION DEFAULT 350,
+    rapid_volatility           DOUBLE PRECISION DEFAULT 0.06,
+    blitz_rating_deviation     DOUBLE PRECISION DEFAULT 350,
+    blitz_volatility           DOUBLE PRECISION DEFAULT 0.06,
+    bot              BOOLEAN   DEFAULT FALSE,
+    bot_level        INTEGER UNIQUE,
     games_played     INTEGER   DEFAULT 0,
     games_won        INTEGER   DEFAULT 0,
     games_drawn      INTEGER   DEFAULT 0,
@@ -15,9 +23,14 @@ CREATE TABLE IF NOT EXISTS players
     last_login_at    TIMESTAMP
 );
 
+-- Базы, где ботов искали по имени: уровень заполнит BotPlayersJob при запуске
+ALTER TABLE players ADD COLUMN IF NOT EXISTS bot_level INTEGER;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_players_bot_level ON players (bot_level);
+
 CREATE TABLE IF NOT EXISTS games
 (
     id              BIGSERIAL PRIMARY KEY,
+    version         BIGINT      NOT NULL DEFAULT 0,
     white_player_id BIGINT      NOT NULL REFERENCES players (id),
     black_player_id BIGINT REFERENCES players (id),
     game_type       VARCHAR(20) NOT NULL,
@@ -26,8 +39,12 @@ CREATE TABLE IF NOT EXISTS games
     initial_fen     TEXT                 DEFAULT 'rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1',
     current_fen     TEXT                 DEFAULT 'rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1',
     pgn             TEXT,
+    snapshots       TEXT,
     time_control    INTEGER              DEFAULT 600,
     time_increment  INTEGER              DEFAULT 0,
+    bot_level       INTEGER,
+    white_rating_after INTEGER,
+    black_rating_after INTEGER,
     white_time_left INTEGER,
     black_time_left INTEGER,
     created_at      TIMESTAMP            DEFAULT CURRENT_TIMESTAMP,
@@ -35,6 +52,20 @@ CREATE TABLE IF NOT EXISTS games
     finished_at     TIMESTAMP
 );
 
+CREATE INDEX IF NOT EXISTS idx_games_finished_at
+    ON games (finished_at) WHERE finished_at IS NOT NULL;
+
+-- Базы, созданные до оптимистических блокировок: колонки нет или ddl-auto добавил ее без NOT NULL.
+-- Строки с NULL не сдвинулись бы через version = version + 1 и не сверялись бы при сохранении
+ALTER TABLE games ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+UPDATE games SET version = 0 WHERE version IS NULL;
+ALTER TABLE games ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE games ALTER COLUMN version SET NOT NULL;
+
+-- Рейтинги по итогам партии. У партий, завершенных до появления колонок, они пусты
+ALTER TABLE games ADD COLUMN IF NOT EXISTS white_rating_after INTEGER;
+ALTER TABLE games ADD COLUMN IF NOT EXISTS black_rating_after INTEGER;
+
 CREATE TABLE IF NOT EXISTS moves
 (
     id              BIGSERIAL PRIMARY KEY,
@@ -49,6 +80,94 @@ CREATE TABLE IF NOT EXISTS moves
     timestamp       TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Ходы партии по порядку и диапазоны ходов для просмотра записи
+CREATE INDEX IF NOT EXISTS idx_moves_game_move
+    ON moves (game_id, move_number);
+
+-- История рейтинга: куски до 512 точек, дельты времени и рейтинга в varint
+CREATE TABLE IF NOT EXISTS rating_history
+(
+    id                 BIGSERIAL PRIMARY KEY,
+    player_id          BIGINT      NOT NULL REFERENCES players (id) ON DELETE CASCADE,
+    game_type          VARCHAR(20) NOT NULL,
+    chunk_index        INTEGER     NOT NULL,
+    first_epoch_second BIGINT,
+    last_epoch_second  BIGINT,
+    last_rating        INTEGER,
+    point_count        INTEGER DEFAULT 0,
+    data               BYTEA,
+    UNIQUE (player_id, game_type, chunk_index)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rating_history_range
+    ON rating_history (player_id, game_type, last_epoch_second);
+
+-- Послепартийный анализ: оценки позиций (zigzag varint) и разметка ходов
+CREATE TABLE IF NOT EXISTS game_analysis
+(
+    id             BIGSERIAL PRIMARY KEY,
+    game_id        BIGINT NOT NULL UNIQUE REFERENCES games (id) ON DELETE CASCADE,
+    depth          INTEGER,
+    ply_count      INTEGER,
+    evals          BYTEA,
+    judgements     BYTEA,
+    white_accuracy DOUBLE PRECISION,
+    black_accuracy DOUBLE PRECISION,
+    analysis_ms    BIGINT,
+    analyzed_at    TIMESTAMP
+);
+
+-- Дебютный справочник: счетчики ходов по Zobrist-ключу позиции
+CREATE TABLE IF NOT EXISTS explorer_moves
+(
+    id           BIGSERIAL PRIMARY KEY,
+    position_key BIGINT      NOT NULL,
+    game_type    VARCHAR(20) NOT NULL,
+    rating_band  INTEGER     NOT NULL,
+    move         VARCHAR(5)  NOT NULL,
+    white_wins   INTEGER     NOT NULL DEFAULT 0,
+    draws        INTEGER     NOT NULL DEFAULT 0,
+    black_wins   INTEGER     NOT NULL DEFAULT 0,
+    rating_sum   BIGINT      NOT NULL DEFAULT 0,
+    UNIQUE (position_key, game_type, rating_band, move)
+);
+
+-- Идущее построение справочника: одна строка, общая для всех узлов
+CREATE TABLE IF NOT EXISTS explorer_rebuild
+(
+    id        INTEGER PRIMARY KEY,
+    cutoff    TIMESTAMP,
+    heartbeat TIMESTAMP
+);
+
+INSERT INTO explorer_rebuild (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+-- Индекс позиций: куски отсортированных списков (партия, полуход) в varint-дельтах
+CREATE TABLE IF NOT EXISTS position_postings
+(
+    id            BIGSERIAL PRIMARY KEY,
+    position_key  BIGINT  NOT NULL,
+    first_game_id BIGINT  NOT NULL,
+    last_game_id  BIGINT  NOT NULL,
+    last_ply      INTEGER NOT NULL,
+    posting_count INTEGER NOT NULL,
+    data          BYTEA   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_position_postings_key
+    ON position_postings (position_key, last_game_id);
+
+-- Вхождения, записанные в транзакции хода и еще не перенесенные в куски
+CREATE TABLE IF NOT EXISTS position_postings_pending
+(
+    id           BIGSERIAL PRIMARY KEY,
+    position_key BIGINT NOT NULL,
+    posting      BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_position_postings_pending_key
+    ON position_postings_pending (position_key);
+
 -- Таблица приглашений на игру
 CREATE TABLE IF NOT EXISTS invites
 (
@@ -0,0 +1,147 @@
+package com.chess.api.controller;
+
+import com.chess.api.dto.GameCreateRequest;
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.dto.RegisterRequest;
+import com.chess.api.model.enums.GameType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ответы по законченным партиям без кеша в памяти: размер 0 - каждый ответ вытеснен сразу,
+ * как после перезапуска. ETag проверяется по версии партии в базе.
+ */
+@SpringBootTest(properties = "chess.game-view-cache.size=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FinishedGameViewTest {
+
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void gameIsNotModifiedAfterEviction() throws Exception {
+    // given
+    Account white = register();
+    Account black = register();
+    long gameId = finishedGame(white, black);
+    String etag = mockMvc.perform(get("/api/games/" + gameId).header("Authorization", white.bearer()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    // when / then
+    mockMvc.perform(get("/api/games/" + gameId)
+            .header("Authorization", white.bearer())
+            .header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag));
+  }
+
+  @Test
+  void movesAreNotModifiedAfterEviction() throws Exception {
+    // given
+    Account white = register();
+    Account black = register();
+    long gameId = finishedGame(white, black);
+    String etag = mockMvc.perform(get("/api/games/" + gameId + "/moves").header("Authorization", white.bearer()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    // when / then
+    assertThat(etag).isNotNull();
+    mockMvc.perform(get("/api/games/" + gameId + "/moves")
+            .header("Authorization", white.bearer())
+            .header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void finishedGameShowsRatingsAfterIt() throws Exception {
+    // given: белые выиграли партию и затем еще одну
+    Account white = register();
+    long gameId = finishedGame(white, register());
+    JsonNode first = game(white, gameId, null);
+    long nextId = finishedGame(white, register());
+
+    // when
+    JsonNode again = game(white, gameId, null);
+    JsonNode next = game(white, nextId, null);
+    JsonNode sparse = game(white, gameId, "whitePlayer");
+
+    // then: рейтинг по итогам этой партии, а не текущий
+    int ratingAfterGame = first.path("whitePlayer").path("rating").asInt();
+    assertThat(next.path("whitePlayer").path("rating").asInt()).isGreaterThan(ratingAfterGame);
+    assertThat(again.path("whitePlayer").path("rating").asInt()).isEqualTo(ratingAfterGame);
+    assertThat(sparse.path("whitePlayer").path("rating").asInt()).isEqualTo(ratingAfterGame);
+    assertThat(sparse.has("finishedAt")).isFalse();
+    assertThat(sparse.has("whiteRatingAfter")).isFalse();
+  }
+
+  private JsonNode game(Account viewer, long gameId, String fields) throws Exception {
+    var request = get("/api/games/" + gameId).header("Authorization", viewer.bearer());
+    if (fields != null) {
+      request.param("fields", fields);
+    }
+    String response = mockMvc.perform(request)
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).path("data");
+  }
+
+  // Партия с ходом, черные сдаются
+  private long finishedGame(Account white, Account black) throws Exception {
+    String response = mockMvc.perform(post("/api/games")
+            .header("Authorization", white.bearer())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new GameCreateRequest(GameType.BLITZ, null, null, true, null))))
+        .andReturn().getResponse().getContentAsString();
+    long gameId = objectMapper.readTree(response).path("data").path("id").asLong();
+    mockMvc.perform(post("/api/games/" + gameId + "/join").header("Authorization", black.bearer()))
+        .andExpect(status().isOk());
+    mockMvc.perform(post("/api/games/" + gameId + "/move")
+            .header("Authorization", white.bearer())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new MoveRequest("e2", "e4", null, null))))
+        .andExpect(status().isOk());
+    mockMvc.perform(post("/api/games/" + gameId + "/resign").header("Authorization", black.bearer()))
+        .andExpect(status().isOk());
+    return gameId;
+  }
+
+  private Account register() throws Exception {
+    String username = "view_" + System.currentTimeMillis() + "_" + SEQUENCE.incrementAndGet();
+    String response = mockMvc.perform(post("/api/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new RegisterRequest(username, username + "@example.com", "password123"))))
+        .andReturn().getResponse().getContentAsString();
+    return new Account(objectMapper.readTree(response).path("data").path("token").asText());
+  }
+
+  private record Account(String token) {
+    String bearer() {
+      return "Bearer " + token;
+    }
+  }
+}
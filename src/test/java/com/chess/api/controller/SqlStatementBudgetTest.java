@@ -0,0 +1,441 @@
+package com.chess.api.controller;
+
+import com.chess.api.dto.GameCreateRequest;
+import com.chess.api.dto.GameInviteRequest;
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.dto.RegisterRequest;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.service.GameService;
+import com.chess.api.service.metrics.SqlStatementCounter;
+import com.chess.api.websocket.GameWebSocketController;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджеты SQL-запросов эндпоинтов. В счет входит загрузка пользователя по JWT.
+ * Для списков бюджет проверяется на нескольких элементах: N+1 сразу его превышает.
+ * STOMP-кадры вызываются прямо в контроллере: пользователь там уже загружен при CONNECT.
+ */
+@SpringBootTest(properties = "chess.sql.fail-over-threshold=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatementBudgetTest {
+
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private SqlStatementCounter counter;
+
+  @Autowired
+  private GameWebSocketController webSocketController;
+
+  @Autowired
+  private GameService gameService;
+
+  @Test
+  void getGameStaysWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    long gameId = createGame(white);
+
+    // when
+    int statements = statements(get("/api/games/" + gameId).header("Authorization", white.bearer()));
+
+    // then: пользователь, партия с игроками
+    assertThat(statements).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void activeGamesStayWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    for (int i = 0; i < 3; i++) {
+      join(register(), createGame(white));
+    }
+
+    // when
+    int statements = statements(get("/api/games/active").header("Authorization", white.bearer()));
+
+    // then: пользователь дважды и список с игроками - независимо от числа партий
+    assertThat(statements).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void waitingGamesStayWithinBudget() throws Exception {
+    // given
+    Account viewer = register();
+    createGame(register());
+
+    // when
+    int statements = statements(get("/api/games/waiting").header("Authorization", viewer.bearer()));
+
+    // then: ожидающие партии копятся в общей базе других тестов, но запрос все равно один
+    assertThat(statements).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void activeGamesWithMovesStayWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    for (int i = 0; i < 3; i++) {
+      join(register(), createGame(white));
+    }
+
+    // when
+    int statements = statements(get("/api/games/active")
+        .param("fields", "id,status,moves")
+        .param("include", "moves")
+        .header("Authorization", white.bearer()));
+
+    // then: плюс один запрос за ходами всех партий сразу
+    assertThat(statements).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void finishedGameRevalidatesWithoutLoading() throws Exception {
+    // given
+    Account white = register();
+    long gameId = createGame(white);
+    join(register(), gameId);
+    mockMvc.perform(post("/api/games/" + gameId + "/resign").header("Authorization", white.bearer()))
+        .andExpect(status().isOk());
+    String etag = mockMvc.perform(get("/api/games/" + gameId).header("Authorization", white.bearer()))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", containsString("immutable")))
+        .andReturn().getResponse().getHeader("ETag");
+
+    // when
+    int statements = statements(get("/api/games/" + gameId)
+        .header("Authorization", white.bearer())
+        .header("If-None-Match", etag), status().isNotModified());
+
+    // then: только пользователь, партия отдается из кеша
+    assertThat(statements).isLessThanOrEqualTo(1);
+  }
+
+  @Test
+  void finishedGameMovesAreServedFromCache() throws Exception {
+    // given
+    Account white = register();
+    Account black = register();
+    long gameId = createGame(white);
+    join(black, gameId);
+    move(white, gameId, "e2", "e4");
+    move(black, gameId, "e7", "e5");
+    mockMvc.perform(post("/api/games/" + gameId + "/resign").header("Authorization", white.bearer()))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/games/" + gameId + "/moves").header("Authorization", white.bearer()))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", containsString("immutable")));
+
+    // when
+    int statements = statements(get("/api/games/" + gameId + "/moves").header("Authorization", white.bearer()));
+
+    // then: только пользователь, ходы отдаются из кеша
+    assertThat(statements).isLessThanOrEqualTo(1);
+  }
+
+  @Test
+  void invitesStayWithinBudget() throws Exception {
+    // given
+    Account receiver = register();
+    for (int i = 0; i < 3; i++) {
+      invite(register(), receiver);
+    }
+
+    // when
+    int statements = statements(get("/api/games/invites").header("Authorization", receiver.bearer()));
+
+    // then: пользователь дважды и список DTO
+    assertThat(statements).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void sentInvitesStayWithinBudget() throws Exception {
+    // given
+    Account sender = register();
+    for (int i = 0; i < 3; i++) {
+      invite(sender, register());
+    }
+
+    // when
+    int statements = statements(get("/api/games/invites/sent").header("Authorization", sender.bearer()));
+
+    // then
+    assertThat(statements).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void moveStaysWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    Account black = register();
+    long gameId = createGame(white);
+    join(black, gameId);
+
+    // when
+    int statements = statements(post("/api/games/" + gameId + "/move")
+        .header("Authorization", white.bearer())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new MoveRequest("e2", "e4", null, null))));
+
+    // then
+    assertThat(statements).isLessThanOrEqualTo(12);
+  }
+
+  @Test
+  void gameHistoryStaysWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    for (int i = 0; i < 3; i++) {
+      join(register(), createGame(white));
+    }
+
+    // when
+    int statements = statements(get("/api/games/history").header("Authorization", white.bearer()));
+
+    // then: пользователь дважды и краткие записи одним запросом
+    assertThat(statements).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void gameMovesStayWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    Account black = register();
+    long gameId = createGame(white);
+    join(black, gameId);
+    move(white, gameId, "e2", "e4");
+    move(black, gameId, "e7", "e5");
+
+    // when
+    int statements = statements(get("/api/games/" + gameId + "/moves").header("Authorization", white.bearer()));
+
+    // then: пользователь, статус и ходы
+    assertThat(statements).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void topPlayersStayWithinBudget() throws Exception {
+    // given
+    Account viewer = register();
+    register();
+    register();
+
+    // when
+    int statements = statements(get("/api/players/top")
+        .param("gameType", "BLITZ")
+        .header("Authorization", viewer.bearer()));
+
+    // then
+    assertThat(statements).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void ratingHistoryStaysWithinBudget() throws Exception {
+    // given: три законченные партии - три точки истории
+    Account white = register();
+    for (int i = 0; i < 3; i++) {
+      Account black = register();
+      long gameId = createGame(white);
+      join(black, gameId);
+      mockMvc.perform(post("/api/games/" + gameId + "/resign").header("Authorization", black.bearer()))
+          .andExpect(status().isOk());
+    }
+
+    // when
+    int statements = statements(get("/api/players/" + white.id() + "/rating-history")
+        .param("gameType", "BLITZ")
+        .header("Authorization", white.bearer()));
+
+    // then: пользователь и куски истории
+    assertThat(statements).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void explorerStaysWithinBudget() throws Exception {
+    // given
+    Account viewer = register();
+
+    // when
+    int statements = statements(get("/api/explorer")
+        .param("fen", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")
+        .header("Authorization", viewer.bearer()));
+
+    // then: пользователь и ходы позиции одним запросом
+    assertThat(statements).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void positionSearchStaysWithinBudget() throws Exception {
+    // given: позиция после 1.e4 есть в нескольких партиях
+    Account white = register();
+    for (int i = 0; i < 3; i++) {
+      long gameId = createGame(white);
+      join(register(), gameId);
+      move(white, gameId, "e2", "e4");
+    }
+
+    // when
+    int statements = statements(get("/api/games/search")
+        .param("fen", "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")
+        .header("Authorization", white.bearer()));
+
+    // then: пользователь, несброшенные вхождения, куски и партии страницы
+    assertThat(statements).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void acceptInviteStaysWithinBudget() throws Exception {
+    // given
+    Account receiver = register();
+    long inviteId = invite(register(), receiver);
+
+    // when
+    int statements = statements(post("/api/games/invites/" + inviteId + "/accept")
+        .header("Authorization", receiver.bearer()));
+
+    // then: пользователь дважды, приглашение с отправителем, новая партия, обновление приглашения
+    assertThat(statements).isLessThanOrEqualTo(6);
+  }
+
+  @Test
+  void rejectInviteStaysWithinBudget() throws Exception {
+    // given
+    Account receiver = register();
+    long inviteId = invite(register(), receiver);
+
+    // when
+    int statements = statements(post("/api/games/invites/" + inviteId + "/reject")
+        .header("Authorization", receiver.bearer()));
+
+    // then: пользователь дважды, приглашение и его обновление
+    assertThat(statements).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void moveFrameStaysWithinBudget() throws Exception {
+    // given
+    Account white = register();
+    long gameId = createGame(white);
+    join(register(), gameId);
+
+    // when
+    int statements = statements(() -> webSocketController.handleMove(
+        gameId, new MoveRequest("e2", "e4", null, null), white::username));
+
+    // then: как у HTTP-хода, без загрузки пользователя по JWT
+    assertThat(gameService.getGameMoves(gameId)).hasSize(1);
+    assertThat(statements).isLessThanOrEqualTo(11);
+  }
+
+  @Test
+  void premoveFrameStaysWithinBudget() throws Exception {
+    // given: ход за белыми, черные ставят предход
+    Account white = register();
+    Account black = register();
+    long gameId = createGame(white);
+    join(black, gameId);
+
+    // when
+    int statements = statements(() -> webSocketController.handlePremove(
+        gameId, new MoveRequest("e7", "e5", null, null), black::username));
+
+    // then: партия и игрок, предход хранится в памяти
+    assertThat(gameService.getGameMoves(gameId)).isEmpty();
+    assertThat(statements).isLessThanOrEqualTo(3);
+  }
+
+  private int statements(MockHttpServletRequestBuilder request) throws Exception {
+    return statements(request, status().isOk());
+  }
+
+  private int statements(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+    try (SqlStatementCounter.Scope scope = counter.open("test")) {
+      mockMvc.perform(request).andExpect(expected);
+      return scope.getCount();
+    }
+  }
+
+  private int statements(Runnable frame) {
+    try (SqlStatementCounter.Scope scope = counter.open("test")) {
+      frame.run();
+      return scope.getCount();
+    }
+  }
+
+  private Account register() throws Exception {
+    String username = "budget_" + System.currentTimeMillis() + "_" + SEQUENCE.incrementAndGet();
+    String response = mockMvc.perform(post("/api/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new RegisterRequest(username, username + "@example.com", "password123"))))
+        .andReturn().getResponse().getContentAsString();
+    JsonNode data = objectMapper.readTree(response).path("data");
+    return new Account(data.path("player").path("id").asLong(), username, data.path("token").asText());
+  }
+
+  private long createGame(Account creator) throws Exception {
+    String response = mockMvc.perform(post("/api/games")
+            .header("Authorization", creator.bearer())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new GameCreateRequest(GameType.BLITZ, null, null, true, null))))
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).path("data").path("id").asLong();
+  }
+
+  private void join(Account player, long gameId) throws Exception {
+    mockMvc.perform(post("/api/games/" + gameId + "/join").header("Authorization", player.bearer()))
+        .andExpect(status().isOk());
+  }
+
+  private void move(Account player, long gameId, String from, String to) throws Exception {
+    mockMvc.perform(post("/api/games/" + gameId + "/move")
+            .header("Authorization", player.bearer())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new MoveRequest(from, to, null, null))))
+        .andExpect(status().isOk());
+  }
+
+  private long invite(Account sender, Account receiver) throws Exception {
+    String response = mockMvc.perform(post("/api/games/invite")
+            .header("Authorization", sender.bearer())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new GameInviteRequest(receiver.id(), GameType.BLITZ, null, null))))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).path("data").path("id").asLong();
+  }
+
+  private record Account(long id, String username, String token) {
+    String bearer() {
+      return "Bearer " + token;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.chess.api.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PolyglotBookTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void shouldFindAllEntriesOfKey() throws Exception {
+    // Given: ключи отсортированы без знака, у ключа 0x8000... два хода
+    Path file = book(
+        entry(0x10L, move(1, 0, 3, 2, 0), 5),           // b1c3
+        entry(0x8000000000000000L, move(4, 1, 4, 3, 0), 30), // e2e4
+        entry(0x8000000000000000L, move(3, 1, 3, 3, 0), 10), // d2d4
+        entry(0xFFFFFFFFFFFFFFF0L, move(6, 6, 6, 7, 4), 1)); // g7g8q
+
+    // When
+    PolyglotBook book = PolyglotBook.open(file);
+
+    // Then
+    assertThat(book.size()).isEqualTo(4);
+    assertThat(book.lookup(0x8000000000000000L))
+        .extracting(PolyglotBook.BookMove::uci)
+        .containsExactly("e2e4", "d2d4");
+    assertThat(book.lookup(0x10L)).extracting(PolyglotBook.BookMove::uci).containsExactly("b1c3");
+    assertThat(book.lookup(0xFFFFFFFFFFFFFFF0L)).extracting(PolyglotBook.BookMove::uci).containsExactly("g7g8q");
+    assertThat(book.lookup(0x11L)).isEmpty();
+  }
+
+  @Test
+  void shouldPickMovesByWeight() throws Exception {
+    PolyglotBook book = PolyglotBook.open(book(
+        entry(42, move(4, 1, 4, 3, 0), 90),
+        entry(42, move(3, 1, 3, 3, 0), 10)));
+
+    Random random = new Random(1);
+    int e4 = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (book.pick(42, random).uci().equals("e2e4")) {
+        e4++;
+      }
+    }
+
+    assertThat(e4).isBetween(850, 950);
+    assertThat(book.pick(43, random)).isNull();
+  }
+
+  private Path book(byte[]... entries) throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocate(entries.length * 16);
+    for (byte[] entry : entries) {
+      buffer.put(entry);
+    }
+    Path file = dir.resolve("book.bin");
+    Files.write(file, buffer.array());
+    return file;
+  }
+
+  private static byte[] entry(long key, int move, int weight) {
+    return ByteBuffer.allocate(16).putLong(key).putShort((short) move).putShort((short) weight).putInt(0).array();
+  }
+
+  private static int move(int fromFile, int fromRank, int toFile, int toRank, int promotion) {
+    return toFile | toRank << 3 | fromFile << 6 | fromRank << 9 | promotion << 12;
+  }
+}
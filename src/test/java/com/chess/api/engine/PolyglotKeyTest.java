@@ -0,0 +1,86 @@
+package com.chess.api.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PolyglotKeyTest {
+
+  private final long[] random = new Random(7).longs(PolyglotKey.RANDOM_COUNT).toArray();
+  private final PolyglotKey keys = new PolyglotKey(random);
+
+  @Test
+  void piecesAreIndexedByKindRankAndFile() {
+    // given / when / then: 64 * вид + 8 * горизонталь + вертикаль, черная пешка - 0, белый король - 11
+    assertThat(keys.of("8/8/8/8/8/8/8/R7 b - - 0 1")).isEqualTo(random[64 * 7]);
+    assertThat(keys.of("7K/8/8/8/8/8/8/8 b - - 0 1")).isEqualTo(random[64 * 11 + 63]);
+    assertThat(keys.of("8/8/8/8/8/8/p7/8 b - - 0 1")).isEqualTo(random[8]);
+    assertThat(keys.of("8/8/8/8/4n3/8/8/8 b - - 0 1")).isEqualTo(random[64 * 2 + 8 * 3 + 4]);
+  }
+
+  @Test
+  void castlingAndTurnFlipTheirOwnNumbers() {
+    // given
+    String position = "r3k2r/8/8/8/8/8/8/R3K2R";
+
+    // when / then
+    long none = keys.of(position + " b - - 0 1");
+    assertThat(keys.of(position + " w - - 0 1") ^ none).isEqualTo(random[780]);
+    assertThat(keys.of(position + " b K - 0 1") ^ none).isEqualTo(random[768]);
+    assertThat(keys.of(position + " b Q - 0 1") ^ none).isEqualTo(random[769]);
+    assertThat(keys.of(position + " b k - 0 1") ^ none).isEqualTo(random[770]);
+    assertThat(keys.of(position + " b q - 0 1") ^ none).isEqualTo(random[771]);
+  }
+
+  @Test
+  void enPassantCountsOnlyWhenCaptureIsPossible() {
+    // given: после c2c4 черная пешка b4 может взять, после e2e4 - некому
+    String capturable = "rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq ";
+    String idle = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq ";
+
+    // when / then
+    assertThat(keys.of(capturable + "c3 0 3") ^ keys.of(capturable + "- 0 3")).isEqualTo(random[772 + 2]);
+    assertThat(keys.of(idle + "e3 0 1")).isEqualTo(keys.of(idle + "- 0 1"));
+  }
+
+  @Test
+  void wrongTableSizeIsRejected() {
+    // given / when / then
+    assertThatThrownBy(() -> new PolyglotKey(new long[780])).isInstanceOf(IllegalArgumentException.class);
+    assertThat(keys.isStandard()).isFalse();
+  }
+
+  @Test
+  void bundledTableGivesPublishedKeys() throws Exception {
+    // given: ключи из спецификации Polyglot; без таблицы в ресурсах книга не работает, тест падает
+    Optional<PolyglotKey> bundled = PolyglotKey.loadResource();
+    assertThat(bundled)
+        .as("ресурс %s: %d чисел Random64 из спецификации Polyglot", PolyglotKey.RESOURCE, PolyglotKey.RANDOM_COUNT)
+        .isPresent();
+    PolyglotKey standard = bundled.get();
+
+    // when / then
+    assertThat(standard.isStandard()).isTrue();
+    assertThat(standard.of(PolyglotKey.STARTING_FEN)).isEqualTo(0x463b96181691fc9cL);
+    assertThat(standard.of("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"))
+        .isEqualTo(0x823c9b50fd114196L);
+    assertThat(standard.of("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2"))
+        .isEqualTo(0x0756b94461c50fb0L);
+    assertThat(standard.of("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2"))
+        .isEqualTo(0x662fafb965db29d4L);
+    assertThat(standard.of("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"))
+        .isEqualTo(0x22a48b5a8e47ff78L);
+    assertThat(standard.of("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3"))
+        .isEqualTo(0x652a607ca3f242c1L);
+    assertThat(standard.of("rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4"))
+        .isEqualTo(0x00fdd303c946bdd9L);
+    assertThat(standard.of("rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3"))
+        .isEqualTo(0x3c8123ea7b067637L);
+    assertThat(standard.of("rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4"))
+        .isEqualTo(0x5c3f9b829b279560L);
+  }
+}
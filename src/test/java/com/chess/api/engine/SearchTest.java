@@ -0,0 +1,61 @@
+package com.chess.api.engine;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTest {
+
+  private final TranspositionTable table = new TranspositionTable(1);
+
+  @Test
+  void shouldFindBackRankMate() {
+    // Given
+    Board board = new Board();
+    board.loadFromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+    // When
+    SearchInfo info = new Search(board, table, SearchLimits.depth(3), new AtomicBoolean(), null).run();
+
+    // Then
+    assertThat(info.best().move().getFrom()).isEqualTo(Square.A1);
+    assertThat(info.best().move().getTo()).isEqualTo(Square.A8);
+    assertThat(info.best().mateIn()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldWinHangingQueen() {
+    Board board = new Board();
+    board.loadFromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+    SearchInfo info = new Search(board, table, SearchLimits.depth(4), new AtomicBoolean(), null).run();
+
+    assertThat(info.best().move().getTo()).isEqualTo(Square.D5);
+    assertThat(info.best().score()).isGreaterThan(300);
+  }
+
+  @Test
+  void shouldReturnRequestedNumberOfLines() {
+    Board board = new Board();
+
+    SearchInfo info = new Search(board, table, SearchLimits.depth(3).withMultiPv(3),
+        new AtomicBoolean(), null).run();
+
+    assertThat(info.lines()).hasSize(3);
+    assertThat(info.lines()).extracting(SearchLine::move).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void shouldKeepBoardUnchanged() {
+    Board board = new Board();
+    String fen = board.getFen();
+
+    new Search(board, table, SearchLimits.depth(3), new AtomicBoolean(), null).run();
+
+    assertThat(board.getFen()).isEqualTo(fen);
+  }
+}
@@ -0,0 +1,43 @@
+package com.chess.api.engine.tablebase;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyzygyEncodingTest {
+
+  @Test
+  void shouldEncodeEveryKingPairOnce() {
+    // Given: первый король в треугольнике a1-d1-d4, короли не соседние
+    Set<Integer> codes = new HashSet<>();
+
+    // When
+    for (int s1 = 0; s1 < 64; s1++) {
+      if (SyzygyEncoding.file(s1) > 3 || SyzygyEncoding.offA1H8(s1) > 0 || SyzygyEncoding.rank(s1) > 3) {
+        continue;
+      }
+      for (int s2 = 0; s2 < 64; s2++) {
+        boolean adjacent = Math.abs(SyzygyEncoding.file(s1) - SyzygyEncoding.file(s2)) <= 1
+            && Math.abs(SyzygyEncoding.rank(s1) - SyzygyEncoding.rank(s2)) <= 1;
+        boolean mirrored = SyzygyEncoding.offA1H8(s1) == 0 && SyzygyEncoding.offA1H8(s2) > 0;
+        if (!adjacent && !mirrored) {
+          codes.add(SyzygyEncoding.MAP_KK[SyzygyEncoding.MAP_A1D1D4[s1]][s2]);
+        }
+      }
+    }
+
+    // Then
+    assertThat(codes).hasSize(462);
+    assertThat(codes).allMatch(code -> code >= 0 && code < 462);
+  }
+
+  @Test
+  void shouldCountLeadPawnPlacements() {
+    // Then: одна ведущая пешка - 6 горизонталей на каждой из вертикалей a-d
+    assertThat(SyzygyEncoding.LEAD_PAWNS_SIZE[1]).containsExactly(6, 6, 6, 6);
+    assertThat(SyzygyEncoding.BINOMIAL[2][48]).isEqualTo(1128);
+  }
+}
@@ -0,0 +1,105 @@
+package com.chess.api.engine.tablebase;
+
+import com.github.bhlangonijr.chesslib.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SyzygyTablebaseTest {
+
+  // Настоящие таблицы KQvK и KRvK (.rtbw и .rtbz) кладутся в src/test/resources/syzygy
+  private static final String FIXTURES = "syzygy";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void forcedCaptureIsResolvedWithoutReadingTable() throws Exception {
+    // given: пустые файлы - если проба полезет в таблицу, разбор заголовка упадет
+    SyzygyTablebase tablebase = placeholders("KQvK");
+
+    // when: у черных единственный ход - взять незащищенного ферзя
+    Board board = board("K7/8/8/8/8/8/6Q1/7k b - - 0 1");
+
+    // then
+    assertThat(tablebase.getMaxPieces()).isEqualTo(3);
+    assertThat(tablebase.probeWdl(board)).contains(Wdl.DRAW);
+    assertThat(tablebase.probeDtz(board)).hasValue(0);
+  }
+
+  @Test
+  void mateAndStalemateNeedNoTable() throws Exception {
+    // given
+    SyzygyTablebase tablebase = placeholders("KQvK");
+    Board mated = board("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1");
+    Board stalemate = board("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1");
+
+    // when / then
+    assertThat(tablebase.probeWdl(mated)).contains(Wdl.LOSS);
+    assertThat(tablebase.probeDtz(mated)).hasValue(0);
+    assertThat(tablebase.probeWdl(stalemate)).contains(Wdl.DRAW);
+  }
+
+  @Test
+  void missingMaterialIsNotProbed() throws Exception {
+    // given
+    SyzygyTablebase tablebase = placeholders("KQvK");
+
+    // when / then: ладейной таблицы нет, а четыре фигуры больше максимума
+    assertThat(tablebase.probeWdl(board("k7/8/1K6/8/8/8/7R/8 w - - 0 1"))).isEmpty();
+    assertThat(tablebase.probeWdl(board("k7/8/1K6/8/8/8/6QR/8 w - - 0 1"))).isEmpty();
+    assertThat(tablebase.probeDtz(board("k7/8/1K6/8/8/8/6QR/8 w - - 0 1"))).isEmpty();
+  }
+
+  @Test
+  void goldenPositionsFromRealTables() throws Exception {
+    // given
+    URL fixtures = getClass().getClassLoader().getResource(FIXTURES);
+    assumeTrue(fixtures != null, "нет таблиц в src/test/resources/" + FIXTURES);
+    SyzygyTablebase tablebase = new SyzygyTablebase(Path.of(fixtures.toURI()), 8);
+    assumeTrue(tablebase.getFileCount() >= 4, "нужны KQvK и KRvK, .rtbw и .rtbz");
+
+    // when / then: мат в один ход ферзем и ладьей; у черных таблица читается зеркально
+    for (String fen : new String[]{"k7/8/1K6/8/8/8/7Q/8 w - - 0 1", "k7/8/1K6/8/8/8/7R/8 w - - 0 1",
+        "K7/8/1k6/8/8/8/7q/8 b - - 0 1"}) {
+      Board board = board(fen);
+      assertThat(tablebase.probeWdl(board)).as(fen).contains(Wdl.WIN);
+      assertThat(tablebase.probeDtz(board)).as(fen).hasValue(1);
+      assertThat(tablebase.bestMove(board)).as(fen).hasValueSatisfying(move ->
+          assertThat(move.toString()).isEqualTo("h2h8"));
+    }
+
+    // Сторона без фигуры, у которой есть ходы, проигрывает
+    for (String fen : new String[]{"k7/8/2K5/8/8/8/7Q/8 b - - 0 1", "k7/8/1K6/8/8/8/7R/8 b - - 0 1"}) {
+      Board board = board(fen);
+      assertThat(tablebase.probeWdl(board)).as(fen).contains(Wdl.LOSS);
+      OptionalInt dtz = tablebase.probeDtz(board);
+      assertThat(dtz).as(fen).isPresent();
+      assertThat(dtz.getAsInt()).as(fen).isNegative();
+    }
+
+    // Ферзь против короля выигрывается из любой позиции, где его нельзя сразу взять
+    Board far = board("8/8/3k4/8/8/8/8/Q3K3 w - - 0 1");
+    assertThat(tablebase.probeWdl(far)).contains(Wdl.WIN);
+    assertThat(tablebase.probeDtz(far).getAsInt()).isBetween(2, 20);
+  }
+
+  private SyzygyTablebase placeholders(String code) throws Exception {
+    Files.createFile(dir.resolve(code + ".rtbw"));
+    Files.createFile(dir.resolve(code + ".rtbz"));
+    return new SyzygyTablebase(dir, 8);
+  }
+
+  private static Board board(String fen) {
+    Board board = new Board();
+    board.loadFromFen(fen);
+    return board;
+  }
+}
@@ -1,5 +1,6 @@
 package com.chess.api.repository;
 
+import com.chess.api.dto.PlayerDTO;
 import com.chess.api.model.Game;
 import com.chess.api.model.Player;
 import com.chess.api.model.enums.GameStatus;
@@ -10,6 +11,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -92,4 +96,35 @@ class GameRepositoryTest {
     assertThat(activeGames.get(0).getStatus()).isEqualTo(GameStatus.ACTIVE);
     assertThat(waitingGames.get(0).getStatus()).isEqualTo(GameStatus.WAITING);
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldReadOnlySelectedFields() {
+    // Given
+    Player white = new Player();
+    white.setUsername("fieldsWhite");
+    white.setEmail("fields@example.com");
+    white.setPassword("password");
+    white.setBlitzRating(1500);
+    playerRepository.save(white);
+
+    Game waiting = new Game();
+    waiting.setWhitePlayer(white);
+    waiting.setGameType(GameType.BLITZ);
+    waiting.setStatus(GameStatus.WAITING);
+    waiting.setCreatedAt(LocalDateTime.now());
+    gameRepository.save(waiting);
+
+    // When
+    List<Map<String, Object>> rows = gameRepository.findFields(
+        new LinkedHashSet<>(List.of("id", "status", "whitePlayer", "blackPlayer")),
+        GameFieldsRepository.Filter.byId(waiting.getId()));
+
+    // Then: только выбранные поля, игрок - с рейтингом в контроле партии
+    assertThat(rows).singleElement().satisfies(row -> {
+      assertThat(row).containsOnlyKeys("id", "status", "whitePlayer", "blackPlayer");
+      assertThat(row.get("status")).isEqualTo(GameStatus.WAITING);
+      assertThat(row.get("whitePlayer")).isEqualTo(new PlayerDTO(white.getId(), "fieldsWhite", 1500));
+      assertThat(row.get("blackPlayer")).isNull();
+    });
+  }
+}
@@ -0,0 +1,238 @@
+package com.chess.api.service;
+
+import com.chess.api.dto.GameCreateRequest;
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.model.Game;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.PlayerRepository;
+import com.chess.api.service.event.MoveMadeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Одновременные переходы состояния партии: проходит ровно один, второй не затирает первый.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(GameConcurrencyTest.RaceHook.class)
+class GameConcurrencyTest {
+
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  @Autowired
+  private GameService gameService;
+
+  @Autowired
+  private PlayerService playerService;
+
+  @Autowired
+  private GameRepository gameRepository;
+
+  @Autowired
+  private PlayerRepository playerRepository;
+
+  @Autowired
+  private SimpAnnotationMethodMessageHandler stompHandler;
+
+  @Autowired
+  @Qualifier("brokerChannel")
+  private AbstractSubscribableChannel brokerChannel;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void onlyOneOfTwoConcurrentJoinsWins() throws Exception {
+    // given
+    Game game = gameService.createGame(new GameCreateRequest(GameType.BLITZ, null, null, true, null), player());
+    Player first = player();
+    Player second = player();
+
+    // when
+    List<Boolean> joined = race(
+        () -> tryJoin(game.getId(), first),
+        () -> tryJoin(game.getId(), second));
+
+    // then
+    assertThat(joined).containsExactlyInAnyOrder(true, false);
+    Game stored = gameService.getGameById(game.getId());
+    assertThat(stored.getStatus()).isEqualTo(GameStatus.ACTIVE);
+    assertThat(stored.getBlackPlayer().getId()).isIn(first.getId(), second.getId());
+  }
+
+  @Test
+  void resignAndFlagFinishTheGameOnce() throws Exception {
+    // given
+    Player white = player();
+    Game game = gameService.createGame(new GameCreateRequest(GameType.BLITZ, null, null, true, null), white);
+    gameService.joinGame(game.getId(), player());
+
+    // when: у каждого потока своя копия партии, как у двух узлов
+    Game resigning = gameService.getGameById(game.getId());
+    Game flagging = gameService.getGameById(game.getId());
+    race(
+        () -> finish(resigning, GameStatus.BLACK_WON, GameResult.BLACK_WIN),
+        () -> finish(flagging, GameStatus.WHITE_WON, GameResult.WHITE_WIN));
+
+    // then: рейтинг и счетчики обновлены один раз
+    assertThat(gameService.getGameStatus(game.getId())).isIn(GameStatus.BLACK_WON, GameStatus.WHITE_WON);
+    assertThat(playerRepository.findById(white.getId()).orElseThrow().getGamesPlayed()).isEqualTo(1);
+  }
+
+  @Test
+  void staleCopyCannotOverwriteNewerState() {
+    // given
+    Game game = gameService.createGame(new GameCreateRequest(GameType.BLITZ, null, null, true, null), player());
+    Game stale = gameRepository.findById(game.getId()).orElseThrow();
+    Game fresh = gameRepository.findById(game.getId()).orElseThrow();
+    fresh.setCurrentFen("8/8/8/8/8/8/8/K6k w - - 0 1");
+    gameRepository.save(fresh);
+
+    // when / then
+    stale.setStatus(GameStatus.ABORTED);
+    assertThatThrownBy(() -> gameRepository.save(stale)).isInstanceOf(OptimisticLockingFailureException.class);
+    assertThat(gameService.getGameStatus(game.getId())).isEqualTo(GameStatus.WAITING);
+  }
+
+  @Test
+  void stompMoveLosingToResignGetsErrorFrame() throws Exception {
+    // given: черные сдаются, пока ход белых еще не зафиксирован
+    Player white = player();
+    Player black = player();
+    Game game = gameService.createGame(new GameCreateRequest(GameType.BLITZ, null, null, true, null), white);
+    gameService.joinGame(game.getId(), black);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    RaceHook.ON_MOVE.set(() -> {
+      try {
+        executor.submit(() -> gameService.resignGame(game.getId(), black)).get();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    List<Object> errors = new CopyOnWriteArrayList<>();
+    ChannelInterceptor capture = new ChannelInterceptor() {
+      @Override
+      public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (("/topic/game/" + game.getId() + "/errors").equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+          errors.add(message);
+        }
+        return message;
+      }
+    };
+    brokerChannel.addInterceptor(capture);
+
+    // when
+    try {
+      stompHandler.handleMessage(stompMove(game.getId(), white, new MoveRequest("e2", "e4", null, null)));
+    } finally {
+      brokerChannel.removeInterceptor(capture);
+      RaceHook.ON_MOVE.set(null);
+      executor.shutdownNow();
+    }
+
+    // then: сдача прошла, ход откатился, игрок получил ошибку
+    assertThat(errors).hasSize(1);
+    assertThat(gameService.getGameStatus(game.getId())).isEqualTo(GameStatus.WHITE_WON);
+    assertThat(gameService.getGameMoves(game.getId())).isEmpty();
+  }
+
+  private Message<byte[]> stompMove(Long gameId, Player player, MoveRequest move) throws Exception {
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setDestination("/app/game/" + gameId + "/move");
+    headers.setSessionId("race-session");
+    headers.setUser(player::getUsername);
+    headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    return MessageBuilder.createMessage(objectMapper.writeValueAsBytes(move), headers.getMessageHeaders());
+  }
+
+  private boolean tryJoin(Long gameId, Player player) {
+    try {
+      gameService.joinGame(gameId, player);
+      return true;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  private boolean finish(Game game, GameStatus status, GameResult result) {
+    gameService.finishGame(game, status, result);
+    return true;
+  }
+
+  // Оба действия стартуют одновременно
+  private static List<Boolean> race(Callable<Boolean> first, Callable<Boolean> second) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      Future<Boolean> a = executor.submit(() -> {
+        start.await();
+        return first.call();
+      });
+      Future<Boolean> b = executor.submit(() -> {
+        start.await();
+        return second.call();
+      });
+      start.countDown();
+      return List.of(a.get(), b.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Вмешательство в ход между чтением партии и фиксацией: событие хода публикуется
+   * внутри его транзакции.
+   */
+  @TestConfiguration
+  static class RaceHook {
+
+    static final AtomicReference<Runnable> ON_MOVE = new AtomicReference<>();
+
+    @EventListener
+    public void onMoveMade(MoveMadeEvent event) {
+      Runnable action = ON_MOVE.getAndSet(null);
+      if (action != null) {
+        action.run();
+      }
+    }
+  }
+
+  private Player player() {
+    String username = "race_" + System.currentTimeMillis() + "_" + SEQUENCE.incrementAndGet();
+    return playerService.registerPlayer(username, username + "@example.com", "password123");
+  }
+}
@@ -93,4 +93,26 @@ class PlayerServiceTest {
     assertThat(found.getId()).isEqualTo(saved.getId());
     assertThat(found.getUsername()).isEqualTo(username);
   }
-}
\ No newline at end of file
+
+  @Test
+  void shouldNotRegisterReservedBotName() {
+    // When & Then
+    assertThatThrownBy(() ->
+        playerService.registerPlayer("Bot_Level_1", "fake_bot@example.com", "password123"))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("зарезервировано");
+  }
+
+  @Test
+  void shouldFindBotsByLevel() {
+    // Given: боты созданы при запуске
+
+    // When
+    Player bot = playerService.getBotPlayer(3);
+
+    // Then
+    assertThat(bot.getBot()).isTrue();
+    assertThat(bot.getBotLevel()).isEqualTo(3);
+    assertThat(playerService.ensureBotPlayer(3).getId()).isEqualTo(bot.getId());
+  }
+}
@@ -0,0 +1,54 @@
+package com.chess.api.service.analysis;
+
+import com.chess.api.model.GameAnalysis;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AccuracyTest {
+
+  @Test
+  void winPercentIsSymmetricAndBounded() {
+    // given / when / then
+    assertThat(Accuracy.winPercent(0)).isCloseTo(50, within(1e-9));
+    assertThat(Accuracy.winPercent(300) + Accuracy.winPercent(-300)).isCloseTo(100, within(1e-9));
+    assertThat(Accuracy.winPercent(100)).isCloseTo(59.1, within(0.1));
+    assertThat(Accuracy.winPercent(GameAnalysis.MATE_CP)).isCloseTo(100, within(1e-9));
+    // Оценка мата за пределами шкалы обрезается
+    assertThat(Accuracy.winPercent(Integer.MAX_VALUE)).isEqualTo(Accuracy.winPercent(GameAnalysis.MATE_CP));
+  }
+
+  @Test
+  void moveWithoutLossIsPerfect() {
+    // given / when / then: выигрыш шансов не делает точность больше 100
+    assertThat(Accuracy.moveAccuracy(50, 50)).isCloseTo(100, within(0.001));
+    assertThat(Accuracy.moveAccuracy(50, 400)).isEqualTo(Accuracy.moveAccuracy(50, 50));
+    // Из равной позиции в получение мата - половина шансов
+    assertThat(Accuracy.moveAccuracy(0, -GameAnalysis.MATE_CP)).isLessThan(10);
+  }
+
+  @Test
+  void accuracyFallsWithLostWinChances() {
+    // given
+    double small = Accuracy.moveAccuracy(0, -50);
+    double medium = Accuracy.moveAccuracy(0, -150);
+    double large = Accuracy.moveAccuracy(0, -400);
+
+    // then
+    assertThat(small).isGreaterThan(medium);
+    assertThat(medium).isGreaterThan(large);
+    assertThat(large).isBetween(0.0, 100.0);
+  }
+
+  @Test
+  void judgementFollowsLossThresholds() {
+    // given / when / then: потеря шансов примерно 4, 5.5, 11 и 34 процента
+    assertThat(Accuracy.judge(0, -45)).isEqualTo(MoveJudgement.GOOD);
+    assertThat(Accuracy.judge(0, -60)).isEqualTo(MoveJudgement.INACCURACY);
+    assertThat(Accuracy.judge(0, -120)).isEqualTo(MoveJudgement.MISTAKE);
+    assertThat(Accuracy.judge(0, -450)).isEqualTo(MoveJudgement.BLUNDER);
+    // Улучшение позиции ошибкой не бывает
+    assertThat(Accuracy.judge(-450, 0)).isEqualTo(MoveJudgement.GOOD);
+  }
+}
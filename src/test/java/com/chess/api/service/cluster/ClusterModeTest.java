@@ -0,0 +1,197 @@
+package com.chess.api.service.cluster;
+
+import com.chess.api.ChessApiApplication;
+import com.chess.api.dto.GameCreateRequest;
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.model.Game;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.GameService;
+import com.chess.api.service.PlayerService;
+import com.chess.api.websocket.ClusterRelayInterceptor;
+import com.chess.api.websocket.GameWebSocketController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Три узла - три контекста приложения в одном процессе на общей базе H2
+ * и общей шине {@link LoopbackClusterBus}.
+ */
+class ClusterModeTest {
+
+  private static final List<String> NODE_IDS = List.of("node-a", "node-b", "node-c");
+  private static final long TIMEOUT_MS = 10_000;
+
+  private final String group = "cluster-" + UUID.randomUUID();
+  private final Map<String, ConfigurableApplicationContext> nodes = new LinkedHashMap<>();
+
+  @BeforeEach
+  void startNodes() {
+    for (String nodeId : NODE_IDS) {
+      nodes.put(nodeId, start(nodeId));
+    }
+    // Состав доходит до узлов асинхронно, как по сети
+    await(() -> NODE_IDS.stream()
+        .allMatch(id -> bean(id, GameOwnership.class).members().size() == NODE_IDS.size()));
+  }
+
+  @AfterEach
+  void stopNodes() {
+    nodes.values().forEach(ConfigurableApplicationContext::close);
+  }
+
+  @Test
+  void moveOnAnyNodeIsPlayedByOwnerAndBroadcastEverywhere() {
+    // given
+    Players players = players();
+    Game game = activeGame(players);
+    String owner = bean("node-a", GameOwnership.class).ownerOf(game.getId());
+    String other = NODE_IDS.stream().filter(id -> !id.equals(owner)).findFirst().orElseThrow();
+    List<Message<?>> relayed = captureRelayed(other, "/topic/game/" + game.getId());
+
+    // then: владельца все считают одинаково, часы идут только у него
+    for (String nodeId : NODE_IDS) {
+      assertThat(bean(nodeId, GameOwnership.class).ownerOf(game.getId())).isEqualTo(owner);
+    }
+    await(() -> hasClock(owner, game.getId()));
+    assertThat(NODE_IDS).filteredOn(id -> hasClock(id, game.getId())).containsExactly(owner);
+
+    // when
+    bean(other, GameWebSocketController.class)
+        .handleMove(game.getId(), new MoveRequest("e2", "e4", null, null), players.white()::getUsername);
+
+    // then: ход записан владельцем, рассылка дошла до брокера другого узла
+    await(() -> bean(owner, GameService.class).getGameMoves(game.getId()).size() == 1);
+    await(() -> !relayed.isEmpty());
+  }
+
+  @Test
+  void survivingNodeTakesOverGameOfStoppedOwner() {
+    // given
+    Players players = players();
+    Game game = activeGame(players);
+    String owner = bean("node-a", GameOwnership.class).ownerOf(game.getId());
+    await(() -> hasClock(owner, game.getId()));
+
+    // when
+    nodes.remove(owner).close();
+
+    // then: часы подняты наследником из базы, ходы идут через него
+    await(() -> nodes.keySet().stream().allMatch(id -> bean(id, GameOwnership.class).members().size() == 2));
+    String heir = bean(nodes.keySet().iterator().next(), GameOwnership.class).ownerOf(game.getId());
+    assertThat(heir).isNotEqualTo(owner);
+    await(() -> hasClock(heir, game.getId()));
+
+    List<String> survivors = new ArrayList<>(nodes.keySet());
+    String sender = survivors.get(0).equals(heir) ? survivors.get(1) : survivors.get(0);
+    bean(sender, GameWebSocketController.class)
+        .handleMove(game.getId(), new MoveRequest("e2", "e4", null, null), players.white()::getUsername);
+    await(() -> bean(heir, GameService.class).getGameMoves(game.getId()).size() == 1);
+  }
+
+  private ConfigurableApplicationContext start(String nodeId) {
+    ApplicationContextInitializer<ConfigurableApplicationContext> excludeTestComponents = context ->
+        context.getBeanFactory().registerSingleton("excludeTestComponents", new ExcludeTestComponents());
+    // Аргументы командной строки: они перекрывают application-test.yml
+    return new SpringApplicationBuilder(ChessApiApplication.class)
+        .profiles("test")
+        .initializers(excludeTestComponents)
+        .run("--chess.cluster.enabled=true",
+            "--chess.cluster.node-id=" + nodeId,
+            "--chess.cluster.loopback-group=" + group,
+            "--spring.datasource.url=jdbc:h2:mem:" + group + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+            "--spring.jpa.hibernate.ddl-auto=update");
+  }
+
+  private <T> T bean(String nodeId, Class<T> type) {
+    return nodes.get(nodeId).getBean(type);
+  }
+
+  private boolean hasClock(String nodeId, Long gameId) {
+    return bean(nodeId, ChessGameService.class).getActiveClockGameIds().contains(gameId);
+  }
+
+  private Players players() {
+    PlayerService playerService = bean("node-a", PlayerService.class);
+    String suffix = Long.toString(System.nanoTime(), 36);
+    return new Players(
+        playerService.registerPlayer("white_" + suffix, "white_" + suffix + "@example.com", "password123"),
+        playerService.registerPlayer("black_" + suffix, "black_" + suffix + "@example.com", "password123"));
+  }
+
+  // Как POST /join на узле A: партия в базе, часы уходят владельцу
+  private Game activeGame(Players players) {
+    GameService gameService = bean("node-a", GameService.class);
+    Game game = gameService.createGame(
+        new GameCreateRequest(GameType.BLITZ, null, null, true, null), players.white());
+    Game joined = gameService.joinGame(game.getId(), players.black());
+    bean("node-a", ChessGameService.class).startGameTimer(joined);
+    return joined;
+  }
+
+  private List<Message<?>> captureRelayed(String nodeId, String destination) {
+    List<Message<?>> messages = new CopyOnWriteArrayList<>();
+    AbstractSubscribableChannel brokerChannel = nodes.get(nodeId)
+        .getBean("brokerChannel", AbstractSubscribableChannel.class);
+    brokerChannel.addInterceptor(new ChannelInterceptor() {
+      @Override
+      public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (message.getHeaders().containsKey(ClusterRelayInterceptor.RELAYED_HEADER)
+            && destination.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+          messages.add(message);
+        }
+        return message;
+      }
+    });
+    return messages;
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("условие не выполнилось за %d мс", TIMEOUT_MS).isLessThan(deadline);
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private record Players(Player white, Player black) {
+  }
+
+  // Как в @SpringBootTest: тестовые конфигурации не подхватываются сканированием
+  private static class ExcludeTestComponents extends TypeExcludeFilter {
+
+    @Override
+    public boolean match(MetadataReader reader, MetadataReaderFactory factory) {
+      return reader.getAnnotationMetadata().isAnnotated(TestComponent.class.getName());
+    }
+  }
+}
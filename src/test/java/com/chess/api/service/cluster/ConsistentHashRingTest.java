@@ -0,0 +1,57 @@
+package com.chess.api.service.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+  private static final int GAMES = 30_000;
+
+  @Test
+  void gamesAreSpreadEvenly() {
+    // given
+    ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+
+    // when
+    Map<String, Integer> owned = new HashMap<>();
+    for (long id = 1; id <= GAMES; id++) {
+      owned.merge(ring.owner(id), 1, Integer::sum);
+    }
+
+    // then: по трети с небольшим разбросом
+    assertThat(owned).containsOnlyKeys("a", "b", "c");
+    assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(GAMES / 4, GAMES * 5 / 12));
+  }
+
+  @Test
+  void onlyGamesOfLeavingNodeMove() {
+    // given
+    ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+    ConsistentHashRing after = new ConsistentHashRing(List.of("c", "a"), 128);
+
+    // when / then
+    for (long id = 1; id <= GAMES; id++) {
+      String owner = before.owner(id);
+      if (!owner.equals("b")) {
+        assertThat(after.owner(id)).isEqualTo(owner);
+      }
+    }
+  }
+
+  @Test
+  void ownerDoesNotDependOnMembershipOrder() {
+    // given
+    ConsistentHashRing first = new ConsistentHashRing(List.of("a", "b", "c"), 16);
+    ConsistentHashRing second = new ConsistentHashRing(List.of("c", "b", "a"), 16);
+
+    // when / then
+    for (long id = 1; id <= 1_000; id++) {
+      assertThat(second.owner(id)).isEqualTo(first.owner(id));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.chess.api.service.explorer;
+
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+import com.github.bhlangonijr.chesslib.Board;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExplorerAggregateTest {
+
+  private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  @Test
+  void shouldMergeTranspositionsIntoOnePosition() {
+    // Given: 1.Nf3 Nf6 2.c4 и 1.c4 Nf6 2.Nf3 приходят в одну позицию, затем e6
+    ExplorerAggregate first = new ExplorerAggregate();
+    first.addGame(game(GameResult.WHITE_WIN, 1500, "g1f3", "g8f6", "c2c4", "e7e6"), 20);
+    ExplorerAggregate second = new ExplorerAggregate();
+    second.addGame(game(GameResult.DRAW, 1700, "c2c4", "g8f6", "g1f3", "e7e6"), 20);
+
+    // When
+    first.merge(second);
+
+    // Then
+    long[] e6 = first.counts().entrySet().stream()
+        .filter(entry -> entry.getKey().move().equals("e7e6"))
+        .map(Map.Entry::getValue)
+        .findFirst()
+        .orElseThrow();
+    assertThat(first.getGames()).isEqualTo(2);
+    assertThat(first.counts().keySet()).filteredOn(key -> key.move().equals("e7e6")).hasSize(1);
+    assertThat(ExplorerAggregate.whiteWins(e6)).isEqualTo(1);
+    assertThat(ExplorerAggregate.draws(e6)).isEqualTo(1);
+    assertThat(ExplorerAggregate.ratingSum(e6)).isEqualTo(3200);
+  }
+
+  @Test
+  void shouldStopAtMaxPly() {
+    // Given
+    ExplorerAggregate aggregate = new ExplorerAggregate();
+
+    // When
+    aggregate.addGame(game(GameResult.BLACK_WIN, 1200, "e2e4", "e7e5", "g1f3", "b8c6"), 2);
+
+    // Then
+    assertThat(aggregate.counts().keySet())
+        .extracting(ExplorerAggregate.Key::move)
+        .containsExactlyInAnyOrder("e2e4", "e7e5");
+  }
+
+  @Test
+  void shouldLookUpPlayedPositionByFen() {
+    // Given: 1.e4 e5 2.Nf3 Nc6 3.Bc4 и 1.e4 - последний после двойного хода пешки
+    ExplorerAggregate aggregate = new ExplorerAggregate();
+    aggregate.addGame(game(GameResult.DRAW, 1500, "e2e4", "e7e5", "g1f3", "b8c6", "f1c4"), 20);
+
+    // When: клиент присылает FEN позиции, как ее показывает доска
+    long afterNf3 = keyOf("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2");
+    long afterE4WithEp = keyOf("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+    long afterE4 = keyOf("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+
+    // Then: ключ поиска совпадает с ключом сыгранной позиции
+    assertThat(keyBefore(aggregate, "b8c6")).isEqualTo(afterNf3);
+    assertThat(keyBefore(aggregate, "e7e5")).isEqualTo(afterE4WithEp).isEqualTo(afterE4);
+  }
+
+  private static long keyOf(String fen) {
+    Board board = new Board();
+    board.loadFromFen(fen);
+    return MoveNotation.positionKey(board);
+  }
+
+  private static long keyBefore(ExplorerAggregate aggregate, String move) {
+    return aggregate.counts().keySet().stream()
+        .filter(key -> key.move().equals(move))
+        .findFirst()
+        .orElseThrow()
+        .positionKey();
+  }
+
+  private static ExplorerGame game(GameResult result, int rating, String... moves) {
+    return new ExplorerGame(GameType.BLITZ, 1400, rating, result, START, List.of(moves));
+  }
+}
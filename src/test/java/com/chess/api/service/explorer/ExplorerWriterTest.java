@@ -0,0 +1,101 @@
+package com.chess.api.service.explorer;
+
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Два писателя над одной базой - два узла кластера.
+ */
+class ExplorerWriterTest {
+
+  private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  private JdbcTemplate jdbcTemplate;
+  private DataSourceTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbcTemplate.execute("CREATE TABLE " + ExplorerWriter.TABLE + " (" +
+        "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+        "position_key BIGINT NOT NULL, game_type VARCHAR(20) NOT NULL, rating_band INTEGER NOT NULL, " +
+        "move VARCHAR(5) NOT NULL, white_wins INTEGER NOT NULL DEFAULT 0, draws INTEGER NOT NULL DEFAULT 0, " +
+        "black_wins INTEGER NOT NULL DEFAULT 0, rating_sum BIGINT NOT NULL DEFAULT 0, " +
+        "UNIQUE (position_key, game_type, rating_band, move))");
+  }
+
+  @Test
+  void liveWriteOnOtherNodeReachesRebuild() {
+    // given
+    ExplorerWriter rebuilding = writer(Duration.ofMinutes(30));
+    ExplorerWriter other = writer(Duration.ofMinutes(30));
+    LocalDateTime rebuild = rebuilding.beginRebuild();
+
+    // when: партия завершилась на другом узле после отсечки
+    other.write(aggregate("e2e4"), rebuild.plusSeconds(1));
+    rebuilding.finishRebuild(rebuild);
+
+    // then
+    assertThat(moves()).containsExactly("e2e4");
+  }
+
+  @Test
+  void secondRebuildIsRejected() {
+    // given
+    ExplorerWriter rebuilding = writer(Duration.ofMinutes(30));
+    ExplorerWriter other = writer(Duration.ofMinutes(30));
+    rebuilding.beginRebuild();
+
+    // when / then
+    assertThatThrownBy(other::beginRebuild).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void abandonedRebuildIsTakenOver() {
+    // given: узел начал построение и перестал отмечаться
+    ExplorerWriter abandoned = writer(Duration.ofMinutes(30));
+    ExplorerWriter other = writer(Duration.ZERO);
+    LocalDateTime stale = abandoned.beginRebuild();
+
+    // when
+    LocalDateTime rebuild = other.beginRebuild();
+    other.writeRebuild(rebuild, aggregate("d2d4"));
+
+    // then: ожившее построение не портит чужое
+    assertThatThrownBy(() -> abandoned.writeRebuild(stale, aggregate("e2e4")))
+        .isInstanceOf(IllegalStateException.class);
+    abandoned.abortRebuild(stale);
+    other.finishRebuild(rebuild);
+    assertThat(moves()).containsExactly("d2d4");
+  }
+
+  private ExplorerWriter writer(Duration staleAfter) {
+    return new ExplorerWriter(jdbcTemplate, transactionManager, staleAfter);
+  }
+
+  private List<String> moves() {
+    return jdbcTemplate.queryForList("SELECT move FROM " + ExplorerWriter.TABLE, String.class);
+  }
+
+  private static ExplorerAggregate aggregate(String move) {
+    ExplorerAggregate aggregate = new ExplorerAggregate();
+    aggregate.addGame(new ExplorerGame(GameType.BLITZ, 1500, 1500, GameResult.DRAW, START, List.of(move)), 20);
+    return aggregate;
+  }
+}
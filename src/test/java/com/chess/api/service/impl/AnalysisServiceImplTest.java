@@ -0,0 +1,103 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.AnalysisRequest;
+import com.chess.api.dto.AnalysisUpdate;
+import com.chess.api.engine.tablebase.Tablebase;
+import com.chess.api.service.GameService;
+import com.chess.api.service.metrics.GameMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class AnalysisServiceImplTest {
+
+  private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+  private static final String ITALIAN = "r1bqk1nr/pppp1ppp/2n5/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+  private static final long TIMEOUT_MS = 10_000;
+
+  private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+  // Один поток на все поиски: второй поиск ждет, пока первый не освободит ядро
+  private final AnalysisServiceImpl service = new AnalysisServiceImpl(mock(GameService.class), messagingTemplate,
+      Tablebase.NONE, new GameMetrics(new SimpleMeterRegistry(), true), 1, 1, 16, 16, 40, 60_000, 100);
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void sameRequestsShareOneSearch() {
+    // given
+    service.start("alice", request(START, 40));
+
+    // when: та же позиция с другими счетчиками ходов
+    service.start("bob", request(START.replace(" 0 1", " 0 7"), 40));
+
+    // then: один поиск, итерации получают оба
+    assertThat(service.getRunningSearches()).isEqualTo(1);
+    verify(messagingTemplate, timeout(TIMEOUT_MS).atLeastOnce())
+        .convertAndSendToUser(eq("alice"), eq(AnalysisServiceImpl.DESTINATION), any(AnalysisUpdate.class));
+    verify(messagingTemplate, timeout(TIMEOUT_MS).atLeastOnce())
+        .convertAndSendToUser(eq("bob"), eq(AnalysisServiceImpl.DESTINATION), any(AnalysisUpdate.class));
+
+    // when: уходит один - поиск продолжается, уходят оба - останавливается
+    service.stop("alice");
+    assertThat(service.getRunningSearches()).isEqualTo(1);
+    service.stop("bob");
+    assertThat(service.getRunningSearches()).isZero();
+  }
+
+  @Test
+  void cancelledSearchIsNotCached() {
+    // given
+    service.start("alice", request(START, 40));
+    verify(messagingTemplate, timeout(TIMEOUT_MS).atLeastOnce())
+        .convertAndSendToUser(eq("alice"), eq(AnalysisServiceImpl.DESTINATION), any(AnalysisUpdate.class));
+
+    // when: новый запрос пользователя отменяет предыдущий
+    service.start("alice", request(ITALIAN, 40));
+    service.stop("alice");
+
+    // then: отмененный поиск не дошел до итога, повторный запрос ищет заново
+    service.start("bob", request(START, 40));
+    assertThat(service.getRunningSearches()).isEqualTo(1);
+    service.stop("bob");
+    verify(messagingTemplate, never()).convertAndSendToUser(any(String.class), any(String.class),
+        argThat((AnalysisUpdate update) -> "ANALYSIS_DONE".equals(update.getType())));
+  }
+
+  @Test
+  void finishedAnalysisIsServedFromCache() {
+    // given
+    service.start("alice", request(ITALIAN, 3));
+    verify(messagingTemplate, timeout(TIMEOUT_MS)).convertAndSendToUser(eq("alice"),
+        eq(AnalysisServiceImpl.DESTINATION), argThat((AnalysisUpdate update) -> "ANALYSIS_DONE".equals(update.getType())));
+
+    // when
+    service.start("bob", request(ITALIAN, 3));
+
+    // then: ответ сразу, без нового поиска
+    ArgumentCaptor<AnalysisUpdate> done = ArgumentCaptor.forClass(AnalysisUpdate.class);
+    verify(messagingTemplate).convertAndSendToUser(eq("bob"), eq(AnalysisServiceImpl.DESTINATION), done.capture());
+    assertThat(service.getRunningSearches()).isZero();
+    assertThat(done.getValue().getType()).isEqualTo("ANALYSIS_DONE");
+    assertThat(done.getValue().getCached()).isTrue();
+    assertThat(done.getValue().getDepth()).isEqualTo(3);
+    assertThat(done.getValue().getLines()).hasSize(1);
+  }
+
+  private static AnalysisRequest request(String fen, int depth) {
+    return new AnalysisRequest(fen, null, null, depth, 1);
+  }
+}
@@ -0,0 +1,166 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.MoveRequest;
+import com.chess.api.exception.IllegalMoveException;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.GameService;
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.event.GameFinishedEvent;
+import com.chess.api.service.event.PremoveRejectedEvent;
+import com.chess.api.service.live.GameRehydrator;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.live.LiveGameRegistry;
+import com.chess.api.service.metrics.GameMetrics;
+import com.github.bhlangonijr.chesslib.Side;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ChessGameServicePremoveTest {
+
+  private static final int CLOCK_MS = 60_000;
+
+  private final GameService gameService = mock(GameService.class);
+  private final LiveGameRegistry liveGames = new LiveGameRegistry(new GameRehydrator(null, 16));
+  private final List<Object> events = new CopyOnWriteArrayList<>();
+  private ChessGameServiceImpl service;
+  private Game game;
+  private Player white;
+  private Player black;
+
+  @BeforeEach
+  void setUp() {
+    // Сохранение хода - как в GameServiceImpl: ход попадает в список партии
+    doAnswer(invocation -> {
+      Game saved = invocation.getArgument(0);
+      saved.getMoves().add(invocation.getArgument(1));
+      return null;
+    }).when(gameService).saveMove(any(Game.class), any(Move.class));
+
+    service = new ChessGameServiceImpl(gameService, liveGames, new LatencyTracker(0.2, 500),
+        new GameMetrics(new SimpleMeterRegistry(), false), events::add,
+        new GameOwnership(null, event -> { }, false, "test", 1), 16, 3);
+
+    white = player(1L, "white");
+    black = player(2L, "black");
+    game = new Game();
+    game.setId(1L);
+    game.setWhitePlayer(white);
+    game.setBlackPlayer(black);
+    game.setStatus(GameStatus.ACTIVE);
+    game.setWhiteTimeLeft(CLOCK_MS);
+    game.setBlackTimeLeft(CLOCK_MS);
+    game.setTimeIncrement(0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.stopGameTimer(game.getId());
+  }
+
+  @Test
+  void opponentPremoveIsPlayedRightAfterMove() throws IllegalMoveException {
+    // given
+    assertThat(service.queuePremove(game, black, move("e7", "e5"))).isTrue();
+
+    // when
+    List<Move> moves = service.makeMoveWithPremove(game, white, move("e2", "e4"));
+
+    // then
+    assertThat(moves).extracting(Move::getMoveNumber).containsExactly(1, 2);
+    assertThat(moves.get(1).getFromSquare()).isEqualTo("e7");
+    assertThat(liveGames.get(game).getBoard().getSideToMove()).isEqualTo(Side.WHITE);
+    assertThat(liveGames.get(game).getPremoves().list(Side.BLACK)).isEmpty();
+  }
+
+  @Test
+  void illegalPremoveClearsQueue() throws IllegalMoveException {
+    // given: ферзь заперт пешкой d7 - первый предход недопустим, второй уже не имеет смысла
+    service.queuePremove(game, black, move("d8", "d6"));
+    service.queuePremove(game, black, move("e7", "e5"));
+
+    // when
+    List<Move> moves = service.makeMoveWithPremove(game, white, move("e2", "e4"));
+
+    // then
+    assertThat(moves).hasSize(1);
+    assertThat(liveGames.get(game).getPremoves().list(Side.BLACK)).isEmpty();
+    assertThat(events).filteredOn(PremoveRejectedEvent.class::isInstance)
+        .singleElement()
+        .satisfies(event -> assertThat(((PremoveRejectedEvent) event).username()).isEqualTo("black"));
+  }
+
+  @Test
+  void premoveIsNotChargedOnClock() throws IllegalMoveException, InterruptedException {
+    // given: белые думают, у черных предход
+    service.queuePremove(game, black, move("e7", "e5"));
+    service.startGameTimer(game);
+    Thread.sleep(200);
+
+    // when
+    List<Move> moves = service.makeMoveWithPremove(game, white, move("e2", "e4"));
+
+    // then: белым списано время раздумья, черным - почти ничего
+    Move premove = moves.get(1);
+    assertThat(premove.getWhiteTimeLeft()).isLessThanOrEqualTo(CLOCK_MS - 200);
+    assertThat(premove.getBlackTimeLeft()).isGreaterThan(CLOCK_MS - 50);
+  }
+
+  @Test
+  void plainMoveLeavesPremovesQueued() throws IllegalMoveException {
+    // given
+    service.queuePremove(game, black, move("e7", "e5"));
+
+    // when
+    Move played = service.makeMove(game, white, move("e2", "e4"));
+
+    // then
+    assertThat(played.getMoveNumber()).isEqualTo(1);
+    assertThat(liveGames.get(game).getBoard().getSideToMove()).isEqualTo(Side.BLACK);
+    assertThat(liveGames.get(game).getPremoves().list(Side.BLACK)).hasSize(1);
+  }
+
+  @Test
+  void premoveOnOwnTurnIsNotQueued() throws IllegalMoveException {
+    // given / when / then: ход за белыми - это обычный ход
+    assertThat(service.queuePremove(game, white, move("e2", "e4"))).isFalse();
+    assertThat(liveGames.get(game).getPremoves().list(Side.WHITE)).isEmpty();
+  }
+
+  @Test
+  void finishedGameDropsItsClock() {
+    // given
+    service.startGameTimer(game);
+
+    // when: партию закончила сдача - мимо stopGameTimer
+    service.onGameFinished(new GameFinishedEvent(game.getId(), GameResult.WHITE_WIN, true, 1200, 1200));
+
+    // then
+    assertThat(service.getActiveClockCount()).isZero();
+    assertThat(service.getClocks(List.of(game.getId()))).isEmpty();
+  }
+
+  private static MoveRequest move(String from, String to) {
+    return new MoveRequest(from, to, null, null);
+  }
+
+  private static Player player(Long id, String username) {
+    Player player = new Player();
+    player.setId(id);
+    player.setUsername(username);
+    return player;
+  }
+}
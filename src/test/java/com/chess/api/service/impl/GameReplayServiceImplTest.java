@@ -0,0 +1,145 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.GamePositionDTO;
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.MoveRepository;
+import com.chess.api.service.metrics.GameMetrics;
+import com.chess.api.service.replay.GameSnapshots;
+import com.github.bhlangonijr.chesslib.Board;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameReplayServiceImplTest {
+
+  private static final long GAME_ID = 5L;
+  private static final int INTERVAL = 4;
+  // 1.e4 e5 2.Nf3 Nc6 3.Bc4 Nf6 4.d3 Be7
+  private static final String[][] MOVES = {
+      {"e2", "e4"}, {"e7", "e5"}, {"g1", "f3"}, {"b8", "c6"},
+      {"f1", "c4"}, {"g8", "f6"}, {"d2", "d3"}, {"f8", "e7"}
+  };
+
+  private final GameRepository gameRepository = mock(GameRepository.class);
+  private final MoveRepository moveRepository = mock(MoveRepository.class);
+  private final List<Move> moves = new ArrayList<>();
+  private final List<String> fens = new ArrayList<>();
+  private Game game;
+  private GameReplayServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    game = new Game();
+    game.setId(GAME_ID);
+    Board board = new Board();
+    board.loadFromFen(game.getInitialFen());
+    fens.add(board.getFen());
+    for (int i = 0; i < MOVES.length; i++) {
+      Move move = new Move();
+      move.setGame(game);
+      move.setMoveNumber(i + 1);
+      move.setFromSquare(MOVES[i][0]);
+      move.setToSquare(MOVES[i][1]);
+      moves.add(move);
+      MoveNotation.play(board, MOVES[i][0], MOVES[i][1], null);
+      fens.add(board.getFen());
+    }
+
+    when(gameRepository.findById(GAME_ID)).thenReturn(Optional.of(game));
+    when(moveRepository.findByGameIdAndMoveNumberBetweenOrderByMoveNumberAsc(eq(GAME_ID), anyInt(), anyInt()))
+        .thenAnswer(invocation -> {
+          int from = invocation.getArgument(1);
+          int to = invocation.getArgument(2);
+          return moves.stream().filter(m -> m.getMoveNumber() >= from && m.getMoveNumber() <= to).toList();
+        });
+    service = new GameReplayServiceImpl(gameRepository, moveRepository,
+        new GameMetrics(new SimpleMeterRegistry(), true), INTERVAL, 16);
+  }
+
+  @Test
+  void replaysFromNearestSnapshot() {
+    // given: контрольная позиция после 4-го полухода
+    game.setStatus(GameStatus.ACTIVE);
+    game.setSnapshots(GameSnapshots.append(null, INTERVAL, 4, fens.get(4)));
+
+    // when
+    GamePositionDTO position = service.getPosition(GAME_ID, 6);
+
+    // then: читаются только ходы своего отрезка, переигрывание идет от контрольной позиции
+    verify(moveRepository).findByGameIdAndMoveNumberBetweenOrderByMoveNumberAsc(GAME_ID, 4, 7);
+    assertThat(position.getFen()).isEqualTo(fens.get(6));
+    assertThat(position.getLastMove()).isEqualTo("g8f6");
+  }
+
+  @Test
+  void replaysFinishedGameWithoutSnapshotsReadOnly() {
+    // given: партия сыграна до появления контрольных позиций
+    game.setStatus(GameStatus.DRAW);
+    game.setSnapshots(null);
+
+    // when
+    GamePositionDTO position = service.getPosition(GAME_ID, 5);
+
+    // then: чтение не трогает партию, иначе сдвинулась бы ее версия
+    assertThat(position.getFen()).isEqualTo(fens.get(5));
+    assertThat(game.getSnapshots()).isNull();
+    verify(gameRepository, never()).save(any());
+  }
+
+  @Test
+  void finishedSegmentIsServedFromCache() {
+    // given
+    game.setStatus(GameStatus.WHITE_WON);
+    service.getPosition(GAME_ID, 4);
+
+    // when: шаги по тому же отрезку
+    GamePositionDTO fifth = service.getPosition(GAME_ID, 5);
+    GamePositionDTO seventh = service.getPosition(GAME_ID, 7);
+
+    // then
+    assertThat(fifth.getFen()).isEqualTo(fens.get(5));
+    assertThat(seventh.getFen()).isEqualTo(fens.get(7));
+    verify(gameRepository, times(1)).findById(GAME_ID);
+    verify(moveRepository, times(1))
+        .findByGameIdAndMoveNumberBetweenOrderByMoveNumberAsc(eq(GAME_ID), anyInt(), anyInt());
+  }
+
+  @Test
+  void openSegmentOfActiveGameIsNotCached() {
+    // given: в идущей партии последний отрезок еще дописывается
+    game.setStatus(GameStatus.ACTIVE);
+    moves.subList(6, moves.size()).clear();
+    service.getPosition(GAME_ID, 5);
+
+    // when: сыгран следующий ход
+    Move next = new Move();
+    next.setGame(game);
+    next.setMoveNumber(7);
+    next.setFromSquare("d2");
+    next.setToSquare("d3");
+    moves.add(next);
+    GamePositionDTO position = service.getPosition(GAME_ID, 7);
+
+    // then
+    assertThat(position.getFen()).isEqualTo(fens.get(7));
+    verify(gameRepository, times(2)).findById(GAME_ID);
+  }
+}
@@ -0,0 +1,76 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.GameRevision;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.GameViewCache;
+import com.chess.api.service.metrics.GameMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameViewCacheImplTest {
+
+  private static final long GAME_ID = 42L;
+
+  @Test
+  void etagSurvivesRestart() {
+    // given
+    GameViewCache.CachedView cached = cache(16).put(GAME_ID, "moves", new GameRevision(GameStatus.DRAW, 7L), List.of());
+
+    // when: новый процесс, кеш пуст
+    GameViewCache restarted = cache(16);
+
+    // then: ETag сверяется по версии из базы
+    assertThat(restarted.get(GAME_ID, "moves")).isNull();
+    assertThat(restarted.etag(GAME_ID, new GameRevision(GameStatus.DRAW, 7L))).isEqualTo(cached.etag());
+  }
+
+  @Test
+  void etagChangesWithVersion() {
+    // given
+    GameViewCache cache = cache(16);
+
+    // when
+    String before = cache.etag(GAME_ID, new GameRevision(GameStatus.WHITE_WON, 3L));
+    String after = cache.etag(GAME_ID, new GameRevision(GameStatus.WHITE_WON, 4L));
+
+    // then: запись в партию после завершения - новый ETag
+    assertThat(before).isNotEqualTo(after);
+  }
+
+  @Test
+  void activeGameIsNotCached() {
+    // given
+    GameViewCache cache = cache(16);
+
+    // when
+    GameViewCache.CachedView cached = cache.put(GAME_ID, "moves", new GameRevision(GameStatus.ACTIVE, 3L), List.of());
+
+    // then
+    assertThat(cached).isNull();
+    assertThat(cache.get(GAME_ID, "moves")).isNull();
+    assertThat(cache.etag(GAME_ID, new GameRevision(GameStatus.ACTIVE, 3L))).isNull();
+  }
+
+  @Test
+  void evictedViewKeepsItsEtag() {
+    // given
+    GameViewCache cache = cache(1);
+    GameViewCache.CachedView first = cache.put(GAME_ID, "moves", new GameRevision(GameStatus.DRAW, 5L), List.of());
+
+    // when: вторая партия вытесняет первую
+    cache.put(GAME_ID + 1, "moves", new GameRevision(GameStatus.DRAW, 2L), List.of());
+
+    // then
+    assertThat(cache.get(GAME_ID, "moves")).isNull();
+    assertThat(cache.etag(GAME_ID, new GameRevision(GameStatus.DRAW, 5L))).isEqualTo(first.etag());
+  }
+
+  private static GameViewCache cache(int size) {
+    return new GameViewCacheImpl(new ObjectMapper(), new GameMetrics(new SimpleMeterRegistry(), false), size);
+  }
+}
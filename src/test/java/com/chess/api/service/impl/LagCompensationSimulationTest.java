@@ -0,0 +1,132 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.service.GameTimer;
+import com.chess.api.service.live.LatencyTracker;
+import com.github.bhlangonijr.chesslib.Side;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Два игрока думают одинаково, но у одного RTT 20 мс, у другого 400 мс с разбросом.
+ * Сервер видит ход через RTT после того, как игрок увидел позицию.
+ */
+class LagCompensationSimulationTest {
+
+  private static final int INITIAL_MS = 300_000;
+  private static final int MOVES = 30;
+  private static final long THINK_MS = 2_000;
+
+  @Test
+  void compensationEvensOutClocksOfFastAndSlowConnections() {
+    // given / when
+    int uncompensated = simulate(false);
+    int compensated = simulate(true);
+
+    // then: без компенсации медленный отстает на 30 * 380 мс, с ней - на шум замеров
+    assertThat(uncompensated).isGreaterThan(10_000);
+    assertThat(Math.abs(compensated)).isLessThan(uncompensated / 10);
+  }
+
+  @Test
+  void creditIsCappedAndNeverExceedsSpentTime() {
+    // given
+    long[] now = {0};
+    LatencyTracker tracker = new LatencyTracker(0.2, 500);
+    tracker.register("s1", "slow");
+    tracker.recordRtt("s1", 2_000);
+    GameTimerImpl timer = new GameTimerImpl(1L, INITIAL_MS, INITIAL_MS, 0, Side.WHITE,
+        (id, side) -> { }, () -> now[0]);
+
+    // when: первый ход занял 3 с, второй пришел мгновенно
+    now[0] += 3_000;
+    long firstCredit = timer.switchTurn(tracker.lagCredit("slow"));
+    long secondCredit = timer.switchTurn(tracker.lagCredit("slow"));
+
+    // then
+    assertThat(firstCredit).isEqualTo(500);
+    assertThat(timer.getWhiteTimeLeft()).isEqualTo(INITIAL_MS - 2_500);
+    assertThat(secondCredit).isZero();
+    assertThat(timer.getBlackTimeLeft()).isEqualTo(INITIAL_MS);
+  }
+
+  @Test
+  void latencyIsTheFastestOfPlayersOwnSessions() {
+    // given
+    LatencyTracker tracker = new LatencyTracker(0.2, 500);
+    tracker.register("phone", "player");
+    tracker.register("desktop", "player");
+    tracker.register("other", "opponent");
+    tracker.recordRtt("phone", 300);
+    tracker.recordRtt("desktop", 40);
+    tracker.recordRtt("other", 10);
+
+    // when
+    Integer both = tracker.latencyMs("player");
+    tracker.unregister("desktop");
+    Integer phoneOnly = tracker.latencyMs("player");
+    tracker.unregister("phone");
+
+    // then
+    assertThat(both).isEqualTo(40);
+    assertThat(phoneOnly).isEqualTo(300);
+    assertThat(tracker.latencyMs("player")).isNull();
+    assertThat(tracker.latencyMs("opponent")).isEqualTo(10);
+  }
+
+  @Test
+  void plannedSwitchMovesClockOnlyWhenApplied() {
+    // given: ход и предход в одной транзакции
+    long[] now = {0};
+    GameTimerImpl timer = new GameTimerImpl(1L, INITIAL_MS, INITIAL_MS, 0, Side.WHITE,
+        (id, side) -> { }, () -> now[0]);
+    now[0] += 2_000;
+    GameTimer.TurnSwitch move = timer.planSwitch(0);
+    now[0] += 100;
+    GameTimer.TurnSwitch premove = timer.planSwitch(0);
+
+    // when: транзакция откатилась
+    timer.discard(premove);
+
+    // then: планы считались друг от друга, часы белых идут как шли
+    assertThat(move.whiteTimeLeft()).isEqualTo(INITIAL_MS - 2_000);
+    assertThat(premove.blackTimeLeft()).isEqualTo(INITIAL_MS - 100);
+    assertThat(timer.snapshot().getTurn()).isEqualTo("WHITE");
+    assertThat(timer.getWhiteTimeLeft()).isEqualTo(INITIAL_MS - 2_100);
+
+    // when: повтор хода зафиксирован
+    timer.apply(timer.planSwitch(0));
+
+    // then
+    assertThat(timer.snapshot().getTurn()).isEqualTo("BLACK");
+    assertThat(timer.getWhiteTimeLeft()).isEqualTo(INITIAL_MS - 2_100);
+  }
+
+  /**
+   * @return насколько у быстрого игрока осталось больше времени, чем у медленного
+   */
+  private static int simulate(boolean compensate) {
+    Random random = new Random(42);
+    long[] now = {0};
+    LatencyTracker tracker = new LatencyTracker(0.2, 500);
+    tracker.register("s-fast", "fast");
+    tracker.register("s-slow", "slow");
+    GameTimerImpl timer = new GameTimerImpl(1L, INITIAL_MS, INITIAL_MS, 0, Side.WHITE,
+        (id, side) -> { }, () -> now[0]);
+
+    for (int i = 0; i < MOVES * 2; i++) {
+      boolean fast = i % 2 == 0;
+      // Фоновые ping-и обновляют оценку между ходами
+      tracker.recordRtt(fast ? "s-fast" : "s-slow", rtt(random, fast));
+      now[0] += THINK_MS + rtt(random, fast);
+      timer.switchTurn(compensate ? tracker.lagCredit(fast ? "fast" : "slow") : 0);
+    }
+    return timer.getWhiteTimeLeft() - timer.getBlackTimeLeft();
+  }
+
+  private static long rtt(Random random, boolean fast) {
+    return fast ? 15 + random.nextInt(11) : 340 + random.nextInt(121);
+  }
+}
@@ -0,0 +1,112 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.model.Game;
+import com.chess.api.model.Player;
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.repository.GameAnalysisRepository;
+import com.chess.api.service.GameService;
+import com.chess.api.service.event.GameFinishedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostGameAnalysisServiceImplTest {
+
+  private final GameService gameService = mock(GameService.class);
+  private final GameAnalysisRepository analysisRepository = mock(GameAnalysisRepository.class);
+  private final PostGameAnalysisServiceImpl service = new PostGameAnalysisServiceImpl(gameService,
+      analysisRepository, mock(PlatformTransactionManager.class), true, 1, 4, 10_000, 100, 1);
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void requestedGamesOvertakeQueueAndStaleJobsAreSkipped() throws InterruptedException {
+    // given: единственный поток анализа занят первой партией
+    CountDownLatch busy = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Long> analyzed = new CopyOnWriteArrayList<>();
+    when(analysisRepository.existsByGameId(anyLong())).thenAnswer(invocation -> {
+      if (!Thread.currentThread().getName().startsWith("post-game-analysis-")) {
+        return false;
+      }
+      Long gameId = invocation.getArgument(0);
+      analyzed.add(gameId);
+      if (gameId == 1L) {
+        busy.countDown();
+        release.await(5, TimeUnit.SECONDS);
+      }
+      // Анализ уже есть - разбор позиций не нужен, важен только порядок
+      return true;
+    });
+    Player player = new Player();
+    player.setId(10L);
+    for (long gameId = 1; gameId <= 4; gameId++) {
+      Game game = new Game();
+      game.setId(gameId);
+      game.setWhitePlayer(player);
+      game.setFinishedAt(LocalDateTime.now());
+      when(gameService.getGameById(gameId)).thenReturn(game);
+    }
+
+    service.onGameFinished(finished(1L));
+    assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when: две партии в обычной очереди, затем участники просят 4 и 2
+    service.onGameFinished(finished(2L));
+    service.onGameFinished(finished(3L));
+    assertThat(service.requestAnalysis(4L, player)).isFalse();
+    assertThat(service.requestAnalysis(2L, player)).isFalse();
+    // Повторная постановка обычной партии ничего не меняет
+    service.onGameFinished(finished(3L));
+
+    // then
+    assertThat(service.getStats().getQueuedRequested()).isEqualTo(2);
+    release.countDown();
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (service.getStats().getCompleted() < 4 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(analyzed).containsExactly(1L, 4L, 2L, 3L);
+    assertThat(service.getStats().getQueuedRequested()).isZero();
+    assertThat(service.getStats().getCompleted()).isEqualTo(4);
+  }
+
+  @Test
+  void requestChecksGameBeforeQueueing() {
+    // given
+    Player stranger = new Player();
+    stranger.setId(20L);
+    Game game = new Game();
+    game.setId(5L);
+    game.setFinishedAt(LocalDateTime.now());
+    when(gameService.getGameById(5L)).thenReturn(game);
+    when(analysisRepository.existsByGameId(5L)).thenReturn(true);
+
+    // when / then: готовый анализ не ставится в очередь, незавершенную партию не разбираем
+    assertThat(service.requestAnalysis(5L, stranger)).isTrue();
+    assertThat(service.getStats().getQueuedRequested()).isZero();
+
+    game.setFinishedAt(null);
+    assertThatThrownBy(() -> service.requestAnalysis(5L, stranger))
+        .hasMessageContaining("только для завершенных");
+  }
+
+  private static GameFinishedEvent finished(Long gameId) {
+    return new GameFinishedEvent(gameId, GameResult.DRAW, true, 1500, 1500);
+  }
+}
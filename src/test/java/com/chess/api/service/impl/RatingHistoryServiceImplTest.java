@@ -0,0 +1,121 @@
+package com.chess.api.service.impl;
+
+import com.chess.api.dto.RatingPointDTO;
+import com.chess.api.model.RatingHistoryChunk;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.repository.RatingHistoryChunkRepository;
+import com.chess.api.service.RatingHistoryService.Interval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RatingHistoryServiceImplTest {
+
+  private static final long PLAYER_ID = 7L;
+  private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+  private final List<RatingHistoryChunk> chunks = new ArrayList<>();
+  private RatingHistoryServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    // Таблица кусков в памяти
+    RatingHistoryChunkRepository repository = mock(RatingHistoryChunkRepository.class);
+    when(repository.findTopByPlayerIdAndGameTypeOrderByChunkIndexDesc(PLAYER_ID, GameType.BLITZ))
+        .thenAnswer(invocation -> chunks.stream().max(Comparator.comparing(RatingHistoryChunk::getChunkIndex)));
+    when(repository.save(any(RatingHistoryChunk.class))).thenAnswer(invocation -> {
+      RatingHistoryChunk chunk = invocation.getArgument(0);
+      if (!chunks.contains(chunk)) {
+        chunks.add(chunk);
+      }
+      return chunk;
+    });
+    when(repository.findOverlapping(eq(PLAYER_ID), eq(GameType.BLITZ), anyLong(), anyLong()))
+        .thenAnswer(invocation -> chunks.stream()
+            .filter(c -> c.getLastEpochSecond() >= (long) invocation.getArgument(2)
+                && c.getFirstEpochSecond() <= (long) invocation.getArgument(3))
+            .sorted(Comparator.comparing(RatingHistoryChunk::getChunkIndex))
+            .toList());
+    service = new RatingHistoryServiceImpl(repository);
+  }
+
+  @Test
+  void rawHistoryDecodesDeltasAcrossChunks() {
+    // given: больше одного куска, рейтинг то растет, то падает
+    List<RatingPointDTO> expected = new ArrayList<>();
+    int rating = 1200;
+    for (int i = 0; i < RatingHistoryChunk.MAX_POINTS + 10; i++) {
+      rating += i % 3 == 0 ? -17 : 11;
+      LocalDateTime timestamp = MONDAY.plusMinutes(37L * i);
+      service.record(PLAYER_ID, GameType.BLITZ, rating, timestamp);
+      expected.add(new RatingPointDTO(timestamp, rating));
+    }
+
+    // when
+    List<RatingPointDTO> history = service.getHistory(PLAYER_ID, GameType.BLITZ, null, null, Interval.RAW);
+
+    // then
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0).getPointCount()).isEqualTo(RatingHistoryChunk.MAX_POINTS);
+    assertThat(history).isEqualTo(expected);
+  }
+
+  @Test
+  void timeNeverGoesBackwards() {
+    // given
+    service.record(PLAYER_ID, GameType.BLITZ, 1210, MONDAY);
+
+    // when: часы сервера ушли назад
+    service.record(PLAYER_ID, GameType.BLITZ, 1220, MONDAY.minusHours(1));
+
+    // then
+    assertThat(service.getHistory(PLAYER_ID, GameType.BLITZ, null, null, Interval.RAW))
+        .extracting(RatingPointDTO::getTimestamp)
+        .containsExactly(MONDAY, MONDAY);
+  }
+
+  @Test
+  void downsamplingKeepsLastPointOfEachInterval() {
+    // given: по три партии в понедельник, вторник и следующий понедельник
+    int rating = 1500;
+    for (int day : new int[]{0, 1, 7}) {
+      for (int game = 0; game < 3; game++) {
+        service.record(PLAYER_ID, GameType.BLITZ, ++rating, MONDAY.plusDays(day).plusHours(game));
+      }
+    }
+
+    // when
+    List<RatingPointDTO> daily = service.getHistory(PLAYER_ID, GameType.BLITZ, null, null, Interval.DAY);
+    List<RatingPointDTO> weekly = service.getHistory(PLAYER_ID, GameType.BLITZ, null, null, Interval.WEEK);
+    List<RatingPointDTO> tuesday = service.getHistory(PLAYER_ID, GameType.BLITZ,
+        MONDAY.plusDays(1), MONDAY.plusDays(1).plusHours(1), Interval.RAW);
+
+    // then
+    assertThat(daily).containsExactly(
+        new RatingPointDTO(MONDAY.plusHours(2), 1503),
+        new RatingPointDTO(MONDAY.plusDays(1).plusHours(2), 1506),
+        new RatingPointDTO(MONDAY.plusDays(7).plusHours(2), 1509));
+    assertThat(weekly).containsExactly(
+        new RatingPointDTO(MONDAY.plusDays(1).plusHours(2), 1506),
+        new RatingPointDTO(MONDAY.plusDays(7).plusHours(2), 1509));
+    assertThat(tuesday).extracting(RatingPointDTO::getRating).containsExactly(1504, 1505);
+  }
+
+  @Test
+  void emptyHistoryHasNoPoints() {
+    // given / when / then
+    assertThat(service.getHistory(PLAYER_ID, GameType.BLITZ, null, null, Interval.DAY)).isEmpty();
+    assertThat(chunks).isEmpty();
+  }
+}
@@ -0,0 +1,62 @@
+package com.chess.api.service.live;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Square;
+import com.github.bhlangonijr.chesslib.move.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DrawTrackerTest {
+
+  @Test
+  void captureResetsRepetitionHistory() {
+    // given
+    LiveGame live = new LiveGame(1L, board("4k3/8/8/p7/8/8/8/R3K3 w - - 10 40"));
+    shuffle(live);
+
+    // when
+    live.play(new Move(Square.A1, Square.A5));
+
+    // then
+    assertThat(live.getDraws().getHalfMoves()).isZero();
+    assertThat(live.getDraws().isThreefoldRepetition()).isFalse();
+  }
+
+  @Test
+  void detectsThreefoldAndFiftyMoves() {
+    // given
+    LiveGame live = new LiveGame(1L, board("4k3/8/8/8/8/8/8/R3K3 w - - 94 80"));
+
+    // when
+    shuffle(live);
+    shuffle(live);
+
+    // then
+    assertThat(live.getDraws().isThreefoldRepetition()).isTrue();
+    assertThat(live.getDraws().isFiftyMoveRule()).isTrue();
+    assertThat(live.getDraws().isInsufficientMaterial()).isFalse();
+  }
+
+  @Test
+  void insufficientMaterialFromPieceSet() {
+    assertThat(DrawTracker.isInsufficientMaterial(board("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1"))).isTrue();
+    assertThat(DrawTracker.isInsufficientMaterial(board("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1"))).isFalse();
+    assertThat(DrawTracker.isInsufficientMaterial(board("3bk3/8/8/8/8/8/8/2B1K3 w - - 0 1"))).isTrue();
+    assertThat(DrawTracker.isInsufficientMaterial(board("4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1"))).isFalse();
+  }
+
+  // Оба короля уходят и возвращаются
+  private static void shuffle(LiveGame live) {
+    live.play(new Move(Square.E1, Square.F1));
+    live.play(new Move(Square.E8, Square.F8));
+    live.play(new Move(Square.F1, Square.E1));
+    live.play(new Move(Square.F8, Square.E8));
+  }
+
+  private static Board board(String fen) {
+    Board board = new Board();
+    board.loadFromFen(fen);
+    return board;
+  }
+}
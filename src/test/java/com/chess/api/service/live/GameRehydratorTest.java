@@ -0,0 +1,71 @@
+package com.chess.api.service.live;
+
+import com.chess.api.model.Move;
+import com.github.bhlangonijr.chesslib.Side;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameRehydratorTest {
+
+  private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  private final GameRehydrator rehydrator = new GameRehydrator(null, 4);
+
+  @Test
+  void replaysMovesSinceLastIrreversibleMoveForRepetition() {
+    // given: кони выходят и возвращаются дважды - начальная позиция третий раз
+    String[][] squares = {
+        {"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"},
+        {"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}};
+    List<Move> moves = new ArrayList<>();
+    for (int i = 0; i < squares.length; i++) {
+      Move move = new Move();
+      move.setMoveNumber(i + 1);
+      move.setFromSquare(squares[i][0]);
+      move.setToSquare(squares[i][1]);
+      moves.add(move);
+    }
+    String currentFen = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 8 5";
+
+    // when
+    GameRehydrator.Plan plan = rehydrator.plan(START, currentFen, null);
+    LiveGame live = rehydrator.rehydrate(1L, currentFen, plan, moves);
+
+    // then
+    assertThat(plan.basePly()).isZero();
+    assertThat(plan.lastPly()).isEqualTo(8);
+    assertThat(live.getBoard().isRepetition()).isTrue();
+    assertThat(live.getDraws().isThreefoldRepetition()).isTrue();
+  }
+
+  @Test
+  void loadsCurrentFenWhenRepetitionIsImpossible() {
+    // given
+    String currentFen = "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2";
+
+    // when
+    GameRehydrator.Plan plan = rehydrator.plan(START, currentFen, null);
+
+    // then
+    assertThat(plan.baseFen()).isEqualTo(currentFen);
+    assertThat(plan.basePly()).isEqualTo(2);
+    assertThat(plan.fromMove()).isEqualTo(2);
+  }
+
+  @Test
+  void chargesDowntimeToSideToMove() {
+    // given
+    LocalDateTime lastMove = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+
+    // when
+    int[] clocks = GameRehydrator.restoreClocks(60_000, 50_000, Side.BLACK, lastMove, lastMove.plusSeconds(20));
+
+    // then
+    assertThat(clocks).containsExactly(60_000, 30_000);
+  }
+}
@@ -0,0 +1,60 @@
+package com.chess.api.service.live;
+
+import com.chess.api.engine.MoveNotation;
+import com.chess.api.model.Game;
+import com.github.bhlangonijr.chesslib.Side;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveGameRegistryTest {
+
+  private static final String AFTER_E4 = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1";
+  private static final String AFTER_E4_E5 = "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2";
+
+  private final LiveGameRegistry registry = new LiveGameRegistry(new GameRehydrator(null, 16));
+  private Game game;
+
+  @BeforeEach
+  void setUp() {
+    game = new Game();
+    game.setId(1L);
+  }
+
+  @Test
+  void keepsBoardMatchingRow() {
+    // given
+    LiveGame live = registry.get(game);
+    live.play(MoveNotation.fromSquares("e2", "e4", null, Side.WHITE));
+    game.setCurrentFen(AFTER_E4);
+
+    // when / then
+    assertThat(registry.get(game)).isSameAs(live);
+  }
+
+  @Test
+  void rehydratesBoardBehindRow() {
+    // given: пока партия была на другом узле, там сыграли 1.e4 e5
+    LiveGame stale = registry.get(game);
+    game.setCurrentFen(AFTER_E4_E5);
+
+    // when
+    LiveGame live = registry.get(game);
+
+    // then
+    assertThat(live).isNotSameAs(stale);
+    assertThat(live.getFen()).isEqualTo(AFTER_E4_E5);
+    assertThat(registry.get(game)).isSameAs(live);
+  }
+
+  @Test
+  void keepsBoardAheadOfStaleRow() {
+    // given: строку прочитали до фиксации хода этого узла
+    LiveGame live = registry.get(game);
+    live.play(MoveNotation.fromSquares("e2", "e4", null, Side.WHITE));
+
+    // when / then
+    assertThat(registry.get(game)).isSameAs(live);
+  }
+}
@@ -0,0 +1,59 @@
+package com.chess.api.service.live;
+
+import com.chess.api.dto.MoveRequest;
+import com.github.bhlangonijr.chesslib.Side;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PremoveQueueTest {
+
+  @Test
+  void premovesArePlayedInOrderPerSide() {
+    // given
+    PremoveQueue queue = new PremoveQueue();
+    queue.offer(Side.BLACK, move("e7", "e5"), 3);
+    queue.offer(Side.WHITE, move("d2", "d4"), 3);
+    queue.offer(Side.BLACK, move("g8", "f6"), 3);
+
+    // when / then: очереди сторон независимы, каждая - в порядке постановки
+    assertThat(queue.poll(Side.BLACK).getFrom()).isEqualTo("e7");
+    assertThat(queue.poll(Side.WHITE).getFrom()).isEqualTo("d2");
+    assertThat(queue.poll(Side.BLACK).getFrom()).isEqualTo("g8");
+    assertThat(queue.poll(Side.BLACK)).isNull();
+  }
+
+  @Test
+  void fullQueueRejectsPremove() {
+    // given
+    PremoveQueue queue = new PremoveQueue();
+    queue.offer(Side.WHITE, move("e2", "e4"), 2);
+    queue.offer(Side.WHITE, move("g1", "f3"), 2);
+
+    // when
+    boolean accepted = queue.offer(Side.WHITE, move("f1", "c4"), 2);
+
+    // then
+    assertThat(accepted).isFalse();
+    assertThat(queue.list(Side.WHITE)).extracting(MoveRequest::getFrom).containsExactly("e2", "g1");
+  }
+
+  @Test
+  void clearEmptiesOnlyOneSide() {
+    // given
+    PremoveQueue queue = new PremoveQueue();
+    queue.offer(Side.WHITE, move("e2", "e4"), 3);
+    queue.offer(Side.BLACK, move("e7", "e5"), 3);
+
+    // when
+    queue.clear(Side.WHITE);
+
+    // then
+    assertThat(queue.list(Side.WHITE)).isEmpty();
+    assertThat(queue.list(Side.BLACK)).hasSize(1);
+  }
+
+  private static MoveRequest move(String from, String to) {
+    return new MoveRequest(from, to, null, null);
+  }
+}
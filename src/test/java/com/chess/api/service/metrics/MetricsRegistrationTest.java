@@ -0,0 +1,75 @@
+package com.chess.api.service.metrics;
+
+import com.chess.api.dto.RegisterRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "chess.admin.usernames=metrics_admin")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsRegistrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @Test
+  void chessMetersAreRegistered() {
+    // given / when: контекст поднят
+
+    // then
+    assertThat(registry.find("chess.move.stage").tag("stage", "persist").timer()).isNotNull();
+    assertThat(registry.find("chess.clock.flag.delay").timer()).isNotNull();
+    assertThat(registry.find("chess.jwt.filter").timer()).isNotNull();
+    assertThat(registry.find("chess.websocket.outbound.send").timer()).isNotNull();
+    assertThat(registry.find("chess.games.live").gauge()).isNotNull();
+    assertThat(registry.find("chess.clocks.active").gauge()).isNotNull();
+    assertThat(registry.find("chess.lag.compensated").functionCounter()).isNotNull();
+  }
+
+  @Test
+  void prometheusEndpointRequiresAdmin() throws Exception {
+    // given
+    String player = token("metrics_player_" + System.currentTimeMillis());
+    String admin = token("metrics_admin");
+
+    // when / then
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().is4xxClientError());
+    mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + player))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + admin))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("chess_move_stage_seconds")));
+  }
+
+  private String token(String username) throws Exception {
+    RegisterRequest request = new RegisterRequest(username, username + "@example.com", "password123");
+    String response = mockMvc.perform(post("/api/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).path("data").path("token").asText();
+  }
+}
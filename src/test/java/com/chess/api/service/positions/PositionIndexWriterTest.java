@@ -0,0 +1,127 @@
+package com.chess.api.service.positions;
+
+import com.chess.api.model.PositionPostingChunk;
+import com.chess.api.repository.PositionPostingChunkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(PositionIndexWriter.class)
+class PositionIndexWriterTest {
+
+  private static final long KEY = 0x1234_5678_9abcL;
+  private static final long OTHER_KEY = -42L;
+
+  @Autowired
+  private PositionIndexWriter writer;
+
+  @Autowired
+  private PositionPostingChunkRepository chunkRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void pendingPostingsAreStoredUntilFlush() {
+    // given
+    writer.add(KEY, PostingList.pack(7, 3));
+    writer.add(KEY, PostingList.pack(5, 1));
+    writer.add(OTHER_KEY, PostingList.pack(6, 2));
+
+    // when / then: до сброса вхождения лежат в базе, а не в памяти узла
+    assertThat(pendingCount()).isEqualTo(3);
+    assertThat(writer.buffered(KEY)).containsExactly(PostingList.pack(5, 1), PostingList.pack(7, 3));
+    assertThat(chunks(KEY)).isEmpty();
+  }
+
+  @Test
+  void flushMovesPendingPostingsIntoChunks() {
+    // given
+    writer.add(KEY, PostingList.pack(7, 3));
+    writer.add(KEY, PostingList.pack(5, 1));
+    writer.add(OTHER_KEY, PostingList.pack(6, 2));
+
+    // when
+    int moved = writer.flush();
+
+    // then
+    assertThat(moved).isEqualTo(3);
+    assertThat(pendingCount()).isZero();
+    assertThat(writer.buffered(KEY)).isEmpty();
+    List<PositionPostingChunk> chunks = chunks(KEY);
+    assertThat(chunks).hasSize(1);
+    assertThat(PostingList.decode(chunks.get(0).getData(), chunks.get(0).getPostingCount()))
+        .containsExactly(PostingList.pack(5, 1), PostingList.pack(7, 3));
+    assertThat(chunks(OTHER_KEY)).hasSize(1);
+  }
+
+  @Test
+  void repeatedPostingIsMergedIntoOpenChunk() {
+    // given: вхождение уже в куске, затем приходит повтор и новое
+    writer.add(KEY, PostingList.pack(5, 1));
+    writer.flush();
+    writer.add(KEY, PostingList.pack(5, 1));
+    writer.add(KEY, PostingList.pack(9, 4));
+
+    // when
+    writer.flush();
+
+    // then
+    List<PositionPostingChunk> chunks = chunks(KEY);
+    assertThat(chunks).hasSize(1);
+    assertThat(chunks.get(0).getPostingCount()).isEqualTo(2);
+    assertThat(chunks.get(0).getLastGameId()).isEqualTo(9);
+    assertThat(PostingList.decode(chunks.get(0).getData(), 2))
+        .containsExactly(PostingList.pack(5, 1), PostingList.pack(9, 4));
+  }
+
+  @Test
+  void latePostingGoesToCoveringChunkAndKeepsRangesApart() {
+    // given: полный кусок партий 1..4096 и неполный 4097..4106, без партии 100
+    int max = PositionPostingChunk.MAX_POSTINGS;
+    long[] postings = new long[max + 10];
+    for (int i = 0; i < postings.length; i++) {
+      long gameId = i < 99 ? i + 1 : i + 2;
+      postings[i] = PostingList.pack(gameId, 1);
+    }
+    writer.write(Map.of(KEY, postings));
+
+    // when: долгая партия 100 дописала позицию позже
+    writer.add(KEY, PostingList.pack(100, 1));
+    writer.flush();
+
+    // then: вхождение в первом куске, вытесненное ушло во второй
+    List<PositionPostingChunk> chunks = chunks(KEY);
+    assertThat(chunks).hasSize(2);
+    PositionPostingChunk newer = chunks.get(0);
+    PositionPostingChunk older = chunks.get(1);
+    assertThat(older.getPostingCount()).isEqualTo(max);
+    assertThat(older.getFirstGameId()).isEqualTo(1);
+    assertThat(older.getLastGameId()).isEqualTo(max);
+    assertThat(PostingList.decode(older.getData(), max)).contains(PostingList.pack(100, 1));
+    assertThat(newer.getPostingCount()).isEqualTo(11);
+    assertThat(newer.getFirstGameId()).isGreaterThan(older.getLastGameId());
+    assertThat(newer.getLastGameId()).isEqualTo(max + 11);
+  }
+
+  private int pendingCount() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM position_postings_pending", Integer.class);
+  }
+
+  private List<PositionPostingChunk> chunks(long key) {
+    try (Stream<PositionPostingChunk> chunks = chunkRepository.streamNewestFirst(key, Long.MAX_VALUE)) {
+      return chunks.toList();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.chess.api.service.positions;
+
+import com.chess.api.util.VarInts;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingListTest {
+
+  @Test
+  void encodeDecodeRoundTrip() {
+    // given
+    long[] postings = {
+        PostingList.pack(1, 3), PostingList.pack(1, 7), PostingList.pack(2, 3),
+        PostingList.pack(900_000, 1), PostingList.pack(900_000, 250)
+    };
+
+    // when
+    byte[] data = PostingList.encode(postings, 0, postings.length);
+
+    // then
+    assertThat(PostingList.decode(data, postings.length)).containsExactly(postings);
+    assertThat(data.length).isLessThan(postings.length * 4);
+  }
+
+  @Test
+  void appendContinuesEncodedList() {
+    // given
+    long[] first = {PostingList.pack(10, 5), PostingList.pack(12, 9)};
+    long[] second = {PostingList.pack(12, 11), PostingList.pack(15, 2)};
+    VarInts.Writer writer = new VarInts.Writer(PostingList.encode(first, 0, first.length));
+
+    // when
+    PostingList.append(writer, first[1], second, 0, second.length);
+
+    // then
+    assertThat(PostingList.decode(writer.toByteArray(), 4))
+        .containsExactly(first[0], first[1], second[0], second[1]);
+  }
+
+  @Test
+  void mergeDropsDuplicates() {
+    // given
+    long[] left = {PostingList.pack(1, 2), PostingList.pack(3, 4)};
+    long[] right = {PostingList.pack(2, 1), PostingList.pack(3, 4)};
+
+    // when
+    long[] merged = PostingList.merge(left, right);
+
+    // then
+    assertThat(merged).containsExactly(PostingList.pack(1, 2), PostingList.pack(2, 1), PostingList.pack(3, 4));
+    assertThat(PostingList.gameId(merged[1])).isEqualTo(2);
+    assertThat(PostingList.ply(merged[1])).isEqualTo(1);
+  }
+}
@@ -0,0 +1,43 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.RatingState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Glicko2RatingEngineTest {
+
+  private final Glicko2RatingEngine engine = new Glicko2RatingEngine(0.5, 0, 10_000);
+
+  @Test
+  void shouldMatchGlickmanExample() {
+    // Given - пример из описания Glicko-2
+    RatingState player = new RatingState(1500, 200, 0.06);
+    List<RatingOutcome> outcomes = List.of(
+        new RatingOutcome(new RatingState(1400, 30, 0.06), 1.0),
+        new RatingOutcome(new RatingState(1550, 100, 0.06), 0.0),
+        new RatingOutcome(new RatingState(1700, 300, 0.06), 0.0)
+    );
+
+    // When
+    RatingState updated = engine.update(player, outcomes);
+
+    // Then
+    assertThat(updated.rating()).isCloseTo(1464.06, within(0.01));
+    assertThat(updated.deviation()).isCloseTo(151.52, within(0.01));
+    assertThat(updated.volatility()).isCloseTo(0.05999, within(0.00001));
+  }
+
+  @Test
+  void shouldIncreaseDeviationWhenIdle() {
+    RatingState player = new RatingState(1500, 50, 0.06);
+
+    RatingState idle = engine.idle(player, 10);
+
+    assertThat(idle.rating()).isEqualTo(1500);
+    assertThat(idle.deviation()).isGreaterThan(50);
+  }
+}
@@ -0,0 +1,97 @@
+package com.chess.api.service.rating;
+
+import com.chess.api.model.Player;
+import com.chess.api.model.RatingState;
+import com.chess.api.model.enums.GameResult;
+import com.chess.api.model.enums.GameType;
+import com.chess.api.repository.GameRepository;
+import com.chess.api.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingRecomputeJobTest {
+
+  private static final int PLAYERS = 4;
+  private static final int PERIODS = 12;
+
+  private final RatingEngine engine = new Glicko2RatingEngine(0.5, 30, 350);
+  private final GameRepository gameRepository = mock(GameRepository.class);
+  private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void replayMatchesIncrementalRatings() {
+    // given: каждый период каждый игрок играет ровно одну партию - пропусков нет,
+    // и пересчет по периодам совпадает с пересчетом после каждой партии
+    List<Player> players = new ArrayList<>();
+    for (long id = 1; id <= PLAYERS; id++) {
+      Player player = new Player();
+      player.setId(id);
+      players.add(player);
+    }
+    List<FinishedGameRow> rows = new ArrayList<>();
+    Random random = new Random(42);
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+    for (int period = 0; period < PERIODS; period++) {
+      int[][] pairs = period % 2 == 0 ? new int[][]{{0, 1}, {2, 3}} : new int[][]{{0, 2}, {3, 1}};
+      for (int[] pair : pairs) {
+        GameResult result = GameResult.values()[random.nextInt(3)];
+        Player white = players.get(pair[0]);
+        Player black = players.get(pair[1]);
+        rows.add(new FinishedGameRow(white.getId(), black.getId(), GameType.BLITZ, result,
+            start.plusSeconds(period)));
+        applyIncrementally(white, black, result);
+      }
+    }
+
+    when(playerRepository.findAllIds()).thenReturn(players.stream().map(Player::getId).toList());
+    when(gameRepository.streamRatedGames()).thenReturn(rows.stream());
+    RatingRecomputeJob job = new RatingRecomputeJob(gameRepository, playerRepository, engine, jdbcTemplate,
+        mock(PlatformTransactionManager.class), false, Duration.ofSeconds(1), 1, 1000);
+
+    // when
+    RatingRecomputeJob.Summary summary = job.recompute();
+
+    // then
+    assertThat(summary.games()).isEqualTo(rows.size());
+    assertThat(summary.periods()).isEqualTo(PERIODS);
+
+    ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+    int blitz = GameType.BLITZ.ordinal() * 3;
+    for (Object[] args : batch.getValue()) {
+      Player player = players.get(((Long) args[args.length - 1]).intValue() - 1);
+      // Пошаговый расчет хранит рейтинг целым и округляет после каждой партии
+      assertThat((Integer) args[blitz]).isCloseTo(player.getBlitzRating(), within(PERIODS / 2));
+      assertThat((Double) args[blitz + 1]).isCloseTo(player.getBlitzRatingDeviation(), within(0.5));
+      assertThat((Double) args[blitz + 2]).isCloseTo(player.getBlitzVolatility(), within(1e-4));
+    }
+  }
+
+  // Как GameServiceImpl.updatePlayerRatings
+  private void applyIncrementally(Player white, Player black, GameResult result) {
+    RatingState whiteBefore = white.getRatingState(GameType.BLITZ);
+    RatingState blackBefore = black.getRatingState(GameType.BLITZ);
+    double whiteScore = RatingOutcome.whiteScore(result);
+    white.applyRatingState(GameType.BLITZ,
+        engine.update(whiteBefore, List.of(new RatingOutcome(blackBefore, whiteScore))));
+    black.applyRatingState(GameType.BLITZ,
+        engine.update(blackBefore, List.of(new RatingOutcome(whiteBefore, 1.0 - whiteScore))));
+  }
+}
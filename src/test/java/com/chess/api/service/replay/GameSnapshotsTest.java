@@ -0,0 +1,41 @@
+package com.chess.api.service.replay;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameSnapshotsTest {
+
+  @Test
+  void appendsOnlyConsecutiveCheckpoints() {
+    // given
+    String snapshots = GameSnapshots.append(null, 4, 4, "fen4");
+
+    // when
+    String skipped = GameSnapshots.append(snapshots, 4, 12, "fen12");
+    String notMultiple = GameSnapshots.append(snapshots, 4, 6, "fen6");
+    String next = GameSnapshots.append(snapshots, 4, 8, "fen8");
+
+    // then
+    assertThat(skipped).isEqualTo(snapshots);
+    assertThat(notMultiple).isEqualTo(snapshots);
+    GameSnapshots parsed = GameSnapshots.parse(next, 16);
+    assertThat(parsed.getInterval()).isEqualTo(4);
+    assertThat(parsed.size()).isEqualTo(2);
+    assertThat(parsed.get(0)).isNull();
+    assertThat(parsed.get(2)).isEqualTo("fen8");
+  }
+
+  @Test
+  void storedIntervalWinsOverConfigured() {
+    // given
+    String snapshots = GameSnapshots.append(null, 8, 8, "fen8");
+
+    // when
+    String next = GameSnapshots.append(snapshots, 16, 16, "fen16");
+
+    // then
+    assertThat(GameSnapshots.parse(next, 16).getInterval()).isEqualTo(8);
+    assertThat(GameSnapshots.parse(next, 16).get(2)).isEqualTo("fen16");
+  }
+}
@@ -0,0 +1,61 @@
+package com.chess.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VarIntsTest {
+
+  private static final long[] VALUES = {
+      0, 1, -1, 63, -64, 64, 127, 128, 300, -300, 16_383, 16_384,
+      Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE
+  };
+
+  @Test
+  void signedValuesSurviveRoundTrip() {
+    // given
+    VarInts.Writer writer = new VarInts.Writer();
+    for (long value : VALUES) {
+      writer.writeSigned(value);
+    }
+
+    // when
+    VarInts.Reader reader = new VarInts.Reader(writer.toByteArray());
+
+    // then
+    for (long value : VALUES) {
+      assertThat(reader.readSigned()).isEqualTo(value);
+    }
+    assertThat(reader.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void smallMagnitudesTakeOneByte() {
+    // given / when / then: зигзаг кладет -64..63 в один байт
+    assertThat(VarInts.zigZag(0)).isZero();
+    assertThat(VarInts.zigZag(-1)).isEqualTo(1);
+    assertThat(VarInts.zigZag(1)).isEqualTo(2);
+    assertThat(new VarInts.Writer().writeSigned(63).size()).isEqualTo(1);
+    assertThat(new VarInts.Writer().writeSigned(-64).size()).isEqualTo(1);
+    assertThat(new VarInts.Writer().writeSigned(64).size()).isEqualTo(2);
+    assertThat(new VarInts.Writer().writeUnsigned(127).size()).isEqualTo(1);
+    assertThat(new VarInts.Writer().writeUnsigned(128).size()).isEqualTo(2);
+    assertThat(new VarInts.Writer().writeUnsigned(-1L).size()).isEqualTo(10);
+  }
+
+  @Test
+  void writerAppendsToExistingData() {
+    // given
+    byte[] first = new VarInts.Writer().writeUnsigned(300).toByteArray();
+
+    // when
+    byte[] both = new VarInts.Writer(first).writeSigned(-7).writeByte(0x42).toByteArray();
+
+    // then
+    VarInts.Reader reader = new VarInts.Reader(both);
+    assertThat(reader.readUnsigned()).isEqualTo(300);
+    assertThat(reader.readSigned()).isEqualTo(-7);
+    assertThat(reader.readByte()).isEqualTo(0x42);
+    assertThat(reader.hasRemaining()).isFalse();
+  }
+}
@@ -0,0 +1,204 @@
+package com.chess.api.websocket;
+
+import com.chess.api.dto.TimeSyncFrame;
+import com.chess.api.service.ChessGameService;
+import com.chess.api.service.cluster.ClusterBus;
+import com.chess.api.service.cluster.ClusterMessage;
+import com.chess.api.service.cluster.GameOwnership;
+import com.chess.api.service.impl.GameTimerImpl;
+import com.github.bhlangonijr.chesslib.Side;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpSubscriptionMatcher;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ClockBroadcasterTest {
+
+  private final ChessGameService chessGameService = mock(ChessGameService.class);
+  private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+  private final SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+  private final Map<Long, GameTimerImpl> timers = new HashMap<>();
+  private final List<SimpSubscription> subscriptions = new ArrayList<>();
+  private ClockBroadcaster broadcaster;
+
+  @BeforeEach
+  void setUp() {
+    // Реестр отвечает по своим подпискам, как DefaultSimpUserRegistry
+    when(userRegistry.findSubscriptions(any(SimpSubscriptionMatcher.class))).thenAnswer(invocation -> {
+      SimpSubscriptionMatcher matcher = invocation.getArgument(0);
+      return subscriptions.stream().filter(matcher::match).collect(Collectors.toSet());
+    });
+    when(chessGameService.getClocks(anyCollection())).thenAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      // Как ChessGameServiceImpl: остановленные часы не рассылаются
+      return ids.stream().filter(id -> timers.containsKey(id) && timers.get(id).isRunning())
+          .map(id -> timers.get(id).snapshot()).toList();
+    });
+    broadcaster = new ClockBroadcaster(chessGameService, messagingTemplate, userRegistry,
+        new GameOwnership(null, event -> { }, false, "test", 1), 1000);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void sendsFramesOnlyForWatchedGames() {
+    // given: часы идут в трех партиях, смотрят одну - двое зрителей
+    for (long id = 1; id <= 3; id++) {
+      timers.put(id, new GameTimerImpl(id, 60_000, 60_000, 0, (gameId, side) -> { }));
+    }
+    subscribe("/topic/game/1");
+    subscribe("/topic/game/1");
+    subscribe("/topic/game/2/chat");
+    subscribe("/topic/game/abc");
+    subscribe("/topic/lobby");
+
+    // when
+    broadcaster.tick();
+
+    // then: один кадр на партию, вложенные и чужие назначения не в счет
+    ArgumentCaptor<Collection<Long>> watched = ArgumentCaptor.forClass(Collection.class);
+    verify(chessGameService).getClocks(watched.capture());
+    assertThat(watched.getValue()).containsExactly(1L);
+    verify(messagingTemplate).convertAndSend(eq("/topic/game/1"), any(TimeSyncFrame.class));
+    verifyNoMoreInteractions(messagingTemplate);
+  }
+
+  @Test
+  void noSubscribersNoClockReads() {
+    // given
+    timers.put(1L, new GameTimerImpl(1L, 60_000, 60_000, 0, (gameId, side) -> { }));
+    subscribe("/topic/lobby");
+
+    // when
+    broadcaster.tick();
+
+    // then
+    verify(chessGameService, never()).getClocks(anyCollection());
+    verifyNoInteractions(messagingTemplate);
+  }
+
+  @Test
+  void frameCarriesBothClocksAndRunningSide() {
+    // given: ход черных, белые стоят на своем остатке
+    timers.put(7L, new GameTimerImpl(7L, 45_000, 30_000, 2_000,
+        Side.BLACK, (gameId, side) -> { }));
+    timers.put(8L, new GameTimerImpl(8L, 10_000, 20_000, 0, (gameId, side) -> { }));
+    timers.get(8L).stop();
+    subscribe("/topic/game/7");
+    subscribe("/topic/game/8");
+
+    // when
+    broadcaster.tick();
+
+    // then: остановленные часы закончившейся партии не рассылаются
+    ArgumentCaptor<TimeSyncFrame> frames = ArgumentCaptor.forClass(TimeSyncFrame.class);
+    verify(messagingTemplate, times(1)).convertAndSend(any(String.class), frames.capture());
+    Map<Long, TimeSyncFrame> byGame = frames.getAllValues().stream()
+        .collect(Collectors.toMap(TimeSyncFrame::getGameId, frame -> frame));
+
+    TimeSyncFrame running = byGame.get(7L);
+    assertThat(running.getType()).isEqualTo("TIME_SYNC");
+    assertThat(running.getTurn()).isEqualTo("BLACK");
+    assertThat(running.getWhiteTimeLeft()).isEqualTo(45_000);
+    assertThat(running.getBlackTimeLeft()).isBetween(29_000, 30_000);
+    assertThat(running.getServerTime()).isNotNull();
+    assertThat(byGame).doesNotContainKey(8L);
+  }
+
+  @Test
+  void clusterNodeSharesInterestWithOwners() {
+    // given: узел "a" в кластере с "b", зрители смотрят по партии каждого владельца
+    ClusterBus bus = mock(ClusterBus.class);
+    GameOwnership ownership = clusterNode(bus);
+    long own = gameOwnedBy(ownership, "a");
+    long remote = gameOwnedBy(ownership, "b");
+    timers.put(own, new GameTimerImpl(own, 60_000, 60_000, 0, (gameId, side) -> { }));
+    timers.put(100L, new GameTimerImpl(100L, 60_000, 60_000, 0, (gameId, side) -> { }));
+    subscribe("/topic/game/" + own);
+    subscribe("/topic/game/" + remote);
+
+    // when
+    new ClockBroadcaster(chessGameService, messagingTemplate, userRegistry, ownership, 1000).tick();
+
+    // then: владельцу чужой партии - ее номер, кадры - только своей просматриваемой партии
+    verify(bus).send("a", "b", new ClusterMessage.WatchedGames("a", Set.of(remote), true));
+    verify(messagingTemplate).convertAndSend(eq("/topic/game/" + own), any(TimeSyncFrame.class));
+    verifyNoMoreInteractions(messagingTemplate);
+  }
+
+  @Test
+  void ownerSendsFramesForRemoteInterest() {
+    // given: у владельца своих зрителей нет, на партию подписаны клиенты узла "b"
+    GameOwnership ownership = clusterNode(mock(ClusterBus.class));
+    long own = gameOwnedBy(ownership, "a");
+    timers.put(own, new GameTimerImpl(own, 60_000, 60_000, 0, (gameId, side) -> { }));
+    ClockBroadcaster owner = new ClockBroadcaster(chessGameService, messagingTemplate, userRegistry, ownership, 1000);
+    owner.onWatchedGames(new ClusterMessage.WatchedGames("b", Set.of(own), false));
+
+    // when
+    owner.tick();
+
+    // then
+    verify(messagingTemplate).convertAndSend(eq("/topic/game/" + own), any(TimeSyncFrame.class));
+  }
+
+  @Test
+  void completeInterestReplacesPrevious() {
+    // given: узел "b" перестал смотреть партию
+    GameOwnership ownership = clusterNode(mock(ClusterBus.class));
+    long own = gameOwnedBy(ownership, "a");
+    timers.put(own, new GameTimerImpl(own, 60_000, 60_000, 0, (gameId, side) -> { }));
+    ClockBroadcaster owner = new ClockBroadcaster(chessGameService, messagingTemplate, userRegistry, ownership, 1000);
+    owner.onWatchedGames(new ClusterMessage.WatchedGames("b", Set.of(own), false));
+    owner.onWatchedGames(new ClusterMessage.WatchedGames("b", Set.of(), true));
+
+    // when
+    owner.tick();
+
+    // then
+    verifyNoInteractions(messagingTemplate);
+  }
+
+  private static GameOwnership clusterNode(ClusterBus bus) {
+    when(bus.join(eq("a"), any())).thenReturn(Set.of("a", "b"));
+    GameOwnership ownership = new GameOwnership(bus, event -> { }, true, "a", 16);
+    ownership.start();
+    return ownership;
+  }
+
+  private static long gameOwnedBy(GameOwnership ownership, String node) {
+    long gameId = 1;
+    while (!ownership.ownerOf(gameId).equals(node)) {
+      gameId++;
+    }
+    return gameId;
+  }
+
+  private void subscribe(String destination) {
+    SimpSubscription subscription = mock(SimpSubscription.class);
+    when(subscription.getDestination()).thenReturn(destination);
+    subscriptions.add(subscription);
+  }
+}
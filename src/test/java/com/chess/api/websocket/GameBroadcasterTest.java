@@ -0,0 +1,81 @@
+package com.chess.api.websocket;
+
+import com.chess.api.dto.GameStateUpdate;
+import com.chess.api.model.Game;
+import com.chess.api.model.Move;
+import com.chess.api.model.enums.GameStatus;
+import com.chess.api.service.GameService;
+import com.chess.api.service.live.LatencyTracker;
+import com.chess.api.service.metrics.GameMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class GameBroadcasterTest {
+
+  private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+  private final GameBroadcaster broadcaster = new GameBroadcaster(messagingTemplate, new LatencyTracker(0.2, 500),
+      new GameMetrics(new SimpleMeterRegistry(), false), mock(GameService.class));
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void moveIsBroadcastOnlyAfterCommit() {
+    // given: идет транзакция хода
+    TransactionSynchronizationManager.initSynchronization();
+
+    // when
+    broadcaster.moveMade(game(), List.of(new Move()));
+
+    // then: до фиксации ничего не ушло, после - ход
+    verifyNoInteractions(messagingTemplate);
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    verify(messagingTemplate).convertAndSend(eq("/topic/game/3"), any(GameStateUpdate.class));
+  }
+
+  @Test
+  void rolledBackMoveIsNeverBroadcast() {
+    // given
+    TransactionSynchronizationManager.initSynchronization();
+    broadcaster.moveMade(game(), List.of(new Move()));
+
+    // when: транзакция проиграла гонку за версию партии
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    // then
+    verifyNoInteractions(messagingTemplate);
+  }
+
+  @Test
+  void sendsImmediatelyOutsideTransaction() {
+    // given / when
+    broadcaster.send(3L, "payload");
+
+    // then
+    verify(messagingTemplate).convertAndSend("/topic/game/3", (Object) "payload");
+  }
+
+  private static Game game() {
+    Game game = new Game();
+    game.setId(3L);
+    game.setStatus(GameStatus.ACTIVE);
+    return game;
+  }
+}